@@ -3,11 +3,19 @@
  */
 package edu.ncsu.csc216.incident_management.model.command;
 
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * The object representation of a command that a user would make in the Incident Management system that might initiate a state change.
  * Encapsulates the information about a user command that would lead to a transition. Contains four inner enumeration:
  * CommandValue, OnHoldReason, CancellationCode, and ResolutionCode
  * 
+ * Commands are immutable, so one Command can be given to any number of incidents. 
+ * valueOf() returns a shared instance for commands without an owner that are issued 
+ * repeatedly, and Builder builds and validates a command once for reuse. Commands issued once, such as 
+ * those carrying a free-text note typed by a user, should be made with the constructor.
+ * 
  * @author Keaton Thurston
  * @author Bilal Mohamad
  */
@@ -34,23 +42,29 @@ public class Command {
 	/** String used to indicate the cancellation code for an incident in the Cancelled state */
 	public static final String CC_NOT_AN_INCIDENT = "Not an Incident";
 	
+	/** Number of distinct commands valueOf() shares before it stops adding to the cache */
+	private static final int MAX_CACHED_COMMANDS = 1024;
+	
+	/** Shared commands returned by valueOf(), by their fields */
+	private static final ConcurrentHashMap<CommandKey, Command> CACHE = new ConcurrentHashMap<CommandKey, Command>();
+	
 	/** String containing the owner id */
-	private String ownerId;
+	private final String ownerId;
 	
 	/** String containing the custom note entered by the user */
-	private String note;
+	private final String note;
 	
 	/** Represents one of the six possible commands that a user can make for the Incident Management FSM. */
-	private CommandValue c;
+	private final CommandValue c;
 	
 	/** Represents the three possible cancellation codes. */
-	private CancellationCode cancellationCode;
+	private final CancellationCode cancellationCode;
 	
 	/** Represents the four possible cancellation codes. */
-	private ResolutionCode resolutionCode;
+	private final ResolutionCode resolutionCode;
 	
 	/** Represents the three possible on hold codes.*/
-	private OnHoldReason onHoldReason;
+	private final OnHoldReason onHoldReason;
 	
 	
 	/**
@@ -105,6 +119,44 @@ public class Command {
 	}
 	
 	
+	/**
+	 * Returns a Command with the given fields. Commands without an owner are returned from 
+	 * a cache without being created or validated again, so automation that issues the same 
+	 * command many times shares one instance. Reading the cache takes no lock. Commands with 
+	 * an owner are made for one user and are always created. Once MAX_CACHED_COMMANDS 
+	 * commands are cached, no more are added, so commands issued once cannot push out the 
+	 * shared ones; later commands are created each time.
+	 * 
+	 * @param c					Represents one of the six possible commands that a user can make for the Incident Management FSM.
+	 * @param ownerId			The id of the owner
+	 * @param onHoldReason		The reason the incident is on hold
+	 * @param resolutionCode	The resolution code for the incident
+	 * @param cancellationCode	The cancellation code for the incident
+	 * @param note				The note the user added about the incident
+	 * @return a Command with the given fields
+	 * 
+	 * @throws IllegalArgumentException	for the same arguments as the constructor
+	 */
+	public static Command valueOf(CommandValue c, String ownerId, OnHoldReason onHoldReason, ResolutionCode resolutionCode, CancellationCode cancellationCode, String note) {
+		if (ownerId != null) {
+			return new Command(c, ownerId, onHoldReason, resolutionCode, cancellationCode, note);
+		}
+		
+		CommandKey key = new CommandKey(c, onHoldReason, resolutionCode, cancellationCode, note);
+		Command command = CACHE.get(key);
+		if (command != null) {
+			return command;
+		}
+		
+		command = new Command(c, null, onHoldReason, resolutionCode, cancellationCode, note);
+		if (CACHE.size() >= MAX_CACHED_COMMANDS) {
+			return command;
+		}
+		Command previous = CACHE.putIfAbsent(key, command);
+		return previous == null ? command : previous;
+	}
+	
+	
 	/**
 	 * Retrieves the command's command value
 	 * 
@@ -165,6 +217,211 @@ public class Command {
 	}
 	
 	
+	/**
+	 * Builds a Command one field at a time. The Command is validated when it is first built 
+	 * and the same instance is returned by later calls to build() until a field is changed, 
+	 * so a job can keep one builder and reuse its command for every incident it updates.
+	 * 
+	 * @author Keaton Thurston
+	 * @author Bilal Mohamad
+	 */
+	public static class Builder {
+		
+		/** The command value of the command being built */
+		private final CommandValue c;
+		
+		/** The owner id of the command being built */
+		private String ownerId;
+		
+		/** The on hold reason of the command being built */
+		private OnHoldReason onHoldReason;
+		
+		/** The resolution code of the command being built */
+		private ResolutionCode resolutionCode;
+		
+		/** The cancellation code of the command being built */
+		private CancellationCode cancellationCode;
+		
+		/** The work note of the command being built */
+		private String note;
+		
+		/** The last command built, or null if a field was changed since */
+		private Command built;
+		
+		
+		/**
+		 * Constructs a Builder for a command with the given command value
+		 * 
+		 * @param c		the command value of the command
+		 */
+		public Builder(CommandValue c) {
+			this.c = c;
+		}
+		
+		
+		/**
+		 * Sets the owner id of the command
+		 * 
+		 * @param ownerId	the id of the owner
+		 * @return this builder
+		 */
+		public Builder ownerId(String ownerId) {
+			this.ownerId = ownerId;
+			built = null;
+			return this;
+		}
+		
+		
+		/**
+		 * Sets the on hold reason of the command
+		 * 
+		 * @param onHoldReason	the reason the incident is on hold
+		 * @return this builder
+		 */
+		public Builder onHoldReason(OnHoldReason onHoldReason) {
+			this.onHoldReason = onHoldReason;
+			built = null;
+			return this;
+		}
+		
+		
+		/**
+		 * Sets the resolution code of the command
+		 * 
+		 * @param resolutionCode	the resolution code for the incident
+		 * @return this builder
+		 */
+		public Builder resolutionCode(ResolutionCode resolutionCode) {
+			this.resolutionCode = resolutionCode;
+			built = null;
+			return this;
+		}
+		
+		
+		/**
+		 * Sets the cancellation code of the command
+		 * 
+		 * @param cancellationCode	the cancellation code for the incident
+		 * @return this builder
+		 */
+		public Builder cancellationCode(CancellationCode cancellationCode) {
+			this.cancellationCode = cancellationCode;
+			built = null;
+			return this;
+		}
+		
+		
+		/**
+		 * Sets the work note of the command
+		 * 
+		 * @param note	the note about the incident
+		 * @return this builder
+		 */
+		public Builder note(String note) {
+			this.note = note;
+			built = null;
+			return this;
+		}
+		
+		
+		/**
+		 * Builds the command
+		 * 
+		 * @return the command with the fields set on this builder
+		 * @throws IllegalArgumentException	for the same fields as the Command constructor
+		 */
+		public Command build() {
+			if (built == null) {
+				built = new Command(c, ownerId, onHoldReason, resolutionCode, cancellationCode, note);
+			}
+			return built;
+		}
+	}
+	
+	
+	/**
+	 * The fields of a command without an owner, used as the key of the valueOf() cache.
+	 * 
+	 * @author Keaton Thurston
+	 * @author Bilal Mohamad
+	 */
+	private static final class CommandKey {
+		
+		/** The command value */
+		private final CommandValue c;
+		
+		/** The on hold reason */
+		private final OnHoldReason onHoldReason;
+		
+		/** The resolution code */
+		private final ResolutionCode resolutionCode;
+		
+		/** The cancellation code */
+		private final CancellationCode cancellationCode;
+		
+		/** The work note */
+		private final String note;
+		
+		/** Hash code of the fields */
+		private final int hash;
+		
+		
+		/**
+		 * Constructs a CommandKey from the fields of a command
+		 * 
+		 * @param c					the command value
+		 * @param onHoldReason		the on hold reason
+		 * @param resolutionCode	the resolution code
+		 * @param cancellationCode	the cancellation code
+		 * @param note				the work note
+		 */
+		private CommandKey(CommandValue c, OnHoldReason onHoldReason, ResolutionCode resolutionCode, CancellationCode cancellationCode, String note) {
+			this.c = c;
+			this.onHoldReason = onHoldReason;
+			this.resolutionCode = resolutionCode;
+			this.cancellationCode = cancellationCode;
+			this.note = note;
+			int h = Objects.hashCode(c);
+			h = 31 * h + Objects.hashCode(onHoldReason);
+			h = 31 * h + Objects.hashCode(resolutionCode);
+			h = 31 * h + Objects.hashCode(cancellationCode);
+			this.hash = 31 * h + Objects.hashCode(note);
+		}
+		
+		
+		/**
+		 * Returns the hash code of the fields
+		 * 
+		 * @return the hash code
+		 */
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+		
+		
+		/**
+		 * Checks whether the given object is a CommandKey with the same fields
+		 * 
+		 * @param obj	the object to compare to
+		 * @return true if the keys have the same fields
+		 */
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof CommandKey)) {
+				return false;
+			}
+			CommandKey other = (CommandKey) obj;
+			return hash == other.hash && c == other.c && onHoldReason == other.onHoldReason 
+					&& resolutionCode == other.resolutionCode && cancellationCode == other.cancellationCode 
+					&& Objects.equals(note, other.note);
+		}
+	}
+	
+	
 	/** An enumeration contained in the Command class. Contains six possible commands that a user can make for the Incident Management FSM. */
 	public enum CommandValue { INVESTIGATE, HOLD, RESOLVE, CONFIRM, REOPEN, CANCEL }
 
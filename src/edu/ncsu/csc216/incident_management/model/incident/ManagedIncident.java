@@ -4,6 +4,8 @@
 package edu.ncsu.csc216.incident_management.model.incident;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import edu.ncsu.csc216.incident.xml.Incident;
 import edu.ncsu.csc216.incident.xml.WorkNotes;
@@ -12,6 +14,8 @@ import edu.ncsu.csc216.incident_management.model.command.Command.CancellationCod
 import edu.ncsu.csc216.incident_management.model.command.Command.CommandValue;
 import edu.ncsu.csc216.incident_management.model.command.Command.OnHoldReason;
 import edu.ncsu.csc216.incident_management.model.command.Command.ResolutionCode;
+import edu.ncsu.csc216.incident_management.model.metrics.IncidentEvent.EventType;
+import edu.ncsu.csc216.incident_management.model.metrics.IncidentEventRecorder;
 
 /**
  * Concrete class representing the State Pattern context class.
@@ -83,15 +87,18 @@ public class ManagedIncident {
 	/** Used to retrieve methods from the IncidentState interface for the Canceled state */
 	private final IncidentState canceledState;
 	
+	/** Index of the current state, one of the *_INDEX constants */
+	private int stateIndex;
+	
 	
 	/** Used to represent the id number of the incident */
 	private int incidentId;
 	
-	/** User id of person who reported the incident */
-	private String caller;
+	/** UserIdTable reference of the user id of the person who reported the incident */
+	private int callerRef;
 	
-	/** User id of the incident owner */
-	private String owner;
+	/** UserIdTable reference of the user id of the incident owner, or UserIdTable.NO_USER */
+	private int ownerRef;
 	
 	/** Incidents name information from when the incident is created */
 	private String name;
@@ -99,8 +106,20 @@ public class ManagedIncident {
 	/** Change request information for the incident */
 	private String changeRequest;
 	
-	/** An ArrayList of notes */
-	private ArrayList<String> notes;
+	/** Append-only log holding the text of the work notes */
+	private NoteLog noteLog;
+	
+	/** References into the note log for each work note, in the order they were added */
+	private long[] noteRefs;
+	
+	/** Number of work notes the incident has */
+	private int noteCount;
+	
+	/** Cached result of getNotesString(), or null if a note was added since it was built */
+	private String notesString;
+	
+	/** History of the state transitions of the incident */
+	private TransitionLog transitionLog;
 	
 	
 	/** A String used to represent the name of the state of the incident */
@@ -117,6 +136,64 @@ public class ManagedIncident {
 	public static final String CANCELED_NAME = "Canceled";
 	
 	
+	/** Index of the New state */
+	public static final int NEW_INDEX = 0;
+	/** Index of the InProgress state */
+	public static final int IN_PROGRESS_INDEX = 1;
+	/** Index of the OnHold state */
+	public static final int ON_HOLD_INDEX = 2;
+	/** Index of the Resolved state */
+	public static final int RESOLVED_INDEX = 3;
+	/** Index of the Closed state */
+	public static final int CLOSED_INDEX = 4;
+	/** Index of the Canceled state */
+	public static final int CANCELED_INDEX = 5;
+	/** Number of states an incident can be in */
+	public static final int STATE_COUNT = 6;
+	
+	
+	/** Entry of the transition table for a command that is not valid in a state */
+	private static final int NO_TRANSITION = -1;
+	
+	/** 
+	 * Transition table indexed by the current state index and the CommandValue ordinal, 
+	 * giving the index of the state the command moves the incident to, or NO_TRANSITION 
+	 */
+	private static final int[][] TRANSITIONS = new int[STATE_COUNT][CommandValue.values().length];
+	
+	static {
+		for (int i = 0; i < STATE_COUNT; i++) {
+			Arrays.fill(TRANSITIONS[i], NO_TRANSITION);
+		}
+		
+		TRANSITIONS[NEW_INDEX][CommandValue.INVESTIGATE.ordinal()] = IN_PROGRESS_INDEX;
+		TRANSITIONS[NEW_INDEX][CommandValue.CANCEL.ordinal()] = CANCELED_INDEX;
+		
+		TRANSITIONS[IN_PROGRESS_INDEX][CommandValue.HOLD.ordinal()] = ON_HOLD_INDEX;
+		TRANSITIONS[IN_PROGRESS_INDEX][CommandValue.RESOLVE.ordinal()] = RESOLVED_INDEX;
+		TRANSITIONS[IN_PROGRESS_INDEX][CommandValue.CANCEL.ordinal()] = CANCELED_INDEX;
+		
+		TRANSITIONS[ON_HOLD_INDEX][CommandValue.REOPEN.ordinal()] = IN_PROGRESS_INDEX;
+		TRANSITIONS[ON_HOLD_INDEX][CommandValue.RESOLVE.ordinal()] = RESOLVED_INDEX;
+		TRANSITIONS[ON_HOLD_INDEX][CommandValue.CANCEL.ordinal()] = CANCELED_INDEX;
+		
+		TRANSITIONS[RESOLVED_INDEX][CommandValue.CONFIRM.ordinal()] = CLOSED_INDEX;
+		TRANSITIONS[RESOLVED_INDEX][CommandValue.CANCEL.ordinal()] = CANCELED_INDEX;
+		TRANSITIONS[RESOLVED_INDEX][CommandValue.HOLD.ordinal()] = ON_HOLD_INDEX;
+		TRANSITIONS[RESOLVED_INDEX][CommandValue.REOPEN.ordinal()] = IN_PROGRESS_INDEX;
+		
+		TRANSITIONS[CLOSED_INDEX][CommandValue.REOPEN.ordinal()] = IN_PROGRESS_INDEX;
+	}
+	
+	
+	/** Separator printed after each work note by getNotesString() */
+	public static final String NOTE_SEPARATOR = "\n-------\n";
+	
+	
+	/** Number of work note references an incident has room for before growing */
+	private static final int INITIAL_NOTE_CAPACITY = 4;
+	
+	
 	/** A static field that keeps track of the id value that should be given to the next ManagedIncident created */
 	private static int counter = 0;
 	
@@ -138,6 +215,61 @@ public class ManagedIncident {
 	 * 									if workNote is empty or null
 	 */
 	public ManagedIncident(String caller, Category category, Priority priority, String name, String workNote) {
+		this(caller, category, priority, name, workNote, new NoteLog());
+	}
+	
+	
+	/**
+	 * Constructor used to create a ManagedIncident object based on the entered parameters
+	 * whose work notes are kept in the given note log.
+	 * If any of the parameters are null or empty strings (if a String type), then an IllegalArgumentException is thrown
+	 * 
+	 * @param caller	the user id of the person who reported the incident
+	 * @param category	the category of the incident
+	 * @param priority	the priority of the incident
+	 * @param name		the name information of the incident
+	 * @param workNote	the work note of the incident	
+	 * @param noteLog	the log the work notes are appended to
+	 * 
+	 * @throws IllegalArgumentException	if caller is empty or null
+	 * 									if category is null
+	 * 									if priority is null
+	 * 									if name is empty or null
+	 * 									if workNote is empty or null
+	 * 									if noteLog is null
+	 */
+	public ManagedIncident(String caller, Category category, Priority priority, String name, String workNote, NoteLog noteLog) {
+		this(counter, caller, category, priority, name, workNote, noteLog);
+		incrementCounter();
+	}
+	
+	
+	/**
+	 * Constructor used to create a ManagedIncident object with an id given by its owner, such 
+	 * as a ManagedIncidentList with its own id allocator, rather than by the shared counter.
+	 * If any of the parameters are null or empty strings (if a String type), then an IllegalArgumentException is thrown
+	 * 
+	 * @param id		the id of the incident
+	 * @param caller	the user id of the person who reported the incident
+	 * @param category	the category of the incident
+	 * @param priority	the priority of the incident
+	 * @param name		the name information of the incident
+	 * @param workNote	the work note of the incident	
+	 * @param noteLog	the log the work notes are appended to
+	 * 
+	 * @throws IllegalArgumentException	if id is negative
+	 * 									if caller is empty or null
+	 * 									if category is null
+	 * 									if priority is null
+	 * 									if name is empty or null
+	 * 									if workNote is empty or null
+	 * 									if noteLog is null
+	 */
+	public ManagedIncident(int id, String caller, Category category, Priority priority, String name, String workNote, NoteLog noteLog) {
+		
+		if (id < 0 || noteLog == null) {
+			throw new IllegalArgumentException();
+		}
 		
 		if (caller == null || caller.equals("")) {
 			throw new IllegalArgumentException();
@@ -159,16 +291,17 @@ public class ManagedIncident {
 			throw new IllegalArgumentException();
 		}
 	
-		incidentId = counter;
-		incrementCounter();
+		incidentId = id;
 		
 		
-		this.caller = caller;
+		callerRef = UserIdTable.getInstance().getRef(caller);
+		ownerRef = UserIdTable.NO_USER;
 		this.category = category;
 		this.priority = priority;
 		this.name = name;
-		notes = new ArrayList<String>();
-		notes.add(workNote);
+		this.noteLog = noteLog;
+		noteRefs = new long[INITIAL_NOTE_CAPACITY];
+		addNote(workNote);
 		
 		onHoldReason = null;
 		resolutionCode = null;
@@ -180,7 +313,9 @@ public class ManagedIncident {
 		closedState = new ClosedState();
 		inProgressState = new InProgressState();
 		canceledState = new CanceledState();
-		state = newState;
+		setStateIndex(NEW_INDEX);
+		transitionLog = new TransitionLog();
+		transitionLog.record(NEW_INDEX, null, System.currentTimeMillis(), ownerRef);
 		
 //		owner = null;
 //		changeRequest = null;
@@ -198,16 +333,40 @@ public class ManagedIncident {
 	 * @param i		the incident used to create the ManagedIncident
 	 */
 	public ManagedIncident(Incident i) {
+		this(i, new NoteLog());
+	}
+	
+	
+	/**
+	 * Constructor used to create a ManagedIncident object based on the values from the incident
+	 * whose work notes are kept in the given note log.
+	 * The fields of the ManagedIncident are set to the values from the Incident.
+	 * 
+	 * @param i			the incident used to create the ManagedIncident
+	 * @param noteLog	the log the work notes are appended to
+	 * 
+	 * @throws IllegalArgumentException if noteLog is null
+	 */
+	public ManagedIncident(Incident i, NoteLog noteLog) {
+		
+		if (noteLog == null) {
+			throw new IllegalArgumentException();
+		}
 		
-		caller = i.getCaller(); 
+		callerRef = UserIdTable.getInstance().getRef(i.getCaller()); 
 		setCategory(i.getCategory());
 		setPriority(i.getPriority());
 		name = i.getName();
-		notes = new ArrayList<String>();
-		notes.addAll(i.getWorkNotes().getNotes());
+		this.noteLog = noteLog;
+		List<String> xmlNotes = i.getWorkNotes().getNotes();
+		noteRefs = new long[Math.max(INITIAL_NOTE_CAPACITY, xmlNotes.size())];
+		for (int j = 0; j < xmlNotes.size(); j++) {
+			addNote(xmlNotes.get(j));
+		}
 		
-		owner = i.getOwner();
+		ownerRef = UserIdTable.getInstance().getRef(i.getOwner());
 		incidentId = i.getId();
+		transitionLog = new TransitionLog();
 		
 		onHoldState = new OnHoldState();
 		resolvedState = new ResolvedState();
@@ -364,6 +523,16 @@ public class ManagedIncident {
 	}
 	
 
+	/**
+	 * Retrieves the priority of the incident
+	 * 
+	 * @return the priority
+	 */
+	public Priority getPriority() {
+		return priority;
+	}
+
+
 	/**
 	 * Retrieves the priority String depending on the priority
 	 * 
@@ -422,6 +591,16 @@ public class ManagedIncident {
 	}
 
 
+	/**
+	 * Retrieves the onHoldReason of the incident
+	 * 
+	 * @return the onHoldReason, or null if the incident is not on hold
+	 */
+	public OnHoldReason getOnHoldReason() {
+		return onHoldReason;
+	}
+
+
 	/**
 	 * Retrieves the onHoldReason String depending on the onHoldReason
 	 * 
@@ -478,6 +657,16 @@ public class ManagedIncident {
 	}
 
 
+	/**
+	 * Retrieves the cancellationCode of the incident
+	 * 
+	 * @return the cancellationCode, or null if the incident is not canceled
+	 */
+	public CancellationCode getCancellationCode() {
+		return cancellationCode;
+	}
+
+
 	/**
 	 * Retrieves the cancellationCode String depending on the cancellationCode
 	 * 
@@ -551,33 +740,100 @@ public class ManagedIncident {
 	 */
 	private void setState(String state) {
 		if (state.equals(NEW_NAME)) {
-			this.state = newState;
+			setStateIndex(NEW_INDEX);
 		}
 		
 		else if (state.equals(IN_PROGRESS_NAME)) {
-			this.state = inProgressState;
+			setStateIndex(IN_PROGRESS_INDEX);
 		}
 		
 		else if (state.equals(ON_HOLD_NAME)) {
-			this.state = onHoldState;
+			setStateIndex(ON_HOLD_INDEX);
 		}
 		
 		else if (state.equals(RESOLVED_NAME)) {
-			this.state = resolvedState;
+			setStateIndex(RESOLVED_INDEX);
 		}
 		
 		else if (state.equals(CLOSED_NAME)) {
-			this.state = closedState;
+			setStateIndex(CLOSED_INDEX);
 		}
 		
 		else if (state.equals(CANCELED_NAME)) {
-			this.state = canceledState;
+			setStateIndex(CANCELED_INDEX);
 		}
 		
 		else {
 			throw new IllegalArgumentException("Could not convert string to state");
 		}
 	}
+	
+	
+	/**
+	 * Retrieves the index of the state of the incident
+	 * 
+	 * @return the index of the current state, one of the *_INDEX constants
+	 */
+	public int getStateIndex() {
+		return stateIndex;
+	}
+	
+	
+	/**
+	 * Changes the state of the incident to the state with the given index
+	 * 
+	 * @param index	the index of the state to set the current state to
+	 */
+	private void setStateIndex(int index) {
+		stateIndex = index;
+		switch (index) {
+		case NEW_INDEX:
+			state = newState;
+			break;
+		case IN_PROGRESS_INDEX:
+			state = inProgressState;
+			break;
+		case ON_HOLD_INDEX:
+			state = onHoldState;
+			break;
+		case RESOLVED_INDEX:
+			state = resolvedState;
+			break;
+		case CLOSED_INDEX:
+			state = closedState;
+			break;
+		default:
+			state = canceledState;
+		}
+	}
+	
+	
+	/**
+	 * Checks whether a command is a valid action for the incident in its current state
+	 * 
+	 * @param command	the command value to check
+	 * @return true if the command can be applied to the incident
+	 */
+	public boolean canApply(CommandValue command) {
+		return command != null && TRANSITIONS[stateIndex][command.ordinal()] != NO_TRANSITION;
+	}
+	
+	
+	/**
+	 * Looks up the transition for a command in the state with the given index
+	 * 
+	 * @param index		the index of the state
+	 * @param command	the command to look up
+	 * @return the index of the state the command moves the incident to
+	 * @throws UnsupportedOperationException if the command is not a valid action for the state
+	 */
+	private static int checkTransition(int index, Command command) {
+		int target = TRANSITIONS[index][command.getCommand().ordinal()];
+		if (target == NO_TRANSITION) {
+			throw new UnsupportedOperationException();
+		}
+		return target;
+	}
 
 
 	/**
@@ -662,7 +918,17 @@ public class ManagedIncident {
 	 * @return user id of the incident owner 
 	 */
 	public String getOwner() {
-		return owner;
+		return UserIdTable.getInstance().getUserId(ownerRef);
+	}
+	
+	
+	/**
+	 * Retrieves the UserIdTable reference of the owner of the incident
+	 * 
+	 * @return reference of the owner's user id, or UserIdTable.NO_USER if there is no owner
+	 */
+	public int getOwnerRef() {
+		return ownerRef;
 	}
 
 
@@ -682,32 +948,100 @@ public class ManagedIncident {
 	 * @return the caller of the incident
 	 */
 	public String getCaller() {
-		return caller;
+		return UserIdTable.getInstance().getUserId(callerRef);
+	}
+	
+	
+	/**
+	 * Retrieves the UserIdTable reference of the caller of the incident
+	 * 
+	 * @return reference of the caller's user id
+	 */
+	public int getCallerRef() {
+		return callerRef;
 	}
 
 
 	/**
-	 * Retrieves the ArrayList of work notes of the incident
+	 * Retrieves the ArrayList of work notes of the incident. The notes are read from the
+	 * note log each time this method is called, so changes to the returned list are not
+	 * reflected in the incident.
 	 * 
 	 * @return the ArrayList of work notes
 	 */
 	public ArrayList<String> getNotes() {
+		ArrayList<String> notes = new ArrayList<String>(noteCount);
+		for (int i = 0; i < noteCount; i++) {
+			notes.add(noteLog.read(noteRefs[i]));
+		}
 		return notes;
 	}
 	
 	
 	/**
-	 * Converts the work notes into a String
+	 * Retrieves the number of work notes of the incident without reading them from the note log
+	 * 
+	 * @return the number of work notes
+	 */
+	public int getNoteCount() {
+		return noteCount;
+	}
+	
+	
+	/**
+	 * Converts the work notes into a String. The String is cached until the next 
+	 * work note is added.
 	 * 
 	 * @return a string of the work notes
 	 */
 	public String getNotesString() {
-		String s = "";
-		for (int i = 0; i < notes.size(); i++) {
-			s += notes.get(i) + "\n-------\n";
+		if (notesString == null) {
+			notesString = getNotesString(0);
 		}
 		
-		return s;
+		return notesString;
+	}
+	
+	
+	/**
+	 * Converts the work notes starting at the given index into a String, so a view that
+	 * already shows the earlier notes only has to append the new ones.
+	 * 
+	 * @param fromNote	index of the first work note to include
+	 * @return a string of the work notes from the given index on
+	 * 
+	 * @throws IllegalArgumentException if fromNote is negative or greater than the number of notes
+	 */
+	public String getNotesString(int fromNote) {
+		if (fromNote < 0 || fromNote > noteCount) {
+			throw new IllegalArgumentException();
+		}
+		
+		if (fromNote == 0 && notesString != null) {
+			return notesString;
+		}
+		
+		StringBuilder sb = new StringBuilder();
+		for (int i = fromNote; i < noteCount; i++) {
+			noteLog.appendTo(noteRefs[i], sb);
+			sb.append(NOTE_SEPARATOR);
+		}
+		
+		return sb.toString();
+	}
+	
+	
+	/**
+	 * Appends a work note to the note log and records its reference
+	 * 
+	 * @param note	the work note to add
+	 */
+	private void addNote(String note) {
+		if (noteCount == noteRefs.length) {
+			noteRefs = Arrays.copyOf(noteRefs, noteRefs.length * 2);
+		}
+		noteRefs[noteCount++] = noteLog.append(note);
+		notesString = null;
 	}
 	
 	
@@ -717,26 +1051,60 @@ public class ManagedIncident {
 	 * @param c		the command being used to delegate the current state to
 	 */
 	public void update(Command c) {
-		state.updateState(c);
+		applyTransition(checkTransition(stateIndex, c), c);
+	}
+	
+	
+	/**
+	 * Updates the incident with the given command if the command is a valid action for the 
+	 * current state, without throwing an exception when it is not. Callers that probe many 
+	 * incidents should use this method rather than catching the UnsupportedOperationException 
+	 * thrown by update().
+	 * 
+	 * @param c		the command to apply
+	 * @return APPLIED if the incident was updated, or INVALID_TRANSITION if the command is null 
+	 * 			or not a valid action for the current state
+	 */
+	public UpdateResult tryUpdate(Command c) {
+		if (c == null) {
+			return UpdateResult.INVALID_TRANSITION;
+		}
+		
+		int target = TRANSITIONS[stateIndex][c.getCommand().ordinal()];
+		if (target == NO_TRANSITION) {
+			return UpdateResult.INVALID_TRANSITION;
+		}
 		
+		applyTransition(target, c);
+		return UpdateResult.APPLIED;
+	}
+	
+	
+	/**
+	 * Moves the incident to the state with the given index and records the fields and work 
+	 * note of the command that caused the transition
+	 * 
+	 * @param target	the index of the state the command moves the incident to
+	 * @param c			the command causing the transition
+	 */
+	private void applyTransition(int target, Command c) {
+		IncidentEventRecorder recorder = IncidentEventRecorder.getInstance();
+		long start = recorder.begin(EventType.TRANSITION);
 		switch (c.getCommand()) {
 		case INVESTIGATE:
-			state = inProgressState;
-			owner = c.getOwnerId();
-			notes.add(c.getWorkNote());
+			ownerRef = UserIdTable.getInstance().getRef(c.getOwnerId());
+			addNote(c.getWorkNote());
 			break;
 			
 		case HOLD:
-			state = onHoldState;
 			onHoldReason = c.getOnHoldReason();
-			notes.add(c.getWorkNote());
-			resolutionCode = null;
+			addNote(c.getWorkNote());
+			resolutionCode = null;
 			break;
 			
 		case RESOLVE:
-			state = resolvedState;
 			resolutionCode = c.getResolutionCode();
-			notes.add(c.getWorkNote());
+			addNote(c.getWorkNote());
 			
 			if (onHoldReason == OnHoldReason.AWAITING_CHANGE) {
 				changeRequest = c.getWorkNote();
@@ -746,13 +1114,11 @@ public class ManagedIncident {
 			break;
 		
 		case CONFIRM:
-			state = closedState;
-			notes.add(c.getWorkNote());
+			addNote(c.getWorkNote());
 			break;
 			
 		case REOPEN:						
-			state = inProgressState;
-			notes.add(c.getWorkNote());
+			addNote(c.getWorkNote());
 			
 			if (onHoldReason == OnHoldReason.AWAITING_CHANGE) {
 				changeRequest = c.getWorkNote();
@@ -764,15 +1130,82 @@ public class ManagedIncident {
 			break;
 			
 		case CANCEL:
-			state = canceledState;
 			cancellationCode = c.getCancellationCode();
-			notes.add(c.getWorkNote());
+			addNote(c.getWorkNote());
 			resolutionCode = null;
 			onHoldReason = null;
 			break;
 		
 		default:
 		}
+		
+		setStateIndex(target);
+		transitionLog.record(target, c.getCommand(), System.currentTimeMillis(), ownerRef);
+		recorder.commit(EventType.TRANSITION, start, 1, c.getCommand().name());
+	}
+	
+	
+	/**
+	 * Puts the incident back to earlier values of the fields a command changes, such as to 
+	 * undo the command. The work notes and transitions added since are dropped; the text of 
+	 * the dropped notes stays in the append-only note log.
+	 * 
+	 * @param index				the index of the state to go back to
+	 * @param ownerRef			UserIdTable reference of the owner, or UserIdTable.NO_USER
+	 * @param onHoldReason		the on hold reason, may be null
+	 * @param resolutionCode	the resolution code, may be null
+	 * @param cancellationCode	the cancellation code, may be null
+	 * @param changeRequest		the change request, may be null
+	 * @param notes				number of work notes to keep
+	 * @param transitions		number of transitions to keep in the transition log
+	 * 
+	 * @throws IllegalArgumentException if index is not the index of a state or notes is less 
+	 * 			than 1 or greater than the number of work notes
+	 */
+	public void revert(int index, int ownerRef, OnHoldReason onHoldReason, ResolutionCode resolutionCode, 
+			CancellationCode cancellationCode, String changeRequest, int notes, int transitions) {
+		if (index < 0 || index >= STATE_COUNT || notes < 1 || notes > noteCount) {
+			throw new IllegalArgumentException();
+		}
+		
+		this.ownerRef = ownerRef;
+		this.onHoldReason = onHoldReason;
+		this.resolutionCode = resolutionCode;
+		this.cancellationCode = cancellationCode;
+		this.changeRequest = changeRequest;
+		if (notes != noteCount) {
+			noteCount = notes;
+			notesString = null;
+		}
+		setStateIndex(index);
+		//The log may have been replaced by a shorter history loaded from a file
+		transitionLog.truncate(Math.min(transitions, transitionLog.size()));
+	}
+	
+	
+	/**
+	 * Retrieves the history of the state transitions of the incident. An incident created from 
+	 * an Incident starts with an empty history, as the XML incident format has no timestamps.
+	 * 
+	 * @return the transition log of the incident
+	 */
+	public TransitionLog getTransitionLog() {
+		return transitionLog;
+	}
+	
+	
+	/**
+	 * Replaces the history of the state transitions of the incident, such as with a history 
+	 * loaded from a file
+	 * 
+	 * @param transitionLog	the transition log of the incident
+	 * @throws IllegalArgumentException if transitionLog is null
+	 */
+	public void setTransitionLog(TransitionLog transitionLog) {
+		if (transitionLog == null) {
+			throw new IllegalArgumentException();
+		}
+		this.transitionLog = transitionLog;
 	}
 	
 	
@@ -784,12 +1217,12 @@ public class ManagedIncident {
 	public Incident getXMLIncident() {
 		Incident incident = new Incident();
 		
-		incident.setCaller(caller);
+		incident.setCaller(getCaller());
 		incident.setCategory(getCategoryString());
 		incident.setPriority(getPriorityString());
 		incident.setName(name);
 		
-		incident.setOwner(owner);
+		incident.setOwner(getOwner());
 		incident.setId(incidentId);
 		incident.setChangeRequest(changeRequest);
 		
@@ -801,8 +1234,8 @@ public class ManagedIncident {
 				
 		WorkNotes workNotes = new WorkNotes();
 		
-		for (int i = 0; i < this.getNotes().size(); i++) {
-			workNotes.getNotes().add(getNotes().get(i));
+		for (int i = 0; i < noteCount; i++) {
+			workNotes.getNotes().add(noteLog.read(noteRefs[i]));
 		}
 		
 		incident.setWorkNotes(workNotes);
@@ -817,6 +1250,14 @@ public class ManagedIncident {
 	public static void setCounter(int num) {
 		counter = num;
 	}
+	
+	/**
+	 * Retrieves the id that will be given to the next ManagedIncident created
+	 * @return the value of the counter
+	 */
+	public static int getCounter() {
+		return counter;
+	}
 
 
 	/** An enumeration contained in the ManagedIncident class. Contains five possible categories of incidents. */
@@ -824,6 +1265,9 @@ public class ManagedIncident {
 
 	/** An enumeration contained in the ManagedIncident class. Contains four possible priorities for ManagedIncidents. */
 	public enum Priority { URGENT, HIGH, MEDIUM, LOW }
+	
+	/** An enumeration contained in the ManagedIncident class. Contains the possible results of trying to apply a Command. */
+	public enum UpdateResult { APPLIED, INVALID_TRANSITION, NO_SUCH_INCIDENT }
 
 	
 	/**
@@ -843,9 +1287,7 @@ public class ManagedIncident {
 		 * @throws UnsupportedOperationException if the CommandValue is not a valid action for the given state.
 		 */
 		public void updateState (Command command) {
-			if (command.getCommand() != CommandValue.INVESTIGATE && command.getCommand() != CommandValue.CANCEL) {
-				throw new UnsupportedOperationException();
-			}
+			checkTransition(NEW_INDEX, command);
 		}
 		
 		
@@ -877,11 +1319,7 @@ public class ManagedIncident {
 		 * @throws UnsupportedOperationException if the CommandValue is not a valid action for the given state.
 		 */
 		public void updateState (Command command) {
-			
-			if (command.getCommand() != CommandValue.HOLD && command.getCommand() != CommandValue.RESOLVE &&
-					command.getCommand() != CommandValue.CANCEL) {
-				throw new UnsupportedOperationException();
-			}
+			checkTransition(IN_PROGRESS_INDEX, command);
 		}
 		
 		
@@ -914,11 +1352,7 @@ public class ManagedIncident {
 		 * @throws UnsupportedOperationException if the CommandValue is not a valid action for the given state.
 		 */
 		public void updateState (Command command) {
-			
-			if (command.getCommand() != CommandValue.REOPEN && command.getCommand() != CommandValue.RESOLVE && 
-					command.getCommand() != CommandValue.CANCEL) {
-				throw new UnsupportedOperationException();
-			}
+			checkTransition(ON_HOLD_INDEX, command);
 		}
 		
 		
@@ -951,11 +1385,7 @@ public class ManagedIncident {
 		 * @throws UnsupportedOperationException if the CommandValue is not a valid action for the given state.
 		 */
 		public void updateState (Command command) {
-			
-			if (command.getCommand() != CommandValue.CONFIRM && command.getCommand() != CommandValue.CANCEL &&
-					command.getCommand() != CommandValue.HOLD && command.getCommand() != CommandValue.REOPEN) {
-				throw new UnsupportedOperationException();
-			}
+			checkTransition(RESOLVED_INDEX, command);
 		}
 		
 		
@@ -987,10 +1417,7 @@ public class ManagedIncident {
 		 * @throws UnsupportedOperationException if the CommandValue is not a valid action for the given state.
 		 */
 		public void updateState (Command command) {
-			
-			if (command.getCommand() != CommandValue.REOPEN) {
-				throw new UnsupportedOperationException();
-			}
+			checkTransition(CLOSED_INDEX, command);
 		}
 		
 		
@@ -1022,7 +1449,7 @@ public class ManagedIncident {
 		 * @throws UnsupportedOperationException if the CommandValue is not a valid action for the given state.
 		 */
 		public void updateState (Command command) {
-			throw new UnsupportedOperationException();
+			checkTransition(CANCELED_INDEX, command);
 		}
 		
 		
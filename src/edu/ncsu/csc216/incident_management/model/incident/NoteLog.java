@@ -0,0 +1,123 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.incident_management.model.incident;
+
+/**
+ * An append-only store for incident work notes. Every note is appended to one shared
+ * character log and is afterwards referred to by a reference that encodes its offset and
+ * length in the log. ManagedIncidents only keep these references, so the note text is
+ * read from the log when the notes are asked for instead of being held by every incident.
+ * Notes are never removed from the log; the space is reclaimed when the log itself is
+ * discarded together with the ManagedIncidentList that owns it.
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class NoteLog {
+
+	/** Initial capacity of the log in characters */
+	private static final int INITIAL_CAPACITY = 256;
+
+	/** Number of bits the offset is shifted by in a note reference */
+	private static final int OFFSET_SHIFT = 32;
+
+	/** Mask for the length stored in the low bits of a note reference */
+	private static final long LENGTH_MASK = 0xffffffffL;
+
+	/** The characters of every note appended to the log */
+	private StringBuilder log;
+
+	/** Number of notes appended to the log */
+	private int noteCount;
+
+
+	/**
+	 * Constructs an empty NoteLog.
+	 */
+	public NoteLog() {
+		log = new StringBuilder(INITIAL_CAPACITY);
+		noteCount = 0;
+	}
+
+
+	/**
+	 * Appends a note to the end of the log.
+	 *
+	 * @param note	the note to append
+	 * @return a reference that can be given to read() to retrieve the note
+	 *
+	 * @throws IllegalArgumentException if note is null
+	 */
+	public synchronized long append(String note) {
+		if (note == null) {
+			throw new IllegalArgumentException();
+		}
+
+		long offset = log.length();
+		log.append(note);
+		noteCount++;
+		return (offset << OFFSET_SHIFT) | (note.length() & LENGTH_MASK);
+	}
+
+
+	/**
+	 * Reads the note with the given reference from the log.
+	 *
+	 * @param ref	the reference returned by append()
+	 * @return the note with the given reference
+	 *
+	 * @throws IllegalArgumentException if ref does not refer to a note in the log
+	 */
+	public synchronized String read(long ref) {
+		int offset = (int) (ref >>> OFFSET_SHIFT);
+		int length = (int) (ref & LENGTH_MASK);
+
+		if (ref < 0 || offset + length > log.length()) {
+			throw new IllegalArgumentException();
+		}
+
+		return log.substring(offset, offset + length);
+	}
+
+
+	/**
+	 * Appends the note with the given reference to the given StringBuilder without
+	 * creating an intermediate String.
+	 *
+	 * @param ref	the reference returned by append()
+	 * @param sb	the StringBuilder to append the note to
+	 *
+	 * @throws IllegalArgumentException if ref does not refer to a note in the log
+	 */
+	public synchronized void appendTo(long ref, StringBuilder sb) {
+		int offset = (int) (ref >>> OFFSET_SHIFT);
+		int length = (int) (ref & LENGTH_MASK);
+
+		if (ref < 0 || offset + length > log.length()) {
+			throw new IllegalArgumentException();
+		}
+
+		sb.append(log, offset, offset + length);
+	}
+
+
+	/**
+	 * Retrieves the number of notes that have been appended to the log
+	 *
+	 * @return the number of notes in the log
+	 */
+	public synchronized int getNoteCount() {
+		return noteCount;
+	}
+
+
+	/**
+	 * Retrieves the total number of characters held by the log
+	 *
+	 * @return the length of the log in characters
+	 */
+	public synchronized int length() {
+		return log.length();
+	}
+}
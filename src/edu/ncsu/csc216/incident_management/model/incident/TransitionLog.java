@@ -0,0 +1,199 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.incident_management.model.incident;
+
+import java.util.Arrays;
+
+import edu.ncsu.csc216.incident_management.model.command.Command.CommandValue;
+
+/**
+ * History of the state transitions of a single ManagedIncident. Each entry records the
+ * state the incident moved into, the CommandValue that moved it there, the time of the
+ * transition in epoch milliseconds, and the UserIdTable reference of the owner after the
+ * transition. The entries are kept in parallel primitive arrays rather than as objects so
+ * a long history costs a few bytes per transition and time-in-state sums are a single
+ * pass over the arrays. The first entry of an incident created in the system has no
+ * command and records when the incident entered the New state.
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class TransitionLog {
+
+	/** Command ordinal stored for an entry that was not caused by a command */
+	public static final int NO_COMMAND = -1;
+
+	/** Number of entries a log has room for before growing */
+	private static final int INITIAL_CAPACITY = 4;
+
+	/** Cached CommandValue constants, indexed by ordinal */
+	private static final CommandValue[] COMMANDS = CommandValue.values();
+
+	/** Index of the state entered by each transition */
+	private byte[] states;
+
+	/** Ordinal of the command causing each transition, or NO_COMMAND */
+	private byte[] commands;
+
+	/** Time of each transition, in epoch milliseconds */
+	private long[] times;
+
+	/** UserIdTable reference of the owner after each transition */
+	private int[] owners;
+
+	/** Number of entries in the log */
+	private int size;
+
+
+	/**
+	 * Constructs an empty TransitionLog.
+	 */
+	public TransitionLog() {
+		states = new byte[INITIAL_CAPACITY];
+		commands = new byte[INITIAL_CAPACITY];
+		times = new long[INITIAL_CAPACITY];
+		owners = new int[INITIAL_CAPACITY];
+		size = 0;
+	}
+
+
+	/**
+	 * Adds a transition to the end of the log.
+	 *
+	 * @param stateIndex	index of the state entered, one of the ManagedIncident *_INDEX constants
+	 * @param command		the command causing the transition, or null if there was none
+	 * @param time			the time of the transition, in epoch milliseconds
+	 * @param ownerRef		UserIdTable reference of the owner after the transition
+	 *
+	 * @throws IllegalArgumentException if stateIndex is not the index of a state
+	 */
+	public void record(int stateIndex, CommandValue command, long time, int ownerRef) {
+		if (stateIndex < 0 || stateIndex >= ManagedIncident.STATE_COUNT) {
+			throw new IllegalArgumentException();
+		}
+
+		if (size == states.length) {
+			int capacity = size * 2;
+			states = Arrays.copyOf(states, capacity);
+			commands = Arrays.copyOf(commands, capacity);
+			times = Arrays.copyOf(times, capacity);
+			owners = Arrays.copyOf(owners, capacity);
+		}
+
+		states[size] = (byte) stateIndex;
+		commands[size] = (byte) (command == null ? NO_COMMAND : command.ordinal());
+		times[size] = time;
+		owners[size] = ownerRef;
+		size++;
+	}
+
+
+	/**
+	 * Drops the transitions after the first size transitions, such as when a command is undone.
+	 *
+	 * @param size	number of transitions to keep
+	 *
+	 * @throws IllegalArgumentException if size is negative or greater than the number of transitions
+	 */
+	public void truncate(int size) {
+		if (size < 0 || size > this.size) {
+			throw new IllegalArgumentException();
+		}
+		this.size = size;
+	}
+
+
+	/**
+	 * Retrieves the number of transitions in the log
+	 *
+	 * @return the number of transitions
+	 */
+	public int size() {
+		return size;
+	}
+
+
+	/**
+	 * Retrieves the index of the state entered by a transition
+	 *
+	 * @param i	position of the transition in the log
+	 * @return the index of the state entered
+	 * @throws IllegalArgumentException if i is not a position in the log
+	 */
+	public int getStateIndex(int i) {
+		checkIndex(i);
+		return states[i];
+	}
+
+
+	/**
+	 * Retrieves the command that caused a transition
+	 *
+	 * @param i	position of the transition in the log
+	 * @return the command, or null if the transition was not caused by a command
+	 * @throws IllegalArgumentException if i is not a position in the log
+	 */
+	public CommandValue getCommand(int i) {
+		checkIndex(i);
+		return commands[i] == NO_COMMAND ? null : COMMANDS[commands[i]];
+	}
+
+
+	/**
+	 * Retrieves the time of a transition
+	 *
+	 * @param i	position of the transition in the log
+	 * @return the time of the transition, in epoch milliseconds
+	 * @throws IllegalArgumentException if i is not a position in the log
+	 */
+	public long getTime(int i) {
+		checkIndex(i);
+		return times[i];
+	}
+
+
+	/**
+	 * Retrieves the UserIdTable reference of the owner after a transition
+	 *
+	 * @param i	position of the transition in the log
+	 * @return the reference of the owner, or UserIdTable.NO_USER
+	 * @throws IllegalArgumentException if i is not a position in the log
+	 */
+	public int getOwnerRef(int i) {
+		checkIndex(i);
+		return owners[i];
+	}
+
+
+	/**
+	 * Adds up the time the incident spent in the given state. The last transition in the
+	 * log is counted as lasting until the given time.
+	 *
+	 * @param stateIndex	index of the state
+	 * @param now			the current time, in epoch milliseconds
+	 * @return the total time spent in the state, in milliseconds
+	 */
+	public long getTimeInState(int stateIndex, long now) {
+		long total = 0;
+		for (int i = 0; i < size; i++) {
+			if (states[i] == stateIndex) {
+				long end = i + 1 < size ? times[i + 1] : now;
+				total += Math.max(0, end - times[i]);
+			}
+		}
+		return total;
+	}
+
+
+	/**
+	 * Throws an IllegalArgumentException if i is not a position in the log
+	 *
+	 * @param i	the position to check
+	 */
+	private void checkIndex(int i) {
+		if (i < 0 || i >= size) {
+			throw new IllegalArgumentException();
+		}
+	}
+}
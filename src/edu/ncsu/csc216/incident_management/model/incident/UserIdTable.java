@@ -0,0 +1,159 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.incident_management.model.incident;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionary of the user ids used as callers and owners of incidents. Every distinct user id
+ * is stored once and is given a small integer reference, so a ManagedIncident only keeps the
+ * references and two incidents with the same owner can be compared with an int comparison.
+ * The references are also what the binary persistence formats write for user ids.
+ * Implements the Singleton design pattern so the references are the same across every
+ * ManagedIncidentList and file written by the application. User ids are never removed, as
+ * the number of distinct callers and owners is small compared to the number of incidents.
+ * Looking up a user id or a reference takes no lock, so the table can be read from many
+ * threads at once; only adding a new user id is synchronized.
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class UserIdTable {
+
+	/** Reference used for a user id that is not set */
+	public static final int NO_USER = -1;
+
+	/** Initial number of user ids the table has room for */
+	private static final int INITIAL_CAPACITY = 64;
+
+	/** ONLY instance of UserIdTable */
+	private static final UserIdTable SINGLETON = new UserIdTable();
+
+	/** Maps each user id to its reference */
+	private final ConcurrentHashMap<String, Integer> refs;
+
+	/** The user ids, indexed by reference, republished after every addition */
+	private volatile String[] userIds;
+
+	/** Number of user ids in the table */
+	private volatile int size;
+
+
+	/**
+	 * Constructs an empty UserIdTable.
+	 */
+	UserIdTable() {
+		refs = new ConcurrentHashMap<String, Integer>();
+		userIds = new String[INITIAL_CAPACITY];
+		size = 0;
+	}
+
+
+	/**
+	 * Static method that returns the singleton instance of UserIdTable.
+	 *
+	 * @return singleton instance of UserIdTable
+	 */
+	public static UserIdTable getInstance() {
+		return SINGLETON;
+	}
+
+
+	/**
+	 * Retrieves the reference for the given user id, adding the user id to the table if it
+	 * is not already there.
+	 *
+	 * @param userId	the user id to retrieve the reference of
+	 * @return the reference of the user id, or NO_USER if userId is null
+	 */
+	public int getRef(String userId) {
+		if (userId == null) {
+			return NO_USER;
+		}
+
+		Integer ref = refs.get(userId);
+		if (ref != null) {
+			return ref;
+		}
+		return add(userId);
+	}
+
+
+	/**
+	 * Adds a user id to the table unless another thread added it first. The user id is
+	 * stored before the array is republished and the reference is put in the map last, so
+	 * a thread that finds the reference also finds the user id.
+	 *
+	 * @param userId	the user id to add
+	 * @return the reference of the user id
+	 */
+	private synchronized int add(String userId) {
+		Integer existing = refs.get(userId);
+		if (existing != null) {
+			return existing;
+		}
+
+		String[] ids = userIds;
+		int ref = size;
+		if (ref == ids.length) {
+			ids = Arrays.copyOf(ids, ref * 2);
+		}
+		ids[ref] = userId;
+		userIds = ids;
+		size = ref + 1;
+		refs.put(userId, ref);
+		return ref;
+	}
+
+
+	/**
+	 * Retrieves the reference for the given user id without adding it to the table.
+	 *
+	 * @param userId	the user id to look up
+	 * @return the reference of the user id, or NO_USER if userId is null or not in the table
+	 */
+	public int lookup(String userId) {
+		if (userId == null) {
+			return NO_USER;
+		}
+
+		Integer ref = refs.get(userId);
+		if (ref == null) {
+			return NO_USER;
+		}
+		return ref;
+	}
+
+
+	/**
+	 * Retrieves the user id with the given reference.
+	 *
+	 * @param ref	the reference of the user id
+	 * @return the user id, or null if ref is NO_USER
+	 *
+	 * @throws IllegalArgumentException if ref is not a reference in the table
+	 */
+	public String getUserId(int ref) {
+		if (ref == NO_USER) {
+			return null;
+		}
+
+		String[] ids = userIds;
+		if (ref < 0 || ref >= ids.length || ids[ref] == null) {
+			throw new IllegalArgumentException();
+		}
+		return ids[ref];
+	}
+
+
+	/**
+	 * Retrieves the number of user ids in the table
+	 *
+	 * @return the number of user ids in the table
+	 */
+	public int size() {
+		return size;
+	}
+}
@@ -0,0 +1,442 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.incident_management.model.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+
+import edu.ncsu.csc216.incident.io.IncidentIOException;
+import edu.ncsu.csc216.incident.io.IncidentReader;
+import edu.ncsu.csc216.incident.io.IncidentWriter;
+import edu.ncsu.csc216.incident.xml.Incident;
+import edu.ncsu.csc216.incident.xml.Incidents;
+import edu.ncsu.csc216.incident.xml.ObjectFactory;
+import edu.ncsu.csc216.incident_management.model.command.Command;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident;
+
+/**
+ * Reads and writes incident XML files that may be compressed, and incident JSON files. The
+ * format of a file being read is detected from its leading magic bytes, so plain, gzip, and
+ * JSON files can be loaded through the same call. Compressed files are streamed through the
+ * (de)compressor straight into the JAXB (un)marshaller without any temporary files.
+ * Plain XML files are still handled by IncidentReader and IncidentWriter, and JSON files are
+ * streamed one incident at a time by IncidentJsonReader and IncidentJsonWriter.
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class IncidentArchive {
+
+	/** File name extension used to request a gzip compressed file when saving */
+	public static final String GZIP_EXTENSION = ".gz";
+
+	/** File name extension used to request a JSON file when saving */
+	public static final String JSON_EXTENSION = ".json";
+
+	/** Package containing the JAXB generated incident classes */
+	private static final String XML_PACKAGE = "edu.ncsu.csc216.incident.xml";
+
+	/** Size of the buffers placed around the file streams */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/** Number of leading bytes needed to recognize every supported format */
+	private static final int MAGIC_LENGTH = 4;
+
+	/** Lazily created JAXB context shared by every archive read and write */
+	private static JAXBContext context;
+
+	/** An enumeration of the file formats recognized by their magic bytes. */
+	public enum Format { XML, GZIP, ZSTD, JSON }
+
+	/**
+	 * Private constructor, as IncidentArchive only contains static methods
+	 */
+	private IncidentArchive() {
+
+	}
+
+	/**
+	 * Detects the format of the given file from its leading magic bytes.
+	 *
+	 * @param fileName	name of the file to inspect
+	 * @return the format of the file
+	 * @throws IncidentIOException if the file cannot be read
+	 */
+	public static Format detectFormat(String fileName) throws IncidentIOException {
+		InputStream in = null;
+		try {
+			in = new FileInputStream(fileName);
+			byte[] magic = new byte[MAGIC_LENGTH];
+			int read = 0;
+			while (read < MAGIC_LENGTH) {
+				int n = in.read(magic, read, MAGIC_LENGTH - read);
+				if (n < 0) {
+					break;
+				}
+				read += n;
+			}
+			return detectFormat(magic, read);
+		} catch (IOException e) {
+			throw new IncidentIOException(e.getMessage());
+		} finally {
+			close(in);
+		}
+	}
+
+	/**
+	 * Detects the format of a file from the given leading bytes.
+	 *
+	 * @param magic		the leading bytes of the file
+	 * @param length	the number of valid bytes in magic
+	 * @return the format the bytes belong to
+	 */
+	static Format detectFormat(byte[] magic, int length) {
+		if (length >= 2 && (magic[0] & 0xff) == 0x1f && (magic[1] & 0xff) == 0x8b) {
+			return Format.GZIP;
+		}
+
+		if (length >= 4 && (magic[0] & 0xff) == 0x28 && (magic[1] & 0xff) == 0xb5
+				&& (magic[2] & 0xff) == 0x2f && (magic[3] & 0xff) == 0xfd) {
+			return Format.ZSTD;
+		}
+
+		for (int i = 0; i < length; i++) {
+			if (magic[i] == '{' || magic[i] == '[') {
+				return Format.JSON;
+			}
+			if (!Character.isWhitespace(magic[i])) {
+				break;
+			}
+		}
+
+		return Format.XML;
+	}
+
+	/**
+	 * Reads the incidents from the given file, decompressing it on the fly if needed.
+	 *
+	 * @param fileName	name of the file to read
+	 * @return the list of incidents stored in the file
+	 * @throws IncidentIOException if the file cannot be read, is in an unsupported
+	 * 								format, or does not contain valid incidents
+	 */
+	public static List<Incident> readIncidents(String fileName) throws IncidentIOException {
+		Format format = detectFormat(fileName);
+
+		if (format == Format.XML) {
+			return new IncidentReader(fileName).getIncidents();
+		}
+
+		if (format == Format.ZSTD) {
+			throw new IncidentIOException("Zstandard compressed incident files are not supported");
+		}
+
+		if (format == Format.JSON) {
+			IncidentJsonReader reader = openJsonIncidents(fileName);
+			try {
+				List<Incident> incidents = new ArrayList<Incident>();
+				while (reader.hasNext()) {
+					incidents.add(reader.next());
+				}
+				return incidents;
+			} catch (IllegalArgumentException e) {
+				throw new IncidentIOException(e.getMessage());
+			} finally {
+				reader.close();
+			}
+		}
+
+		InputStream in = null;
+		try {
+			in = new GZIPInputStream(new BufferedInputStream(new FileInputStream(fileName), BUFFER_SIZE), BUFFER_SIZE);
+			List<Incident> incidents = unmarshal(in);
+			checkIncidents(incidents);
+			return incidents;
+		} catch (IOException e) {
+			throw new IncidentIOException(e.getMessage());
+		} finally {
+			close(in);
+		}
+	}
+
+	/**
+	 * Opens a JSON file of incidents so they can be read one at a time, without holding
+	 * every incident in memory. The caller must close the reader.
+	 *
+	 * @param fileName	name of the file to read
+	 * @return a reader positioned before the first incident of the file
+	 * @throws IncidentIOException if the file cannot be opened or does not contain an
+	 * 								array of incidents
+	 */
+	public static IncidentJsonReader openJsonIncidents(String fileName) throws IncidentIOException {
+		InputStream in = null;
+		try {
+			in = new FileInputStream(fileName);
+			return new IncidentJsonReader(in);
+		} catch (IOException e) {
+			close(in);
+			throw new IncidentIOException(e.getMessage());
+		} catch (IllegalArgumentException e) {
+			close(in);
+			throw new IncidentIOException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Writes the given ManagedIncidents to a JSON file directly, without converting them
+	 * into XML Incidents first.
+	 *
+	 * @param fileName	name of the file to write
+	 * @param incidents	incidents to write to the file
+	 * @throws IncidentIOException if the file cannot be created or written to
+	 */
+	public static void writeJsonIncidents(String fileName, List<ManagedIncident> incidents) throws IncidentIOException {
+		OutputStream out = null;
+		try {
+			out = new FileOutputStream(fileName);
+			IncidentJsonWriter writer = new IncidentJsonWriter(out);
+			out = null;
+			try {
+				for (int i = 0; i < incidents.size(); i++) {
+					writer.write(incidents.get(i));
+				}
+			} finally {
+				writer.close();
+			}
+		} catch (IOException e) {
+			throw new IncidentIOException(e.getMessage());
+		} finally {
+			close(out);
+		}
+	}
+
+	/**
+	 * Writes the given incidents to a file. The file is gzip compressed if its name ends
+	 * with GZIP_EXTENSION, is written as JSON if its name ends with JSON_EXTENSION, and is
+	 * written as plain XML otherwise.
+	 *
+	 * @param fileName	name of the file to write
+	 * @param incidents	incidents to write to the file
+	 * @throws IncidentIOException if the file cannot be created or written to
+	 */
+	public static void writeIncidents(String fileName, List<Incident> incidents) throws IncidentIOException {
+		if (fileName.endsWith(JSON_EXTENSION)) {
+			OutputStream out = null;
+			try {
+				out = new FileOutputStream(fileName);
+				IncidentJsonWriter writer = new IncidentJsonWriter(out);
+				out = null;
+				try {
+					for (int i = 0; i < incidents.size(); i++) {
+						writer.write(incidents.get(i));
+					}
+				} finally {
+					writer.close();
+				}
+			} catch (IOException e) {
+				throw new IncidentIOException(e.getMessage());
+			} finally {
+				close(out);
+			}
+			return;
+		}
+
+		if (!fileName.endsWith(GZIP_EXTENSION)) {
+			IncidentWriter writer = new IncidentWriter(fileName);
+			for (int i = 0; i < incidents.size(); i++) {
+				writer.addItem(incidents.get(i));
+			}
+			writer.marshal();
+			return;
+		}
+
+		OutputStream out = null;
+		try {
+			out = new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(fileName), BUFFER_SIZE), BUFFER_SIZE);
+			marshal(incidents, out);
+			out.close();
+			out = null;
+		} catch (IOException e) {
+			throw new IncidentIOException(e.getMessage());
+		} finally {
+			close(out);
+		}
+	}
+
+	/**
+	 * Unmarshals an Incidents document from the given stream.
+	 *
+	 * @param in	stream containing the XML document
+	 * @return the list of incidents in the document
+	 * @throws IncidentIOException if the document cannot be unmarshalled
+	 */
+	@SuppressWarnings("unchecked")
+	private static List<Incident> unmarshal(InputStream in) throws IncidentIOException {
+		try {
+			Unmarshaller u = getContext().createUnmarshaller();
+			JAXBElement<Incidents> element = (JAXBElement<Incidents>) u.unmarshal(in);
+			return element.getValue().getIncidents();
+		} catch (JAXBException e) {
+			throw new IncidentIOException(e.getMessage());
+		} catch (ClassCastException e) {
+			throw new IncidentIOException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Marshals the given incidents as an Incidents document to the given stream.
+	 *
+	 * @param incidents	incidents to marshal
+	 * @param out		stream to write the document to
+	 * @throws IncidentIOException if the document cannot be marshalled
+	 */
+	private static void marshal(List<Incident> incidents, OutputStream out) throws IncidentIOException {
+		ObjectFactory of = new ObjectFactory();
+		Incidents list = of.createIncidents();
+		list.getIncidents().addAll(incidents);
+		try {
+			Marshaller m = getContext().createMarshaller();
+			m.marshal(of.createIncidents(list), out);
+		} catch (JAXBException e) {
+			throw new IncidentIOException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Checks every incident the same way IncidentReader checks a plain XML file, so that a
+	 * compressed file is either loaded whole or not at all.
+	 *
+	 * @param incidents	incidents to check
+	 * @throws IncidentIOException if any incident is not valid
+	 */
+	private static void checkIncidents(List<Incident> incidents) throws IncidentIOException {
+		for (int i = 0; i < incidents.size(); i++) {
+			checkIncident(incidents.get(i));
+		}
+	}
+
+	/**
+	 * Checks that an incident has every required field, that its category, state, and
+	 * priority are known, that it has an owner exactly when its state needs one, and that
+	 * it has an on hold reason, resolution code, and cancellation code exactly when its
+	 * state needs them, each with a known value. These are the rules of IncidentReader.
+	 *
+	 * @param incident	incident to check
+	 * @throws IncidentIOException if the incident is not valid
+	 */
+	static void checkIncident(Incident incident) throws IncidentIOException {
+		String state = incident.getState();
+		if (incident.getId() < 0 || isEmpty(incident.getCaller()) || isEmpty(incident.getName())
+				|| incident.getWorkNotes() == null || incident.getWorkNotes().getNotes().size() == 0
+				|| !isOneOf(incident.getCategory(), ManagedIncident.C_INQUIRY, ManagedIncident.C_SOFTWARE,
+						ManagedIncident.C_HARDWARE, ManagedIncident.C_NETWORK, ManagedIncident.C_DATABASE)
+				|| !isOneOf(state, ManagedIncident.NEW_NAME, ManagedIncident.IN_PROGRESS_NAME,
+						ManagedIncident.ON_HOLD_NAME, ManagedIncident.RESOLVED_NAME, ManagedIncident.CLOSED_NAME,
+						ManagedIncident.CANCELED_NAME)
+				|| !isOneOf(incident.getPriority(), ManagedIncident.P_URGENT, ManagedIncident.P_HIGH,
+						ManagedIncident.P_MEDIUM, ManagedIncident.P_LOW)) {
+			throw new IncidentIOException();
+		}
+
+		boolean owned = state.equals(ManagedIncident.IN_PROGRESS_NAME) || state.equals(ManagedIncident.ON_HOLD_NAME)
+				|| state.equals(ManagedIncident.RESOLVED_NAME) || state.equals(ManagedIncident.CLOSED_NAME);
+		if (owned ? isEmpty(incident.getOwner())
+				: state.equals(ManagedIncident.NEW_NAME) && incident.getOwner() != null) {
+			throw new IncidentIOException();
+		}
+		if (!checkCode(state.equals(ManagedIncident.ON_HOLD_NAME), incident.getOnHoldReason(),
+						Command.OH_CALLER, Command.OH_CHANGE, Command.OH_VENDOR)
+				|| !checkCode(state.equals(ManagedIncident.CANCELED_NAME), incident.getCancellationCode(),
+						Command.CC_DUPLICATE, Command.CC_UNNECESSARY, Command.CC_NOT_AN_INCIDENT)
+				|| !checkCode(state.equals(ManagedIncident.RESOLVED_NAME) || state.equals(ManagedIncident.CLOSED_NAME),
+						incident.getResolutionCode(), Command.RC_PERMANENTLY_SOLVED, Command.RC_WORKAROUND,
+						Command.RC_NOT_SOLVED, Command.RC_CALLER_CLOSED)) {
+			throw new IncidentIOException();
+		}
+	}
+
+	/**
+	 * Checks a code that an incident must have in some states and must not have in others.
+	 *
+	 * @param required	true if the state of the incident needs the code
+	 * @param code		the code of the incident, may be null
+	 * @param values	the known values of the code
+	 * @return true if the code is a known value and the state needs it, or the code is
+	 * 			null and the state does not need it
+	 */
+	private static boolean checkCode(boolean required, String code, String... values) {
+		return required ? isOneOf(code, values) : code == null;
+	}
+
+	/**
+	 * Returns true if the given String equals one of the given values
+	 *
+	 * @param s			the String to check, may be null
+	 * @param values	the values to compare against
+	 * @return true if s is one of the values
+	 */
+	private static boolean isOneOf(String s, String... values) {
+		for (String value : values) {
+			if (value.equals(s)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns true if the given String is null or empty
+	 *
+	 * @param s	the String to check
+	 * @return true if s is null or empty
+	 */
+	private static boolean isEmpty(String s) {
+		return s == null || s.equals("");
+	}
+
+	/**
+	 * Retrieves the shared JAXB context, creating it on first use.
+	 *
+	 * @return the JAXB context for the incident classes
+	 * @throws JAXBException if the context cannot be created
+	 */
+	private static synchronized JAXBContext getContext() throws JAXBException {
+		if (context == null) {
+			context = JAXBContext.newInstance(XML_PACKAGE);
+		}
+		return context;
+	}
+
+	/**
+	 * Closes the given stream, ignoring any error since the data has already been
+	 * read or the original error is being reported.
+	 *
+	 * @param c	the stream to close, may be null
+	 */
+	private static void close(Closeable c) {
+		if (c != null) {
+			try {
+				c.close();
+			} catch (IOException e) {
+				//Nothing more can be done with the stream
+			}
+		}
+	}
+}
@@ -0,0 +1,492 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.incident_management.model.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+import edu.ncsu.csc216.incident.io.IncidentIOException;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident;
+import edu.ncsu.csc216.incident_management.model.incident.UserIdTable;
+
+/**
+ * Exports the columns of ManagedIncidents for analysis: the id, category, state, priority,
+ * and name shown in the incident table, followed by the caller, owner, and the on hold
+ * reason, resolution code, and cancellation code. The columns can be written as CSV or in
+ * a compact columnar binary format.
+ *
+ * The incidents are split into batches that are encoded in parallel on the common fork join
+ * pool and written to the file in order, with only a few batches in flight at a time, so the
+ * memory used does not grow with the number of incidents.
+ *
+ * The columnar format starts with a header of MAGIC, the format version, and the name and
+ * type of each column, followed by one row group per batch. A row group holds its number of
+ * rows and then each column in turn: ids as ints, columns with a small set of values as a
+ * dictionary of the distinct values followed by one byte code per row, and other text as one
+ * length per row followed by the UTF-8 bytes of every value. A row group of zero rows ends
+ * the file. Nulls are stored as a code or length of -1.
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class IncidentExporter {
+
+	/** File name extension used to request a CSV file when exporting */
+	public static final String CSV_EXTENSION = ".csv";
+
+	/** Names of the exported columns, in order */
+	public static final String[] COLUMN_NAMES = { "id", "category", "state", "priority", "name", "caller", "owner",
+			"on_hold_reason", "resolution_code", "cancellation_code" };
+
+	/** Magic number at the start of a columnar file */
+	static final int MAGIC = 0x49434F4C;
+
+	/** Number of incidents in each batch */
+	static final int BATCH_SIZE = 8192;
+
+	/** Version of the columnar format */
+	private static final int VERSION = 1;
+
+	/** Type of a column of ints */
+	private static final byte INT_COLUMN = 0;
+
+	/** Type of a column of dictionary encoded Strings */
+	private static final byte DICTIONARY_COLUMN = 1;
+
+	/** Type of a column of Strings */
+	private static final byte STRING_COLUMN = 2;
+
+	/** Type of each column */
+	private static final byte[] COLUMN_TYPES = { INT_COLUMN, DICTIONARY_COLUMN, DICTIONARY_COLUMN, DICTIONARY_COLUMN,
+			STRING_COLUMN, STRING_COLUMN, STRING_COLUMN, DICTIONARY_COLUMN, DICTIONARY_COLUMN, DICTIONARY_COLUMN };
+
+	/** Largest number of distinct values a dictionary column can hold in one row group */
+	private static final int MAX_DICTIONARY_SIZE = Byte.MAX_VALUE;
+
+	/** Code or length of a null value */
+	private static final int NULL_VALUE = -1;
+
+	/** Size of the buffers placed around the file streams */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Private constructor, as IncidentExporter only contains static methods
+	 */
+	private IncidentExporter() {
+
+	}
+
+	/**
+	 * Writes the columns of the given incidents to a CSV file with a header row.
+	 *
+	 * @param fileName	name of the file to write
+	 * @param incidents	incidents to export
+	 * @throws IncidentIOException if the file cannot be created or written to
+	 */
+	public static void writeCsv(String fileName, List<ManagedIncident> incidents) throws IncidentIOException {
+		writeCsv(fileName, incidents, BATCH_SIZE);
+	}
+
+	/**
+	 * Writes the columns of the given incidents to a CSV file, encoding batches of the given size.
+	 *
+	 * @param fileName	name of the file to write
+	 * @param incidents	incidents to export
+	 * @param batchSize	number of incidents in each batch
+	 * @throws IncidentIOException if the file cannot be created or written to
+	 */
+	static void writeCsv(String fileName, List<ManagedIncident> incidents, int batchSize) throws IncidentIOException {
+		OutputStream out = null;
+		try {
+			out = new BufferedOutputStream(new FileOutputStream(fileName), BUFFER_SIZE);
+			StringBuilder header = new StringBuilder();
+			for (int i = 0; i < COLUMN_NAMES.length; i++) {
+				header.append(i == 0 ? "" : ",").append(COLUMN_NAMES[i]);
+			}
+			out.write(header.append("\r\n").toString().getBytes(StandardCharsets.UTF_8));
+			writeBatches(out, incidents, batchSize, IncidentExporter::encodeCsv);
+			out.close();
+			out = null;
+		} catch (IOException e) {
+			throw new IncidentIOException(e.getMessage());
+		} finally {
+			close(out);
+		}
+	}
+
+	/**
+	 * Writes the columns of the given incidents to a columnar file.
+	 *
+	 * @param fileName	name of the file to write
+	 * @param incidents	incidents to export
+	 * @throws IncidentIOException if the file cannot be created or written to
+	 */
+	public static void writeColumns(String fileName, List<ManagedIncident> incidents) throws IncidentIOException {
+		writeColumns(fileName, incidents, BATCH_SIZE);
+	}
+
+	/**
+	 * Writes the columns of the given incidents to a columnar file, with one row group for
+	 * each batch of the given size.
+	 *
+	 * @param fileName	name of the file to write
+	 * @param incidents	incidents to export
+	 * @param batchSize	number of incidents in each batch
+	 * @throws IncidentIOException if the file cannot be created or written to
+	 */
+	static void writeColumns(String fileName, List<ManagedIncident> incidents, int batchSize) throws IncidentIOException {
+		DataOutputStream out = null;
+		try {
+			out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileName), BUFFER_SIZE));
+			out.writeInt(MAGIC);
+			out.writeShort(VERSION);
+			out.writeInt(COLUMN_NAMES.length);
+			for (int i = 0; i < COLUMN_NAMES.length; i++) {
+				out.writeUTF(COLUMN_NAMES[i]);
+				out.writeByte(COLUMN_TYPES[i]);
+			}
+			writeBatches(out, incidents, batchSize, IncidentExporter::encodeRowGroup);
+			out.writeInt(0);
+			out.close();
+			out = null;
+		} catch (IOException e) {
+			throw new IncidentIOException(e.getMessage());
+		} finally {
+			close(out);
+		}
+	}
+
+	/**
+	 * Reads the rows of a columnar file written by writeColumns().
+	 *
+	 * @param fileName	name of the file to read
+	 * @return the rows of the file, each with one String per column, or null for a null value
+	 * @throws IncidentIOException if the file cannot be read or is not a columnar file
+	 */
+	public static List<String[]> readColumns(String fileName) throws IncidentIOException {
+		DataInputStream in = null;
+		try {
+			in = new DataInputStream(new BufferedInputStream(new FileInputStream(fileName), BUFFER_SIZE));
+			if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+				throw new IncidentIOException("Not a columnar incident file");
+			}
+			int columns = in.readInt();
+			byte[] types = new byte[columns];
+			for (int c = 0; c < columns; c++) {
+				in.readUTF();
+				types[c] = in.readByte();
+			}
+
+			List<String[]> rows = new ArrayList<String[]>();
+			for (int count = in.readInt(); count > 0; count = in.readInt()) {
+				String[][] group = new String[count][columns];
+				for (int c = 0; c < columns; c++) {
+					readColumn(in, types[c], group, c);
+				}
+				for (int r = 0; r < count; r++) {
+					rows.add(group[r]);
+				}
+			}
+			return rows;
+		} catch (EOFException e) {
+			throw new IncidentIOException("Truncated columnar incident file");
+		} catch (IOException e) {
+			throw new IncidentIOException(e.getMessage());
+		} finally {
+			close(in);
+		}
+	}
+
+	/**
+	 * Encodes the batches of incidents in parallel and writes them to the stream in order.
+	 * At most two batches per thread of the pool are encoded or waiting to be written at once.
+	 *
+	 * @param out		stream the batches are written to
+	 * @param incidents	incidents to encode
+	 * @param batchSize	number of incidents in each batch
+	 * @param encoder	encodes one batch
+	 * @throws IOException if a batch cannot be encoded or written
+	 */
+	private static void writeBatches(OutputStream out, List<ManagedIncident> incidents, int batchSize,
+			Function<List<ManagedIncident>, byte[]> encoder) throws IOException {
+		int window = 2 * ForkJoinPool.getCommonPoolParallelism();
+		ArrayDeque<CompletableFuture<byte[]>> pending = new ArrayDeque<CompletableFuture<byte[]>>(window);
+		for (int from = 0; from < incidents.size(); from += batchSize) {
+			final List<ManagedIncident> batch = incidents.subList(from, Math.min(from + batchSize, incidents.size()));
+			pending.add(CompletableFuture.supplyAsync(() -> encoder.apply(batch)));
+			if (pending.size() >= window) {
+				out.write(await(pending.poll()));
+			}
+		}
+		while (!pending.isEmpty()) {
+			out.write(await(pending.poll()));
+		}
+	}
+
+	/**
+	 * Waits for a batch to be encoded.
+	 *
+	 * @param batch	the batch being encoded
+	 * @return the encoded batch
+	 * @throws IOException if the batch could not be encoded or the thread was interrupted
+	 */
+	private static byte[] await(CompletableFuture<byte[]> batch) throws IOException {
+		try {
+			return batch.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while exporting");
+		} catch (ExecutionException e) {
+			throw new IOException(e.getCause());
+		}
+	}
+
+	/**
+	 * Encodes a batch of incidents as CSV rows.
+	 *
+	 * @param batch	incidents to encode
+	 * @return the UTF-8 bytes of the rows
+	 */
+	private static byte[] encodeCsv(List<ManagedIncident> batch) {
+		Map<Integer, String> users = new HashMap<Integer, String>();
+		StringBuilder csv = new StringBuilder(batch.size() * 96);
+		String[] row = new String[COLUMN_NAMES.length];
+		for (int i = 0; i < batch.size(); i++) {
+			fillRow(batch.get(i), users, row);
+			for (int c = 0; c < row.length; c++) {
+				if (c > 0) {
+					csv.append(',');
+				}
+				appendCsv(csv, row[c]);
+			}
+			csv.append("\r\n");
+		}
+		return csv.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Appends a CSV field, quoting it if it contains a comma, quote, or line break.
+	 *
+	 * @param csv	the CSV being built
+	 * @param value	the value of the field, or null for an empty field
+	 */
+	private static void appendCsv(StringBuilder csv, String value) {
+		if (value == null) {
+			return;
+		}
+		boolean quote = false;
+		for (int i = 0; i < value.length() && !quote; i++) {
+			char c = value.charAt(i);
+			quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+		}
+		if (!quote) {
+			csv.append(value);
+			return;
+		}
+		csv.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"') {
+				csv.append('"');
+			}
+			csv.append(c);
+		}
+		csv.append('"');
+	}
+
+	/**
+	 * Encodes a batch of incidents as one row group of the columnar format.
+	 *
+	 * @param batch	incidents to encode
+	 * @return the bytes of the row group
+	 */
+	private static byte[] encodeRowGroup(List<ManagedIncident> batch) {
+		Map<Integer, String> users = new HashMap<Integer, String>();
+		String[][] columns = new String[COLUMN_NAMES.length][batch.size()];
+		String[] row = new String[COLUMN_NAMES.length];
+		for (int r = 0; r < batch.size(); r++) {
+			fillRow(batch.get(r), users, row);
+			for (int c = 0; c < row.length; c++) {
+				columns[c][r] = row[c];
+			}
+		}
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(batch.size() * 64);
+		DataOutputStream out = new DataOutputStream(bytes);
+		try {
+			out.writeInt(batch.size());
+			for (int c = 0; c < columns.length; c++) {
+				writeColumn(out, COLUMN_TYPES[c], columns[c]);
+			}
+		} catch (IOException e) {
+			throw new CompletionException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Writes one column of a row group.
+	 *
+	 * @param out		stream the column is written to
+	 * @param type		type of the column
+	 * @param values	value of the column in each row
+	 * @throws IOException if the column cannot be written
+	 */
+	private static void writeColumn(DataOutputStream out, byte type, String[] values) throws IOException {
+		if (type == INT_COLUMN) {
+			for (int r = 0; r < values.length; r++) {
+				out.writeInt(Integer.parseInt(values[r]));
+			}
+		} else if (type == DICTIONARY_COLUMN) {
+			LinkedHashMap<String, Integer> dictionary = new LinkedHashMap<String, Integer>();
+			byte[] codes = new byte[values.length];
+			for (int r = 0; r < values.length; r++) {
+				if (values[r] == null) {
+					codes[r] = NULL_VALUE;
+					continue;
+				}
+				Integer code = dictionary.get(values[r]);
+				if (code == null) {
+					if (dictionary.size() == MAX_DICTIONARY_SIZE) {
+						throw new IOException("Too many distinct values for a dictionary column");
+					}
+					code = dictionary.size();
+					dictionary.put(values[r], code);
+				}
+				codes[r] = code.byteValue();
+			}
+			out.writeByte(dictionary.size());
+			for (String value : dictionary.keySet()) {
+				out.writeUTF(value);
+			}
+			out.write(codes);
+		} else {
+			byte[][] encoded = new byte[values.length][];
+			for (int r = 0; r < values.length; r++) {
+				encoded[r] = values[r] == null ? null : values[r].getBytes(StandardCharsets.UTF_8);
+				out.writeInt(encoded[r] == null ? NULL_VALUE : encoded[r].length);
+			}
+			for (int r = 0; r < values.length; r++) {
+				if (encoded[r] != null) {
+					out.write(encoded[r]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads one column of a row group into the rows of the group.
+	 *
+	 * @param in		stream the column is read from
+	 * @param type		type of the column
+	 * @param rows		rows of the row group
+	 * @param column	index of the column in the rows
+	 * @throws IOException if the column cannot be read
+	 */
+	private static void readColumn(DataInputStream in, byte type, String[][] rows, int column) throws IOException {
+		if (type == INT_COLUMN) {
+			for (int r = 0; r < rows.length; r++) {
+				rows[r][column] = Integer.toString(in.readInt());
+			}
+		} else if (type == DICTIONARY_COLUMN) {
+			String[] dictionary = new String[in.readUnsignedByte()];
+			for (int d = 0; d < dictionary.length; d++) {
+				dictionary[d] = in.readUTF();
+			}
+			for (int r = 0; r < rows.length; r++) {
+				int code = in.readByte();
+				rows[r][column] = code == NULL_VALUE ? null : dictionary[code];
+			}
+		} else if (type == STRING_COLUMN) {
+			int[] lengths = new int[rows.length];
+			for (int r = 0; r < rows.length; r++) {
+				lengths[r] = in.readInt();
+			}
+			for (int r = 0; r < rows.length; r++) {
+				if (lengths[r] != NULL_VALUE) {
+					byte[] value = new byte[lengths[r]];
+					in.readFully(value);
+					rows[r][column] = new String(value, StandardCharsets.UTF_8);
+				}
+			}
+		} else {
+			throw new IOException("Unknown column type " + type);
+		}
+	}
+
+	/**
+	 * Fills a row with the exported columns of an incident.
+	 *
+	 * @param incident	the incident
+	 * @param users		user ids already looked up for the batch, by UserIdTable reference
+	 * @param row		the row to fill, in the order of COLUMN_NAMES
+	 */
+	private static void fillRow(ManagedIncident incident, Map<Integer, String> users, String[] row) {
+		row[0] = Integer.toString(incident.getIncidentId());
+		row[1] = incident.getCategoryString();
+		row[2] = incident.getState().getStateName();
+		row[3] = incident.getPriorityString();
+		row[4] = incident.getName();
+		row[5] = getUserId(incident.getCallerRef(), users);
+		row[6] = getUserId(incident.getOwnerRef(), users);
+		row[7] = incident.getOnHoldReasonString();
+		row[8] = incident.getResolutionCodeString();
+		row[9] = incident.getCancellationCodeString();
+	}
+
+	/**
+	 * Looks up a user id, asking the shared UserIdTable only once per user in each batch.
+	 *
+	 * @param ref	the UserIdTable reference of the user
+	 * @param users	user ids already looked up for the batch
+	 * @return the user id, or null if ref is UserIdTable.NO_USER
+	 */
+	private static String getUserId(int ref, Map<Integer, String> users) {
+		if (ref == UserIdTable.NO_USER) {
+			return null;
+		}
+		String userId = users.get(ref);
+		if (userId == null) {
+			userId = UserIdTable.getInstance().getUserId(ref);
+			users.put(ref, userId);
+		}
+		return userId;
+	}
+
+	/**
+	 * Closes the given stream, ignoring any error since the original error is being reported.
+	 *
+	 * @param c	the stream to close, may be null
+	 */
+	private static void close(Closeable c) {
+		if (c != null) {
+			try {
+				c.close();
+			} catch (IOException e) {
+				//Nothing more can be done with the stream
+			}
+		}
+	}
+}
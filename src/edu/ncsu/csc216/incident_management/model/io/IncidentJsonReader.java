@@ -0,0 +1,511 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.incident_management.model.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import edu.ncsu.csc216.incident.io.IncidentIOException;
+import edu.ncsu.csc216.incident.xml.Incident;
+import edu.ncsu.csc216.incident.xml.WorkNotes;
+
+/**
+ * Reads the incidents of a JSON document written by IncidentJsonWriter one at a time. The
+ * document is parsed as it is read through a fixed size buffer, and only the incident being
+ * returned is held in memory, so any number of incidents can be read with constant memory.
+ * The document may be an object with an "incidents" array, as written by IncidentJsonWriter,
+ * or the array by itself. Fields that are not part of the incident schema are skipped.
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class IncidentJsonReader implements Iterator<Incident>, Closeable {
+
+	/** Size of the buffer the document is read through */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/** Marks the end of the document */
+	private static final int EOF = -1;
+
+	/** Reader the document is read from */
+	private final Reader in;
+
+	/** Buffer of characters read from the document */
+	private final char[] buffer;
+
+	/** Position of the next character in the buffer */
+	private int position;
+
+	/** Number of valid characters in the buffer */
+	private int limit;
+
+	/** Line of the document being read, for error messages */
+	private int line;
+
+	/** Builds the Strings read from the document */
+	private final StringBuilder text;
+
+	/** True if the incidents array is an object's field and the object must be closed at the end */
+	private boolean wrapped;
+
+	/** True if the next incident is the first in the array */
+	private boolean first;
+
+	/** True once the end of the incidents array has been read */
+	private boolean done;
+
+
+	/**
+	 * Constructs an IncidentJsonReader for the given stream and reads up to the first incident.
+	 *
+	 * @param in	the stream containing the document
+	 * @throws IllegalArgumentException if the stream does not contain an array of incidents
+	 */
+	public IncidentJsonReader(InputStream in) {
+		this.in = new InputStreamReader(in, StandardCharsets.UTF_8);
+		buffer = new char[BUFFER_SIZE];
+		text = new StringBuilder();
+		line = 1;
+		first = true;
+
+		int c = skipWhitespace();
+		if (c == '{') {
+			read();
+			wrapped = true;
+			findIncidents();
+		}
+		expect('[');
+	}
+
+
+	/**
+	 * Returns true if there is another incident in the document.
+	 *
+	 * @return true if there is another incident
+	 * @throws IllegalArgumentException if the document is malformed
+	 */
+	@Override
+	public boolean hasNext() {
+		if (done) {
+			return false;
+		}
+		int c = skipWhitespace();
+		if (c == ']') {
+			read();
+			if (wrapped) {
+				skipFields();
+			}
+			done = true;
+			return false;
+		}
+		if (!first) {
+			expect(',');
+			first = true;
+		}
+		return true;
+	}
+
+
+	/**
+	 * Reads the next incident in the document.
+	 *
+	 * @return the next incident
+	 * @throws NoSuchElementException if there are no more incidents
+	 * @throws IllegalArgumentException if the document is malformed or the incident is
+	 * 									missing a required field or has a field with an
+	 * 									unknown value, following the rules of IncidentReader
+	 */
+	@Override
+	public Incident next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		first = false;
+
+		Incident incident = new Incident();
+		incident.setId(-1);
+		WorkNotes workNotes = null;
+		expect('{');
+		if (skipWhitespace() == '}') {
+			read();
+		} else {
+			do {
+				String name = readString();
+				expect(':');
+				switch (name) {
+				case "id":
+					incident.setId(readInt());
+					break;
+				case "caller":
+					incident.setCaller(readNullableString());
+					break;
+				case "category":
+					incident.setCategory(readNullableString());
+					break;
+				case "state":
+					incident.setState(readNullableString());
+					break;
+				case "priority":
+					incident.setPriority(readNullableString());
+					break;
+				case "owner":
+					incident.setOwner(readNullableString());
+					break;
+				case "name":
+					incident.setName(readNullableString());
+					break;
+				case "onHoldReason":
+					incident.setOnHoldReason(readNullableString());
+					break;
+				case "changeRequest":
+					incident.setChangeRequest(readNullableString());
+					break;
+				case "resolutionCode":
+					incident.setResolutionCode(readNullableString());
+					break;
+				case "cancellationCode":
+					incident.setCancellationCode(readNullableString());
+					break;
+				case "workNotes":
+					workNotes = new WorkNotes();
+					readNotes(workNotes.getNotes());
+					break;
+				default:
+					skipValue();
+				}
+			} while (nextMember('}'));
+		}
+
+		incident.setWorkNotes(workNotes);
+		try {
+			IncidentArchive.checkIncident(incident);
+		} catch (IncidentIOException e) {
+			throw error("Invalid incident");
+		}
+		return incident;
+	}
+
+
+	/**
+	 * Closes the underlying stream, ignoring any error since the incidents have already
+	 * been read or the original error is being reported.
+	 */
+	@Override
+	public void close() {
+		try {
+			in.close();
+		} catch (IOException e) {
+			//Nothing more can be done with the stream
+		}
+	}
+
+
+	/**
+	 * Skips the fields of the top level object up to the incidents array.
+	 */
+	private void findIncidents() {
+		if (skipWhitespace() == '}') {
+			throw error("No incidents");
+		}
+		while (true) {
+			String name = readString();
+			expect(':');
+			if ("incidents".equals(name)) {
+				return;
+			}
+			skipValue();
+			if (!nextMember('}')) {
+				throw error("No incidents");
+			}
+		}
+	}
+
+
+	/**
+	 * Skips the fields of the top level object after the incidents array, and its end.
+	 */
+	private void skipFields() {
+		while (nextMember('}')) {
+			readString();
+			expect(':');
+			skipValue();
+		}
+	}
+
+
+	/**
+	 * Reads the separator after a member of an object or array.
+	 *
+	 * @param close	the character that closes the object or array
+	 * @return true if another member follows, or false if the object or array was closed
+	 */
+	private boolean nextMember(char close) {
+		int c = skipWhitespace();
+		read();
+		if (c == ',') {
+			return true;
+		}
+		if (c == close) {
+			return false;
+		}
+		throw error("Expected ',' or '" + close + "'");
+	}
+
+
+	/**
+	 * Reads an array of work notes.
+	 *
+	 * @param notes	list the notes are added to
+	 */
+	private void readNotes(List<String> notes) {
+		expect('[');
+		if (skipWhitespace() == ']') {
+			read();
+			return;
+		}
+		do {
+			notes.add(readString());
+		} while (nextMember(']'));
+	}
+
+
+	/**
+	 * Skips a value of any type.
+	 */
+	private void skipValue() {
+		int c = skipWhitespace();
+		if (c == '"') {
+			readString();
+		} else if (c == '{') {
+			read();
+			if (skipWhitespace() == '}') {
+				read();
+				return;
+			}
+			do {
+				readString();
+				expect(':');
+				skipValue();
+			} while (nextMember('}'));
+		} else if (c == '[') {
+			read();
+			if (skipWhitespace() == ']') {
+				read();
+				return;
+			}
+			do {
+				skipValue();
+			} while (nextMember(']'));
+		} else {
+			readLiteral();
+		}
+	}
+
+
+	/**
+	 * Reads a String value, or null.
+	 *
+	 * @return the String, or null if the value is null
+	 */
+	private String readNullableString() {
+		if (skipWhitespace() == 'n') {
+			if (!"null".equals(readLiteral())) {
+				throw error("Expected a string");
+			}
+			return null;
+		}
+		return readString();
+	}
+
+
+	/**
+	 * Reads an integer value.
+	 *
+	 * @return the integer
+	 */
+	private int readInt() {
+		skipWhitespace();
+		String literal = readLiteral();
+		try {
+			return Integer.parseInt(literal);
+		} catch (NumberFormatException e) {
+			throw error("Expected an integer");
+		}
+	}
+
+
+	/**
+	 * Reads a number, true, false, or null.
+	 *
+	 * @return the literal as a String
+	 */
+	private String readLiteral() {
+		text.setLength(0);
+		int c = peek();
+		while (c != EOF && (Character.isLetterOrDigit(c) || c == '-' || c == '+' || c == '.')) {
+			text.append((char) read());
+			c = peek();
+		}
+		if (text.length() == 0) {
+			throw error("Unexpected character");
+		}
+		return text.toString();
+	}
+
+
+	/**
+	 * Reads a quoted String, decoding its escape sequences.
+	 *
+	 * @return the String
+	 */
+	private String readString() {
+		expect('"');
+		text.setLength(0);
+		while (true) {
+			int c = read();
+			if (c == '"') {
+				return text.toString();
+			}
+			if (c == EOF) {
+				throw error("Unterminated string");
+			}
+			if (c != '\\') {
+				text.append((char) c);
+				continue;
+			}
+			c = read();
+			switch (c) {
+			case 'n':
+				text.append('\n');
+				break;
+			case 'r':
+				text.append('\r');
+				break;
+			case 't':
+				text.append('\t');
+				break;
+			case 'b':
+				text.append('\b');
+				break;
+			case 'f':
+				text.append('\f');
+				break;
+			case 'u':
+				int code = 0;
+				for (int i = 0; i < 4; i++) {
+					int digit = Character.digit(read(), 16);
+					if (digit < 0) {
+						throw error("Invalid unicode escape");
+					}
+					code = code * 16 + digit;
+				}
+				text.append((char) code);
+				break;
+			case '"':
+			case '\\':
+			case '/':
+				text.append((char) c);
+				break;
+			default:
+				throw error("Invalid escape");
+			}
+		}
+	}
+
+
+	/**
+	 * Reads the given character after any whitespace.
+	 *
+	 * @param expected	the character expected
+	 */
+	private void expect(char expected) {
+		if (skipWhitespace() != expected) {
+			throw error("Expected '" + expected + "'");
+		}
+		read();
+	}
+
+
+	/**
+	 * Skips whitespace and returns the next character without reading it.
+	 *
+	 * @return the next character, or EOF
+	 */
+	private int skipWhitespace() {
+		int c = peek();
+		while (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+			read();
+			c = peek();
+		}
+		return c;
+	}
+
+
+	/**
+	 * Returns the next character without reading it.
+	 *
+	 * @return the next character, or EOF
+	 */
+	private int peek() {
+		if (position == limit && !fill()) {
+			return EOF;
+		}
+		return buffer[position];
+	}
+
+
+	/**
+	 * Reads the next character.
+	 *
+	 * @return the next character, or EOF
+	 */
+	private int read() {
+		if (position == limit && !fill()) {
+			return EOF;
+		}
+		char c = buffer[position++];
+		if (c == '\n') {
+			line++;
+		}
+		return c;
+	}
+
+
+	/**
+	 * Refills the buffer from the stream.
+	 *
+	 * @return false if the end of the stream was reached
+	 */
+	private boolean fill() {
+		try {
+			int n = in.read(buffer, 0, buffer.length);
+			if (n <= 0) {
+				return false;
+			}
+			position = 0;
+			limit = n;
+			return true;
+		} catch (IOException e) {
+			throw new IllegalArgumentException(e.getMessage());
+		}
+	}
+
+
+	/**
+	 * Creates the exception thrown for a malformed document.
+	 *
+	 * @param message	what was wrong
+	 * @return the exception
+	 */
+	private IllegalArgumentException error(String message) {
+		return new IllegalArgumentException(message + " at line " + line);
+	}
+}
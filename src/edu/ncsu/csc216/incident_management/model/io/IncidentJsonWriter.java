@@ -0,0 +1,217 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.incident_management.model.io;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import edu.ncsu.csc216.incident.xml.Incident;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident;
+
+/**
+ * Writes incidents as a JSON document with the same fields as the incident XML schema, one
+ * incident at a time, so the memory used does not depend on the number of incidents written.
+ * The document has the form
+ *
+ * <pre>
+ * {"incidents":[
+ * {"id":1,"caller":"sesmith5","category":"Software","state":"New","priority":"Urgent",
+ *  "name":"...","workNotes":["..."]},
+ * ...
+ * ]}
+ * </pre>
+ *
+ * Optional fields that are not set, such as the owner or the on hold reason, are left out.
+ * ManagedIncidents are written directly, without converting them to XML Incidents first.
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class IncidentJsonWriter implements Closeable {
+
+	/** Size of the buffer placed around the output stream */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/** Writer the document is written to */
+	private final Writer out;
+
+	/** Number of incidents written so far */
+	private int count;
+
+
+	/**
+	 * Constructs an IncidentJsonWriter that writes to the given stream and starts the document.
+	 *
+	 * @param out	the stream to write to
+	 * @throws IOException if the start of the document cannot be written
+	 */
+	public IncidentJsonWriter(OutputStream out) throws IOException {
+		this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+		this.out.write("{\"incidents\":[");
+	}
+
+
+	/**
+	 * Writes an XML Incident.
+	 *
+	 * @param incident	the incident to write
+	 * @throws IOException if the incident cannot be written
+	 */
+	public void write(Incident incident) throws IOException {
+		beginIncident(incident.getId());
+		writeField("caller", incident.getCaller());
+		writeField("category", incident.getCategory());
+		writeField("state", incident.getState());
+		writeField("priority", incident.getPriority());
+		writeField("owner", incident.getOwner());
+		writeField("name", incident.getName());
+		writeField("onHoldReason", incident.getOnHoldReason());
+		writeField("changeRequest", incident.getChangeRequest());
+		writeField("resolutionCode", incident.getResolutionCode());
+		writeField("cancellationCode", incident.getCancellationCode());
+		writeNotes(incident.getWorkNotes() == null ? null : incident.getWorkNotes().getNotes());
+	}
+
+
+	/**
+	 * Writes a ManagedIncident with the same fields as its XML Incident.
+	 *
+	 * @param incident	the incident to write
+	 * @throws IOException if the incident cannot be written
+	 */
+	public void write(ManagedIncident incident) throws IOException {
+		beginIncident(incident.getIncidentId());
+		writeField("caller", incident.getCaller());
+		writeField("category", incident.getCategoryString());
+		writeField("state", incident.getState().getStateName());
+		writeField("priority", incident.getPriorityString());
+		writeField("owner", incident.getOwner());
+		writeField("name", incident.getName());
+		writeField("onHoldReason", incident.getOnHoldReasonString());
+		writeField("changeRequest", incident.getChangeRequest());
+		writeField("resolutionCode", incident.getResolutionCodeString());
+		writeField("cancellationCode", incident.getCancellationCodeString());
+		writeNotes(incident.getNotes());
+	}
+
+
+	/**
+	 * Retrieves the number of incidents written
+	 *
+	 * @return the number of incidents
+	 */
+	public int getCount() {
+		return count;
+	}
+
+
+	/**
+	 * Ends the document and closes the underlying stream.
+	 *
+	 * @throws IOException if the end of the document cannot be written
+	 */
+	@Override
+	public void close() throws IOException {
+		out.write("\n]}\n");
+		out.close();
+	}
+
+
+	/**
+	 * Starts the object of an incident.
+	 *
+	 * @param id	the id of the incident
+	 * @throws IOException if the incident cannot be written
+	 */
+	private void beginIncident(int id) throws IOException {
+		out.write(count == 0 ? "\n{\"id\":" : ",\n{\"id\":");
+		out.write(Integer.toString(id));
+		count++;
+	}
+
+
+	/**
+	 * Writes a String field of an incident, unless it is null or empty.
+	 *
+	 * @param name	the name of the field
+	 * @param value	the value of the field
+	 * @throws IOException if the field cannot be written
+	 */
+	private void writeField(String name, String value) throws IOException {
+		if (value == null || value.isEmpty()) {
+			return;
+		}
+		out.write(",\"");
+		out.write(name);
+		out.write("\":");
+		writeString(value);
+	}
+
+
+	/**
+	 * Writes the work notes of an incident and ends its object.
+	 *
+	 * @param notes	the work notes, or null
+	 * @throws IOException if the notes cannot be written
+	 */
+	private void writeNotes(List<String> notes) throws IOException {
+		out.write(",\"workNotes\":[");
+		if (notes != null) {
+			for (int i = 0; i < notes.size(); i++) {
+				if (i > 0) {
+					out.write(',');
+				}
+				writeString(notes.get(i));
+			}
+		}
+		out.write("]}");
+	}
+
+
+	/**
+	 * Writes a quoted JSON string, escaping quotes, backslashes, and control characters.
+	 *
+	 * @param value	the String to write
+	 * @throws IOException if the String cannot be written
+	 */
+	private void writeString(String value) throws IOException {
+		out.write('"');
+		int start = 0;
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c != '"' && c != '\\' && c >= ' ') {
+				continue;
+			}
+			out.write(value, start, i - start);
+			start = i + 1;
+			switch (c) {
+			case '"':
+				out.write("\\\"");
+				break;
+			case '\\':
+				out.write("\\\\");
+				break;
+			case '\n':
+				out.write("\\n");
+				break;
+			case '\r':
+				out.write("\\r");
+				break;
+			case '\t':
+				out.write("\\t");
+				break;
+			default:
+				out.write(String.format("\\u%04x", (int) c));
+			}
+		}
+		out.write(value, start, value.length() - start);
+		out.write('"');
+	}
+}
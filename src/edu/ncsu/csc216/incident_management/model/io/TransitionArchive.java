@@ -0,0 +1,349 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.incident_management.model.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+import edu.ncsu.csc216.incident.io.IncidentIOException;
+import edu.ncsu.csc216.incident_management.model.command.Command.CommandValue;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident;
+import edu.ncsu.csc216.incident_management.model.incident.TransitionLog;
+import edu.ncsu.csc216.incident_management.model.incident.UserIdTable;
+
+/**
+ * Reads and writes the transition logs of ManagedIncidents. The incident XML format has
+ * no place for transition history, so the logs are saved to a separate file next to the
+ * incident file, keyed by incident id. A file whose name ends with XML_EXTENSION is
+ * written as XML with the state names and user ids spelled out, and any other file is
+ * written in a compact binary format. The binary format stores each distinct user id once
+ * in a table at the start of the file and refers to it by position, so the references do
+ * not depend on the UserIdTable of the process that wrote the file. The format of a file
+ * being read is detected from its leading magic bytes.
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class TransitionArchive {
+
+	/** File name extension used to request an XML file when saving */
+	public static final String XML_EXTENSION = ".xml";
+
+	/** Magic number at the start of a binary transition log file */
+	static final int MAGIC = 0x49544C47;
+
+	/** Version of the binary format */
+	private static final int VERSION = 1;
+
+	/** Size of the buffers placed around the file streams */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/** Name of the root element of an XML file */
+	private static final String ROOT_ELEMENT = "transitionLogs";
+
+	/** Name of the element holding the transitions of one incident */
+	private static final String INCIDENT_ELEMENT = "incident";
+
+	/** Name of the element holding one transition */
+	private static final String TRANSITION_ELEMENT = "transition";
+
+	/** State names, indexed by ManagedIncident state index */
+	private static final String[] STATE_NAMES = { ManagedIncident.NEW_NAME, ManagedIncident.IN_PROGRESS_NAME,
+			ManagedIncident.ON_HOLD_NAME, ManagedIncident.RESOLVED_NAME, ManagedIncident.CLOSED_NAME,
+			ManagedIncident.CANCELED_NAME };
+
+	/**
+	 * Private constructor, as TransitionArchive only contains static methods
+	 */
+	private TransitionArchive() {
+
+	}
+
+	/**
+	 * Writes the transition logs of the given incidents to a file. The file is written as
+	 * XML if its name ends with XML_EXTENSION, and in the binary format otherwise.
+	 *
+	 * @param fileName	name of the file to write
+	 * @param incidents	incidents whose transition logs are written
+	 * @throws IncidentIOException if the file cannot be created or written to
+	 */
+	public static void writeTransitions(String fileName, List<ManagedIncident> incidents) throws IncidentIOException {
+		OutputStream out = null;
+		try {
+			out = new BufferedOutputStream(new FileOutputStream(fileName), BUFFER_SIZE);
+			if (fileName.endsWith(XML_EXTENSION)) {
+				writeXML(out, incidents);
+			} else {
+				writeBinary(out, incidents);
+			}
+			out.close();
+			out = null;
+		} catch (IOException e) {
+			throw new IncidentIOException(e.getMessage());
+		} catch (XMLStreamException e) {
+			throw new IncidentIOException(e.getMessage());
+		} finally {
+			close(out);
+		}
+	}
+
+	/**
+	 * Reads the transition logs stored in a file, in either format.
+	 *
+	 * @param fileName	name of the file to read
+	 * @return the transition logs in the file, by incident id
+	 * @throws IncidentIOException if the file cannot be read or does not contain valid
+	 * 								transition logs
+	 */
+	public static Map<Integer, TransitionLog> readTransitions(String fileName) throws IncidentIOException {
+		InputStream in = null;
+		try {
+			in = new BufferedInputStream(new FileInputStream(fileName), BUFFER_SIZE);
+			in.mark(4);
+			if (readMagic(in) == MAGIC) {
+				return readBinary(new DataInputStream(in));
+			}
+			in.reset();
+			return readXML(in);
+		} catch (IOException e) {
+			throw new IncidentIOException(e.getMessage());
+		} catch (XMLStreamException e) {
+			throw new IncidentIOException(e.getMessage());
+		} catch (IllegalArgumentException e) {
+			throw new IncidentIOException(e.getMessage());
+		} finally {
+			close(in);
+		}
+	}
+
+	/**
+	 * Reads the first four bytes of a stream as a big-endian int.
+	 *
+	 * @param in	stream to read from
+	 * @return the int, or 0 if the stream is shorter than four bytes
+	 * @throws IOException if the stream cannot be read
+	 */
+	private static int readMagic(InputStream in) throws IOException {
+		int magic = 0;
+		for (int i = 0; i < 4; i++) {
+			int b = in.read();
+			if (b < 0) {
+				return 0;
+			}
+			magic = (magic << 8) | b;
+		}
+		return magic;
+	}
+
+	/**
+	 * Writes the transition logs in the binary format.
+	 *
+	 * @param out		stream to write to
+	 * @param incidents	incidents whose transition logs are written
+	 * @throws IOException if the stream cannot be written to
+	 */
+	private static void writeBinary(OutputStream out, List<ManagedIncident> incidents) throws IOException {
+		HashMap<Integer, Integer> userIndexes = new HashMap<Integer, Integer>();
+		List<String> users = new ArrayList<String>();
+		for (int i = 0; i < incidents.size(); i++) {
+			TransitionLog log = incidents.get(i).getTransitionLog();
+			for (int j = 0; j < log.size(); j++) {
+				int ref = log.getOwnerRef(j);
+				if (ref != UserIdTable.NO_USER && !userIndexes.containsKey(ref)) {
+					userIndexes.put(ref, users.size());
+					users.add(UserIdTable.getInstance().getUserId(ref));
+				}
+			}
+		}
+
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(MAGIC);
+		data.writeShort(VERSION);
+		data.writeInt(users.size());
+		for (int i = 0; i < users.size(); i++) {
+			data.writeUTF(users.get(i));
+		}
+
+		data.writeInt(incidents.size());
+		for (int i = 0; i < incidents.size(); i++) {
+			ManagedIncident incident = incidents.get(i);
+			TransitionLog log = incident.getTransitionLog();
+			data.writeInt(incident.getIncidentId());
+			data.writeInt(log.size());
+			for (int j = 0; j < log.size(); j++) {
+				CommandValue command = log.getCommand(j);
+				int ref = log.getOwnerRef(j);
+				data.writeByte(log.getStateIndex(j));
+				data.writeByte(command == null ? TransitionLog.NO_COMMAND : command.ordinal());
+				data.writeLong(log.getTime(j));
+				data.writeInt(ref == UserIdTable.NO_USER ? -1 : userIndexes.get(ref));
+			}
+		}
+		data.flush();
+	}
+
+	/**
+	 * Reads transition logs in the binary format, after the magic number.
+	 *
+	 * @param data	stream to read from
+	 * @return the transition logs, by incident id
+	 * @throws IOException if the stream cannot be read or is not in the binary format
+	 */
+	private static Map<Integer, TransitionLog> readBinary(DataInputStream data) throws IOException {
+		if (data.readShort() != VERSION) {
+			throw new IOException("Unsupported transition log version");
+		}
+
+		int[] refs = new int[data.readInt()];
+		for (int i = 0; i < refs.length; i++) {
+			refs[i] = UserIdTable.getInstance().getRef(data.readUTF());
+		}
+
+		CommandValue[] commands = CommandValue.values();
+		int incidentCount = data.readInt();
+		Map<Integer, TransitionLog> logs = new LinkedHashMap<Integer, TransitionLog>();
+		for (int i = 0; i < incidentCount; i++) {
+			int id = data.readInt();
+			int size = data.readInt();
+			TransitionLog log = new TransitionLog();
+			for (int j = 0; j < size; j++) {
+				int state = data.readByte();
+				int command = data.readByte();
+				long time = data.readLong();
+				int user = data.readInt();
+				if (command < TransitionLog.NO_COMMAND || command >= commands.length || user < -1 || user >= refs.length) {
+					throw new IOException("Invalid transition");
+				}
+				log.record(state, command == TransitionLog.NO_COMMAND ? null : commands[command], time,
+						user == -1 ? UserIdTable.NO_USER : refs[user]);
+			}
+			logs.put(id, log);
+		}
+		return logs;
+	}
+
+	/**
+	 * Writes the transition logs as XML.
+	 *
+	 * @param out		stream to write to
+	 * @param incidents	incidents whose transition logs are written
+	 * @throws XMLStreamException if the document cannot be written
+	 */
+	private static void writeXML(OutputStream out, List<ManagedIncident> incidents) throws XMLStreamException {
+		XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out, "UTF-8");
+		writer.writeStartDocument("UTF-8", "1.0");
+		writer.writeStartElement(ROOT_ELEMENT);
+		for (int i = 0; i < incidents.size(); i++) {
+			ManagedIncident incident = incidents.get(i);
+			TransitionLog log = incident.getTransitionLog();
+			writer.writeStartElement(INCIDENT_ELEMENT);
+			writer.writeAttribute("id", Integer.toString(incident.getIncidentId()));
+			for (int j = 0; j < log.size(); j++) {
+				writer.writeEmptyElement(TRANSITION_ELEMENT);
+				writer.writeAttribute("state", STATE_NAMES[log.getStateIndex(j)]);
+				if (log.getCommand(j) != null) {
+					writer.writeAttribute("command", log.getCommand(j).name());
+				}
+				writer.writeAttribute("time", Long.toString(log.getTime(j)));
+				if (log.getOwnerRef(j) != UserIdTable.NO_USER) {
+					writer.writeAttribute("owner", UserIdTable.getInstance().getUserId(log.getOwnerRef(j)));
+				}
+			}
+			writer.writeEndElement();
+		}
+		writer.writeEndElement();
+		writer.writeEndDocument();
+		writer.close();
+	}
+
+	/**
+	 * Reads transition logs written as XML.
+	 *
+	 * @param in	stream to read from
+	 * @return the transition logs, by incident id
+	 * @throws XMLStreamException if the document cannot be read
+	 * @throws IllegalArgumentException if an id, state, command, or time is not valid
+	 */
+	private static Map<Integer, TransitionLog> readXML(InputStream in) throws XMLStreamException {
+		XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(in);
+		Map<Integer, TransitionLog> logs = new LinkedHashMap<Integer, TransitionLog>();
+		TransitionLog log = null;
+		try {
+			while (reader.hasNext()) {
+				if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+					continue;
+				}
+
+				if (INCIDENT_ELEMENT.equals(reader.getLocalName())) {
+					log = new TransitionLog();
+					logs.put(Integer.parseInt(reader.getAttributeValue(null, "id")), log);
+				} else if (TRANSITION_ELEMENT.equals(reader.getLocalName())) {
+					if (log == null) {
+						throw new IllegalArgumentException("Transition outside of an incident");
+					}
+					String command = reader.getAttributeValue(null, "command");
+					log.record(stateIndex(reader.getAttributeValue(null, "state")),
+							command == null ? null : CommandValue.valueOf(command),
+							Long.parseLong(reader.getAttributeValue(null, "time")),
+							UserIdTable.getInstance().getRef(reader.getAttributeValue(null, "owner")));
+				}
+			}
+		} finally {
+			reader.close();
+		}
+		return logs;
+	}
+
+	/**
+	 * Converts a state name into its ManagedIncident state index.
+	 *
+	 * @param name	the name of the state
+	 * @return the index of the state
+	 * @throws IllegalArgumentException if name is not the name of a state
+	 */
+	private static int stateIndex(String name) {
+		for (int i = 0; i < STATE_NAMES.length; i++) {
+			if (STATE_NAMES[i].equals(name)) {
+				return i;
+			}
+		}
+		throw new IllegalArgumentException("Could not convert string to state");
+	}
+
+	/**
+	 * Closes the given stream, ignoring any error since the data has already been
+	 * written or the original error is being reported.
+	 *
+	 * @param c	the stream to close, may be null
+	 */
+	private static void close(Closeable c) {
+		if (c != null) {
+			try {
+				c.close();
+			} catch (IOException e) {
+				//Nothing more can be done with the stream
+			}
+		}
+	}
+}
@@ -0,0 +1,356 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.incident_management.model.manager;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collection;
+
+import edu.ncsu.csc216.incident_management.model.command.Command;
+import edu.ncsu.csc216.incident_management.model.command.Command.CancellationCode;
+import edu.ncsu.csc216.incident_management.model.command.Command.OnHoldReason;
+import edu.ncsu.csc216.incident_management.model.command.Command.ResolutionCode;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident;
+import edu.ncsu.csc216.incident_management.model.incident.UserIdTable;
+
+/**
+ * Undo and redo stacks of the commands executed on a ManagedIncidentList. Each step holds
+ * the command and, for every incident it updated, the values of the fields the command
+ * changed as they were before it: the state, owner, on hold reason, resolution code,
+ * cancellation code, and change request, and the number of work notes and transitions.
+ * The values are packed into primitive arrays, so a step costs a few bytes per incident
+ * rather than a copy of each incident, and a command applied to many incidents at once is
+ * undone as one step. Only the latest capacity steps are kept.
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class CommandHistory {
+
+	/** Number of steps kept if no capacity is given */
+	public static final int DEFAULT_CAPACITY = 100;
+
+	/** Number of bits used for the state index in a packed code word */
+	private static final int STATE_BITS = 3;
+
+	/** Mask of the state index in a packed code word */
+	private static final int STATE_MASK = (1 << STATE_BITS) - 1;
+
+	/** Shift of the on hold reason in a packed code word */
+	private static final int ON_HOLD_SHIFT = STATE_BITS;
+
+	/** Shift of the resolution code in a packed code word */
+	private static final int RESOLUTION_SHIFT = ON_HOLD_SHIFT + 2;
+
+	/** Shift of the cancellation code in a packed code word */
+	private static final int CANCELLATION_SHIFT = RESOLUTION_SHIFT + 3;
+
+	/** Mask of the on hold reason once shifted down, holding its ordinal plus one or 0 for null */
+	private static final int ON_HOLD_MASK = 3;
+
+	/** Mask of the resolution code once shifted down, holding its ordinal plus one or 0 for null */
+	private static final int RESOLUTION_MASK = 7;
+
+	/** Mask of the cancellation code once shifted down, holding its ordinal plus one or 0 for null */
+	private static final int CANCELLATION_MASK = 3;
+
+	/** Maximum number of steps kept on each stack */
+	private final int capacity;
+
+	/** Steps that can be undone, latest last */
+	private final ArrayDeque<Step> undoSteps;
+
+	/** Steps that can be redone, latest undone last */
+	private final ArrayDeque<Step> redoSteps;
+
+	/**
+	 * Constructs a CommandHistory that keeps DEFAULT_CAPACITY steps.
+	 */
+	public CommandHistory() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructs a CommandHistory that keeps the given number of steps.
+	 * @param capacity maximum number of steps that can be undone
+	 * @throws IllegalArgumentException if capacity is less than 1
+	 */
+	public CommandHistory(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException();
+		}
+		this.capacity = capacity;
+		undoSteps = new ArrayDeque<Step>();
+		redoSteps = new ArrayDeque<Step>();
+	}
+
+	/**
+	 * Retrieves the number of steps that can be undone.
+	 * @return the number of undo steps
+	 */
+	public int getUndoCount() {
+		return undoSteps.size();
+	}
+
+	/**
+	 * Retrieves the number of steps that can be redone.
+	 * @return the number of redo steps
+	 */
+	public int getRedoCount() {
+		return redoSteps.size();
+	}
+
+	/**
+	 * Drops every step, such as when an incident a step refers to is deleted.
+	 */
+	public void clear() {
+		undoSteps.clear();
+		redoSteps.clear();
+	}
+
+	/**
+	 * Records a new step, which can no longer be redone once anything else is done.
+	 * @param step step to record
+	 */
+	void record(Step step) {
+		push(undoSteps, step);
+		redoSteps.clear();
+	}
+
+	/**
+	 * Records a step that was redone, keeping the steps that can still be redone after it.
+	 * @param step step to record
+	 */
+	void recordRedo(Step step) {
+		push(undoSteps, step);
+	}
+
+	/**
+	 * Takes the latest step to undo and moves it to the redo stack.
+	 * @return the step, or null if there is nothing to undo
+	 */
+	Step takeUndo() {
+		Step step = undoSteps.pollLast();
+		if (step != null) {
+			push(redoSteps, step);
+		}
+		return step;
+	}
+
+	/**
+	 * Retrieves the latest step undone without taking it, so it can be checked before it
+	 * is applied again.
+	 * @return the step, or null if there is nothing to redo
+	 */
+	Step peekRedo() {
+		return redoSteps.peekLast();
+	}
+
+	/**
+	 * Takes the latest step undone so it can be applied again.
+	 * @return the step, or null if there is nothing to redo
+	 */
+	Step takeRedo() {
+		return redoSteps.pollLast();
+	}
+
+	/**
+	 * Pushes a step onto a stack, dropping the oldest step if the stack is full.
+	 * @param steps stack to push onto
+	 * @param step step to push
+	 */
+	private void push(ArrayDeque<Step> steps, Step step) {
+		if (steps.size() == capacity) {
+			steps.pollFirst();
+		}
+		steps.addLast(step);
+	}
+
+	/**
+	 * Captures the fields of the incidents a command is about to change.
+	 * @param c command about to be applied
+	 * @param incidents incidents the command is about to be applied to
+	 * @return the step undoing the command
+	 */
+	static Step capture(Command c, Collection<ManagedIncident> incidents) {
+		Step step = new Step(c, incidents.size());
+		int i = 0;
+		for (ManagedIncident incident : incidents) {
+			step.ids[i] = incident.getIncidentId();
+			step.owners[i] = incident.getOwnerRef();
+			step.notes[i] = incident.getNoteCount();
+			step.transitions[i] = incident.getTransitionLog().size();
+			step.codes[i] = (short) (incident.getStateIndex()
+					| ordinal(incident.getOnHoldReason()) << ON_HOLD_SHIFT
+					| ordinal(incident.getResolutionCode()) << RESOLUTION_SHIFT
+					| ordinal(incident.getCancellationCode()) << CANCELLATION_SHIFT);
+			if (incident.getChangeRequest() != null) {
+				if (step.changeRequests == null) {
+					step.changeRequests = new String[step.ids.length];
+				}
+				step.changeRequests[i] = incident.getChangeRequest();
+			}
+			i++;
+		}
+		return step;
+	}
+
+	/**
+	 * Converts an enum into the value stored in a packed code word.
+	 * @param value enum value, may be null
+	 * @return the ordinal of the value plus one, or 0 for null
+	 */
+	private static int ordinal(Enum<?> value) {
+		return value == null ? 0 : value.ordinal() + 1;
+	}
+
+	/**
+	 * Converts a value stored in a packed code word back into an enum.
+	 * @param <E> type of the enum
+	 * @param values values of the enum
+	 * @param code value stored in the code word
+	 * @return the enum value, or null
+	 */
+	private static <E> E valueOf(E[] values, int code) {
+		return code == 0 ? null : values[code - 1];
+	}
+
+	/**
+	 * One command executed on one or more incidents, with the values needed to undo it.
+	 */
+	static final class Step {
+
+		/** Command executed */
+		private final Command command;
+
+		/** Ids of the incidents the command was applied to */
+		private final int[] ids;
+
+		/** UserIdTable references of the owners before the command */
+		private final int[] owners;
+
+		/** Number of work notes before the command */
+		private final int[] notes;
+
+		/** Number of transitions before the command */
+		private final int[] transitions;
+
+		/** State index and codes before the command, packed into one word per incident */
+		private final short[] codes;
+
+		/** Change requests before the command, or null if none of the incidents had one */
+		private String[] changeRequests;
+
+		/**
+		 * Constructs a Step for the given number of incidents.
+		 * @param command command executed
+		 * @param size number of incidents
+		 */
+		private Step(Command command, int size) {
+			this.command = command;
+			ids = new int[size];
+			owners = new int[size];
+			notes = new int[size];
+			transitions = new int[size];
+			codes = new short[size];
+		}
+
+		/**
+		 * Retrieves the command executed.
+		 * @return the command
+		 */
+		Command getCommand() {
+			return command;
+		}
+
+		/**
+		 * Retrieves the number of incidents the command was applied to.
+		 * @return the number of incidents
+		 */
+		int size() {
+			return ids.length;
+		}
+
+		/**
+		 * Retrieves the id of an incident the command was applied to.
+		 * @param i position of the incident in the step
+		 * @return the id of the incident
+		 */
+		int getId(int i) {
+			return ids[i];
+		}
+
+		/**
+		 * Retrieves the number of work notes an incident had before the command.
+		 * @param i position of the incident in the step
+		 * @return the number of work notes
+		 */
+		int getNoteCount(int i) {
+			return notes[i];
+		}
+
+		/**
+		 * Puts an incident back to the values it had before the command.
+		 * @param i position of the incident in the step
+		 * @param incident the incident with id getId(i)
+		 */
+		void revert(int i, ManagedIncident incident) {
+			int code = codes[i];
+			incident.revert(code & STATE_MASK, owners[i],
+					valueOf(OnHoldReason.values(), code >> ON_HOLD_SHIFT & ON_HOLD_MASK),
+					valueOf(ResolutionCode.values(), code >> RESOLUTION_SHIFT & RESOLUTION_MASK),
+					valueOf(CancellationCode.values(), code >> CANCELLATION_SHIFT & CANCELLATION_MASK),
+					changeRequests == null ? null : changeRequests[i], notes[i], transitions[i]);
+		}
+
+		/**
+		 * Writes the values needed to revert the step to an event log. Owners are written as 
+		 * user ids, since UserIdTable references only hold within one run. The command is not 
+		 * written.
+		 * @param out stream to write to
+		 * @throws IOException if the step cannot be written
+		 */
+		void write(DataOutputStream out) throws IOException {
+			UserIdTable users = UserIdTable.getInstance();
+			out.writeInt(ids.length);
+			for (int i = 0; i < ids.length; i++) {
+				out.writeInt(ids[i]);
+				IncidentEventLog.writeString(out, users.getUserId(owners[i]));
+				out.writeInt(notes[i]);
+				out.writeInt(transitions[i]);
+				out.writeShort(codes[i]);
+				IncidentEventLog.writeString(out, changeRequests == null ? null : changeRequests[i]);
+			}
+		}
+
+		/**
+		 * Reads a step written by write(). The step read has no command, so it can be 
+		 * reverted but not redone.
+		 * @param in stream to read from
+		 * @return the step
+		 * @throws IOException if the step cannot be read
+		 */
+		static Step read(DataInputStream in) throws IOException {
+			UserIdTable users = UserIdTable.getInstance();
+			Step step = new Step(null, in.readInt());
+			for (int i = 0; i < step.ids.length; i++) {
+				step.ids[i] = in.readInt();
+				step.owners[i] = users.getRef(IncidentEventLog.readString(in));
+				step.notes[i] = in.readInt();
+				step.transitions[i] = in.readInt();
+				step.codes[i] = in.readShort();
+				String changeRequest = IncidentEventLog.readString(in);
+				if (changeRequest != null) {
+					if (step.changeRequests == null) {
+						step.changeRequests = new String[step.ids.length];
+					}
+					step.changeRequests[i] = changeRequest;
+				}
+			}
+			return step;
+		}
+	}
+}
@@ -0,0 +1,293 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.incident_management.model.manager;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import edu.ncsu.csc216.incident_management.model.command.Command.OnHoldReason;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Category;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Priority;
+import edu.ncsu.csc216.incident_management.model.incident.TransitionLog;
+
+/**
+ * Service level figures computed over a list of ManagedIncidents at a point in time: the
+ * mean time to resolve by Category and by Priority, the number of incidents in each state,
+ * and the number of On Hold incidents in each aging bucket by OnHoldReason. The figures are
+ * computed in one pass over the list, which is split into partitions that are aggregated in
+ * parallel on the fork-join pool and then merged. Times are taken from the TransitionLog
+ * of each incident, so incidents whose history was not recorded or loaded are counted by
+ * state but left out of the time based figures.
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class IncidentAnalytics {
+
+	/** Value returned for a mean time to resolve when no incident has been resolved */
+	public static final long NO_DATA = -1;
+
+	/** Upper limits of the On Hold aging buckets, in milliseconds; the last bucket has no limit */
+	private static final long[] AGING_BUCKET_LIMITS = { 24L * 60 * 60 * 1000, 3L * 24 * 60 * 60 * 1000,
+			7L * 24 * 60 * 60 * 1000 };
+
+	/** Number of On Hold aging buckets */
+	public static final int AGING_BUCKET_COUNT = AGING_BUCKET_LIMITS.length + 1;
+
+	/** Number of incidents below which a partition is aggregated without being split */
+	private static final int PARTITION_SIZE = 1024;
+
+	/** Total time to resolve of the resolved incidents of each category */
+	private final long[] resolveTimeByCategory;
+
+	/** Number of resolved incidents of each category with a known time to resolve */
+	private final int[] resolvedByCategory;
+
+	/** Total time to resolve of the resolved incidents of each priority */
+	private final long[] resolveTimeByPriority;
+
+	/** Number of resolved incidents of each priority with a known time to resolve */
+	private final int[] resolvedByPriority;
+
+	/** Number of incidents in each state, by state index */
+	private final int[] stateCounts;
+
+	/** Number of On Hold incidents in each aging bucket, by OnHoldReason */
+	private final int[][] onHoldAging;
+
+
+	/**
+	 * Constructs an IncidentAnalytics with every figure at zero.
+	 */
+	private IncidentAnalytics() {
+		resolveTimeByCategory = new long[Category.values().length];
+		resolvedByCategory = new int[Category.values().length];
+		resolveTimeByPriority = new long[Priority.values().length];
+		resolvedByPriority = new int[Priority.values().length];
+		stateCounts = new int[ManagedIncident.STATE_COUNT];
+		onHoldAging = new int[OnHoldReason.values().length][AGING_BUCKET_COUNT];
+	}
+
+
+	/**
+	 * Computes the figures for the given incidents. The incidents must not be changed while
+	 * the figures are computed.
+	 *
+	 * @param incidents	the incidents to compute the figures for
+	 * @param now		the time the figures are computed at, in epoch milliseconds
+	 * @return the figures for the incidents
+	 * @throws IllegalArgumentException if incidents is null
+	 */
+	public static IncidentAnalytics compute(List<ManagedIncident> incidents, long now) {
+		if (incidents == null) {
+			throw new IllegalArgumentException();
+		}
+		return ForkJoinPool.commonPool().invoke(new AggregateTask(incidents, 0, incidents.size(), now));
+	}
+
+
+	/**
+	 * Retrieves the mean time from creation to the first resolution of the resolved incidents
+	 * of the given category
+	 *
+	 * @param category	the category
+	 * @return the mean time to resolve in milliseconds, or NO_DATA if none were resolved
+	 */
+	public long getMeanTimeToResolve(Category category) {
+		int count = resolvedByCategory[category.ordinal()];
+		return count == 0 ? NO_DATA : resolveTimeByCategory[category.ordinal()] / count;
+	}
+
+
+	/**
+	 * Retrieves the mean time from creation to the first resolution of the resolved incidents
+	 * of the given priority
+	 *
+	 * @param priority	the priority
+	 * @return the mean time to resolve in milliseconds, or NO_DATA if none were resolved
+	 */
+	public long getMeanTimeToResolve(Priority priority) {
+		int count = resolvedByPriority[priority.ordinal()];
+		return count == 0 ? NO_DATA : resolveTimeByPriority[priority.ordinal()] / count;
+	}
+
+
+	/**
+	 * Retrieves the number of resolved incidents of the given category with a known time
+	 * to resolve
+	 *
+	 * @param category	the category
+	 * @return the number of resolved incidents
+	 */
+	public int getResolvedCount(Category category) {
+		return resolvedByCategory[category.ordinal()];
+	}
+
+
+	/**
+	 * Retrieves the number of incidents in the given state
+	 *
+	 * @param stateIndex	the index of the state, one of the ManagedIncident *_INDEX constants
+	 * @return the number of incidents in the state
+	 */
+	public int getStateCount(int stateIndex) {
+		return stateCounts[stateIndex];
+	}
+
+
+	/**
+	 * Retrieves the upper limit of an On Hold aging bucket
+	 *
+	 * @param bucket	the aging bucket, from 0 to AGING_BUCKET_COUNT - 1
+	 * @return the upper limit in milliseconds, or Long.MAX_VALUE for the last bucket
+	 */
+	public static long getAgingBucketLimit(int bucket) {
+		return bucket < AGING_BUCKET_LIMITS.length ? AGING_BUCKET_LIMITS[bucket] : Long.MAX_VALUE;
+	}
+
+
+	/**
+	 * Retrieves the number of On Hold incidents with the given reason that have been on hold
+	 * for a time in the given aging bucket. Bucket i holds the incidents on hold for less
+	 * than the limit of bucket i and at least the limit of the bucket before it.
+	 *
+	 * @param reason	the on hold reason
+	 * @param bucket	the aging bucket, from 0 to AGING_BUCKET_COUNT - 1
+	 * @return the number of incidents in the bucket
+	 */
+	public int getOnHoldCount(OnHoldReason reason, int bucket) {
+		return onHoldAging[reason.ordinal()][bucket];
+	}
+
+
+	/**
+	 * Adds a single incident to the figures
+	 *
+	 * @param incident	the incident to add
+	 * @param now		the time the figures are computed at
+	 */
+	private void add(ManagedIncident incident, long now) {
+		int state = incident.getStateIndex();
+		stateCounts[state]++;
+
+		TransitionLog log = incident.getTransitionLog();
+		int size = log.size();
+		if (size == 0) {
+			return;
+		}
+
+		//The creation time is only known if the first entry was not caused by a command
+		for (int i = 1; i < size && log.getCommand(0) == null; i++) {
+			if (log.getStateIndex(i) == ManagedIncident.RESOLVED_INDEX) {
+				long time = log.getTime(i) - log.getTime(0);
+				resolveTimeByCategory[incident.getCategory().ordinal()] += time;
+				resolvedByCategory[incident.getCategory().ordinal()]++;
+				resolveTimeByPriority[incident.getPriority().ordinal()] += time;
+				resolvedByPriority[incident.getPriority().ordinal()]++;
+				break;
+			}
+		}
+
+		if (state == ManagedIncident.ON_HOLD_INDEX && incident.getOnHoldReason() != null
+				&& log.getStateIndex(size - 1) == ManagedIncident.ON_HOLD_INDEX) {
+			long age = now - log.getTime(size - 1);
+			int bucket = 0;
+			while (bucket < AGING_BUCKET_LIMITS.length && age >= AGING_BUCKET_LIMITS[bucket]) {
+				bucket++;
+			}
+			onHoldAging[incident.getOnHoldReason().ordinal()][bucket]++;
+		}
+	}
+
+
+	/**
+	 * Adds the figures of another partition to these figures
+	 *
+	 * @param other	the figures to add
+	 */
+	private void merge(IncidentAnalytics other) {
+		for (int i = 0; i < resolvedByCategory.length; i++) {
+			resolveTimeByCategory[i] += other.resolveTimeByCategory[i];
+			resolvedByCategory[i] += other.resolvedByCategory[i];
+		}
+		for (int i = 0; i < resolvedByPriority.length; i++) {
+			resolveTimeByPriority[i] += other.resolveTimeByPriority[i];
+			resolvedByPriority[i] += other.resolvedByPriority[i];
+		}
+		for (int i = 0; i < stateCounts.length; i++) {
+			stateCounts[i] += other.stateCounts[i];
+		}
+		for (int i = 0; i < onHoldAging.length; i++) {
+			for (int j = 0; j < AGING_BUCKET_COUNT; j++) {
+				onHoldAging[i][j] += other.onHoldAging[i][j];
+			}
+		}
+	}
+
+
+	/**
+	 * Aggregates a range of a list of incidents, splitting it in half until the ranges are
+	 * small enough to aggregate directly.
+	 *
+	 * @author Bilal Mohamad
+	 * @author Keaton Thurston
+	 */
+	private static class AggregateTask extends RecursiveTask<IncidentAnalytics> {
+
+		/** Serial version id */
+		private static final long serialVersionUID = 1L;
+
+		/** The list of incidents */
+		private final List<ManagedIncident> incidents;
+
+		/** Start of the range, inclusive */
+		private final int from;
+
+		/** End of the range, exclusive */
+		private final int to;
+
+		/** The time the figures are computed at */
+		private final long now;
+
+		/**
+		 * Constructs an AggregateTask for a range of a list.
+		 *
+		 * @param incidents	the list of incidents
+		 * @param from		start of the range, inclusive
+		 * @param to		end of the range, exclusive
+		 * @param now		the time the figures are computed at
+		 */
+		private AggregateTask(List<ManagedIncident> incidents, int from, int to, long now) {
+			this.incidents = incidents;
+			this.from = from;
+			this.to = to;
+			this.now = now;
+		}
+
+		/**
+		 * Aggregates the range.
+		 *
+		 * @return the figures for the range
+		 */
+		@Override
+		protected IncidentAnalytics compute() {
+			if (to - from <= PARTITION_SIZE) {
+				IncidentAnalytics result = new IncidentAnalytics();
+				for (int i = from; i < to; i++) {
+					result.add(incidents.get(i), now);
+				}
+				return result;
+			}
+
+			int middle = (from + to) >>> 1;
+			AggregateTask left = new AggregateTask(incidents, from, middle, now);
+			left.fork();
+			IncidentAnalytics result = new AggregateTask(incidents, middle, to, now).compute();
+			result.merge(left.join());
+			return result;
+		}
+	}
+}
@@ -0,0 +1,141 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.incident_management.model.manager;
+
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Category;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Priority;
+
+/**
+ * An immutable snapshot of the number of incidents in each combination of state, Category,
+ * and Priority, taken from the counters a ManagedIncidentList keeps up to date. Totals over
+ * any of the three dimensions are added up from the cells of the snapshot.
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class IncidentCounts {
+
+	/** Number of categories */
+	private static final int CATEGORIES = Category.values().length;
+
+	/** Number of priorities */
+	private static final int PRIORITIES = Priority.values().length;
+
+	/** Number of cells in a snapshot */
+	static final int CELL_COUNT = ManagedIncident.STATE_COUNT * CATEGORIES * PRIORITIES;
+
+	/** The count of each cell, indexed by cell() */
+	private final long[] counts;
+
+
+	/**
+	 * Constructs an IncidentCounts from the counts of each cell.
+	 *
+	 * @param counts	the count of each cell, indexed by cell()
+	 */
+	IncidentCounts(long[] counts) {
+		this.counts = counts;
+	}
+
+
+	/**
+	 * Computes the position of a cell in the flattened matrix of counts
+	 *
+	 * @param stateIndex	the index of the state
+	 * @param category		the category
+	 * @param priority		the priority
+	 * @return the position of the cell
+	 */
+	static int cell(int stateIndex, Category category, Priority priority) {
+		return (stateIndex * CATEGORIES + category.ordinal()) * PRIORITIES + priority.ordinal();
+	}
+
+
+	/**
+	 * Retrieves the number of incidents in the given state with the given category and priority
+	 *
+	 * @param stateIndex	the index of the state, one of the ManagedIncident *_INDEX constants
+	 * @param category		the category
+	 * @param priority		the priority
+	 * @return the number of incidents
+	 */
+	public long getCount(int stateIndex, Category category, Priority priority) {
+		return counts[cell(stateIndex, category, priority)];
+	}
+
+
+	/**
+	 * Retrieves the number of incidents in the given state
+	 *
+	 * @param stateIndex	the index of the state, one of the ManagedIncident *_INDEX constants
+	 * @return the number of incidents in the state
+	 */
+	public long getStateCount(int stateIndex) {
+		long total = 0;
+		int start = stateIndex * CATEGORIES * PRIORITIES;
+		for (int i = start; i < start + CATEGORIES * PRIORITIES; i++) {
+			total += counts[i];
+		}
+		return total;
+	}
+
+
+	/**
+	 * Retrieves the number of incidents in the given state with the given priority, such as
+	 * the number of Urgent incidents in the New state
+	 *
+	 * @param stateIndex	the index of the state, one of the ManagedIncident *_INDEX constants
+	 * @param priority		the priority
+	 * @return the number of incidents
+	 */
+	public long getCount(int stateIndex, Priority priority) {
+		long total = 0;
+		for (Category category : Category.values()) {
+			total += counts[cell(stateIndex, category, priority)];
+		}
+		return total;
+	}
+
+
+	/**
+	 * Retrieves the number of incidents of the given category
+	 *
+	 * @param category	the category
+	 * @return the number of incidents of the category
+	 */
+	public long getCategoryCount(Category category) {
+		long total = 0;
+		for (int state = 0; state < ManagedIncident.STATE_COUNT; state++) {
+			for (Priority priority : Priority.values()) {
+				total += counts[cell(state, category, priority)];
+			}
+		}
+		return total;
+	}
+
+
+	/**
+	 * Retrieves the number of incidents that are not Closed or Canceled
+	 *
+	 * @return the number of open incidents
+	 */
+	public long getOpenCount() {
+		return getTotal() - getStateCount(ManagedIncident.CLOSED_INDEX) - getStateCount(ManagedIncident.CANCELED_INDEX);
+	}
+
+
+	/**
+	 * Retrieves the total number of incidents
+	 *
+	 * @return the number of incidents
+	 */
+	public long getTotal() {
+		long total = 0;
+		for (int i = 0; i < counts.length; i++) {
+			total += counts[i];
+		}
+		return total;
+	}
+}
@@ -0,0 +1,668 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.incident_management.model.manager;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.ncsu.csc216.incident.io.IncidentIOException;
+import edu.ncsu.csc216.incident_management.model.command.Command;
+import edu.ncsu.csc216.incident_management.model.command.Command.CancellationCode;
+import edu.ncsu.csc216.incident_management.model.command.Command.CommandValue;
+import edu.ncsu.csc216.incident_management.model.command.Command.OnHoldReason;
+import edu.ncsu.csc216.incident_management.model.command.Command.ResolutionCode;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Category;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Priority;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.UpdateResult;
+import edu.ncsu.csc216.incident_management.model.io.IncidentJsonReader;
+import edu.ncsu.csc216.incident_management.model.io.IncidentJsonWriter;
+
+/**
+ * Ordered log of every change made to a ManagedIncidentList, from which the list can be
+ * rebuilt as it was after any event. Each incident created, command applied, command
+ * undone, and incident deleted is appended as an event. An undone command is logged as the
+ * values its incidents were put back to, so it costs about as much as the command did.
+ * Loading incidents from a file or starting a new list
+ * replaces the incidents wholesale, so it is logged as a reset event together with a
+ * snapshot of the incidents after it.
+ *
+ * Every snapshotInterval events a snapshot of all of the incidents is also taken, so a
+ * list is rebuilt by restoring the latest snapshot at or before the point wanted and
+ * replaying only the events after it. Snapshots are kept as JSON documents written by
+ * IncidentJsonWriter. Replayed incidents are given the ids they had when the events were
+ * logged, but their transition logs only start at the snapshot they were restored from.
+ *
+ * Only the latest maxSnapshots snapshots are kept. When a snapshot is taken beyond that,
+ * the oldest snapshot is dropped along with the events before the oldest snapshot left, so
+ * the memory used by the log is bounded by the snapshot interval and maxSnapshots rather
+ * than growing with every change. Events keep the sequence numbers they were logged with,
+ * and the list can be rebuilt as it was at any point from the oldest snapshot kept onward.
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class IncidentEventLog {
+
+	/** Number of events between snapshots if none is given */
+	public static final int DEFAULT_SNAPSHOT_INTERVAL = 1000;
+
+	/** Number of snapshots kept if none is given */
+	public static final int DEFAULT_MAX_SNAPSHOTS = 10;
+
+	/** Magic number at the start of an event log file */
+	static final int MAGIC = 0x4945564C;
+
+	/** Version of the event log file format */
+	private static final int VERSION = 3;
+
+	/** Version of the event log file format written before undone commands were logged */
+	private static final int VERSION_2 = 2;
+
+	/** Version of the event log file format written before snapshots were dropped */
+	private static final int VERSION_1 = 1;
+
+	/** Size of the buffers placed around the file streams */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/** Stored in place of a null String or enum */
+	private static final int NULL_VALUE = -1;
+
+	/** Number of events between snapshots */
+	private final int snapshotInterval;
+
+	/** Number of snapshots kept */
+	private final int maxSnapshots;
+
+	/** The events kept, in the order they were logged */
+	private final ArrayList<Event> events;
+
+	/** Number of events dropped from the start of the log, which is the sequence number of the oldest snapshot */
+	private int dropped;
+
+	/** The snapshots in the order they were taken */
+	private final ArrayList<Snapshot> snapshots;
+
+	/** Number of events logged since the last snapshot */
+	private int eventsSinceSnapshot;
+
+	/** The kinds of event in the log */
+	private enum Kind { CREATE, COMMAND, DELETE, RESET, REVERT }
+
+	/**
+	 * Constructs an IncidentEventLog that takes a snapshot every DEFAULT_SNAPSHOT_INTERVAL events.
+	 */
+	public IncidentEventLog() {
+		this(DEFAULT_SNAPSHOT_INTERVAL);
+	}
+
+	/**
+	 * Constructs an IncidentEventLog that takes a snapshot every snapshotInterval events and 
+	 * keeps DEFAULT_MAX_SNAPSHOTS snapshots.
+	 * @param snapshotInterval number of events between snapshots
+	 * @throws IllegalArgumentException if snapshotInterval is less than 1
+	 */
+	public IncidentEventLog(int snapshotInterval) {
+		this(snapshotInterval, DEFAULT_MAX_SNAPSHOTS);
+	}
+
+	/**
+	 * Constructs an IncidentEventLog that takes a snapshot every snapshotInterval events and 
+	 * keeps the latest maxSnapshots snapshots. The log starts with a snapshot of an empty list.
+	 * @param snapshotInterval number of events between snapshots
+	 * @param maxSnapshots number of snapshots kept
+	 * @throws IllegalArgumentException if snapshotInterval or maxSnapshots is less than 1
+	 */
+	public IncidentEventLog(int snapshotInterval, int maxSnapshots) {
+		if (snapshotInterval < 1 || maxSnapshots < 1) {
+			throw new IllegalArgumentException();
+		}
+		this.snapshotInterval = snapshotInterval;
+		this.maxSnapshots = maxSnapshots;
+		events = new ArrayList<Event>();
+		snapshots = new ArrayList<Snapshot>();
+		snapshot(new ArrayList<ManagedIncident>(), 0);
+	}
+
+	/**
+	 * Logs the creation of an incident.
+	 * @param id id given to the incident
+	 * @param caller user id of person who reported the incident
+	 * @param category Category of the incident
+	 * @param priority Priority of the incident
+	 * @param name incident's name information
+	 * @param workNote work note for the incident
+	 */
+	public synchronized void recordCreate(int id, String caller, Category category, Priority priority,
+			String name, String workNote) {
+		append(new Event(System.currentTimeMillis(), Kind.CREATE, id, caller, category, priority, name, workNote, null, null));
+	}
+
+	/**
+	 * Logs a command applied to an incident.
+	 * @param id id of the incident
+	 * @param c command applied
+	 */
+	public synchronized void recordCommand(int id, Command c) {
+		append(new Event(System.currentTimeMillis(), Kind.COMMAND, id, null, null, null, null, null, c, null));
+	}
+
+	/**
+	 * Logs the deletion of an incident.
+	 * @param id id of the incident
+	 */
+	public synchronized void recordDelete(int id) {
+		append(new Event(System.currentTimeMillis(), Kind.DELETE, id, null, null, null, null, null, null, null));
+	}
+
+	/**
+	 * Logs a command undone, as the step holding the values its incidents were put back to.
+	 * @param step step undone
+	 */
+	synchronized void recordRevert(CommandHistory.Step step) {
+		append(new Event(System.currentTimeMillis(), Kind.REVERT, NULL_VALUE, null, null, null, null, null, null,
+				step));
+	}
+
+	/**
+	 * Logs that the incidents were replaced wholesale, such as by loading a file, and takes a
+	 * snapshot of the incidents after the change.
+	 * @param incidents the incidents after the change
+	 * @param nextId id the list will give its next incident
+	 */
+	public synchronized void recordReset(List<ManagedIncident> incidents, int nextId) {
+		append(new Event(System.currentTimeMillis(), Kind.RESET, NULL_VALUE, null, null, null, null, null, null, null));
+		snapshot(incidents, nextId);
+	}
+
+	/**
+	 * Checks whether snapshotInterval events have been logged since the last snapshot.
+	 * @return true if a snapshot should be taken
+	 */
+	public synchronized boolean isSnapshotDue() {
+		return eventsSinceSnapshot >= snapshotInterval;
+	}
+
+	/**
+	 * Takes a snapshot of the given incidents, which must be the incidents as they are after
+	 * the last event logged. If more than maxSnapshots snapshots are then kept, the oldest 
+	 * are dropped along with the events before the oldest snapshot left.
+	 * @param incidents the incidents to take a snapshot of
+	 * @param nextId id the list will give its next incident
+	 * @throws IllegalArgumentException if the snapshot cannot be written
+	 */
+	public synchronized void snapshot(List<ManagedIncident> incidents, int nextId) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try {
+			IncidentJsonWriter writer = new IncidentJsonWriter(bytes);
+			for (int i = 0; i < incidents.size(); i++) {
+				writer.write(incidents.get(i));
+			}
+			writer.close();
+		} catch (IOException e) {
+			throw new IllegalArgumentException(e.getMessage());
+		}
+		snapshots.add(new Snapshot(getEventCount(), System.currentTimeMillis(), nextId, bytes.toByteArray()));
+		eventsSinceSnapshot = 0;
+		dropOldSnapshots();
+	}
+
+	/**
+	 * Drops the oldest snapshots until at most maxSnapshots are kept, and the events before 
+	 * the oldest snapshot left, which can no longer be replayed.
+	 */
+	private void dropOldSnapshots() {
+		while (snapshots.size() > maxSnapshots) {
+			snapshots.remove(0);
+		}
+		int oldest = snapshots.get(0).sequence;
+		if (oldest > dropped) {
+			events.subList(0, oldest - dropped).clear();
+			dropped = oldest;
+		}
+	}
+
+	/**
+	 * Retrieves the number of events logged, including events that have been dropped. This 
+	 * is the sequence number of the last event logged.
+	 * @return the number of events
+	 */
+	public synchronized int getEventCount() {
+		return dropped + events.size();
+	}
+
+	/**
+	 * Retrieves the sequence number of the oldest snapshot kept. The list can be rebuilt as 
+	 * it was after this event or any later one.
+	 * @return the sequence number of the oldest snapshot, or 0 if no events have been dropped
+	 */
+	public synchronized int getOldestSequence() {
+		return snapshots.get(0).sequence;
+	}
+
+	/**
+	 * Retrieves the number of snapshots kept, including the snapshot of the empty list the
+	 * log starts with until it is dropped.
+	 * @return the number of snapshots
+	 */
+	public synchronized int getSnapshotCount() {
+		return snapshots.size();
+	}
+
+	/**
+	 * Retrieves the number of snapshots kept before the oldest are dropped.
+	 * @return the maximum number of snapshots
+	 */
+	public int getMaxSnapshots() {
+		return maxSnapshots;
+	}
+
+	/**
+	 * Retrieves the number of events between snapshots.
+	 * @return the snapshot interval
+	 */
+	public int getSnapshotInterval() {
+		return snapshotInterval;
+	}
+
+	/**
+	 * Retrieves the time the event with the given sequence number was logged. The first
+	 * event has sequence number 1.
+	 * @param sequence sequence number of the event
+	 * @return time of the event in milliseconds since the epoch
+	 * @throws IllegalArgumentException if there is no event with the sequence number or the 
+	 * event has been dropped
+	 */
+	public synchronized long getEventTime(int sequence) {
+		if (sequence <= dropped || sequence > getEventCount()) {
+			throw new IllegalArgumentException();
+		}
+		return events.get(sequence - 1 - dropped).time;
+	}
+
+	/**
+	 * Rebuilds the list as it was after the last event logged at or before the given time.
+	 * @param time time in milliseconds since the epoch
+	 * @return a new list of the incidents as they were at the time
+	 * @throws IllegalArgumentException if the time is before the oldest snapshot kept and 
+	 * events have been dropped
+	 */
+	public synchronized ManagedIncidentList rebuildAt(long time) {
+		int sequence = getEventCount();
+		while (sequence > dropped && events.get(sequence - 1 - dropped).time > time) {
+			sequence--;
+		}
+		if (sequence == dropped && dropped > 0 && snapshots.get(0).time > time) {
+			throw new IllegalArgumentException();
+		}
+		return rebuildThrough(sequence);
+	}
+
+	/**
+	 * Rebuilds the list as it was after the last event logged.
+	 * @return a new list of the incidents as they are after the last event
+	 */
+	public synchronized ManagedIncidentList rebuild() {
+		return rebuildThrough(getEventCount());
+	}
+
+	/**
+	 * Rebuilds the list as it was after the event with the given sequence number by restoring
+	 * the latest snapshot at or before the event and replaying the events after the snapshot.
+	 * The rebuilt list has an id allocator of its own, set to the id the original list would 
+	 * have given its next incident after the event.
+	 * @param sequence sequence number of the last event to replay, or 0 for none
+	 * @return a new list of the incidents as they were after the event
+	 * @throws IllegalArgumentException if there is no event with the sequence number, the 
+	 * event is before the oldest snapshot kept, or an event cannot be replayed
+	 */
+	public synchronized ManagedIncidentList rebuildThrough(int sequence) {
+		if (sequence < getOldestSequence() || sequence > getEventCount()) {
+			throw new IllegalArgumentException();
+		}
+		int s = snapshots.size() - 1;
+		while (snapshots.get(s).sequence > sequence) {
+			s--;
+		}
+		Snapshot snapshot = snapshots.get(s);
+
+		ManagedIncidentList list = new ManagedIncidentList();
+		IncidentJsonReader reader = new IncidentJsonReader(new ByteArrayInputStream(snapshot.incidents));
+		try {
+			list.addXMLIncidents(reader);
+		} finally {
+			reader.close();
+		}
+		if (snapshot.nextId > 0) {
+			list.getIdAllocator().reserve(snapshot.nextId - 1);
+		}
+
+		for (int i = snapshot.sequence; i < sequence; i++) {
+			replay(list, events.get(i - dropped));
+		}
+		return list;
+	}
+
+	/**
+	 * Applies a logged event to a list being rebuilt.
+	 * @param list list being rebuilt
+	 * @param event event to apply
+	 * @throws IllegalArgumentException if the event cannot be applied to the list
+	 */
+	private static void replay(ManagedIncidentList list, Event event) {
+		switch (event.kind) {
+		case CREATE:
+			list.addIncident(event.id, event.caller, event.category, event.priority, event.name, event.note);
+			break;
+		case COMMAND:
+			if (list.tryExecuteCommand(event.id, event.command) != UpdateResult.APPLIED) {
+				throw new IllegalArgumentException("Cannot replay " + event.command.getCommand()
+						+ " on incident " + event.id);
+			}
+			break;
+		case DELETE:
+			list.deleteIncidentById(event.id);
+			break;
+		case REVERT:
+			list.revert(event.step);
+			break;
+		default:
+			//A reset always has a snapshot after it, so it is never replayed
+			throw new IllegalArgumentException("Reset without a snapshot");
+		}
+	}
+
+	/**
+	 * Appends an event to the log.
+	 * @param event event to append
+	 */
+	private void append(Event event) {
+		events.add(event);
+		eventsSinceSnapshot++;
+	}
+
+	/**
+	 * Writes the snapshots and events kept by the log to a file.
+	 * @param fileName name of the file to write
+	 * @throws IncidentIOException if the file cannot be created or written to
+	 */
+	public synchronized void save(String fileName) throws IncidentIOException {
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(fileName), BUFFER_SIZE))) {
+			out.writeInt(MAGIC);
+			out.writeShort(VERSION);
+			out.writeInt(snapshotInterval);
+			out.writeInt(maxSnapshots);
+			out.writeInt(eventsSinceSnapshot);
+			out.writeInt(dropped);
+			out.writeInt(snapshots.size());
+			for (int i = 0; i < snapshots.size(); i++) {
+				Snapshot snapshot = snapshots.get(i);
+				out.writeInt(snapshot.sequence);
+				out.writeLong(snapshot.time);
+				out.writeInt(snapshot.nextId);
+				out.writeInt(snapshot.incidents.length);
+				out.write(snapshot.incidents);
+			}
+			out.writeInt(events.size());
+			for (int i = 0; i < events.size(); i++) {
+				writeEvent(out, events.get(i));
+			}
+		} catch (IOException e) {
+			throw new IncidentIOException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Reads an event log written by save(). Logs written before snapshots were dropped are 
+	 * read as keeping DEFAULT_MAX_SNAPSHOTS snapshots, with no events dropped. Logs written 
+	 * before undone commands were logged are read as they are, since they hold no undo events.
+	 * @param fileName name of the file to read
+	 * @return the event log
+	 * @throws IncidentIOException if the file cannot be read or is not an event log
+	 */
+	public static IncidentEventLog load(String fileName) throws IncidentIOException {
+		try (DataInputStream in = new DataInputStream(
+				new BufferedInputStream(new FileInputStream(fileName), BUFFER_SIZE))) {
+			if (in.readInt() != MAGIC) {
+				throw new IncidentIOException("Not an incident event log");
+			}
+			int version = in.readShort();
+			if (version != VERSION && version != VERSION_2 && version != VERSION_1) {
+				throw new IncidentIOException("Not an incident event log");
+			}
+			int snapshotInterval = in.readInt();
+			int maxSnapshots = version == VERSION_1 ? DEFAULT_MAX_SNAPSHOTS : in.readInt();
+			IncidentEventLog log = new IncidentEventLog(snapshotInterval, maxSnapshots);
+			log.snapshots.clear();
+			int eventsSinceSnapshot = in.readInt();
+			log.dropped = version == VERSION_1 ? 0 : in.readInt();
+			int count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				int sequence = in.readInt();
+				long time = in.readLong();
+				int nextId = in.readInt();
+				byte[] incidents = new byte[in.readInt()];
+				in.readFully(incidents);
+				log.snapshots.add(new Snapshot(sequence, time, nextId, incidents));
+			}
+			count = in.readInt();
+			log.events.ensureCapacity(count);
+			for (int i = 0; i < count; i++) {
+				log.events.add(readEvent(in));
+			}
+			if (log.snapshots.isEmpty() || log.snapshots.get(0).sequence != log.dropped) {
+				throw new IncidentIOException("Event log has no initial snapshot");
+			}
+			log.eventsSinceSnapshot = eventsSinceSnapshot;
+			return log;
+		} catch (EOFException e) {
+			throw new IncidentIOException("Truncated incident event log");
+		} catch (IOException | IllegalArgumentException e) {
+			throw new IncidentIOException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Writes one event.
+	 * @param out stream to write to
+	 * @param event event to write
+	 * @throws IOException if the event cannot be written
+	 */
+	private static void writeEvent(DataOutputStream out, Event event) throws IOException {
+		out.writeLong(event.time);
+		out.writeByte(event.kind.ordinal());
+		out.writeInt(event.id);
+		if (event.kind == Kind.CREATE) {
+			writeString(out, event.caller);
+			out.writeByte(event.category.ordinal());
+			out.writeByte(event.priority.ordinal());
+			writeString(out, event.name);
+			writeString(out, event.note);
+		} else if (event.kind == Kind.COMMAND) {
+			Command c = event.command;
+			out.writeByte(c.getCommand().ordinal());
+			writeString(out, c.getOwnerId());
+			out.writeByte(c.getOnHoldReason() == null ? NULL_VALUE : c.getOnHoldReason().ordinal());
+			out.writeByte(c.getResolutionCode() == null ? NULL_VALUE : c.getResolutionCode().ordinal());
+			out.writeByte(c.getCancellationCode() == null ? NULL_VALUE : c.getCancellationCode().ordinal());
+			writeString(out, c.getWorkNote());
+		} else if (event.kind == Kind.REVERT) {
+			event.step.write(out);
+		}
+	}
+
+	/**
+	 * Reads one event.
+	 * @param in stream to read from
+	 * @return the event
+	 * @throws IOException if the event cannot be read
+	 */
+	private static Event readEvent(DataInputStream in) throws IOException {
+		long time = in.readLong();
+		Kind kind = Kind.values()[in.readByte()];
+		int id = in.readInt();
+		if (kind == Kind.CREATE) {
+			String caller = readString(in);
+			Category category = Category.values()[in.readByte()];
+			Priority priority = Priority.values()[in.readByte()];
+			return new Event(time, kind, id, caller, category, priority, readString(in), readString(in), null, null);
+		}
+		if (kind == Kind.COMMAND) {
+			CommandValue value = CommandValue.values()[in.readByte()];
+			String ownerId = readString(in);
+			int onHoldReason = in.readByte();
+			int resolutionCode = in.readByte();
+			int cancellationCode = in.readByte();
+			Command c = new Command(value, ownerId,
+					onHoldReason == NULL_VALUE ? null : OnHoldReason.values()[onHoldReason],
+					resolutionCode == NULL_VALUE ? null : ResolutionCode.values()[resolutionCode],
+					cancellationCode == NULL_VALUE ? null : CancellationCode.values()[cancellationCode],
+					readString(in));
+			return new Event(time, kind, id, null, null, null, null, null, c, null);
+		}
+		if (kind == Kind.REVERT) {
+			return new Event(time, kind, id, null, null, null, null, null, null, CommandHistory.Step.read(in));
+		}
+		return new Event(time, kind, id, null, null, null, null, null, null, null);
+	}
+
+	/**
+	 * Writes a String that may be null or longer than writeUTF() allows.
+	 * @param out stream to write to
+	 * @param s String to write, may be null
+	 * @throws IOException if the String cannot be written
+	 */
+	static void writeString(DataOutputStream out, String s) throws IOException {
+		if (s == null) {
+			out.writeInt(NULL_VALUE);
+			return;
+		}
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Reads a String written by writeString().
+	 * @param in stream to read from
+	 * @return the String, or null
+	 * @throws IOException if the String cannot be read
+	 */
+	static String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length == NULL_VALUE) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * One change made to the list. Only the fields used by the kind of event are set.
+	 */
+	private static final class Event {
+
+		/** Time the event was logged, in milliseconds since the epoch */
+		private final long time;
+
+		/** Kind of event */
+		private final Kind kind;
+
+		/** Id of the incident changed */
+		private final int id;
+
+		/** Caller of a created incident */
+		private final String caller;
+
+		/** Category of a created incident */
+		private final Category category;
+
+		/** Priority of a created incident */
+		private final Priority priority;
+
+		/** Name of a created incident */
+		private final String name;
+
+		/** First work note of a created incident */
+		private final String note;
+
+		/** Command applied to the incident */
+		private final Command command;
+
+		/** Step holding the values an undone command put its incidents back to */
+		private final CommandHistory.Step step;
+
+		/**
+		 * Constructs an Event.
+		 * @param time time the event was logged
+		 * @param kind kind of event
+		 * @param id id of the incident changed
+		 * @param caller caller of a created incident
+		 * @param category category of a created incident
+		 * @param priority priority of a created incident
+		 * @param name name of a created incident
+		 * @param note first work note of a created incident
+		 * @param command command applied to the incident
+		 * @param step step of an undone command
+		 */
+		private Event(long time, Kind kind, int id, String caller, Category category, Priority priority,
+				String name, String note, Command command, CommandHistory.Step step) {
+			this.time = time;
+			this.kind = kind;
+			this.id = id;
+			this.caller = caller;
+			this.category = category;
+			this.priority = priority;
+			this.name = name;
+			this.note = note;
+			this.command = command;
+			this.step = step;
+		}
+	}
+
+	/**
+	 * All of the incidents as they were after a given number of events.
+	 */
+	private static final class Snapshot {
+
+		/** Number of events logged before the snapshot was taken */
+		private final int sequence;
+
+		/** Time the snapshot was taken, in milliseconds since the epoch */
+		private final long time;
+
+		/** Id the list would give its next incident when the snapshot was taken */
+		private final int nextId;
+
+		/** The incidents, as a JSON document */
+		private final byte[] incidents;
+
+		/**
+		 * Constructs a Snapshot.
+		 * @param sequence number of events logged before the snapshot
+		 * @param time time the snapshot was taken
+		 * @param nextId id the list would give its next incident
+		 * @param incidents the incidents, as a JSON document
+		 */
+		private Snapshot(int sequence, long time, int nextId, byte[] incidents) {
+			this.sequence = sequence;
+			this.time = time;
+			this.nextId = nextId;
+			this.incidents = incidents;
+		}
+	}
+}
@@ -0,0 +1,54 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.incident_management.model.manager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gives out the ids of new incidents. Each ManagedIncidentList has an allocator of its own,
+ * so separate lists, such as the lists of separate IncidentManager instances, number their
+ * incidents independently; lists that must not reuse each other's ids, such as the shards of
+ * a ShardedIncidentManager, share one allocator. Ids are given out in increasing order and
+ * an allocator may be used from several threads at once.
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class IncidentIdAllocator {
+
+	/** Id given to the next incident */
+	private final AtomicInteger nextId;
+
+	/**
+	 * Constructs an IncidentIdAllocator that starts at id 0.
+	 */
+	public IncidentIdAllocator() {
+		nextId = new AtomicInteger();
+	}
+
+	/**
+	 * Gives out the next id.
+	 * @return the id
+	 */
+	public int allocate() {
+		return nextId.getAndIncrement();
+	}
+
+	/**
+	 * Makes sure an id that is already in use, such as the id of an incident loaded from a
+	 * file, is never given out again, along with every id before it.
+	 * @param id id in use
+	 */
+	public void reserve(int id) {
+		nextId.accumulateAndGet(id + 1, Math::max);
+	}
+
+	/**
+	 * Retrieves the id that will be given to the next incident, without giving it out.
+	 * @return the next id
+	 */
+	public int getNextId() {
+		return nextId.get();
+	}
+}
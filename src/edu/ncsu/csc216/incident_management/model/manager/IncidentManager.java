@@ -3,33 +3,61 @@
  */
 package edu.ncsu.csc216.incident_management.model.manager;
 
+import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 import edu.ncsu.csc216.incident.io.IncidentIOException;
-import edu.ncsu.csc216.incident.io.IncidentReader;
-import edu.ncsu.csc216.incident.io.IncidentWriter;
 import edu.ncsu.csc216.incident.xml.Incident;
 import edu.ncsu.csc216.incident_management.model.command.Command;
+import edu.ncsu.csc216.incident_management.model.command.Command.CommandValue;
 import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident;
 import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Category;
 import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Priority;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.UpdateResult;
+import edu.ncsu.csc216.incident_management.model.io.IncidentArchive;
+import edu.ncsu.csc216.incident_management.model.io.IncidentArchive.Format;
+import edu.ncsu.csc216.incident_management.model.io.IncidentExporter;
+import edu.ncsu.csc216.incident_management.model.io.IncidentJsonReader;
+import edu.ncsu.csc216.incident_management.model.io.TransitionArchive;
+import edu.ncsu.csc216.incident_management.model.metrics.IncidentEvent.EventType;
+import edu.ncsu.csc216.incident_management.model.metrics.IncidentEventRecorder;
+import edu.ncsu.csc216.incident_management.model.metrics.IncidentManagerMetrics;
 
 /**
- * Controls the creation and modification of ManagedIncidentLists. Implements the Singleton
- * design pattern, meaning only one instance of IncidentManager can ever be created. This 
- * ensures that all parts of the IncidentManagerGUI are interacting with the same IncidentManager 
- * at all times.
+ * Controls the creation and modification of ManagedIncidentLists. The instance returned by 
+ * getInstance() is shared by all parts of the IncidentManagerGUI, so they are interacting with 
+ * the same IncidentManager at all times. Further instances can be made with a Builder, each 
+ * with its own incidents, id allocator, indexes, event log, and metrics, so that several 
+ * managers can run side by side in one process without seeing each other's incidents. Two 
+ * things are still shared by every instance in the process: the UserIdTable the owner and 
+ * caller ids are interned in, and the IncidentEventRecorder that loads and saves are 
+ * recorded to.
  * 
  * @author Keaton Thurston
  * @author Bilal Mohamad
  */
 public class IncidentManager {
 
-	/** ONLY instance of IncidentManager */
+	/** Name of the shared instance of IncidentManager */
+	public static final String DEFAULT_NAME = "IncidentManager";
+
+	/** Shared instance of IncidentManager */
 	private static IncidentManager singleton;
 
+	/** Number of instances made by Builders, used to give each a unique name */
+	private static final AtomicInteger BUILT = new AtomicInteger();
+
+	/** Name of the instance, under which its metrics are registered */
+	private final String name;
+
 	/** List of managed incidents */
 	private ManagedIncidentList incidentList;
+
+	/** Latencies and counters of the hot paths, published over JMX */
+	private final IncidentManagerMetrics metrics;
 	
 	/** Number of columns in the 2D String arrays of ManagedIncidents */
 	public static final int COLUMNS = 5;
@@ -50,19 +78,33 @@ public class IncidentManager {
 	public static final int NAME_INDEX = 4;
 	
 	
-	/** Constructor for the one instance of IncidentManager */
-	private IncidentManager() {
+	/**
+	 * Constructs an IncidentManager with an empty list of managed incidents. The metrics are 
+	 * not registered with the platform MBean server.
+	 * @param name name of the instance
+	 * @param snapshotInterval number of events between snapshots of the event log, or 0 to 
+	 * not log changes
+	 */
+	private IncidentManager(String name, int snapshotInterval) {
+		this.name = name;
 		incidentList = new ManagedIncidentList();
+		metrics = new IncidentManagerMetrics();
+		if (snapshotInterval > 0) {
+			startEventLog(snapshotInterval);
+		}
 	}
 
 	/** 
-	 * Static method that returns the singleton instance of IncidentManager.
-	 * @return singleton instance of IncidentManager
+	 * Static method that returns the shared instance of IncidentManager, named DEFAULT_NAME. 
+	 * Its metrics are registered when it is created; if the platform MBean server is not 
+	 * available they are still recorded, and getMetrics().getObjectName() returns null.
+	 * @return shared instance of IncidentManager
 	 */
-	public static IncidentManager getInstance() {
+	public static synchronized IncidentManager getInstance() {
 		
 		if (IncidentManager.singleton == null) {
-			IncidentManager.singleton = new IncidentManager();
+			IncidentManager.singleton = new IncidentManager(DEFAULT_NAME, 0);
+			IncidentManager.singleton.metrics.register(DEFAULT_NAME);
 		}
 		return IncidentManager.singleton;
 		
@@ -74,20 +116,86 @@ public class IncidentManager {
 		return singleton;*/
 	}
 
+	/**
+	 * Retrieves the metrics of the IncidentManager: latency histograms of executing commands, 
+	 * loading, saving, and building projections, and counters of transitions, rejected 
+	 * transitions, and bytes loaded and saved. The metrics are also registered with the 
+	 * platform MBean server.
+	 * @return the metrics of the IncidentManager
+	 */
+	public IncidentManagerMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Retrieves the name of the IncidentManager, under which its metrics are registered.
+	 * @return the name of the IncidentManager
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Removes the metrics of the IncidentManager from the platform MBean server, so that an 
+	 * instance made by a Builder leaves nothing behind once it is no longer used. The 
+	 * incidents can still be used after the IncidentManager is closed.
+	 */
+	public void close() {
+		metrics.unregister();
+	}
+
 	/** 
-	 * Writes managed incidents to a file.
+	 * Writes managed incidents to a file. The file is gzip compressed if its name ends 
+	 * with ".gz", and is written as JSON straight from the managed incidents if its name 
+	 * ends with ".json".
 	 * @param fileName name of the file to write to
 	 * @throws IllegalArgumentException if an IncidentIOException is thrown by IncidentWriter
 	 */
 	public void saveManagedIncidentsToFile(String fileName) {
 		
+		IncidentEventRecorder recorder = IncidentEventRecorder.getInstance();
+		long event = recorder.begin(EventType.SAVE);
+		long start = System.nanoTime();
 		try {
-			IncidentWriter writer = new IncidentWriter(fileName);
-			for (int i = 0; i < incidentList.getManagedIncidents().size(); i++) {
-				writer.addItem(incidentList.getManagedIncidents().get(i).getXMLIncident());
+			List<ManagedIncident> managedIncidents = incidentList.getManagedIncidents();
+			if (fileName.endsWith(IncidentArchive.JSON_EXTENSION)) {
+				IncidentArchive.writeJsonIncidents(fileName, managedIncidents);
+				metrics.recordSave(start, new File(fileName).length());
+				recorder.commit(EventType.SAVE, event, managedIncidents.size(), fileName);
+				return;
+			}
+			List<Incident> incidents = new ArrayList<Incident>(managedIncidents.size());
+			for (int i = 0; i < managedIncidents.size(); i++) {
+				incidents.add(managedIncidents.get(i).getXMLIncident());
 			}
 		
-			writer.marshal();
+			IncidentArchive.writeIncidents(fileName, incidents);
+			metrics.recordSave(start, new File(fileName).length());
+			recorder.commit(EventType.SAVE, event, incidents.size(), fileName);
+		} catch (IncidentIOException e) {
+			throw new IllegalArgumentException();
+		}
+	}
+
+
+	/**
+	 * Exports the columns of the managed incidents for analysis. The file is written as CSV 
+	 * if its name ends with ".csv", and in a compact columnar format otherwise. The incidents 
+	 * are copied first, so incidents can be changed while the export is written.
+	 * @param fileName name of the file to export to
+	 * @throws IllegalArgumentException if the file cannot be written
+	 */
+	public void exportManagedIncidentsToFile(String fileName) {
+		IncidentEventRecorder recorder = IncidentEventRecorder.getInstance();
+		long event = recorder.begin(EventType.SAVE);
+		List<ManagedIncident> managedIncidents = incidentList.getManagedIncidents();
+		try {
+			if (fileName.endsWith(IncidentExporter.CSV_EXTENSION)) {
+				IncidentExporter.writeCsv(fileName, managedIncidents);
+			} else {
+				IncidentExporter.writeColumns(fileName, managedIncidents);
+			}
+			recorder.commit(EventType.SAVE, event, managedIncidents.size(), fileName);
 		} catch (IncidentIOException e) {
 			throw new IllegalArgumentException();
 		}
@@ -95,17 +203,34 @@ public class IncidentManager {
 
 
 	/**
-	 * Creates a list of managed incidents from a given file
+	 * Creates a list of managed incidents from a given file. Compressed and JSON files are 
+	 * detected by their magic bytes. Compressed files are decompressed while they are read, 
+	 * and JSON files are turned into managed incidents one incident at a time. The incidents 
+	 * are only added once the whole file has been read, so a file with an invalid incident 
+	 * adds none of them.
 	 * @param fileName name of the file containing the managed incidents
-	 * @throws IllegalArgumentException if an IncidentIOException is thrown by IncidentWriter
+	 * @throws IllegalArgumentException if an IncidentIOException is thrown by IncidentWriter 
+	 * or the file contains an invalid incident
 	 */
 	public void loadManagedIncidentsFromFile(String fileName) {
 //		singleton.createNewManagedIncidentList();
-		IncidentReader reader = null;
+		IncidentEventRecorder recorder = IncidentEventRecorder.getInstance();
+		long event = recorder.begin(EventType.LOAD);
+		long start = System.nanoTime();
 		try {
-			reader = new IncidentReader(fileName);
-			List<Incident> incidents = reader.getIncidents();
-			incidentList.addXMLIncidents(incidents);
+			int loaded;
+			if (IncidentArchive.detectFormat(fileName) == Format.JSON) {
+				IncidentJsonReader reader = IncidentArchive.openJsonIncidents(fileName);
+				try {
+					loaded = incidentList.addXMLIncidents(reader);
+				} finally {
+					reader.close();
+				}
+			} else {
+				loaded = incidentList.addXMLIncidents(IncidentArchive.readIncidents(fileName).iterator());
+			}
+			metrics.recordLoad(start, new File(fileName).length());
+			recorder.commit(EventType.LOAD, event, loaded, fileName);
 		} catch (IncidentIOException e) {
 			throw new IllegalArgumentException();
 		}
@@ -113,10 +238,150 @@ public class IncidentManager {
 
 	
 	/**
-	 * Creates a new ManagedIncidentList.
+	 * Computes the service level figures for the managed incidents as of now: the mean time 
+	 * to resolve by category and priority, the number of incidents in each state, and the 
+	 * aging of On Hold incidents by reason.
+	 * @return the figures for the managed incidents
+	 */
+	public IncidentAnalytics getAnalytics() {
+		return incidentList.getAnalytics(System.currentTimeMillis());
+	}
+
+	/**
+	 * Retrieves the number of managed incidents in each state, without looking at the incidents.
+	 * @return the number of managed incidents in each state, indexed by ManagedIncident state index
+	 */
+	public int[] getStateCounts() {
+		return incidentList.getStateCounts();
+	}
+
+	/**
+	 * Retrieves a snapshot of the number of managed incidents in each combination of state, 
+	 * category, and priority, without looking at the incidents.
+	 * @return the number of managed incidents in each cell
+	 */
+	public IncidentCounts getCounts() {
+		return incidentList.getCounts();
+	}
+
+	/**
+	 * Saves the transition history of every managed incident to a file. The file is written 
+	 * as XML if its name ends with .xml, and in a compact binary format otherwise.
+	 * @param fileName name of the file to save the transition history to
+	 * @throws IllegalArgumentException if the file cannot be written
+	 */
+	public void saveTransitionsToFile(String fileName) {
+		try {
+			TransitionArchive.writeTransitions(fileName, incidentList.getManagedIncidents());
+		} catch (IncidentIOException e) {
+			throw new IllegalArgumentException();
+		}
+	}
+
+
+	/**
+	 * Loads the transition history of the managed incidents from a file written by 
+	 * saveTransitionsToFile(), replacing the history of each incident in the file.
+	 * @param fileName name of the file containing the transition history
+	 * @throws IllegalArgumentException if the file cannot be read
+	 */
+	public void loadTransitionsFromFile(String fileName) {
+		try {
+			incidentList.setTransitionLogs(TransitionArchive.readTransitions(fileName));
+		} catch (IncidentIOException e) {
+			throw new IllegalArgumentException();
+		}
+	}
+
+	
+	/**
+	 * Creates a new ManagedIncidentList. If changes are being logged, the new list keeps 
+	 * logging to the same event log, which records the empty list as a reset.
 	 */
 	public void createNewManagedIncidentList() {
-		incidentList = new ManagedIncidentList();
+		IncidentEventLog eventLog = incidentList.getEventLog();
+		ManagedIncidentList list = new ManagedIncidentList();
+		if (eventLog != null) {
+			list.setEventLog(eventLog);
+		}
+		incidentList = list;
+	}
+
+	/**
+	 * Starts logging every change to the managed incidents to a new event log, beginning 
+	 * with a snapshot of the managed incidents as they are now.
+	 * @param snapshotInterval number of events between snapshots of the managed incidents
+	 * @throws IllegalArgumentException if snapshotInterval is less than 1
+	 */
+	public void startEventLog(int snapshotInterval) {
+		incidentList.setEventLog(new IncidentEventLog(snapshotInterval));
+	}
+
+	/**
+	 * Stops logging changes to the managed incidents.
+	 */
+	public void stopEventLog() {
+		incidentList.setEventLog(null);
+	}
+
+	/**
+	 * Retrieves the log of changes to the managed incidents.
+	 * @return the event log, or null if changes are not being logged
+	 */
+	public IncidentEventLog getEventLog() {
+		return incidentList.getEventLog();
+	}
+
+	/**
+	 * Retrieves the managed incidents as they were at the given time, in the same format as 
+	 * getManagedIncidentsAsArray(). The incidents are rebuilt from the latest snapshot in the 
+	 * event log before the time and the events logged after it.
+	 * @param time time in milliseconds since the epoch
+	 * @return two-dimensional String array of the managed incidents as they were at the time
+	 * @throws IllegalArgumentException if changes are not being logged or the time is before 
+	 * the history kept by the event log
+	 */
+	public String[][] getManagedIncidentsAsArrayAt(long time) {
+		IncidentEventLog eventLog = incidentList.getEventLog();
+		if (eventLog == null) {
+			throw new IllegalArgumentException();
+		}
+		return project(() -> eventLog.rebuildAt(time).getManagedIncidents());
+	}
+
+	/**
+	 * Saves the event log of the managed incidents to a file.
+	 * @param fileName name of the file to save the event log to
+	 * @throws IllegalArgumentException if changes are not being logged or the file cannot be written
+	 */
+	public void saveEventLogToFile(String fileName) {
+		IncidentEventLog eventLog = incidentList.getEventLog();
+		if (eventLog == null) {
+			throw new IllegalArgumentException();
+		}
+		try {
+			eventLog.save(fileName);
+		} catch (IncidentIOException e) {
+			throw new IllegalArgumentException();
+		}
+	}
+
+	/**
+	 * Replaces the managed incidents with the incidents rebuilt from an event log file 
+	 * written by saveEventLogToFile(). Only the events after the latest snapshot in the file 
+	 * are replayed, and changes go on being logged to the loaded event log.
+	 * @param fileName name of the file containing the event log
+	 * @throws IllegalArgumentException if the file cannot be read or its events cannot be replayed
+	 */
+	public void recoverFromEventLogFile(String fileName) {
+		try {
+			IncidentEventLog eventLog = IncidentEventLog.load(fileName);
+			ManagedIncidentList list = eventLog.rebuild();
+			list.setEventLog(eventLog);
+			incidentList = list;
+		} catch (IncidentIOException e) {
+			throw new IllegalArgumentException();
+		}
 	}
 
 	/**
@@ -126,41 +391,25 @@ public class IncidentManager {
 	 * @return two-dimensional String array of managed incidents
 	 */
 	public String[][] getManagedIncidentsAsArray() {
-		
-		//TODO CHANGE THIS TO BE MORE SIMPLE
-		/*List<ManagedIncident> list = incidentList.getManagedIncidents();
-		String[][] results = new String[list.size()][];
-		int i = 0;
-		for (Iterator<ManagedIncident> iterator = list.iterator(); iterator.hasNext();) {
-			ManagedIncident incident = (ManagedIncident) iterator.next();
-			
-			String[] row = new String[5];
-			row[0] = Integer.toString((incident.getIncidentId()));
-			row[1] = incident.getCategoryString();
-			row[2] = incident.getState().getStateName();
-			row[3] = incident.getPriorityString();
-			row[4] = incident.getName();
-			results[i] = row;
-			i++;
-		}
-		
-		return results;*/
-		
-		
-		
-		
-		String[][] managedIncidentsArray = new String[incidentList.getManagedIncidents().size()][COLUMNS];
-		for (int i = 0; i < incidentList.getManagedIncidents().size(); i++) {
-			managedIncidentsArray[i][ID_INDEX] = Integer.toString(incidentList.getManagedIncidents().get(i).getIncidentId());
-			managedIncidentsArray[i][CATEGORY_INDEX] = incidentList.getManagedIncidents().get(i).getCategoryString();
-			
-			//The following line causes issues
-			managedIncidentsArray[i][STATE_NAME_INDEX] = incidentList.getManagedIncidents().get(i).getState().getStateName();
-			
-			managedIncidentsArray[i][PRIORITY_INDEX] = incidentList.getManagedIncidents().get(i).getPriorityString();
-			managedIncidentsArray[i][NAME_INDEX] = incidentList.getManagedIncidents().get(i).getName();
-		}
-		return managedIncidentsArray;
+		return project(() -> incidentList.getManagedIncidents());
+	}
+
+	/**
+	 * Retrieves a two-dimensional String array of managed incidents in order of id, in the 
+	 * same format as getManagedIncidentsAsArray().
+	 * @return two-dimensional String array of managed incidents ordered by id
+	 */
+	public String[][] getManagedIncidentsAsArraySortedById() {
+		return project(() -> incidentList.getIncidentsSortedById());
+	}
+
+	/**
+	 * Retrieves a two-dimensional String array of managed incidents in order of priority, 
+	 * most urgent first, in the same format as getManagedIncidentsAsArray().
+	 * @return two-dimensional String array of managed incidents ordered by priority
+	 */
+	public String[][] getManagedIncidentsAsArraySortedByPriority() {
+		return project(() -> incidentList.getIncidentsSortedByPriority());
 	}
 
 	/**
@@ -177,13 +426,152 @@ public class IncidentManager {
 			throw new IllegalArgumentException();
 		}
 
-		String[][] managedIncidentsArray = new String[incidentList.getIncidentsByCategory(category).size()][COLUMNS];
-		for (int i = 0; i < incidentList.getIncidentsByCategory(category).size(); i++) {
-			managedIncidentsArray[i][ID_INDEX] = Integer.toString(incidentList.getIncidentsByCategory(category).get(i).getIncidentId());
-			managedIncidentsArray[i][CATEGORY_INDEX] = incidentList.getIncidentsByCategory(category).get(i).getCategoryString();
-			managedIncidentsArray[i][STATE_NAME_INDEX] = incidentList.getIncidentsByCategory(category).get(i).getState().getStateName();
-			managedIncidentsArray[i][PRIORITY_INDEX] = incidentList.getIncidentsByCategory(category).get(i).getPriorityString();
-			managedIncidentsArray[i][NAME_INDEX] = incidentList.getIncidentsByCategory(category).get(i).getName();
+		return project(() -> incidentList.getIncidentsByCategory(category));
+	}
+
+	/**
+	 * Retrieves a two-dimensional String array of the managed incidents owned by the given 
+	 * user, in the same format as getManagedIncidentsAsArray().
+	 * @param owner user id of the owner
+	 * @throws IllegalArgumentException if the given owner is null
+	 * @return two-dimensional String array of managed incidents owned by the given user
+	 */
+	public String[][] getManagedIncidentsAsArrayByOwner(String owner) {
+		return project(() -> incidentList.getIncidentsByOwner(owner));
+	}
+
+	/**
+	 * Retrieves a two-dimensional String array of the managed incidents reported by the 
+	 * given caller, in the same format as getManagedIncidentsAsArray().
+	 * @param caller user id of the caller
+	 * @throws IllegalArgumentException if the given caller is null
+	 * @return two-dimensional String array of managed incidents reported by the given caller
+	 */
+	public String[][] getManagedIncidentsAsArrayByCaller(String caller) {
+		return project(() -> incidentList.getIncidentsByCaller(caller));
+	}
+
+	/**
+	 * Retrieves a two-dimensional String array of the managed incidents matched by the given 
+	 * query, in the same format as getManagedIncidentsAsArray(). Queries combine conditions on 
+	 * the category, priority, state, owner, caller, on hold reason, resolution code, and 
+	 * cancellation code with AND and OR.
+	 * @param query query selecting the managed incidents
+	 * @throws IllegalArgumentException if the given query is null
+	 * @return two-dimensional String array of managed incidents matched by the query
+	 */
+	public String[][] getManagedIncidentsAsArray(IncidentQuery query) {
+		return project(() -> incidentList.getIncidents(query));
+	}
+
+	/**
+	 * Retrieves a two-dimensional String array of the managed incidents whose name or work 
+	 * notes contain every keyword and double quoted phrase in the given query, best match 
+	 * first, in the same format as getManagedIncidentsAsArray().
+	 * @param query keywords and phrases to search for
+	 * @throws IllegalArgumentException if the query is null or does not contain any keywords
+	 * @return two-dimensional String array of the matching managed incidents
+	 */
+	public String[][] getManagedIncidentsAsArrayBySearch(String query) {
+		return project(() -> incidentList.searchIncidents(query));
+	}
+
+	/**
+	 * Retrieves one page of the two-dimensional String array of managed incidents, in the 
+	 * same format as getManagedIncidentsAsArray().
+	 * @param offset number of managed incidents to skip
+	 * @param limit maximum number of rows to return
+	 * @throws IllegalArgumentException if offset or limit is negative
+	 * @return two-dimensional String array of at most limit managed incidents
+	 */
+	public String[][] getManagedIncidentsAsArray(int offset, int limit) {
+		return project(() -> incidentList.getIncidents(offset, limit));
+	}
+
+	/**
+	 * Retrieves one page of the two-dimensional String array of managed incidents of a given 
+	 * category, in the same format as getManagedIncidentsAsArray().
+	 * @param category category of ManagedIncidents
+	 * @param offset number of matching managed incidents to skip
+	 * @param limit maximum number of rows to return
+	 * @throws IllegalArgumentException if the category is null or offset or limit is negative
+	 * @return two-dimensional String array of at most limit managed incidents of the category
+	 */
+	public String[][] getManagedIncidentsAsArrayByCategory(Category category, int offset, int limit) {
+		return project(() -> incidentList.getIncidents(IncidentQuery.category(category), offset, limit));
+	}
+
+	/**
+	 * Retrieves one page of the two-dimensional String array of managed incidents matched by 
+	 * the given query, in the same format as getManagedIncidentsAsArray().
+	 * @param query query selecting the managed incidents
+	 * @param offset number of matching managed incidents to skip
+	 * @param limit maximum number of rows to return
+	 * @throws IllegalArgumentException if the query is null or offset or limit is negative
+	 * @return two-dimensional String array of at most limit managed incidents matched by the query
+	 */
+	public String[][] getManagedIncidentsAsArray(IncidentQuery query, int offset, int limit) {
+		return project(() -> incidentList.getIncidents(query, offset, limit));
+	}
+
+	/**
+	 * Retrieves the page of managed incidents with an id greater than the given id, in order 
+	 * of id and in the same format as getManagedIncidentsAsArray(). The id of the last row 
+	 * of a page is the cursor for the next page.
+	 * @param afterId id the page starts after; use -1 for the first page
+	 * @param limit maximum number of rows to return
+	 * @throws IllegalArgumentException if limit is negative
+	 * @return two-dimensional String array of at most limit managed incidents
+	 */
+	public String[][] getManagedIncidentsAsArrayAfterId(int afterId, int limit) {
+		return project(() -> incidentList.getIncidentsAfterId(afterId, limit, null));
+	}
+
+	/**
+	 * Retrieves the page of managed incidents matched by the given query with an id greater 
+	 * than the given id, in order of id and in the same format as getManagedIncidentsAsArray().
+	 * @param afterId id the page starts after; use -1 for the first page
+	 * @param limit maximum number of rows to return
+	 * @param query query selecting the managed incidents
+	 * @throws IllegalArgumentException if the query is null or limit is negative
+	 * @return two-dimensional String array of at most limit managed incidents matched by the query
+	 */
+	public String[][] getManagedIncidentsAsArrayAfterId(int afterId, int limit, IncidentQuery query) {
+		if (query == null) {
+			throw new IllegalArgumentException();
+		}
+		return project(() -> incidentList.getIncidentsAfterId(afterId, limit, query));
+	}
+
+	/**
+	 * Builds a list of managed incidents and converts it into a two-dimensional String array, 
+	 * recording how long both steps took in the projection latency histogram.
+	 * @param incidents supplier of the list of managed incidents
+	 * @return two-dimensional String array of the managed incidents
+	 */
+	private String[][] project(Supplier<List<ManagedIncident>> incidents) {
+		long start = System.nanoTime();
+		String[][] managedIncidentsArray = toArray(incidents.get());
+		metrics.recordProjection(start);
+		return managedIncidentsArray;
+	}
+
+	/**
+	 * Converts a list of managed incidents into a two-dimensional String array with 1 row 
+	 * for every ManagedIncident and 5 columns: id number, category, state name, priority, 
+	 * and name.
+	 * @param incidents list of managed incidents
+	 * @return two-dimensional String array of the managed incidents
+	 */
+	static String[][] toArray(List<ManagedIncident> incidents) {
+		String[][] managedIncidentsArray = new String[incidents.size()][COLUMNS];
+		for (int i = 0; i < incidents.size(); i++) {
+			ManagedIncident incident = incidents.get(i);
+			managedIncidentsArray[i][ID_INDEX] = Integer.toString(incident.getIncidentId());
+			managedIncidentsArray[i][CATEGORY_INDEX] = incident.getCategoryString();
+			managedIncidentsArray[i][STATE_NAME_INDEX] = incident.getState().getStateName();
+			managedIncidentsArray[i][PRIORITY_INDEX] = incident.getPriorityString();
+			managedIncidentsArray[i][NAME_INDEX] = incident.getName();
 		}
 		return managedIncidentsArray;
 	}
@@ -197,13 +585,72 @@ public class IncidentManager {
 		return incidentList.getIncidentById(id);
 	}
 
+	/**
+	 * Executes a command on the managed incident with the given id if the command is a valid 
+	 * action for it. Unlike executeCommand(), an unknown id or invalid command is reported 
+	 * through the result rather than an exception.
+	 * @param id id of the managed incident
+	 * @param c command
+	 * @return the result of trying to apply the command
+	 */
+	public UpdateResult tryExecuteCommand(int id, Command c) {
+		long start = System.nanoTime();
+		UpdateResult result = incidentList.tryExecuteCommand(id, c);
+		if (result == UpdateResult.APPLIED) {
+			metrics.recordTransition(c.getCommand(), start);
+		} else {
+			metrics.recordRejectedTransition(start);
+		}
+		return result;
+	}
+
+	/**
+	 * Checks whether a command is a valid action for the managed incident with the given id.
+	 * @param id id of the managed incident
+	 * @param command command value to check
+	 * @return true if there is a managed incident with the id and the command can be applied to it
+	 */
+	public boolean canApply(int id, CommandValue command) {
+		return incidentList.canApply(id, command);
+	}
+
+	/**
+	 * Executes the same command on every managed incident with one of the given ids. Either 
+	 * all of the incidents are updated or none are.
+	 * @param ids ids of the managed incidents
+	 * @param c command
+	 * @return the number of managed incidents updated
+	 * @throws IllegalArgumentException if ids or the command is null or an id is not in the list
+	 * @throws UnsupportedOperationException if the command is not valid for one of the incidents
+	 */
+	public int executeCommand(int[] ids, Command c) {
+		long start = System.nanoTime();
+		try {
+			int updated = incidentList.executeCommand(ids, c);
+			metrics.recordTransitions(c.getCommand(), updated, start);
+			return updated;
+		} catch (UnsupportedOperationException e) {
+			metrics.recordRejectedTransition(start);
+			throw e;
+		}
+	}
+
 	/**
 	 * Executes on a given command of a Command object for the given ManagedIncident.
 	 * @param id id of the managed incident
 	 * @param c command
+	 * @throws IllegalArgumentException if there is no managed incident with the id
+	 * @throws UnsupportedOperationException if the command is not valid for the incident
 	 */
 	public void executeCommand(int id, Command c) {
-		incidentList.executeCommand(id, c);
+		long start = System.nanoTime();
+		try {
+			incidentList.executeCommand(id, c);
+			metrics.recordTransition(c.getCommand(), start);
+		} catch (UnsupportedOperationException e) {
+			metrics.recordRejectedTransition(start);
+			throw e;
+		}
 		/*
 		int incidentIndex = 0;
 		for (int i = 0; i < incidentList.getManagedIncidents().size(); i++) {
@@ -214,6 +661,56 @@ public class IncidentManager {
 		incidentList.getManagedIncidents().get(incidentIndex).update(c);*/
 	}
 
+	/**
+	 * Claims the most urgent ManagedIncident in the New state for the given owner by 
+	 * executing an INVESTIGATE command on it. Safe to call from several dispatcher threads 
+	 * at once; each incident is claimed by exactly one of them.
+	 * @param owner user id of the owner claiming the incident
+	 * @param workNote work note for the INVESTIGATE command
+	 * @return the claimed ManagedIncident, or null if there are no incidents to claim
+	 * @throws IllegalArgumentException if the owner or work note is null or empty
+	 */
+	public ManagedIncident claimNextNewIncident(String owner, String workNote) {
+		return incidentList.claimNextNewIncident(owner, workNote);
+	}
+
+	/**
+	 * Undoes the latest command executed on the managed incidents, such as a CANCEL or 
+	 * RESOLVE applied by mistake. A command executed on several incidents at once is undone 
+	 * on all of them. Deleting an incident clears the commands that can be undone.
+	 * @return true if a command was undone, or false if there was nothing to undo
+	 */
+	public boolean undo() {
+		return incidentList.undo();
+	}
+
+	/**
+	 * Executes the latest undone command again. Executing any other command clears the 
+	 * commands that can be redone.
+	 * @return true if a command was redone, or false if there was nothing to redo
+	 * @throws IllegalStateException if the command is no longer valid for one of its 
+	 * incidents, in which case it is kept and nothing is changed
+	 */
+	public boolean redo() {
+		return incidentList.redo();
+	}
+
+	/**
+	 * Checks whether there is a command that can be undone.
+	 * @return true if undo() would undo a command
+	 */
+	public boolean canUndo() {
+		return incidentList.getHistory().getUndoCount() > 0;
+	}
+
+	/**
+	 * Checks whether there is an undone command that can be redone.
+	 * @return true if redo() would redo a command
+	 */
+	public boolean canRedo() {
+		return incidentList.getHistory().getRedoCount() > 0;
+	}
+
 	/**
 	 * Removes a ManagedIncident from it's ManagedIncident list.
 	 * @param id id of the managed incident
@@ -230,10 +727,96 @@ public class IncidentManager {
 	 * @param priority Priority of the incident
 	 * @param name incidents name information
 	 * @param workNote work note for the incident
+	 * @return id of the added incident
 	 */
-	public void addManagedIncidentToList(String caller, Category category, Priority priority, 
+	public int addManagedIncidentToList(String caller, Category category, Priority priority, 
 			String name, String workNote) {
-		incidentList.addIncident(caller, category, priority, name, workNote);
+		return incidentList.addIncident(caller, category, priority, name, workNote);
 	}
 
+
+	/**
+	 * Builds IncidentManagers that are independent of the shared instance and of each other.
+	 * By default an instance is named after the number of instances built, registers its 
+	 * metrics, and does not log changes. The instances built still share the process wide 
+	 * UserIdTable and IncidentEventRecorder with the shared instance.
+	 */
+	public static class Builder {
+		
+		/** Name of the instance being built, or null for a unique name */
+		private String name;
+		
+		/** Whether the instance registers its metrics with the platform MBean server */
+		private boolean registerMetrics = true;
+		
+		/** Number of events between snapshots of the event log, or 0 to not log changes */
+		private int snapshotInterval;
+		
+		
+		/**
+		 * Sets the name of the instance, under which its metrics are registered
+		 * 
+		 * @param name	the name of the instance
+		 * @return this builder
+		 * @throws IllegalArgumentException if name is null or empty
+		 */
+		public Builder name(String name) {
+			if (name == null || name.isEmpty()) {
+				throw new IllegalArgumentException();
+			}
+			this.name = name;
+			return this;
+		}
+		
+		
+		/**
+		 * Sets whether the instance registers its metrics with the platform MBean server
+		 * 
+		 * @param registerMetrics	true to register the metrics
+		 * @return this builder
+		 */
+		public Builder registerMetrics(boolean registerMetrics) {
+			this.registerMetrics = registerMetrics;
+			return this;
+		}
+		
+		
+		/**
+		 * Makes the instance log every change to its incidents from the start
+		 * 
+		 * @param snapshotInterval	number of events between snapshots of the incidents
+		 * @return this builder
+		 * @throws IllegalArgumentException if snapshotInterval is less than 1
+		 */
+		public Builder eventLog(int snapshotInterval) {
+			if (snapshotInterval < 1) {
+				throw new IllegalArgumentException();
+			}
+			this.snapshotInterval = snapshotInterval;
+			return this;
+		}
+		
+		
+		/**
+		 * Builds a new IncidentManager with an empty list of managed incidents. If the 
+		 * instance registers its metrics, its name must not be DEFAULT_NAME, which is kept for 
+		 * the shared instance, or the name of another instance whose metrics are registered.
+		 * 
+		 * @return the new IncidentManager
+		 * @throws IllegalArgumentException if the instance registers its metrics and they 
+		 * cannot be registered under its name
+		 */
+		public IncidentManager build() {
+			int number = BUILT.incrementAndGet();
+			String instanceName = name == null ? DEFAULT_NAME + "-" + number : name;
+			if (registerMetrics && DEFAULT_NAME.equals(instanceName)) {
+				throw new IllegalArgumentException("Name is reserved: " + instanceName);
+			}
+			IncidentManager manager = new IncidentManager(instanceName, snapshotInterval);
+			if (registerMetrics && !manager.metrics.register(instanceName)) {
+				throw new IllegalArgumentException("Metrics could not be registered as " + instanceName);
+			}
+			return manager;
+		}
+	}
 }
@@ -0,0 +1,318 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.incident_management.model.manager;
+
+import edu.ncsu.csc216.incident_management.model.command.Command.CancellationCode;
+import edu.ncsu.csc216.incident_management.model.command.Command.OnHoldReason;
+import edu.ncsu.csc216.incident_management.model.command.Command.ResolutionCode;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Category;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Priority;
+import edu.ncsu.csc216.incident_management.model.incident.UserIdTable;
+
+/**
+ * An immutable condition on ManagedIncidents that can be run against a ManagedIncidentList.
+ * Simple conditions on a single field are created with the static factory methods and are
+ * combined with and() and or(). When a query is run, conditions on the owner and caller are
+ * answered from the ManagedIncidentList indexes and the remaining conditions are only
+ * checked against the incidents those indexes selected. A query without any indexed
+ * condition is answered with a parallel scan of the list.
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class IncidentQuery {
+
+	/** An enumeration of the kinds of query nodes. */
+	enum Kind { CATEGORY, PRIORITY, STATE, OWNER, CALLER, ON_HOLD_REASON, RESOLUTION_CODE, CANCELLATION_CODE, AND, OR }
+
+	/** The kind of this query node */
+	private final Kind kind;
+
+	/** Value compared against by a condition node */
+	private final Object value;
+
+	/** UserIdTable reference of an owner or caller node, or NO_USER if it was not yet in the table */
+	private final int userRef;
+
+	/** Left operand of an AND or OR node */
+	private final IncidentQuery left;
+
+	/** Right operand of an AND or OR node */
+	private final IncidentQuery right;
+
+
+	/**
+	 * Constructs a condition node.
+	 *
+	 * @param kind		the kind of condition
+	 * @param value		the value the condition compares against
+	 * @param userRef	the user reference the condition compares against
+	 *
+	 * @throws IllegalArgumentException if value is null
+	 */
+	private IncidentQuery(Kind kind, Object value, int userRef) {
+		if (value == null) {
+			throw new IllegalArgumentException();
+		}
+
+		this.kind = kind;
+		this.value = value;
+		this.userRef = userRef;
+		this.left = null;
+		this.right = null;
+	}
+
+
+	/**
+	 * Constructs an AND or OR node.
+	 *
+	 * @param kind	AND or OR
+	 * @param left	the left operand
+	 * @param right	the right operand
+	 *
+	 * @throws IllegalArgumentException if right is null
+	 */
+	private IncidentQuery(Kind kind, IncidentQuery left, IncidentQuery right) {
+		if (right == null) {
+			throw new IllegalArgumentException();
+		}
+
+		this.kind = kind;
+		this.value = null;
+		this.userRef = UserIdTable.NO_USER;
+		this.left = left;
+		this.right = right;
+	}
+
+
+	/**
+	 * Creates a query matching the incidents of the given category
+	 *
+	 * @param category	the category to match
+	 * @return the query
+	 * @throws IllegalArgumentException if category is null
+	 */
+	public static IncidentQuery category(Category category) {
+		return new IncidentQuery(Kind.CATEGORY, category, UserIdTable.NO_USER);
+	}
+
+
+	/**
+	 * Creates a query matching the incidents of the given priority
+	 *
+	 * @param priority	the priority to match
+	 * @return the query
+	 * @throws IllegalArgumentException if priority is null
+	 */
+	public static IncidentQuery priority(Priority priority) {
+		return new IncidentQuery(Kind.PRIORITY, priority, UserIdTable.NO_USER);
+	}
+
+
+	/**
+	 * Creates a query matching the incidents in the state with the given name
+	 *
+	 * @param stateName	the name of the state to match, such as ManagedIncident.NEW_NAME
+	 * @return the query
+	 * @throws IllegalArgumentException if stateName is null or is not the name of a state
+	 */
+	public static IncidentQuery state(String stateName) {
+		if (!ManagedIncident.NEW_NAME.equals(stateName) && !ManagedIncident.IN_PROGRESS_NAME.equals(stateName)
+				&& !ManagedIncident.ON_HOLD_NAME.equals(stateName) && !ManagedIncident.RESOLVED_NAME.equals(stateName)
+				&& !ManagedIncident.CLOSED_NAME.equals(stateName) && !ManagedIncident.CANCELED_NAME.equals(stateName)) {
+			throw new IllegalArgumentException();
+		}
+		return new IncidentQuery(Kind.STATE, stateName, UserIdTable.NO_USER);
+	}
+
+
+	/**
+	 * Creates a query matching the incidents owned by the given user. The user id is only
+	 * looked up in the UserIdTable, never added to it, so querying for a user id that no
+	 * incident has ever had matches nothing and leaves the table as it was.
+	 *
+	 * @param owner	the user id of the owner to match
+	 * @return the query
+	 * @throws IllegalArgumentException if owner is null
+	 */
+	public static IncidentQuery owner(String owner) {
+		return new IncidentQuery(Kind.OWNER, owner, UserIdTable.getInstance().lookup(owner));
+	}
+
+
+	/**
+	 * Creates a query matching the incidents reported by the given caller. As with owner(),
+	 * the user id is looked up without being added to the UserIdTable.
+	 *
+	 * @param caller	the user id of the caller to match
+	 * @return the query
+	 * @throws IllegalArgumentException if caller is null
+	 */
+	public static IncidentQuery caller(String caller) {
+		return new IncidentQuery(Kind.CALLER, caller, UserIdTable.getInstance().lookup(caller));
+	}
+
+
+	/**
+	 * Creates a query matching the incidents on hold for the given reason
+	 *
+	 * @param onHoldReason	the on hold reason to match
+	 * @return the query
+	 * @throws IllegalArgumentException if onHoldReason is null
+	 */
+	public static IncidentQuery onHoldReason(OnHoldReason onHoldReason) {
+		return new IncidentQuery(Kind.ON_HOLD_REASON, onHoldReason, UserIdTable.NO_USER);
+	}
+
+
+	/**
+	 * Creates a query matching the incidents with the given resolution code
+	 *
+	 * @param resolutionCode	the resolution code to match
+	 * @return the query
+	 * @throws IllegalArgumentException if resolutionCode is null
+	 */
+	public static IncidentQuery resolutionCode(ResolutionCode resolutionCode) {
+		return new IncidentQuery(Kind.RESOLUTION_CODE, resolutionCode, UserIdTable.NO_USER);
+	}
+
+
+	/**
+	 * Creates a query matching the incidents with the given cancellation code
+	 *
+	 * @param cancellationCode	the cancellation code to match
+	 * @return the query
+	 * @throws IllegalArgumentException if cancellationCode is null
+	 */
+	public static IncidentQuery cancellationCode(CancellationCode cancellationCode) {
+		return new IncidentQuery(Kind.CANCELLATION_CODE, cancellationCode, UserIdTable.NO_USER);
+	}
+
+
+	/**
+	 * Creates a query matching the incidents matched by both this query and the given query
+	 *
+	 * @param other	the other query
+	 * @return the combined query
+	 * @throws IllegalArgumentException if other is null
+	 */
+	public IncidentQuery and(IncidentQuery other) {
+		return new IncidentQuery(Kind.AND, this, other);
+	}
+
+
+	/**
+	 * Creates a query matching the incidents matched by this query, the given query, or both
+	 *
+	 * @param other	the other query
+	 * @return the combined query
+	 * @throws IllegalArgumentException if other is null
+	 */
+	public IncidentQuery or(IncidentQuery other) {
+		return new IncidentQuery(Kind.OR, this, other);
+	}
+
+
+	/**
+	 * Checks whether the given incident is matched by the query
+	 *
+	 * @param incident	the incident to check
+	 * @return true if the incident is matched by the query
+	 */
+	public boolean matches(ManagedIncident incident) {
+		switch (kind) {
+		case CATEGORY:
+			return incident.getCategory() == value;
+		case PRIORITY:
+			return incident.getPriority() == value;
+		case STATE:
+			return incident.getState().getStateName().equals(value);
+		case OWNER:
+			int owner = getUserRef();
+			return owner != UserIdTable.NO_USER && incident.getOwnerRef() == owner;
+		case CALLER:
+			int caller = getUserRef();
+			return caller != UserIdTable.NO_USER && incident.getCallerRef() == caller;
+		case ON_HOLD_REASON:
+			return incident.getOnHoldReason() == value;
+		case RESOLUTION_CODE:
+			return incident.getResolutionCode() == value;
+		case CANCELLATION_CODE:
+			return incident.getCancellationCode() == value;
+		case AND:
+			return left.matches(incident) && right.matches(incident);
+		case OR:
+			return left.matches(incident) || right.matches(incident);
+		default:
+			return false;
+		}
+	}
+
+
+	/**
+	 * Checks whether the incidents matched by the query can be found through the
+	 * ManagedIncidentList indexes without scanning the list
+	 *
+	 * @return true if the query can be answered from the indexes
+	 */
+	boolean isIndexed() {
+		switch (kind) {
+		case OWNER:
+		case CALLER:
+			return true;
+		case AND:
+			return left.isIndexed() || right.isIndexed();
+		case OR:
+			return left.isIndexed() && right.isIndexed();
+		default:
+			return false;
+		}
+	}
+
+
+	/**
+	 * Retrieves the kind of this query node
+	 *
+	 * @return the kind of the node
+	 */
+	Kind getKind() {
+		return kind;
+	}
+
+
+	/**
+	 * Retrieves the UserIdTable reference of an owner or caller node. A user id that was not
+	 * in the table when the query was created is looked up again, in case an incident has 
+	 * been given it since.
+	 *
+	 * @return the user reference, or NO_USER if no incident has the user id
+	 */
+	int getUserRef() {
+		if (userRef != UserIdTable.NO_USER) {
+			return userRef;
+		}
+		return UserIdTable.getInstance().lookup((String) value);
+	}
+
+
+	/**
+	 * Retrieves the left operand of an AND or OR node
+	 *
+	 * @return the left operand
+	 */
+	IncidentQuery getLeft() {
+		return left;
+	}
+
+
+	/**
+	 * Retrieves the right operand of an AND or OR node
+	 *
+	 * @return the right operand
+	 */
+	IncidentQuery getRight() {
+		return right;
+	}
+}
@@ -0,0 +1,371 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.incident_management.model.manager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * An inverted index from the terms in incident names and work notes to the ids of the
+ * incidents containing them. Text is split into lower case terms of letters and digits.
+ * Each term keeps a posting list of incident ids in ascending order, with the number of
+ * times the term occurs in each incident, stored in primitive arrays. The index is updated
+ * incrementally as incidents are added and removed and as work notes are appended.
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class IncidentSearchIndex {
+
+	/** Posting lists of the index, by term */
+	private HashMap<String, PostingList> postings;
+
+	/** Number of terms indexed for each incident id */
+	private HashMap<Integer, Integer> documentLengths;
+
+
+	/**
+	 * Constructs an empty IncidentSearchIndex.
+	 */
+	public IncidentSearchIndex() {
+		postings = new HashMap<String, PostingList>();
+		documentLengths = new HashMap<Integer, Integer>();
+	}
+
+
+	/**
+	 * Adds the terms in the given text to the index for the incident with the given id.
+	 *
+	 * @param id	id of the incident the text belongs to
+	 * @param text	text to index
+	 */
+	public void addText(int id, String text) {
+		Map<String, Integer> counts = countTerms(text);
+		int length = 0;
+		for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+			PostingList list = postings.get(entry.getKey());
+			if (list == null) {
+				list = new PostingList();
+				postings.put(entry.getKey(), list);
+			}
+			list.add(id, entry.getValue());
+			length += entry.getValue();
+		}
+
+		Integer previous = documentLengths.get(id);
+		documentLengths.put(id, previous == null ? length : previous + length);
+	}
+
+
+	/**
+	 * Removes the terms in the given text from the index for the incident with the given id.
+	 * The text must be the same as the text that was added for the incident.
+	 *
+	 * @param id	id of the incident the text belongs to
+	 * @param text	text to remove
+	 */
+	public void removeText(int id, String text) {
+		Map<String, Integer> counts = countTerms(text);
+		for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+			PostingList list = postings.get(entry.getKey());
+			if (list != null) {
+				list.remove(id, entry.getValue());
+				if (list.size == 0) {
+					postings.remove(entry.getKey());
+				}
+			}
+		}
+
+		Integer length = documentLengths.get(id);
+		if (length != null) {
+			int remaining = length - countTotal(counts);
+			if (remaining <= 0) {
+				documentLengths.remove(id);
+			} else {
+				documentLengths.put(id, remaining);
+			}
+		}
+	}
+
+
+	/**
+	 * Searches the index. The query is a list of keywords and double quoted phrases. An
+	 * incident matches if it contains every keyword and every phrase. Matches are ranked by
+	 * the sum over the query terms of the number of times the term occurs in the incident,
+	 * weighted by how rare the term is across all incidents.
+	 *
+	 * @param query			the keywords and phrases to search for
+	 * @param documentText	gives the indexed text of an incident from its id, used to check phrases
+	 * @return ids of the matching incidents, best match first
+	 *
+	 * @throws IllegalArgumentException if query is null or does not contain any terms
+	 */
+	public int[] search(String query, IntFunction<String> documentText) {
+		if (query == null) {
+			throw new IllegalArgumentException();
+		}
+
+		List<String> phrases = new ArrayList<String>();
+		StringBuilder keywords = new StringBuilder();
+		int start = 0;
+		int quote = query.indexOf('"');
+		while (quote >= 0) {
+			int end = query.indexOf('"', quote + 1);
+			if (end < 0) {
+				break;
+			}
+			keywords.append(query, start, quote).append(' ');
+			String phrase = normalize(query.substring(quote + 1, end));
+			if (phrase.length() > 2) {
+				phrases.add(phrase);
+			}
+			keywords.append(query, quote + 1, end).append(' ');
+			start = end + 1;
+			quote = query.indexOf('"', start);
+		}
+		keywords.append(query.substring(start).replace('"', ' '));
+
+		List<String> terms = new ArrayList<String>(countTerms(keywords.toString()).keySet());
+		if (terms.isEmpty()) {
+			throw new IllegalArgumentException();
+		}
+
+		PostingList[] lists = new PostingList[terms.size()];
+		for (int i = 0; i < terms.size(); i++) {
+			lists[i] = postings.get(terms.get(i));
+			if (lists[i] == null) {
+				return new int[0];
+			}
+		}
+
+		//Intersect starting from the shortest posting list
+		Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+		int documents = documentLengths.size();
+		int[] candidates = Arrays.copyOf(lists[0].ids, lists[0].size);
+		double[] scores = new double[candidates.length];
+		int count = candidates.length;
+		for (int i = 0; i < lists.length; i++) {
+			PostingList list = lists[i];
+			double idf = Math.log(1.0 + (double) documents / list.size);
+			int kept = 0;
+			for (int j = 0; j < count; j++) {
+				int k = list.indexOf(candidates[j]);
+				if (k >= 0) {
+					candidates[kept] = candidates[j];
+					scores[kept] = scores[j] + list.counts[k] * idf;
+					kept++;
+				}
+			}
+			count = kept;
+		}
+
+		Integer[] order = new Integer[count];
+		int matches = 0;
+		for (int i = 0; i < count; i++) {
+			if (containsPhrases(documentText.apply(candidates[i]), phrases)) {
+				order[matches++] = i;
+			}
+		}
+
+		final double[] finalScores = scores;
+		final int[] finalCandidates = candidates;
+		Arrays.sort(order, 0, matches, (a, b) -> finalScores[a] != finalScores[b]
+				? Double.compare(finalScores[b], finalScores[a]) : Integer.compare(finalCandidates[a], finalCandidates[b]));
+
+		int[] result = new int[matches];
+		for (int i = 0; i < matches; i++) {
+			result[i] = candidates[order[i]];
+		}
+		return result;
+	}
+
+
+	/**
+	 * Retrieves the number of distinct terms in the index
+	 *
+	 * @return the number of terms
+	 */
+	public int getTermCount() {
+		return postings.size();
+	}
+
+
+	/**
+	 * Checks that the given text contains every one of the given normalized phrases
+	 *
+	 * @param text		the text to check
+	 * @param phrases	the normalized phrases
+	 * @return true if text contains every phrase
+	 */
+	private static boolean containsPhrases(String text, List<String> phrases) {
+		if (phrases.isEmpty()) {
+			return true;
+		}
+		if (text == null) {
+			return false;
+		}
+
+		String normalized = normalize(text);
+		for (int i = 0; i < phrases.size(); i++) {
+			if (!normalized.contains(phrases.get(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	/**
+	 * Converts text into its terms separated and surrounded by single spaces, so that phrase
+	 * matching only matches whole terms.
+	 *
+	 * @param text	the text to normalize
+	 * @return the normalized text
+	 */
+	private static String normalize(String text) {
+		StringBuilder sb = new StringBuilder(text.length() + 2);
+		sb.append(' ');
+		boolean inTerm = false;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (Character.isLetterOrDigit(c)) {
+				sb.append(Character.toLowerCase(c));
+				inTerm = true;
+			} else if (inTerm) {
+				sb.append(' ');
+				inTerm = false;
+			}
+		}
+		if (inTerm) {
+			sb.append(' ');
+		}
+		return sb.toString();
+	}
+
+
+	/**
+	 * Splits text into lower case terms and counts how often each occurs
+	 *
+	 * @param text	the text to split
+	 * @return the number of occurrences of each term
+	 */
+	private static Map<String, Integer> countTerms(String text) {
+		HashMap<String, Integer> counts = new HashMap<String, Integer>();
+		int i = 0;
+		while (i < text.length()) {
+			while (i < text.length() && !Character.isLetterOrDigit(text.charAt(i))) {
+				i++;
+			}
+			int start = i;
+			while (i < text.length() && Character.isLetterOrDigit(text.charAt(i))) {
+				i++;
+			}
+			if (i > start) {
+				String term = text.substring(start, i).toLowerCase();
+				Integer count = counts.get(term);
+				counts.put(term, count == null ? 1 : count + 1);
+			}
+		}
+		return counts;
+	}
+
+
+	/**
+	 * Adds up the term counts
+	 *
+	 * @param counts	the number of occurrences of each term
+	 * @return the total number of term occurrences
+	 */
+	private static int countTotal(Map<String, Integer> counts) {
+		int total = 0;
+		for (Integer count : counts.values()) {
+			total += count;
+		}
+		return total;
+	}
+
+
+	/**
+	 * The incident ids containing a term, in ascending order, with the number of times the
+	 * term occurs in each incident.
+	 *
+	 * @author Bilal Mohamad
+	 * @author Keaton Thurston
+	 */
+	private static class PostingList {
+
+		/** Ids of the incidents containing the term, in ascending order */
+		private int[] ids = new int[2];
+
+		/** Number of times the term occurs in the incident at the same position in ids */
+		private int[] counts = new int[2];
+
+		/** Number of incidents in the posting list */
+		private int size;
+
+		/**
+		 * Adds occurrences of the term for the given incident
+		 *
+		 * @param id	id of the incident
+		 * @param count	number of occurrences to add
+		 */
+		private void add(int id, int count) {
+			if (size > 0 && ids[size - 1] == id) {
+				counts[size - 1] += count;
+				return;
+			}
+
+			int k = size == 0 || ids[size - 1] < id ? -(size + 1) : Arrays.binarySearch(ids, 0, size, id);
+			if (k >= 0) {
+				counts[k] += count;
+				return;
+			}
+
+			int insert = -(k + 1);
+			if (size == ids.length) {
+				ids = Arrays.copyOf(ids, size * 2);
+				counts = Arrays.copyOf(counts, size * 2);
+			}
+			System.arraycopy(ids, insert, ids, insert + 1, size - insert);
+			System.arraycopy(counts, insert, counts, insert + 1, size - insert);
+			ids[insert] = id;
+			counts[insert] = count;
+			size++;
+		}
+
+		/**
+		 * Removes occurrences of the term for the given incident
+		 *
+		 * @param id	id of the incident
+		 * @param count	number of occurrences to remove
+		 */
+		private void remove(int id, int count) {
+			int k = indexOf(id);
+			if (k < 0) {
+				return;
+			}
+
+			counts[k] -= count;
+			if (counts[k] <= 0) {
+				System.arraycopy(ids, k + 1, ids, k, size - k - 1);
+				System.arraycopy(counts, k + 1, counts, k, size - k - 1);
+				size--;
+			}
+		}
+
+		/**
+		 * Finds the position of the given incident in the posting list
+		 *
+		 * @param id	id of the incident
+		 * @return the position of the incident, or a negative number if it is not in the list
+		 */
+		private int indexOf(int id) {
+			return Arrays.binarySearch(ids, 0, size, id);
+		}
+	}
+}
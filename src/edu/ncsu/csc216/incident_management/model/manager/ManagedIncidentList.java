@@ -4,17 +4,39 @@
 package edu.ncsu.csc216.incident_management.model.manager;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
 
 import edu.ncsu.csc216.incident.xml.Incident;
 import edu.ncsu.csc216.incident_management.model.command.Command;
+import edu.ncsu.csc216.incident_management.model.command.Command.CommandValue;
 import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident;
 import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Category;
 import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Priority;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.UpdateResult;
+import edu.ncsu.csc216.incident_management.model.incident.NoteLog;
+import edu.ncsu.csc216.incident_management.model.incident.TransitionLog;
+import edu.ncsu.csc216.incident_management.model.incident.UserIdTable;
+import edu.ncsu.csc216.incident_management.model.metrics.IncidentEvent.EventType;
+import edu.ncsu.csc216.incident_management.model.metrics.IncidentEventRecorder;
 
 /**
- * Maintains a List of ManagedIncidents using ArrayList functionality.
+ * Maintains a List of ManagedIncidents using ArrayList functionality. The list and its 
+ * indexes are guarded by a read-write lock, so any number of threads can query the list at 
+ * once while commands, claims, and other changes each hold it alone.
  * 
  * @author Bilal Mohamad
  * @author Keaton Thurston
@@ -24,12 +46,94 @@ public class ManagedIncidentList {
 	/** ArrayList of ManagedIncidents */
 	private ArrayList<ManagedIncident> incidents;
 	
+	/** Append-only log holding the work notes of every incident in the list */
+	private NoteLog noteLog;
+	
+	/** Index of the incidents in the list by the UserIdTable reference of their owner */
+	private HashMap<Integer, LinkedHashSet<ManagedIncident>> ownerIndex;
+	
+	/** Index of the incidents in the list by the UserIdTable reference of their caller */
+	private HashMap<Integer, LinkedHashSet<ManagedIncident>> callerIndex;
+	
+	/** Full-text index of the names and work notes of the incidents in the list */
+	private IncidentSearchIndex searchIndex;
+	
+	/** The incidents in the list ordered by id */
+	private TreeMap<Integer, ManagedIncident> incidentsById;
+	
+	/** The incidents in the list ordered by priority, most urgent first, and then by id */
+	private TreeSet<ManagedIncident> incidentsByPriority;
+	
+	/** The incidents in the New state waiting to be claimed, most urgent first */
+	private ConcurrentSkipListSet<ManagedIncident> newIncidents;
+	
+	/** Position of each incident in the list, or null if it has to be rebuilt after a delete */
+	private volatile IdentityHashMap<ManagedIncident, Integer> positions;
+	
+	/** Number of incidents in the list in each state, category, and priority, indexed by IncidentCounts.cell() */
+	private LongAdder[] counters;
+	
+	/** Log every change to the list is appended to, or null if changes are not logged */
+	private IncidentEventLog eventLog;
+	
+	/** Commands executed on the list that can be undone and redone */
+	private CommandHistory history;
+	
+	/** Gives out the ids of the incidents created in the list */
+	private final IncidentIdAllocator idAllocator;
+	
+	/** Shared by the methods that read the list and indexes and held alone by the methods that change them */
+	private final ReentrantReadWriteLock lock;
+	
+	/** Orders incidents by priority, most urgent first, and then by id */
+	private static final Comparator<ManagedIncident> PRIORITY_ORDER = new Comparator<ManagedIncident>() {
+		public int compare(ManagedIncident a, ManagedIncident b) {
+			int order = a.getPriority().compareTo(b.getPriority());
+			if (order != 0) {
+				return order;
+			}
+			return Integer.compare(a.getIncidentId(), b.getIncidentId());
+		}
+	};
+	
+	/** Recorder of the lookup and filter events */
+	private static final IncidentEventRecorder RECORDER = IncidentEventRecorder.getInstance();
+	
+	/** Number of incidents above which a query that cannot use an index scans the list in parallel */
+	private static final int PARALLEL_SCAN_THRESHOLD = 4096;
+	
 	/**
-	 * Constructs a new ManagedIncidentList.
+	 * Constructs a new ManagedIncidentList that numbers its incidents from 0.
 	 */
 	public ManagedIncidentList() {
-		ManagedIncident.setCounter(0);
+		this(new IncidentIdAllocator());
+	}
+	
+	/**
+	 * Constructs a new ManagedIncidentList that takes the ids of its incidents from the given 
+	 * allocator, which may be shared with other lists that must not reuse the same ids.
+	 * @param idAllocator allocator of the ids of new incidents
+	 * @throws IllegalArgumentException if idAllocator is null
+	 */
+	public ManagedIncidentList(IncidentIdAllocator idAllocator) {
+		if (idAllocator == null) {
+			throw new IllegalArgumentException();
+		}
+		this.idAllocator = idAllocator;
+		lock = new ReentrantReadWriteLock();
 		incidents = new ArrayList<ManagedIncident>();
+		noteLog = new NoteLog();
+		ownerIndex = new HashMap<Integer, LinkedHashSet<ManagedIncident>>();
+		callerIndex = new HashMap<Integer, LinkedHashSet<ManagedIncident>>();
+		searchIndex = new IncidentSearchIndex();
+		incidentsById = new TreeMap<Integer, ManagedIncident>();
+		incidentsByPriority = new TreeSet<ManagedIncident>(PRIORITY_ORDER);
+		newIncidents = new ConcurrentSkipListSet<ManagedIncident>(PRIORITY_ORDER);
+		counters = new LongAdder[IncidentCounts.CELL_COUNT];
+		for (int i = 0; i < counters.length; i++) {
+			counters[i] = new LongAdder();
+		}
+		history = new CommandHistory();
 	}
 
 	/**
@@ -43,9 +147,36 @@ public class ManagedIncidentList {
 	 */
 	public int addIncident(String caller, Category category, Priority priority, 
 			String name, String workNote) {
-		ManagedIncident incident = new ManagedIncident(caller, category, priority, name, workNote);
-		incidents.add(incident);
-		return incident.getIncidentId();
+		return addIncident(idAllocator.allocate(), caller, category, priority, name, workNote);
+	}
+	
+	/**
+	 * Adds a ManagedIncident with the given id to the list, such as when the list is rebuilt 
+	 * from an event log.
+	 * @param id id of the incident
+	 * @param caller user id of person who reported the incident
+	 * @param category Category of the incident
+	 * @param priority Priority of the incident
+	 * @param name incident's name information
+	 * @param workNote note about the incident
+	 * @return id of added incident 
+	 */
+	int addIncident(int id, String caller, Category category, Priority priority, 
+			String name, String workNote) {
+		lock.writeLock().lock();
+		try {
+			ManagedIncident incident = new ManagedIncident(id, caller, category, priority, name, workNote, noteLog);
+			idAllocator.reserve(id);
+			incidents.add(incident);
+			index(incident);
+			if (eventLog != null) {
+				eventLog.recordCreate(id, caller, category, priority, name, workNote);
+				snapshotIfDue();
+			}
+			return incident.getIncidentId();
+		} finally {
+			lock.writeLock().unlock();
+		}
 	}
 	
 	/**
@@ -53,33 +184,118 @@ public class ManagedIncidentList {
 	 * @param list list of XML incidents
 	 */
 	public void addXMLIncidents (List<Incident> list) {
-//		ManagedIncident current;
-		int maxId = 0;
-		
-		Iterator<Incident> it = list.iterator();
+		addXMLIncidents(list.iterator());
+	}
+	
+	/**
+	 * Adds ManagedIncident objects as they are read from an XML or JSON document, so the 
+	 * whole document never has to be held in memory. Every incident is converted before any 
+	 * is added, so if the iterator or a conversion throws, the list is left unchanged.
+	 * @param it iterator over the incidents of the document
+	 * @return number of incidents added
+	 * @throws IllegalArgumentException if an incident cannot be read or converted
+	 */
+	public int addXMLIncidents (Iterator<Incident> it) {
+		lock.writeLock().lock();
+		try {
+//			ManagedIncident current;
+			ArrayList<ManagedIncident> staged = new ArrayList<ManagedIncident>();
+			while (it.hasNext()) {
+				Incident inc = (Incident) it.next();
+				staged.add(new ManagedIncident(inc, noteLog));
+			}
 		
-		while (it.hasNext()) {
-			Incident inc = (Incident) it.next();
-			ManagedIncident mi = new ManagedIncident(inc);
-			
-			maxId = inc.getId();
+			addStaged(staged);
+			/*for (int i = 0; i < list.size(); i++) {
+				current = new ManagedIncident(list.get(i));
+				incidents.add(current);
+				maxId++;
+			}	*/
+			return staged.size();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Adds ManagedIncidents that have already been converted, such as incidents staged 
+	 * while a file is loaded into several lists at once. The ids are checked before any 
+	 * incident is added, so if one is already in the list, the list is left unchanged.
+	 * @param staged incidents to add
+	 * @throws IllegalArgumentException if the id of one of the incidents is already in the list
+	 */
+	void addIncidents(List<ManagedIncident> staged) {
+		lock.writeLock().lock();
+		try {
+			for (int i = 0; i < staged.size(); i++) {
+				if (incidentsById.containsKey(staged.get(i).getIncidentId())) {
+					throw new IllegalArgumentException();
+				}
+			}
+			addStaged(staged);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Adds converted ManagedIncidents to the list and its indexes and logs the change. The 
+	 * caller must hold the write lock.
+	 * @param staged incidents to add
+	 */
+	private void addStaged(List<ManagedIncident> staged) {
+		for (int i = 0; i < staged.size(); i++) {
+			ManagedIncident mi = staged.get(i);
+			idAllocator.reserve(mi.getIncidentId());
 			incidents.add(mi);
+			index(mi);
+		}
+		if (eventLog != null) {
+			eventLog.recordReset(incidents, idAllocator.getNextId());
 		}
-		
-		/*for (int i = 0; i < list.size(); i++) {
-			current = new ManagedIncident(list.get(i));
-			incidents.add(current);
-			maxId++;
-		}	*/
-		ManagedIncident.setCounter(maxId + 1);
 	}
 	
 	/**
-	 * Retrieves the list of ManagedIncidents.
+	 * Retrieves the list of ManagedIncidents. The list is a copy, so it can be read while 
+	 * the incidents are being changed.
 	 * @return list of ManagedIncidents
 	 */
 	public List<ManagedIncident> getManagedIncidents() {
-		return incidents;
+		lock.readLock().lock();
+		try {
+			return new ArrayList<ManagedIncident>(incidents);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Retrieves the list of ManagedIncidents in order of id. The order is kept up to date 
+	 * as incidents are added and removed, so no sorting is done.
+	 * @return list of ManagedIncidents ordered by id
+	 */
+	public List<ManagedIncident> getIncidentsSortedById() {
+		lock.readLock().lock();
+		try {
+			return new ArrayList<ManagedIncident>(incidentsById.values());
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Retrieves the list of ManagedIncidents in order of priority, most urgent first, with 
+	 * incidents of the same priority in order of id. The order is kept up to date as 
+	 * incidents are added and removed, so no sorting is done.
+	 * @return list of ManagedIncidents ordered by priority
+	 */
+	public List<ManagedIncident> getIncidentsSortedByPriority() {
+		lock.readLock().lock();
+		try {
+			return new ArrayList<ManagedIncident>(incidentsByPriority);
+		} finally {
+			lock.readLock().unlock();
+		}
 	}
 	
 	/**
@@ -93,13 +309,282 @@ public class ManagedIncidentList {
 			throw new IllegalArgumentException();
 		}
 		
-		ArrayList<ManagedIncident> categorizedIncidents = new ArrayList<ManagedIncident>();
-		for (int i = 0; i < incidents.size(); i++) {
-			if (incidents.get(i).getCategory().equals(category)) {
-				categorizedIncidents.add(incidents.get(i));
+		lock.readLock().lock();
+		try {
+			long start = RECORDER.begin(EventType.FILTER);
+			ArrayList<ManagedIncident> categorizedIncidents = new ArrayList<ManagedIncident>();
+			for (int i = 0; i < incidents.size(); i++) {
+				if (incidents.get(i).getCategory().equals(category)) {
+					categorizedIncidents.add(incidents.get(i));
+				}
 			}
+			RECORDER.commit(EventType.FILTER, start, categorizedIncidents.size(), category.name());
+			return categorizedIncidents;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Retrieves the list of ManagedIncidents owned by the given user. The incidents are 
+	 * found through the owner index, so the cost depends on the number of incidents returned.
+	 * @param owner user id of the owner
+	 * @return list of ManagedIncidents owned by the given user
+	 * @throws IllegalArgumentException if a null owner parameter is given
+	 */
+	public List<ManagedIncident> getIncidentsByOwner(String owner) {
+		if (owner == null) {
+			throw new IllegalArgumentException();
+		}
+		
+		lock.readLock().lock();
+		try {
+			long start = RECORDER.begin(EventType.FILTER);
+			List<ManagedIncident> result = getIndexed(ownerIndex, UserIdTable.getInstance().lookup(owner));
+			RECORDER.commit(EventType.FILTER, start, result.size(), owner);
+			return result;
+		} finally {
+			lock.readLock().unlock();
 		}
-		return categorizedIncidents;
+	}
+	
+	/**
+	 * Retrieves the list of ManagedIncidents reported by the given caller. The incidents are 
+	 * found through the caller index, so the cost depends on the number of incidents returned.
+	 * @param caller user id of the caller
+	 * @return list of ManagedIncidents reported by the given caller
+	 * @throws IllegalArgumentException if a null caller parameter is given
+	 */
+	public List<ManagedIncident> getIncidentsByCaller(String caller) {
+		if (caller == null) {
+			throw new IllegalArgumentException();
+		}
+		
+		lock.readLock().lock();
+		try {
+			long start = RECORDER.begin(EventType.FILTER);
+			List<ManagedIncident> result = getIndexed(callerIndex, UserIdTable.getInstance().lookup(caller));
+			RECORDER.commit(EventType.FILTER, start, result.size(), caller);
+			return result;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Retrieves the list of ManagedIncidents matched by the given query, in list order. 
+	 * Owner and caller conditions are answered from the indexes as sets of list positions 
+	 * that are intersected or combined, and any other condition under an AND is only checked 
+	 * against the positions selected so far. Queries that cannot use an index are answered 
+	 * by scanning the list, in parallel for large lists.
+	 * @param query query to run
+	 * @return list of ManagedIncidents matched by the query
+	 * @throws IllegalArgumentException if a null query parameter is given
+	 */
+	public List<ManagedIncident> getIncidents(IncidentQuery query) {
+		if (query == null) {
+			throw new IllegalArgumentException();
+		}
+		
+		lock.readLock().lock();
+		try {
+			long start = RECORDER.begin(EventType.FILTER);
+			BitSet matches = evaluate(query);
+			ArrayList<ManagedIncident> result = new ArrayList<ManagedIncident>(matches.cardinality());
+			for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+				result.add(incidents.get(i));
+			}
+			RECORDER.commit(EventType.FILTER, start, result.size(), query.getKind().name());
+			return result;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Retrieves one page of the list of ManagedIncidents, in list order.
+	 * @param offset number of incidents to skip
+	 * @param limit maximum number of incidents to return
+	 * @return list of at most limit ManagedIncidents starting at the given offset
+	 * @throws IllegalArgumentException if offset or limit is negative
+	 */
+	public List<ManagedIncident> getIncidents(int offset, int limit) {
+		if (offset < 0 || limit < 0) {
+			throw new IllegalArgumentException();
+		}
+		
+		lock.readLock().lock();
+		try {
+			int from = Math.min(offset, incidents.size());
+			int to = (int) Math.min((long) from + limit, incidents.size());
+			return new ArrayList<ManagedIncident>(incidents.subList(from, to));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Retrieves one page of the list of ManagedIncidents matched by the given query, in 
+	 * list order. The list is checked from the start only until the page is full, so the 
+	 * cost depends on how far into the list the page ends rather than on the size of the list.
+	 * @param query query to run
+	 * @param offset number of matching incidents to skip
+	 * @param limit maximum number of incidents to return
+	 * @return list of at most limit matching ManagedIncidents starting at the given offset
+	 * @throws IllegalArgumentException if the query is null or offset or limit is negative
+	 */
+	public List<ManagedIncident> getIncidents(IncidentQuery query, int offset, int limit) {
+		if (query == null || offset < 0 || limit < 0) {
+			throw new IllegalArgumentException();
+		}
+		
+		lock.readLock().lock();
+		try {
+			long start = RECORDER.begin(EventType.FILTER);
+			ArrayList<ManagedIncident> result = new ArrayList<ManagedIncident>(Math.min(limit, incidents.size()));
+			int skipped = 0;
+			for (int i = 0; i < incidents.size() && result.size() < limit; i++) {
+				ManagedIncident incident = incidents.get(i);
+				if (!query.matches(incident)) {
+					continue;
+				}
+				if (skipped < offset) {
+					skipped++;
+				} else {
+					result.add(incident);
+				}
+			}
+			RECORDER.commit(EventType.FILTER, start, result.size(), query.getKind().name());
+			return result;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Retrieves one page of the ManagedIncidents with an id greater than the given id, in 
+	 * order of id. Passing the id of the last incident of a page gives the next page, and the 
+	 * pages stay stable when incidents are added or deleted between requests. The page is 
+	 * read from the id-ordered view, so the cost depends on the page size rather than on the 
+	 * number of incidents before it.
+	 * @param afterId id the page starts after; use -1 for the first page
+	 * @param limit maximum number of incidents to return
+	 * @param query query the incidents must match, or null for every incident
+	 * @return list of at most limit ManagedIncidents with an id greater than afterId
+	 * @throws IllegalArgumentException if limit is negative
+	 */
+	public List<ManagedIncident> getIncidentsAfterId(int afterId, int limit, IncidentQuery query) {
+		if (limit < 0) {
+			throw new IllegalArgumentException();
+		}
+		
+		lock.readLock().lock();
+		try {
+			ArrayList<ManagedIncident> result = new ArrayList<ManagedIncident>();
+			Iterator<ManagedIncident> it = incidentsById.tailMap(afterId, false).values().iterator();
+			while (it.hasNext() && result.size() < limit) {
+				ManagedIncident incident = it.next();
+				if (query == null || query.matches(incident)) {
+					result.add(incident);
+				}
+			}
+			return result;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Finds the positions of the incidents matched by the given query.
+	 * @param query query to run
+	 * @return set of the positions of the matched incidents
+	 */
+	private BitSet evaluate(IncidentQuery query) {
+		if (!query.isIndexed()) {
+			return scan(query, null);
+		}
+		
+		IncidentQuery left = query.getLeft();
+		IncidentQuery right = query.getRight();
+		BitSet result;
+		switch (query.getKind()) {
+		case OWNER:
+			int owner = query.getUserRef();
+			return getPositions(owner == UserIdTable.NO_USER ? null : ownerIndex.get(owner));
+		case CALLER:
+			int caller = query.getUserRef();
+			return getPositions(caller == UserIdTable.NO_USER ? null : callerIndex.get(caller));
+		case AND:
+			if (!right.isIndexed()) {
+				return scan(right, evaluate(left));
+			}
+			if (!left.isIndexed()) {
+				return scan(left, evaluate(right));
+			}
+			result = evaluate(left);
+			result.and(evaluate(right));
+			return result;
+		default:
+			result = evaluate(left);
+			result.or(evaluate(right));
+			return result;
+		}
+	}
+	
+	/**
+	 * Finds the positions of the incidents matched by the given query by checking each 
+	 * incident.
+	 * @param query query to check the incidents against
+	 * @param candidates positions of the incidents to check, or null to check the whole list
+	 * @return set of the positions of the matched incidents
+	 */
+	private BitSet scan(final IncidentQuery query, BitSet candidates) {
+		BitSet result = new BitSet(incidents.size());
+		if (candidates != null) {
+			for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+				if (query.matches(incidents.get(i))) {
+					result.set(i);
+				}
+			}
+		} else if (incidents.size() < PARALLEL_SCAN_THRESHOLD) {
+			for (int i = 0; i < incidents.size(); i++) {
+				if (query.matches(incidents.get(i))) {
+					result.set(i);
+				}
+			}
+		} else {
+			int[] matches = IntStream.range(0, incidents.size()).parallel()
+					.filter(i -> query.matches(incidents.get(i))).toArray();
+			for (int i = 0; i < matches.length; i++) {
+				result.set(matches[i]);
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Converts a set of indexed incidents into a set of their positions in the list.
+	 * @param indexed incidents from an index, may be null
+	 * @return set of the positions of the incidents
+	 */
+	private BitSet getPositions(LinkedHashSet<ManagedIncident> indexed) {
+		BitSet result = new BitSet(incidents.size());
+		if (indexed == null) {
+			return result;
+		}
+		
+		IdentityHashMap<ManagedIncident, Integer> current = positions;
+		if (current == null) {
+			current = new IdentityHashMap<ManagedIncident, Integer>(incidents.size() * 2);
+			for (int i = 0; i < incidents.size(); i++) {
+				current.put(incidents.get(i), i);
+			}
+			positions = current;
+		}
+		for (ManagedIncident incident : indexed) {
+			result.set(current.get(incident));
+		}
+		return result;
 	}
 	
 	/**
@@ -108,12 +593,38 @@ public class ManagedIncidentList {
 	 * @return ManagedIncident with the given id
 	 */
 	public ManagedIncident getIncidentById(int id) {
-		for (int i = 0; i < incidents.size(); i++) {
-			if (incidents.get(i).getIncidentId() == id) {
-				return incidents.get(i);
+		lock.readLock().lock();
+		try {
+			long start = RECORDER.begin(EventType.LOOKUP);
+			ManagedIncident incident = incidentsById.get(id);
+			RECORDER.commit(EventType.LOOKUP, start, incident == null ? 0 : 1, null);
+			return incident;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Retrieves the ManagedIncidents whose name or work notes contain every keyword and 
+	 * double quoted phrase in the given query, best match first.
+	 * @param query keywords and phrases to search for
+	 * @return list of the matching ManagedIncidents
+	 * @throws IllegalArgumentException if the query is null or does not contain any keywords
+	 */
+	public List<ManagedIncident> searchIncidents(String query) {
+		lock.readLock().lock();
+		try {
+			long start = RECORDER.begin(EventType.FILTER);
+			int[] ids = searchIndex.search(query, id -> getDocumentText(incidentsById.get(id)));
+			ArrayList<ManagedIncident> result = new ArrayList<ManagedIncident>(ids.length);
+			for (int i = 0; i < ids.length; i++) {
+				result.add(incidentsById.get(ids[i]));
 			}
+			RECORDER.commit(EventType.FILTER, start, result.size(), query);
+			return result;
+		} finally {
+			lock.readLock().unlock();
 		}
-		return null;
 	}
 	
 	
@@ -121,28 +632,569 @@ public class ManagedIncidentList {
 	 * Executes on a given command of a Command object for the given ManagedIncident.
 	 * @param id id of the incident
 	 * @param c command
+	 * @throws IllegalArgumentException if there is no incident with the id
+	 * @throws UnsupportedOperationException if the command is not valid for the incident
 	 */
 	public void executeCommand(int id, Command c) {
-		int incidentIndex = 0;
-		for (int i = 0; i < incidents.size(); i++) {
-			if (incidents.get(i).getIncidentId() == id) {
-				incidentIndex = i;
+		lock.writeLock().lock();
+		try {
+			ManagedIncident incident = incidentsById.get(id);
+			if (incident == null) {
+				throw new IllegalArgumentException();
 			}
+			execute(incident, c);
+		} finally {
+			lock.writeLock().unlock();
 		}
-		if (incidents.size() > 0) {
-			incidents.get(incidentIndex).update(c);
+	}
+	
+	/**
+	 * Executes the same command on every ManagedIncident with one of the given ids. The 
+	 * incidents are found through the id index and every transition is checked against the 
+	 * ManagedIncident transition table before any incident is updated, so either all of the 
+	 * incidents are updated or none are. An id given more than once is only updated once.
+	 * @param ids ids of the incidents
+	 * @param c command
+	 * @return the number of incidents updated
+	 * @throws IllegalArgumentException if ids or the command is null or an id is not in the list
+	 * @throws UnsupportedOperationException if the command is not valid for one of the incidents
+	 */
+	public int executeCommand(int[] ids, Command c) {
+		lock.writeLock().lock();
+		try {
+			if (ids == null || c == null) {
+				throw new IllegalArgumentException();
+			}
+		
+			LinkedHashSet<ManagedIncident> targets = new LinkedHashSet<ManagedIncident>();
+			for (int i = 0; i < ids.length; i++) {
+				ManagedIncident incident = incidentsById.get(ids[i]);
+				if (incident == null) {
+					throw new IllegalArgumentException();
+				}
+				if (!incident.canApply(c.getCommand())) {
+					throw new UnsupportedOperationException();
+				}
+				targets.add(incident);
+			}
+		
+			CommandHistory.Step step = CommandHistory.capture(c, targets);
+			for (ManagedIncident incident : targets) {
+				applyCommand(incident, c);
+			}
+			history.record(step);
+			return targets.size();
+		} finally {
+			lock.writeLock().unlock();
 		}
 	}
 	
+	/**
+	 * Executes a command on the ManagedIncident with the given id if the command is a valid 
+	 * action for it, reporting the outcome instead of throwing an exception.
+	 * @param id id of the incident
+	 * @param c command
+	 * @return APPLIED if the incident was updated, NO_SUCH_INCIDENT if there is no incident with 
+	 * the id, or INVALID_TRANSITION if the command is null or not valid for the incident
+	 */
+	public UpdateResult tryExecuteCommand(int id, Command c) {
+		lock.writeLock().lock();
+		try {
+			ManagedIncident incident = incidentsById.get(id);
+			if (incident == null) {
+				return UpdateResult.NO_SUCH_INCIDENT;
+			}
+			if (c == null || !incident.canApply(c.getCommand())) {
+				return UpdateResult.INVALID_TRANSITION;
+			}
+		
+			execute(incident, c);
+			return UpdateResult.APPLIED;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Checks whether a command is a valid action for the ManagedIncident with the given id.
+	 * @param id id of the incident
+	 * @param command command value to check
+	 * @return true if there is an incident with the id and the command can be applied to it
+	 */
+	public boolean canApply(int id, CommandValue command) {
+		lock.readLock().lock();
+		try {
+			ManagedIncident incident = incidentsById.get(id);
+			return incident != null && incident.canApply(command);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Updates the given ManagedIncident with the command as a step that can be undone.
+	 * @param incident incident to update
+	 * @param c command
+	 */
+	private void execute(ManagedIncident incident, Command c) {
+		CommandHistory.Step step = CommandHistory.capture(c, Collections.singletonList(incident));
+		applyCommand(incident, c);
+		history.record(step);
+	}
+	
+	/**
+	 * Undoes the latest command executed on the list that has not been undone. A command 
+	 * executed on several incidents at once is undone on all of them. Work notes added by the 
+	 * command are dropped and the incidents go back to their earlier state, owner, and codes.
+	 * @return true if a command was undone, or false if there was nothing to undo
+	 */
+	public boolean undo() {
+		lock.writeLock().lock();
+		try {
+			CommandHistory.Step step = history.takeUndo();
+			if (step == null) {
+				return false;
+			}
+		
+			revertStep(step);
+			if (eventLog != null) {
+				eventLog.recordRevert(step);
+				snapshotIfDue();
+			}
+			return true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Puts the incidents of a logged step back to the values it holds, as undo() did when 
+	 * the step was logged. Used to replay an event log.
+	 * @param step step to revert
+	 * @throws IllegalArgumentException if one of the incidents of the step is not in the list 
+	 */
+	void revert(CommandHistory.Step step) {
+		lock.writeLock().lock();
+		try {
+			for (int i = 0; i < step.size(); i++) {
+				if (!incidentsById.containsKey(step.getId(i))) {
+					throw new IllegalArgumentException();
+				}
+			}
+			revertStep(step);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Puts the incidents of a step back to the values they had before its command, keeping 
+	 * the counters and indexes up to date. The caller must hold the write lock.
+	 * @param step step to revert
+	 */
+	private void revertStep(CommandHistory.Step step) {
+		for (int i = step.size() - 1; i >= 0; i--) {
+			ManagedIncident incident = incidentsById.get(step.getId(i));
+			int ownerRef = incident.getOwnerRef();
+			int stateIndex = incident.getStateIndex();
+			List<String> notes = incident.getNotes();
+			for (int n = step.getNoteCount(i); n < notes.size(); n++) {
+				searchIndex.removeText(incident.getIncidentId(), notes.get(n));
+			}
+			step.revert(i, incident);
+			if (incident.getStateIndex() != stateIndex) {
+				counters[cell(incident, stateIndex)].decrement();
+				counters[cell(incident, incident.getStateIndex())].increment();
+			}
+			if (incident.getOwnerRef() != ownerRef) {
+				removeFromIndex(ownerIndex, ownerRef, incident);
+				addToIndex(ownerIndex, incident.getOwnerRef(), incident);
+			}
+			if (isNew(incident)) {
+				newIncidents.add(incident);
+			}
+		}
+	}
+	
+	/**
+	 * Executes the latest undone command again on the incidents it was undone on. Every 
+	 * incident is checked before the command is taken off the redo stack, so a command that 
+	 * can no longer be applied stays there and no incident is changed.
+	 * @return true if a command was redone, or false if there was nothing to redo
+	 * @throws IllegalStateException if the command is no longer valid for one of the incidents
+	 */
+	public boolean redo() {
+		lock.writeLock().lock();
+		try {
+			CommandHistory.Step undone = history.peekRedo();
+			if (undone == null) {
+				return false;
+			}
+		
+			Command c = undone.getCommand();
+			ArrayList<ManagedIncident> targets = new ArrayList<ManagedIncident>(undone.size());
+			for (int i = 0; i < undone.size(); i++) {
+				ManagedIncident incident = incidentsById.get(undone.getId(i));
+				if (incident == null || !incident.canApply(c.getCommand())) {
+					throw new IllegalStateException();
+				}
+				targets.add(incident);
+			}
+			history.takeRedo();
+		
+			CommandHistory.Step step = CommandHistory.capture(c, targets);
+			for (int i = 0; i < targets.size(); i++) {
+				applyCommand(targets.get(i), c);
+			}
+			history.recordRedo(step);
+			return true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Retrieves the commands executed on the list that can be undone and redone.
+	 * @return the command history of the list
+	 */
+	public CommandHistory getHistory() {
+		return history;
+	}
+	
+	/**
+	 * Updates the given ManagedIncident with the command and moves it to its new owner 
+	 * in the owner index if the command changed the owner.
+	 * @param incident incident to update
+	 * @param c command
+	 */
+	private void applyCommand(ManagedIncident incident, Command c) {
+		int ownerRef = incident.getOwnerRef();
+		int stateIndex = incident.getStateIndex();
+		incident.update(c);
+		if (incident.getStateIndex() != stateIndex) {
+			counters[cell(incident, stateIndex)].decrement();
+			counters[cell(incident, incident.getStateIndex())].increment();
+		}
+		searchIndex.addText(incident.getIncidentId(), c.getWorkNote());
+		if (incident.getOwnerRef() != ownerRef) {
+			removeFromIndex(ownerIndex, ownerRef, incident);
+			addToIndex(ownerIndex, incident.getOwnerRef(), incident);
+		}
+		if (!isNew(incident)) {
+			newIncidents.remove(incident);
+		}
+		if (eventLog != null) {
+			eventLog.recordCommand(incident.getIncidentId(), c);
+			snapshotIfDue();
+		}
+	}
+	
+	/**
+	 * Retrieves the number of incidents in the list in each state. The counts are kept up 
+	 * to date as incidents are added, updated, and deleted, so this does not look at the 
+	 * incidents.
+	 * @return the number of incidents in each state, indexed by ManagedIncident state index
+	 */
+	public int[] getStateCounts() {
+		IncidentCounts counts = getCounts();
+		int[] stateCounts = new int[ManagedIncident.STATE_COUNT];
+		for (int i = 0; i < stateCounts.length; i++) {
+			stateCounts[i] = (int) counts.getStateCount(i);
+		}
+		return stateCounts;
+	}
+	
+	/**
+	 * Retrieves a snapshot of the number of incidents in the list in each combination of 
+	 * state, category, and priority. The counters are striped LongAdders updated on every 
+	 * add, update, and delete, so the snapshot is read without taking the list lock or 
+	 * looking at the incidents. A snapshot taken while the list is being changed may count 
+	 * an incident being updated in both its old and its new state or in neither.
+	 * @return the number of incidents in each cell
+	 */
+	public IncidentCounts getCounts() {
+		long[] counts = new long[counters.length];
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] = counters[i].sum();
+		}
+		return new IncidentCounts(counts);
+	}
+	
+	/**
+	 * Computes the service level figures for the incidents in the list. The list is locked 
+	 * while the figures are computed in parallel, so they reflect a single point in time.
+	 * @param now time to compute the figures at, such as for the age of On Hold incidents
+	 * @return the figures for the incidents in the list
+	 */
+	public IncidentAnalytics getAnalytics(long now) {
+		lock.readLock().lock();
+		try {
+			return IncidentAnalytics.compute(incidents, now);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Replaces the transition logs of the incidents with the given ids. Logs for ids that 
+	 * are not in the list are ignored.
+	 * @param logs transition logs, by incident id
+	 * @throws IllegalArgumentException if logs is null
+	 */
+	public void setTransitionLogs(Map<Integer, TransitionLog> logs) {
+		if (logs == null) {
+			throw new IllegalArgumentException();
+		}
+		
+		lock.writeLock().lock();
+		try {
+			for (Map.Entry<Integer, TransitionLog> entry : logs.entrySet()) {
+				ManagedIncident incident = incidentsById.get(entry.getKey());
+				if (incident != null) {
+					incident.setTransitionLog(entry.getValue());
+				}
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Claims the most urgent incident in the New state for the given owner by executing an 
+	 * INVESTIGATE command on it. Incidents of the same priority are claimed in order of id. 
+	 * The waiting incidents are kept in a priority queue, so the next incident is found 
+	 * without scanning the list, and removing the head of the queue is atomic, so every 
+	 * incident is given to exactly one owner. Updating the claimed incident changes the 
+	 * indexes, so it is done under the write lock of the list: claims made by several 
+	 * dispatchers at the same time run one after another, like any other command.
+	 * @param owner user id of the owner claiming the incident
+	 * @param workNote work note for the INVESTIGATE command
+	 * @return the claimed ManagedIncident, or null if there are no incidents in the New state
+	 * @throws IllegalArgumentException if the owner or work note is null or empty
+	 */
+	public ManagedIncident claimNextNewIncident(String owner, String workNote) {
+		Command c = new Command(CommandValue.INVESTIGATE, owner, null, null, null, workNote);
+		ManagedIncident next = newIncidents.pollFirst();
+		while (next != null) {
+			lock.writeLock().lock();
+			try {
+				//Skip incidents that were deleted after they were taken off the queue
+				if (incidentsById.get(next.getIncidentId()) == next && isNew(next)) {
+					execute(next, c);
+					return next;
+				}
+			} finally {
+				lock.writeLock().unlock();
+			}
+			next = newIncidents.pollFirst();
+		}
+		return null;
+	}
+	
+	/**
+	 * Retrieves the number of incidents in the New state waiting to be claimed.
+	 * @return the number of unclaimed incidents
+	 */
+	public int getNewIncidentCount() {
+		return newIncidents.size();
+	}
+	
+	/**
+	 * Checks whether the given incident is in the New state.
+	 * @param incident incident to check
+	 * @return true if the incident is in the New state
+	 */
+	private static boolean isNew(ManagedIncident incident) {
+		return incident.getStateIndex() == ManagedIncident.NEW_INDEX;
+	}
+	
 	/**
 	 * Removes a ManagedIncident from it's ManagedIncident list.
 	 * @param id id of the managed incident
 	 */
 	public void deleteIncidentById(int id) {
-		for (int i = 0; i < incidents.size(); i++) {
-			if (incidents.get(i).getIncidentId() == id) {
-				incidents.remove(i);
+		lock.writeLock().lock();
+		try {
+			for (int i = 0; i < incidents.size(); i++) {
+				if (incidents.get(i).getIncidentId() == id) {
+					unindex(incidents.remove(i));
+					history.clear();
+					if (eventLog != null) {
+						eventLog.recordDelete(id);
+						snapshotIfDue();
+					}
+				}
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Starts appending every change to the list to the given event log. The incidents 
+	 * already in the list are logged as a reset, so the log can rebuild the list from here on.
+	 * @param eventLog log to append changes to, or null to stop logging changes
+	 */
+	public void setEventLog(IncidentEventLog eventLog) {
+		lock.writeLock().lock();
+		try {
+			this.eventLog = eventLog;
+			if (eventLog != null) {
+				eventLog.recordReset(incidents, idAllocator.getNextId());
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Retrieves the lock guarding the list, so a caller can hold it across several calls, 
+	 * such as a command applied to incidents in more than one list. The methods of the list 
+	 * take the lock themselves, and it is reentrant, so they can still be called while it 
+	 * is held.
+	 * @return the read-write lock of the list
+	 */
+	ReentrantReadWriteLock getLock() {
+		return lock;
+	}
+	
+	/**
+	 * Retrieves the allocator the ids of new incidents in the list are taken from.
+	 * @return the id allocator of the list
+	 */
+	public IncidentIdAllocator getIdAllocator() {
+		return idAllocator;
+	}
+	
+	/**
+	 * Retrieves the log every change to the list is appended to.
+	 * @return the event log, or null if changes are not logged
+	 */
+	public IncidentEventLog getEventLog() {
+		return eventLog;
+	}
+	
+	/**
+	 * Takes a snapshot of the list in the event log if enough events have been logged 
+	 * since the last one.
+	 */
+	private void snapshotIfDue() {
+		if (eventLog.isSnapshotDue()) {
+			eventLog.snapshot(incidents, idAllocator.getNextId());
+		}
+	}
+	
+	/**
+	 * Adds a ManagedIncident to the owner and caller indexes.
+	 * @param incident incident to add
+	 */
+	private void index(ManagedIncident incident) {
+		if (positions != null) {
+			positions.put(incident, incidents.size() - 1);
+		}
+		addToIndex(ownerIndex, incident.getOwnerRef(), incident);
+		addToIndex(callerIndex, incident.getCallerRef(), incident);
+		counters[cell(incident, incident.getStateIndex())].increment();
+		if (!incidentsById.containsKey(incident.getIncidentId())) {
+			incidentsById.put(incident.getIncidentId(), incident);
+			incidentsByPriority.add(incident);
+			if (isNew(incident)) {
+				newIncidents.add(incident);
 			}
 		}
+		searchIndex.addText(incident.getIncidentId(), getDocumentText(incident));
+	}
+	
+	/**
+	 * Removes a ManagedIncident from the owner and caller indexes.
+	 * @param incident incident to remove
+	 */
+	private void unindex(ManagedIncident incident) {
+		positions = null;
+		removeFromIndex(ownerIndex, incident.getOwnerRef(), incident);
+		removeFromIndex(callerIndex, incident.getCallerRef(), incident);
+		counters[cell(incident, incident.getStateIndex())].decrement();
+		if (incidentsById.get(incident.getIncidentId()) == incident) {
+			incidentsById.remove(incident.getIncidentId());
+			incidentsByPriority.remove(incident);
+			newIncidents.remove(incident);
+		}
+		searchIndex.removeText(incident.getIncidentId(), getDocumentText(incident));
+	}
+	
+	/**
+	 * Finds the counter of a ManagedIncident in the given state.
+	 * @param incident incident to find the counter of
+	 * @param stateIndex index of the state the incident is counted in
+	 * @return the position of the counter
+	 */
+	private static int cell(ManagedIncident incident, int stateIndex) {
+		return IncidentCounts.cell(stateIndex, incident.getCategory(), incident.getPriority());
+	}
+	
+	/**
+	 * Retrieves the text of a ManagedIncident that is kept in the search index. The notes 
+	 * are read with getNotesString(0), which does not cache the String on the incident, so 
+	 * indexing every incident does not keep the text of every note on the heap.
+	 * @param incident incident to get the text of
+	 * @return the name and work notes of the incident, or null if incident is null
+	 */
+	private static String getDocumentText(ManagedIncident incident) {
+		if (incident == null) {
+			return null;
+		}
+		return incident.getName() + "\n" + incident.getNotesString(0);
+	}
+	
+	/**
+	 * Adds a ManagedIncident to the given index under the given user reference. 
+	 * Incidents without a user are not indexed.
+	 * @param index index to add to
+	 * @param ref UserIdTable reference the incident is indexed by
+	 * @param incident incident to add
+	 */
+	private static void addToIndex(HashMap<Integer, LinkedHashSet<ManagedIncident>> index, int ref, 
+			ManagedIncident incident) {
+		if (ref == UserIdTable.NO_USER) {
+			return;
+		}
+		
+		LinkedHashSet<ManagedIncident> set = index.get(ref);
+		if (set == null) {
+			set = new LinkedHashSet<ManagedIncident>();
+			index.put(ref, set);
+		}
+		set.add(incident);
+	}
+	
+	/**
+	 * Removes a ManagedIncident from the given index under the given user reference.
+	 * @param index index to remove from
+	 * @param ref UserIdTable reference the incident is indexed by
+	 * @param incident incident to remove
+	 */
+	private static void removeFromIndex(HashMap<Integer, LinkedHashSet<ManagedIncident>> index, int ref, 
+			ManagedIncident incident) {
+		LinkedHashSet<ManagedIncident> set = index.get(ref);
+		if (set != null) {
+			set.remove(incident);
+			if (set.isEmpty()) {
+				index.remove(ref);
+			}
+		}
+	}
+	
+	/**
+	 * Retrieves the incidents stored in the given index under the given user reference.
+	 * @param index index to read
+	 * @param ref UserIdTable reference to look up
+	 * @return list of the incidents indexed under the reference
+	 */
+	private static List<ManagedIncident> getIndexed(HashMap<Integer, LinkedHashSet<ManagedIncident>> index, int ref) {
+		LinkedHashSet<ManagedIncident> set = index.get(ref);
+		if (set == null) {
+			return new ArrayList<ManagedIncident>();
+		}
+		return new ArrayList<ManagedIncident>(set);
 	}
-}
+}
\ No newline at end of file
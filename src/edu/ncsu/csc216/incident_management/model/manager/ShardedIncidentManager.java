@@ -0,0 +1,457 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.incident_management.model.manager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import edu.ncsu.csc216.incident.io.IncidentIOException;
+import edu.ncsu.csc216.incident.xml.Incident;
+import edu.ncsu.csc216.incident_management.model.command.Command;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Category;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Priority;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.UpdateResult;
+import edu.ncsu.csc216.incident_management.model.incident.NoteLog;
+import edu.ncsu.csc216.incident_management.model.io.IncidentArchive;
+
+/**
+ * Manages incidents split into one shard per Category. Each shard is its own
+ * ManagedIncidentList, with its own indexes and optional event log, guarded by the list's
+ * own read-write lock, so commands on incidents of different categories run at the same time
+ * and queries only wait for writers to their own shard. Queries across categories are run
+ * on every shard in parallel and the results are merged in order of id.
+ *
+ * Ids are unique across the shards, which take the ids of new incidents from one shared
+ * IncidentIdAllocator.
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class ShardedIncidentManager {
+
+	/** Category names as they appear in incident files, indexed by Category ordinal */
+	private static final String[] CATEGORY_NAMES = { ManagedIncident.C_INQUIRY, ManagedIncident.C_SOFTWARE,
+			ManagedIncident.C_HARDWARE, ManagedIncident.C_NETWORK, ManagedIncident.C_DATABASE };
+
+	/** Orders incidents by id */
+	private static final Comparator<ManagedIncident> ID_ORDER = Comparator.comparingInt(ManagedIncident::getIncidentId);
+
+	/** The shards, indexed by Category ordinal */
+	private final Shard[] shards;
+
+	/** The shard holding each incident, by id */
+	private final ConcurrentHashMap<Integer, Shard> shardsById;
+
+	/**
+	 * Constructs a ShardedIncidentManager with an empty shard for each Category.
+	 */
+	public ShardedIncidentManager() {
+		shards = new Shard[Category.values().length];
+		shardsById = new ConcurrentHashMap<Integer, Shard>();
+		IncidentIdAllocator idAllocator = new IncidentIdAllocator();
+		for (int i = 0; i < shards.length; i++) {
+			shards[i] = new Shard(i, idAllocator);
+		}
+	}
+
+	/**
+	 * Adds a new ManagedIncident to the shard of its category.
+	 * @param caller user id of person who reported the incident
+	 * @param category Category of the incident
+	 * @param priority Priority of the incident
+	 * @param name incident's name information
+	 * @param workNote work note for the incident
+	 * @return id of the added incident
+	 * @throws IllegalArgumentException if any of the values are null or empty
+	 */
+	public int addManagedIncidentToList(String caller, Category category, Priority priority,
+			String name, String workNote) {
+		if (category == null) {
+			throw new IllegalArgumentException();
+		}
+		Shard shard = shards[category.ordinal()];
+		int id = shard.list.addIncident(caller, category, priority, name, workNote);
+		shardsById.put(id, shard);
+		return id;
+	}
+
+	/**
+	 * Adds the incidents in a file to the shards of their categories. The incidents of each
+	 * shard are converted in parallel, off to the side, and are only added once all of them
+	 * have been converted and none of their ids is in use, so a file that fails adds none of
+	 * its incidents. The locks of all the shards are held while the incidents are added, so
+	 * they appear in every shard at once. New incidents are given ids after the largest id
+	 * in the file.
+	 * @param fileName name of the file containing the incidents
+	 * @throws IllegalArgumentException if the file cannot be read, an incident is invalid or
+	 * has an unknown category, two incidents in the file share an id, or an id is already in
+	 * one of the shards
+	 */
+	public void loadManagedIncidentsFromFile(String fileName) {
+		List<Incident> incidents;
+		try {
+			incidents = IncidentArchive.readIncidents(fileName);
+		} catch (IncidentIOException e) {
+			throw new IllegalArgumentException();
+		}
+
+		List<List<Incident>> partitions = new ArrayList<List<Incident>>(shards.length);
+		for (int i = 0; i < shards.length; i++) {
+			partitions.add(new ArrayList<Incident>());
+		}
+		HashSet<Integer> ids = new HashSet<Integer>();
+		for (int i = 0; i < incidents.size(); i++) {
+			Incident incident = incidents.get(i);
+			partitions.get(getCategoryIndex(incident.getCategory())).add(incident);
+			if (!ids.add(incident.getId())) {
+				throw new IllegalArgumentException();
+			}
+		}
+
+		List<List<ManagedIncident>> staged = IntStream.range(0, shards.length).parallel()
+				.mapToObj(i -> convert(partitions.get(i))).collect(Collectors.toList());
+
+		for (int s = 0; s < shards.length; s++) {
+			shards[s].list.getLock().writeLock().lock();
+		}
+		try {
+			for (Integer id : ids) {
+				for (int s = 0; s < shards.length; s++) {
+					if (shards[s].list.getIncidentById(id) != null) {
+						throw new IllegalArgumentException();
+					}
+				}
+			}
+			for (int s = 0; s < shards.length; s++) {
+				if (!staged.get(s).isEmpty()) {
+					shards[s].list.addIncidents(staged.get(s));
+					for (int i = 0; i < staged.get(s).size(); i++) {
+						shardsById.put(staged.get(s).get(i).getIncidentId(), shards[s]);
+					}
+				}
+			}
+		} finally {
+			for (int s = shards.length - 1; s >= 0; s--) {
+				shards[s].list.getLock().writeLock().unlock();
+			}
+		}
+	}
+
+	/**
+	 * Converts the incidents of one shard read from a file, without adding them to the shard.
+	 * @param incidents incidents read from the file
+	 * @return the converted incidents, sharing one NoteLog
+	 * @throws IllegalArgumentException if an incident is invalid
+	 */
+	private static List<ManagedIncident> convert(List<Incident> incidents) {
+		NoteLog noteLog = new NoteLog();
+		List<ManagedIncident> converted = new ArrayList<ManagedIncident>(incidents.size());
+		for (int i = 0; i < incidents.size(); i++) {
+			converted.add(new ManagedIncident(incidents.get(i), noteLog));
+		}
+		return converted;
+	}
+
+	/**
+	 * Writes the incidents of every shard to a file in order of id, as JSON if the file name
+	 * ends with ".json" and as XML otherwise.
+	 * @param fileName name of the file to write to
+	 * @throws IllegalArgumentException if the file cannot be written
+	 */
+	public void saveManagedIncidentsToFile(String fileName) {
+		List<ManagedIncident> managedIncidents = fanOut(ManagedIncidentList::getIncidentsSortedById);
+		try {
+			if (fileName.endsWith(IncidentArchive.JSON_EXTENSION)) {
+				IncidentArchive.writeJsonIncidents(fileName, managedIncidents);
+				return;
+			}
+			List<Incident> incidents = new ArrayList<Incident>(managedIncidents.size());
+			for (int i = 0; i < managedIncidents.size(); i++) {
+				incidents.add(managedIncidents.get(i).getXMLIncident());
+			}
+			IncidentArchive.writeIncidents(fileName, incidents);
+		} catch (IncidentIOException e) {
+			throw new IllegalArgumentException();
+		}
+	}
+
+	/**
+	 * Starts logging every change to each shard to an event log of its own.
+	 * @param snapshotInterval number of events between snapshots of a shard
+	 * @throws IllegalArgumentException if snapshotInterval is less than 1
+	 */
+	public void startEventLogs(int snapshotInterval) {
+		for (int i = 0; i < shards.length; i++) {
+			shards[i].list.setEventLog(new IncidentEventLog(snapshotInterval));
+		}
+	}
+
+	/**
+	 * Retrieves the event log of the shard of the given category.
+	 * @param category category of the shard
+	 * @return the event log, or null if changes are not being logged
+	 */
+	public IncidentEventLog getEventLog(Category category) {
+		return shards[category.ordinal()].list.getEventLog();
+	}
+
+	/**
+	 * Retrieves the ManagedIncident with the given id.
+	 * @param id identification number
+	 * @return ManagedIncident with the given id, or null if there is none
+	 */
+	public ManagedIncident getManagedIncidentById(int id) {
+		Shard shard = shardsById.get(id);
+		if (shard == null) {
+			return null;
+		}
+		return shard.list.getIncidentById(id);
+	}
+
+	/**
+	 * Executes a command on the managed incident with the given id if the command is a valid
+	 * action for it, holding only the lock of the incident's shard.
+	 * @param id id of the managed incident
+	 * @param c command
+	 * @return the result of trying to apply the command
+	 */
+	public UpdateResult tryExecuteCommand(int id, Command c) {
+		Shard shard = shardsById.get(id);
+		if (shard == null) {
+			return UpdateResult.NO_SUCH_INCIDENT;
+		}
+		return shard.list.tryExecuteCommand(id, c);
+	}
+
+	/**
+	 * Executes a command on the managed incident with the given id.
+	 * @param id id of the managed incident
+	 * @param c command
+	 * @throws IllegalArgumentException if the command is null or there is no incident with the id
+	 * @throws UnsupportedOperationException if the command is not valid for the incident
+	 */
+	public void executeCommand(int id, Command c) {
+		executeCommand(new int[] { id }, c);
+	}
+
+	/**
+	 * Executes the same command on every managed incident with one of the given ids, which
+	 * may be in different shards. The list locks of the shards involved are taken in category
+	 * order, so concurrent bulk commands cannot deadlock, and every transition is checked
+	 * before any incident is updated, so either all of the incidents are updated or none are.
+	 * @param ids ids of the managed incidents
+	 * @param c command
+	 * @return the number of managed incidents updated
+	 * @throws IllegalArgumentException if ids or the command is null or an id is not in a shard
+	 * @throws UnsupportedOperationException if the command is not valid for one of the incidents
+	 */
+	public int executeCommand(int[] ids, Command c) {
+		if (ids == null || c == null) {
+			throw new IllegalArgumentException();
+		}
+
+		int[] counts = new int[shards.length];
+		int[] shardOf = new int[ids.length];
+		for (int i = 0; i < ids.length; i++) {
+			Shard shard = shardsById.get(ids[i]);
+			if (shard == null) {
+				throw new IllegalArgumentException();
+			}
+			shardOf[i] = shard.index;
+			counts[shard.index]++;
+		}
+		int[][] shardIds = new int[shards.length][];
+		for (int s = 0; s < shards.length; s++) {
+			shardIds[s] = new int[counts[s]];
+			counts[s] = 0;
+		}
+		for (int i = 0; i < ids.length; i++) {
+			shardIds[shardOf[i]][counts[shardOf[i]]++] = ids[i];
+		}
+
+		for (int s = 0; s < shards.length; s++) {
+			if (shardIds[s].length > 0) {
+				shards[s].list.getLock().writeLock().lock();
+			}
+		}
+		try {
+			for (int s = 0; s < shards.length; s++) {
+				for (int i = 0; i < shardIds[s].length; i++) {
+					if (!shards[s].list.canApply(shardIds[s][i], c.getCommand())) {
+						if (shards[s].list.getIncidentById(shardIds[s][i]) == null) {
+							throw new IllegalArgumentException();
+						}
+						throw new UnsupportedOperationException();
+					}
+				}
+			}
+			int updated = 0;
+			for (int s = 0; s < shards.length; s++) {
+				if (shardIds[s].length > 0) {
+					updated += shards[s].list.executeCommand(shardIds[s], c);
+				}
+			}
+			return updated;
+		} finally {
+			for (int s = shards.length - 1; s >= 0; s--) {
+				if (shardIds[s].length > 0) {
+					shards[s].list.getLock().writeLock().unlock();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes the ManagedIncident with the given id from its shard.
+	 * @param id id of the managed incident
+	 */
+	public void deleteManagedIncidentById(int id) {
+		Shard shard = shardsById.remove(id);
+		if (shard != null) {
+			shard.list.deleteIncidentById(id);
+		}
+	}
+
+	/**
+	 * Retrieves the managed incidents of every shard in order of id, in the same format as
+	 * IncidentManager.getManagedIncidentsAsArray().
+	 * @return two-dimensional String array of the managed incidents
+	 */
+	public String[][] getManagedIncidentsAsArray() {
+		return IncidentManager.toArray(fanOut(ManagedIncidentList::getIncidentsSortedById));
+	}
+
+	/**
+	 * Retrieves the managed incidents of the given category, reading only its shard.
+	 * @param category category of the managed incidents
+	 * @return two-dimensional String array of the managed incidents in the category
+	 * @throws IllegalArgumentException if category is null
+	 */
+	public String[][] getManagedIncidentsAsArrayByCategory(Category category) {
+		if (category == null) {
+			throw new IllegalArgumentException();
+		}
+		Shard shard = shards[category.ordinal()];
+		return IncidentManager.toArray(shard.list.getIncidentsSortedById());
+	}
+
+	/**
+	 * Retrieves the managed incidents owned by the given user from every shard, in order of id.
+	 * @param owner user id of the owner
+	 * @return two-dimensional String array of the managed incidents owned by the user
+	 * @throws IllegalArgumentException if owner is null
+	 */
+	public String[][] getManagedIncidentsAsArrayByOwner(String owner) {
+		if (owner == null) {
+			throw new IllegalArgumentException();
+		}
+		return IncidentManager.toArray(fanOut(list -> list.getIncidentsByOwner(owner)));
+	}
+
+	/**
+	 * Retrieves the managed incidents matched by the given query from every shard, in order of id.
+	 * @param query query selecting the managed incidents
+	 * @return two-dimensional String array of the managed incidents matched by the query
+	 * @throws IllegalArgumentException if query is null
+	 */
+	public String[][] getManagedIncidentsAsArray(IncidentQuery query) {
+		if (query == null) {
+			throw new IllegalArgumentException();
+		}
+		return IncidentManager.toArray(fanOut(list -> list.getIncidents(query)));
+	}
+
+	/**
+	 * Retrieves the number of managed incidents in each state across the shards.
+	 * @return the number of managed incidents in each state, indexed by ManagedIncident state index
+	 */
+	public int[] getStateCounts() {
+		int[] counts = new int[ManagedIncident.STATE_COUNT];
+		for (int s = 0; s < shards.length; s++) {
+			int[] shardCounts = shards[s].list.getStateCounts();
+			for (int i = 0; i < counts.length; i++) {
+				counts[i] += shardCounts[i];
+			}
+		}
+		return counts;
+	}
+
+	/**
+	 * Retrieves the number of managed incidents in each combination of state, category, and
+	 * priority across the shards.
+	 * @return the number of managed incidents in each cell
+	 */
+	public IncidentCounts getCounts() {
+		long[] counts = new long[IncidentCounts.CELL_COUNT];
+		for (int s = 0; s < shards.length; s++) {
+			IncidentCounts shardCounts = shards[s].list.getCounts();
+			Category category = Category.values()[s];
+			for (int state = 0; state < ManagedIncident.STATE_COUNT; state++) {
+				for (Priority priority : Priority.values()) {
+					counts[IncidentCounts.cell(state, category, priority)] += shardCounts.getCount(state, category, priority);
+				}
+			}
+		}
+		return new IncidentCounts(counts);
+	}
+
+	/**
+	 * Runs a query on every shard in parallel, each under the read lock its list takes, and
+	 * merges the results in order of id.
+	 * @param query query to run on the list of each shard
+	 * @return the merged results
+	 */
+	private List<ManagedIncident> fanOut(Function<ManagedIncidentList, List<ManagedIncident>> query) {
+		List<ManagedIncident> merged = Arrays.stream(shards).parallel()
+				.flatMap(shard -> query.apply(shard.list).stream())
+				.collect(Collectors.toCollection(ArrayList::new));
+		merged.sort(ID_ORDER);
+		return merged;
+	}
+
+	/**
+	 * Finds the shard of an incident from the name of its category.
+	 * @param category name of the category
+	 * @return the index of the shard
+	 * @throws IllegalArgumentException if the category is not known
+	 */
+	private static int getCategoryIndex(String category) {
+		for (int i = 0; i < CATEGORY_NAMES.length; i++) {
+			if (CATEGORY_NAMES[i].equals(category)) {
+				return i;
+			}
+		}
+		throw new IllegalArgumentException();
+	}
+
+	/**
+	 * The incidents of one category.
+	 */
+	private static final class Shard {
+
+		/** Index of the shard, the ordinal of its category */
+		private final int index;
+
+		/** The incidents of the shard, guarded by the list's own lock */
+		private final ManagedIncidentList list;
+
+		/**
+		 * Constructs an empty Shard.
+		 * @param index index of the shard, the ordinal of its category
+		 * @param idAllocator allocator of ids shared by all the shards
+		 */
+		private Shard(int index, IncidentIdAllocator idAllocator) {
+			this.index = index;
+			list = new ManagedIncidentList(idAllocator);
+		}
+	}
+}
@@ -0,0 +1,151 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.incident_management.model.metrics;
+
+/**
+ * A timed event recorded by the IncidentEventRecorder, such as a file being loaded, a list of
+ * incidents being filtered, an incident changing state, or the incident table being refreshed.
+ * Each event holds its type, when it started, how long it took, the number of incidents it
+ * involved, a short detail such as a file name or command, and the thread it ran on.
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class IncidentEvent {
+
+	/** Type of the event */
+	private final EventType type;
+
+	/** Wall clock time the event started, in milliseconds since the epoch */
+	private final long startTime;
+
+	/** How long the event took, in nanoseconds */
+	private final long durationNanos;
+
+	/** Number of incidents the event involved */
+	private final int incidentCount;
+
+	/** Short description of the event, or null */
+	private final String detail;
+
+	/** Name of the thread the event ran on */
+	private final String threadName;
+
+
+	/**
+	 * Constructs an IncidentEvent with the given values.
+	 *
+	 * @param type			type of the event
+	 * @param startTime		wall clock time the event started, in milliseconds since the epoch
+	 * @param durationNanos	how long the event took, in nanoseconds
+	 * @param incidentCount	number of incidents the event involved
+	 * @param detail		short description of the event, or null
+	 * @param threadName	name of the thread the event ran on
+	 */
+	public IncidentEvent(EventType type, long startTime, long durationNanos, int incidentCount, String detail,
+			String threadName) {
+		this.type = type;
+		this.startTime = startTime;
+		this.durationNanos = durationNanos;
+		this.incidentCount = incidentCount;
+		this.detail = detail;
+		this.threadName = threadName;
+	}
+
+
+	/**
+	 * Retrieves the type of the event
+	 *
+	 * @return the type of the event
+	 */
+	public EventType getType() {
+		return type;
+	}
+
+
+	/**
+	 * Retrieves the wall clock time the event started
+	 *
+	 * @return the start time in milliseconds since the epoch
+	 */
+	public long getStartTime() {
+		return startTime;
+	}
+
+
+	/**
+	 * Retrieves how long the event took
+	 *
+	 * @return the duration in nanoseconds
+	 */
+	public long getDurationNanos() {
+		return durationNanos;
+	}
+
+
+	/**
+	 * Retrieves the number of incidents the event involved, such as the number loaded or
+	 * the number a filter returned
+	 *
+	 * @return the number of incidents
+	 */
+	public int getIncidentCount() {
+		return incidentCount;
+	}
+
+
+	/**
+	 * Retrieves the short description of the event
+	 *
+	 * @return the detail, or null if the event has none
+	 */
+	public String getDetail() {
+		return detail;
+	}
+
+
+	/**
+	 * Retrieves the name of the thread the event ran on
+	 *
+	 * @return the name of the thread
+	 */
+	public String getThreadName() {
+		return threadName;
+	}
+
+
+	/**
+	 * Returns the event as one tab separated line: start time, type, duration in
+	 * microseconds, incident count, thread, and detail.
+	 *
+	 * @return the event as a String
+	 */
+	@Override
+	public String toString() {
+		return startTime + "\t" + type + "\t" + (durationNanos / 1000) + "us\t" + incidentCount + "\t"
+				+ threadName + "\t" + (detail == null ? "" : detail);
+	}
+
+
+	/**
+	 * The kinds of events that are recorded.
+	 *
+	 * @author Bilal Mohamad
+	 * @author Keaton Thurston
+	 */
+	public enum EventType {
+		/** Incidents loaded from a file */
+		LOAD,
+		/** Incidents saved to a file */
+		SAVE,
+		/** An incident looked up by id */
+		LOOKUP,
+		/** Incidents selected by category, owner, caller, query, or search */
+		FILTER,
+		/** A command applied to an incident */
+		TRANSITION,
+		/** The incident table of the GUI rebuilt */
+		TABLE_REFRESH
+	}
+}
@@ -0,0 +1,242 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.incident_management.model.metrics;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import edu.ncsu.csc216.incident_management.model.metrics.IncidentEvent.EventType;
+
+/**
+ * Records timed IncidentEvents from the hot paths of the application into a fixed size ring
+ * buffer, in the style of a flight recorder: the newest events are always kept, recording
+ * never allocates more than one event per call, and the buffer can be dumped to a file to see
+ * whether a stall was spent parsing a file, filtering incidents, or rebuilding the table.
+ * Events are timed with begin() and commit():
+ *
+ * <pre>
+ * long start = recorder.begin(EventType.LOAD);
+ * ...
+ * recorder.commit(EventType.LOAD, start, incidents.size(), fileName);
+ * </pre>
+ *
+ * While recording is stopped, or an event type is disabled, begin() is a single volatile read
+ * and commit() returns at once, so the calls can stay in production code. Recording starts
+ * when start() is called, or when the JVM is launched with the incident_management.events.file
+ * system property, in which case the buffer is dumped to that file when the JVM exits.
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class IncidentEventRecorder {
+
+	/** System property naming the file events are dumped to on exit; recording starts at once if set */
+	public static final String DUMP_FILE_PROPERTY = "incident_management.events.file";
+
+	/** Number of events kept when recording is started from the system property */
+	public static final int DEFAULT_CAPACITY = 65536;
+
+	/** Start time returned by begin() when the event is not recorded */
+	public static final long NOT_RECORDED = Long.MIN_VALUE;
+
+	/** Mask with every event type enabled */
+	private static final int ALL_TYPES = (1 << EventType.values().length) - 1;
+
+	/** ONLY instance of IncidentEventRecorder, created eagerly so the hot paths never lock to reach it */
+	private static final IncidentEventRecorder SINGLETON = new IncidentEventRecorder();
+
+	/** Event types that are recorded, one bit per ordinal; 0 while recording is stopped */
+	private volatile int recordedTypes;
+
+	/** Event types selected with setEnabled(), one bit per ordinal */
+	private int selectedTypes;
+
+	/** Ring buffer of the newest events */
+	private volatile AtomicReferenceArray<IncidentEvent> buffer;
+
+	/** Sequence number of the next event committed */
+	private final AtomicLong sequence;
+
+
+	/**
+	 * Constructs the IncidentEventRecorder, starting it if the dump file property is set.
+	 */
+	private IncidentEventRecorder() {
+		selectedTypes = ALL_TYPES;
+		buffer = new AtomicReferenceArray<IncidentEvent>(0);
+		sequence = new AtomicLong();
+
+		final String dumpFile = System.getProperty(DUMP_FILE_PROPERTY);
+		if (dumpFile != null) {
+			start(DEFAULT_CAPACITY);
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+				try {
+					dump(dumpFile);
+				} catch (IllegalArgumentException e) {
+					//Nothing can be reported while the JVM exits
+				}
+			}));
+		}
+	}
+
+
+	/**
+	 * Static method that returns the singleton instance of IncidentEventRecorder.
+	 *
+	 * @return singleton instance of IncidentEventRecorder
+	 */
+	public static IncidentEventRecorder getInstance() {
+		return SINGLETON;
+	}
+
+
+	/**
+	 * Starts recording into an empty buffer holding the given number of events.
+	 *
+	 * @param capacity	the number of newest events kept
+	 * @throws IllegalArgumentException if capacity is less than 1
+	 */
+	public synchronized void start(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException();
+		}
+		buffer = new AtomicReferenceArray<IncidentEvent>(capacity);
+		sequence.set(0);
+		recordedTypes = selectedTypes;
+	}
+
+
+	/**
+	 * Stops recording. The events recorded so far are kept until the next start().
+	 */
+	public synchronized void stop() {
+		recordedTypes = 0;
+	}
+
+
+	/**
+	 * Returns whether the recorder is recording
+	 *
+	 * @return true if the recorder is recording
+	 */
+	public boolean isRecording() {
+		return recordedTypes != 0;
+	}
+
+
+	/**
+	 * Selects whether events of the given type are recorded. Every type is selected by default.
+	 *
+	 * @param type		the event type
+	 * @param enabled	true to record events of the type
+	 */
+	public synchronized void setEnabled(EventType type, boolean enabled) {
+		if (enabled) {
+			selectedTypes |= 1 << type.ordinal();
+		} else {
+			selectedTypes &= ~(1 << type.ordinal());
+		}
+		if (recordedTypes != 0) {
+			recordedTypes = selectedTypes;
+		}
+	}
+
+
+	/**
+	 * Returns whether events of the given type are being recorded
+	 *
+	 * @param type	the event type
+	 * @return true if the recorder is recording and the type is enabled
+	 */
+	public boolean isEnabled(EventType type) {
+		return (recordedTypes & (1 << type.ordinal())) != 0;
+	}
+
+
+	/**
+	 * Marks the start of an event.
+	 *
+	 * @param type	the event type
+	 * @return the start time to pass to commit(), or NOT_RECORDED if the event is not recorded
+	 */
+	public long begin(EventType type) {
+		return isEnabled(type) ? System.nanoTime() : NOT_RECORDED;
+	}
+
+
+	/**
+	 * Records an event started with begin(). Does nothing if begin() returned NOT_RECORDED.
+	 *
+	 * @param type			the event type
+	 * @param start			the value returned by begin()
+	 * @param incidentCount	the number of incidents the event involved
+	 * @param detail		a short description of the event, or null
+	 */
+	public void commit(EventType type, long start, int incidentCount, String detail) {
+		if (start == NOT_RECORDED) {
+			return;
+		}
+		long duration = System.nanoTime() - start;
+		long startTime = System.currentTimeMillis() - duration / 1000000;
+		IncidentEvent event = new IncidentEvent(type, startTime, duration, incidentCount, detail,
+				Thread.currentThread().getName());
+
+		AtomicReferenceArray<IncidentEvent> events = buffer;
+		if (events.length() > 0) {
+			events.set((int) (sequence.getAndIncrement() % events.length()), event);
+		}
+	}
+
+
+	/**
+	 * Retrieves the events in the buffer, oldest first.
+	 *
+	 * @return list of the recorded events
+	 */
+	public List<IncidentEvent> getEvents() {
+		AtomicReferenceArray<IncidentEvent> events = buffer;
+		long end = sequence.get();
+		long first = Math.max(0, end - events.length());
+		ArrayList<IncidentEvent> list = new ArrayList<IncidentEvent>((int) (end - first));
+		for (long i = first; i < end; i++) {
+			IncidentEvent event = events.get((int) (i % events.length()));
+			if (event != null) {
+				list.add(event);
+			}
+		}
+		return list;
+	}
+
+
+	/**
+	 * Writes the events in the buffer to a file, oldest first, one tab separated line per event.
+	 *
+	 * @param fileName	name of the file to write to
+	 * @throws IllegalArgumentException if the file cannot be written
+	 */
+	public void dump(String fileName) {
+		PrintWriter out = null;
+		try {
+			out = new PrintWriter(new FileWriter(fileName));
+			out.println("start\ttype\tduration\tincidents\tthread\tdetail");
+			for (IncidentEvent event : getEvents()) {
+				out.println(event);
+			}
+			if (out.checkError()) {
+				throw new IllegalArgumentException();
+			}
+		} catch (IOException e) {
+			throw new IllegalArgumentException();
+		} finally {
+			if (out != null) {
+				out.close();
+			}
+		}
+	}
+}
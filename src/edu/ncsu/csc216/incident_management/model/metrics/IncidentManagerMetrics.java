@@ -0,0 +1,323 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.incident_management.model.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import edu.ncsu.csc216.incident_management.model.command.Command.CommandValue;
+
+/**
+ * Metrics of an IncidentManager: latency histograms for executing commands, loading and
+ * saving files, and building the String array projections, the number of transitions
+ * applied for each CommandValue, the number of rejected transitions, and the number of
+ * bytes loaded and saved. Every metric is updated with lock-free adders so recording costs
+ * a few nanoseconds on the hot paths. The metrics can be registered with the platform
+ * MBean server so they can be read and alerted on with any JMX client.
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class IncidentManagerMetrics implements IncidentManagerMetricsMXBean {
+
+	/** JMX domain the metrics are registered under */
+	public static final String DOMAIN = "edu.ncsu.csc216.incident_management";
+
+	/** Cached CommandValue constants, indexed by ordinal */
+	private static final CommandValue[] COMMANDS = CommandValue.values();
+
+	/** Latency of executing commands */
+	private final LatencyHistogram executeCommandLatency;
+
+	/** Latency of loading files */
+	private final LatencyHistogram loadLatency;
+
+	/** Latency of saving files */
+	private final LatencyHistogram saveLatency;
+
+	/** Latency of building projections */
+	private final LatencyHistogram projectionLatency;
+
+	/** Number of transitions applied, by CommandValue ordinal */
+	private final LongAdder[] transitions;
+
+	/** Number of rejected transitions */
+	private final LongAdder rejectedTransitions;
+
+	/** Number of bytes loaded */
+	private final LongAdder bytesLoaded;
+
+	/** Number of bytes saved */
+	private final LongAdder bytesSaved;
+
+	/** Name the metrics are registered under, or null if they are not registered */
+	private ObjectName objectName;
+
+
+	/**
+	 * Constructs an IncidentManagerMetrics with every metric at zero.
+	 */
+	public IncidentManagerMetrics() {
+		executeCommandLatency = new LatencyHistogram();
+		loadLatency = new LatencyHistogram();
+		saveLatency = new LatencyHistogram();
+		projectionLatency = new LatencyHistogram();
+		transitions = new LongAdder[COMMANDS.length];
+		for (int i = 0; i < transitions.length; i++) {
+			transitions[i] = new LongAdder();
+		}
+		rejectedTransitions = new LongAdder();
+		bytesLoaded = new LongAdder();
+		bytesSaved = new LongAdder();
+	}
+
+
+	/**
+	 * Registers the metrics with the platform MBean server under the given name. If a bean
+	 * is already registered under the name, or the platform MBean server is not available,
+	 * the metrics are still recorded but are not visible over JMX.
+	 *
+	 * @param name	the value of the name key of the ObjectName
+	 * @return true if the metrics were registered
+	 */
+	public synchronized boolean register(String name) {
+		if (objectName != null) {
+			return true;
+		}
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName candidate = new ObjectName(DOMAIN + ":type=IncidentManager,name=" + ObjectName.quote(name));
+			server.registerMBean(this, candidate);
+			objectName = candidate;
+			return true;
+		} catch (JMException e) {
+			return false;
+		} catch (SecurityException e) {
+			return false;
+		}
+	}
+
+
+	/**
+	 * Removes the metrics from the platform MBean server if they were registered.
+	 */
+	public synchronized void unregister() {
+		if (objectName == null) {
+			return;
+		}
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+		} catch (JMException e) {
+			//The bean is already gone
+		}
+		objectName = null;
+	}
+
+
+	/**
+	 * Retrieves the name the metrics are registered under
+	 *
+	 * @return the ObjectName, or null if the metrics are not registered
+	 */
+	public synchronized ObjectName getObjectName() {
+		return objectName;
+	}
+
+
+	/**
+	 * Records a command that was applied.
+	 *
+	 * @param command		the command value applied
+	 * @param startNanos	the time executing the command started, from System.nanoTime()
+	 */
+	public void recordTransition(CommandValue command, long startNanos) {
+		executeCommandLatency.recordSince(startNanos);
+		transitions[command.ordinal()].increment();
+	}
+
+
+	/**
+	 * Records a command that was applied to several incidents at once.
+	 *
+	 * @param command		the command value applied
+	 * @param count			the number of incidents updated
+	 * @param startNanos	the time executing the command started, from System.nanoTime()
+	 */
+	public void recordTransitions(CommandValue command, int count, long startNanos) {
+		executeCommandLatency.recordSince(startNanos);
+		transitions[command.ordinal()].add(count);
+	}
+
+
+	/**
+	 * Records a command that was rejected.
+	 *
+	 * @param startNanos	the time executing the command started, from System.nanoTime()
+	 */
+	public void recordRejectedTransition(long startNanos) {
+		executeCommandLatency.recordSince(startNanos);
+		rejectedTransitions.increment();
+	}
+
+
+	/**
+	 * Records a file that was loaded.
+	 *
+	 * @param startNanos	the time loading started, from System.nanoTime()
+	 * @param bytes			the size of the file
+	 */
+	public void recordLoad(long startNanos, long bytes) {
+		loadLatency.recordSince(startNanos);
+		bytesLoaded.add(bytes);
+	}
+
+
+	/**
+	 * Records a file that was saved.
+	 *
+	 * @param startNanos	the time saving started, from System.nanoTime()
+	 * @param bytes			the size of the file
+	 */
+	public void recordSave(long startNanos, long bytes) {
+		saveLatency.recordSince(startNanos);
+		bytesSaved.add(bytes);
+	}
+
+
+	/**
+	 * Records a projection that was built.
+	 *
+	 * @param startNanos	the time building the projection started, from System.nanoTime()
+	 */
+	public void recordProjection(long startNanos) {
+		projectionLatency.recordSince(startNanos);
+	}
+
+
+	/**
+	 * Retrieves the number of transitions applied for the given command value
+	 *
+	 * @param command	the command value
+	 * @return the number of transitions
+	 */
+	public long getTransitionCount(CommandValue command) {
+		return transitions[command.ordinal()].sum();
+	}
+
+
+	/**
+	 * Retrieves the latency of executing commands on incidents
+	 *
+	 * @return the summary of the executeCommand latencies
+	 */
+	@Override
+	public LatencySummary getExecuteCommandLatency() {
+		return LatencySummary.of(executeCommandLatency);
+	}
+
+
+	/**
+	 * Retrieves the latency of loading incidents from files
+	 *
+	 * @return the summary of the load latencies
+	 */
+	@Override
+	public LatencySummary getLoadLatency() {
+		return LatencySummary.of(loadLatency);
+	}
+
+
+	/**
+	 * Retrieves the latency of saving incidents to files
+	 *
+	 * @return the summary of the save latencies
+	 */
+	@Override
+	public LatencySummary getSaveLatency() {
+		return LatencySummary.of(saveLatency);
+	}
+
+
+	/**
+	 * Retrieves the latency of building the String array projections of incidents
+	 *
+	 * @return the summary of the projection latencies
+	 */
+	@Override
+	public LatencySummary getProjectionLatency() {
+		return LatencySummary.of(projectionLatency);
+	}
+
+
+	/**
+	 * Retrieves the number of transitions applied for each CommandValue
+	 *
+	 * @return the number of transitions, by CommandValue name
+	 */
+	@Override
+	public Map<String, Long> getTransitionCounts() {
+		Map<String, Long> counts = new LinkedHashMap<String, Long>();
+		for (int i = 0; i < COMMANDS.length; i++) {
+			counts.put(COMMANDS[i].name(), transitions[i].sum());
+		}
+		return counts;
+	}
+
+
+	/**
+	 * Retrieves the number of rejected commands
+	 *
+	 * @return the number of rejected transitions
+	 */
+	@Override
+	public long getRejectedTransitions() {
+		return rejectedTransitions.sum();
+	}
+
+
+	/**
+	 * Retrieves the total size of the files loaded
+	 *
+	 * @return the number of bytes loaded
+	 */
+	@Override
+	public long getBytesLoaded() {
+		return bytesLoaded.sum();
+	}
+
+
+	/**
+	 * Retrieves the total size of the files saved
+	 *
+	 * @return the number of bytes saved
+	 */
+	@Override
+	public long getBytesSaved() {
+		return bytesSaved.sum();
+	}
+
+
+	/**
+	 * Clears every metric.
+	 */
+	@Override
+	public void reset() {
+		executeCommandLatency.reset();
+		loadLatency.reset();
+		saveLatency.reset();
+		projectionLatency.reset();
+		for (int i = 0; i < transitions.length; i++) {
+			transitions[i].reset();
+		}
+		rejectedTransitions.reset();
+		bytesLoaded.reset();
+		bytesSaved.reset();
+	}
+}
@@ -0,0 +1,78 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.incident_management.model.metrics;
+
+import java.util.Map;
+
+/**
+ * The management interface of IncidentManagerMetrics, through which the metrics of an
+ * IncidentManager are read over JMX.
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public interface IncidentManagerMetricsMXBean {
+
+	/**
+	 * Retrieves the latency of executing commands on incidents
+	 *
+	 * @return the summary of the executeCommand latencies
+	 */
+	LatencySummary getExecuteCommandLatency();
+
+	/**
+	 * Retrieves the latency of loading incidents from files
+	 *
+	 * @return the summary of the load latencies
+	 */
+	LatencySummary getLoadLatency();
+
+	/**
+	 * Retrieves the latency of saving incidents to files
+	 *
+	 * @return the summary of the save latencies
+	 */
+	LatencySummary getSaveLatency();
+
+	/**
+	 * Retrieves the latency of building the String array projections of incidents
+	 *
+	 * @return the summary of the projection latencies
+	 */
+	LatencySummary getProjectionLatency();
+
+	/**
+	 * Retrieves the number of transitions applied for each CommandValue
+	 *
+	 * @return the number of transitions, by CommandValue name
+	 */
+	Map<String, Long> getTransitionCounts();
+
+	/**
+	 * Retrieves the number of commands rejected because they were not valid for the
+	 * incident or the incident did not exist
+	 *
+	 * @return the number of rejected transitions
+	 */
+	long getRejectedTransitions();
+
+	/**
+	 * Retrieves the total size of the files loaded
+	 *
+	 * @return the number of bytes loaded
+	 */
+	long getBytesLoaded();
+
+	/**
+	 * Retrieves the total size of the files saved
+	 *
+	 * @return the number of bytes saved
+	 */
+	long getBytesSaved();
+
+	/**
+	 * Clears every metric.
+	 */
+	void reset();
+}
@@ -0,0 +1,205 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.incident_management.model.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of latencies in nanoseconds with log-linear buckets, in the style of an HDR
+ * histogram. Values below 32 each have their own bucket, and every power of two above that
+ * is split into 16 buckets, so any recorded value is reported within about 6% of its true
+ * value using a fixed array of under a thousand counters. Recording is lock-free and only
+ * increments a few counters, so it can be done on every call of a hot method from any
+ * number of threads.
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class LatencyHistogram {
+
+	/** Number of values below which every value has its own bucket */
+	private static final int LINEAR_BUCKETS = 32;
+
+	/** Number of buckets each power of two above LINEAR_BUCKETS is split into */
+	private static final int SUB_BUCKETS = 16;
+
+	/** Number of bits of a value kept to choose its bucket */
+	private static final int SUB_BUCKET_BITS = 5;
+
+	/** Total number of buckets, enough for any non-negative long */
+	private static final int BUCKET_COUNT = LINEAR_BUCKETS + (Long.SIZE - 1 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	/** Number of values recorded in each bucket */
+	private final AtomicLongArray buckets;
+
+	/** Number of values recorded */
+	private final LongAdder count;
+
+	/** Sum of the values recorded */
+	private final LongAdder sum;
+
+	/** Largest value recorded */
+	private final AtomicLong max;
+
+
+	/**
+	 * Constructs an empty LatencyHistogram.
+	 */
+	public LatencyHistogram() {
+		buckets = new AtomicLongArray(BUCKET_COUNT);
+		count = new LongAdder();
+		sum = new LongAdder();
+		max = new AtomicLong();
+	}
+
+
+	/**
+	 * Records a latency. Negative values are recorded as zero.
+	 *
+	 * @param nanos	the latency, in nanoseconds
+	 */
+	public void record(long nanos) {
+		long value = Math.max(0, nanos);
+		buckets.incrementAndGet(bucketOf(value));
+		count.increment();
+		sum.add(value);
+
+		long current = max.get();
+		while (value > current && !max.compareAndSet(current, value)) {
+			current = max.get();
+		}
+	}
+
+
+	/**
+	 * Records the time elapsed since the given start time.
+	 *
+	 * @param startNanos	the start time, from System.nanoTime()
+	 */
+	public void recordSince(long startNanos) {
+		record(System.nanoTime() - startNanos);
+	}
+
+
+	/**
+	 * Retrieves the number of latencies recorded
+	 *
+	 * @return the number of latencies
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+
+
+	/**
+	 * Retrieves the mean of the latencies recorded
+	 *
+	 * @return the mean latency in nanoseconds, or 0 if none were recorded
+	 */
+	public long getMean() {
+		long n = count.sum();
+		return n == 0 ? 0 : sum.sum() / n;
+	}
+
+
+	/**
+	 * Retrieves the largest latency recorded
+	 *
+	 * @return the largest latency in nanoseconds, or 0 if none were recorded
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+
+	/**
+	 * Retrieves the latency below which the given fraction of the recorded latencies fall.
+	 * The result is the middle of the bucket holding the percentile, and is never more than
+	 * the largest latency recorded, which is returned exactly for a fraction of 1.
+	 *
+	 * @param fraction	the fraction of latencies, from 0 to 1, such as 0.99
+	 * @return the latency in nanoseconds, or 0 if none were recorded
+	 * @throws IllegalArgumentException if fraction is not between 0 and 1
+	 */
+	public long getPercentile(double fraction) {
+		if (fraction < 0 || fraction > 1) {
+			throw new IllegalArgumentException();
+		}
+
+		long[] counts = new long[BUCKET_COUNT];
+		long total = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			counts[i] = buckets.get(i);
+			total += counts[i];
+		}
+		if (total == 0) {
+			return 0;
+		}
+		if (fraction == 1) {
+			return max.get();
+		}
+
+		long rank = Math.max(1, (long) Math.ceil(fraction * total));
+		long seen = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				long low = lowestValue(i);
+				long high = lowestValue(i + 1) - 1;
+				return Math.min(low + (high - low) / 2, max.get());
+			}
+		}
+		return max.get();
+	}
+
+
+	/**
+	 * Clears every recorded latency.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			buckets.set(i, 0);
+		}
+		count.reset();
+		sum.reset();
+		max.set(0);
+	}
+
+
+	/**
+	 * Finds the bucket of a non-negative value
+	 *
+	 * @param value	the value
+	 * @return the index of the bucket holding the value
+	 */
+	static int bucketOf(long value) {
+		if (value < LINEAR_BUCKETS) {
+			return (int) value;
+		}
+		int shift = Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		int top = (int) (value >>> shift);
+		return LINEAR_BUCKETS + (shift - 1) * SUB_BUCKETS + (top - SUB_BUCKETS);
+	}
+
+
+	/**
+	 * Finds the smallest value held by a bucket
+	 *
+	 * @param bucket	the index of the bucket
+	 * @return the smallest value in the bucket
+	 */
+	static long lowestValue(int bucket) {
+		if (bucket < LINEAR_BUCKETS) {
+			return bucket;
+		}
+		if (bucket >= BUCKET_COUNT) {
+			return Long.MAX_VALUE;
+		}
+		int shift = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + 1;
+		long top = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+		return top << shift;
+	}
+}
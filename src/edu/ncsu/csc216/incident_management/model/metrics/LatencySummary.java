@@ -0,0 +1,113 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.incident_management.model.metrics;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * A summary of a LatencyHistogram at a point in time, in the form JMX clients display as
+ * a composite value: the number of latencies recorded and their mean, median, 99th
+ * percentile, and maximum in nanoseconds.
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class LatencySummary {
+
+	/** Number of latencies recorded */
+	private final long count;
+
+	/** Mean latency in nanoseconds */
+	private final long meanNanos;
+
+	/** Median latency in nanoseconds */
+	private final long p50Nanos;
+
+	/** 99th percentile latency in nanoseconds */
+	private final long p99Nanos;
+
+	/** Largest latency in nanoseconds */
+	private final long maxNanos;
+
+
+	/**
+	 * Constructs a LatencySummary with the given values.
+	 *
+	 * @param count		number of latencies recorded
+	 * @param meanNanos	mean latency in nanoseconds
+	 * @param p50Nanos	median latency in nanoseconds
+	 * @param p99Nanos	99th percentile latency in nanoseconds
+	 * @param maxNanos	largest latency in nanoseconds
+	 */
+	@ConstructorProperties({"count", "meanNanos", "p50Nanos", "p99Nanos", "maxNanos"})
+	public LatencySummary(long count, long meanNanos, long p50Nanos, long p99Nanos, long maxNanos) {
+		this.count = count;
+		this.meanNanos = meanNanos;
+		this.p50Nanos = p50Nanos;
+		this.p99Nanos = p99Nanos;
+		this.maxNanos = maxNanos;
+	}
+
+
+	/**
+	 * Summarizes the current contents of a histogram.
+	 *
+	 * @param histogram	the histogram to summarize
+	 * @return the summary of the histogram
+	 */
+	public static LatencySummary of(LatencyHistogram histogram) {
+		return new LatencySummary(histogram.getCount(), histogram.getMean(), histogram.getPercentile(0.5),
+				histogram.getPercentile(0.99), histogram.getMax());
+	}
+
+
+	/**
+	 * Retrieves the number of latencies recorded
+	 *
+	 * @return the number of latencies
+	 */
+	public long getCount() {
+		return count;
+	}
+
+
+	/**
+	 * Retrieves the mean latency
+	 *
+	 * @return the mean latency in nanoseconds
+	 */
+	public long getMeanNanos() {
+		return meanNanos;
+	}
+
+
+	/**
+	 * Retrieves the median latency
+	 *
+	 * @return the median latency in nanoseconds
+	 */
+	public long getP50Nanos() {
+		return p50Nanos;
+	}
+
+
+	/**
+	 * Retrieves the 99th percentile latency
+	 *
+	 * @return the 99th percentile latency in nanoseconds
+	 */
+	public long getP99Nanos() {
+		return p99Nanos;
+	}
+
+
+	/**
+	 * Retrieves the largest latency
+	 *
+	 * @return the largest latency in nanoseconds
+	 */
+	public long getMaxNanos() {
+		return maxNanos;
+	}
+}
@@ -0,0 +1,684 @@
+/**
+ *
+ */
+package edu.ncsu.csc216.incident_management.view.http;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import edu.ncsu.csc216.incident_management.model.command.Command;
+import edu.ncsu.csc216.incident_management.model.command.Command.CancellationCode;
+import edu.ncsu.csc216.incident_management.model.command.Command.CommandValue;
+import edu.ncsu.csc216.incident_management.model.command.Command.OnHoldReason;
+import edu.ncsu.csc216.incident_management.model.command.Command.ResolutionCode;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Category;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Priority;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.UpdateResult;
+import edu.ncsu.csc216.incident_management.model.manager.IncidentManager;
+import edu.ncsu.csc216.incident_management.model.manager.IncidentQuery;
+
+/**
+ * An embedded HTTP server exposing an IncidentManager as a JSON API, so scripts and tools
+ * can drive the incident manager without the GUI. The server listens on the loopback
+ * address and handles every request on a thread from a cached pool. The server holds no lock
+ * of its own: the incident list of the manager locks itself, so requests that only read
+ * incidents run concurrently with each other, while requests that change incidents run one
+ * at a time. Each call into the manager is atomic, but a request that makes more than one,
+ * such as applying a command and then writing the updated incident, may see changes made
+ * by other requests in between.
+ *
+ * <pre>
+ * GET  /incidents                  list incidents as a JSON array, optionally filtered by the
+ *                                  category, priority, state, owner, and caller parameters
+ *                                  and paged by afterId and limit, or searched by the search
+ *                                  parameter, which cannot be combined with the others
+ * GET  /incidents/{id}             one incident with its work notes
+ * POST /incidents                  create an incident from the caller, category, priority,
+ *                                  name, and note form parameters
+ * POST /incidents/{id}/commands    apply the command, owner, onHoldReason, resolutionCode,
+ *                                  cancellationCode, and note form parameters to an incident
+ * POST /commands                   apply the same command to every incident in the comma
+ *                                  separated ids form parameter, all or nothing
+ * </pre>
+ *
+ * Categories, priorities, commands, and codes are given by their enumeration names, such as
+ * SOFTWARE or INVESTIGATE, and states by their names, such as "In Progress". Listings are
+ * in order of id, except search results, which are best match first. They are read from the
+ * manager a chunk of incidents at a time and each chunk is written to the client as it is
+ * encoded, so a large listing is never held in memory or under the list lock as a whole.
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class IncidentHttpServer {
+
+	/** Path of the incident resources */
+	public static final String INCIDENTS_PATH = "/incidents";
+
+	/** Path of the bulk command resource */
+	public static final String COMMANDS_PATH = "/commands";
+
+	/** Port the server listens on when none is given to main() */
+	public static final int DEFAULT_PORT = 8080;
+
+	/** Number of incidents in a page when afterId is given without a limit */
+	public static final int DEFAULT_PAGE_SIZE = 100;
+
+	/** Number of incidents read from the manager at a time while a listing is written */
+	private static final int LIST_CHUNK_SIZE = 256;
+
+	/** Content type of every response */
+	private static final String JSON_CONTENT_TYPE = "application/json; charset=UTF-8";
+
+	/** HTTP status of a request that succeeded */
+	private static final int OK = 200;
+
+	/** HTTP status of a request that created an incident */
+	private static final int CREATED = 201;
+
+	/** HTTP status of a request with invalid parameters */
+	private static final int BAD_REQUEST = 400;
+
+	/** HTTP status of a request for an incident that does not exist */
+	private static final int NOT_FOUND = 404;
+
+	/** HTTP status of a request using a method the resource does not support */
+	private static final int METHOD_NOT_ALLOWED = 405;
+
+	/** HTTP status of a command that is not valid for the state of an incident */
+	private static final int CONFLICT = 409;
+
+	/** IncidentManager the requests are run against */
+	private final IncidentManager manager;
+
+	/** Underlying JDK HTTP server */
+	private final HttpServer server;
+
+	/** Threads the requests are handled on */
+	private final ExecutorService executor;
+
+
+	/**
+	 * Constructs an IncidentHttpServer for the given IncidentManager, bound to the given port
+	 * on the loopback address. The server does not accept requests until start() is called.
+	 *
+	 * @param manager	the IncidentManager the requests are run against
+	 * @param port		the port to listen on, or 0 for any free port
+	 * @throws IllegalArgumentException if manager is null or the port cannot be bound
+	 */
+	public IncidentHttpServer(IncidentManager manager, int port) {
+		if (manager == null) {
+			throw new IllegalArgumentException();
+		}
+		this.manager = manager;
+		try {
+			server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Could not bind port " + port);
+		}
+		executor = Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "incident-http");
+			thread.setDaemon(true);
+			return thread;
+		});
+		server.setExecutor(executor);
+		server.createContext(INCIDENTS_PATH, new IncidentsHandler());
+		server.createContext(COMMANDS_PATH, new CommandsHandler());
+	}
+
+
+	/**
+	 * Starts a server for the IncidentManager singleton on the port given as the first
+	 * argument, loading the incidents in the file given as the second argument, if any.
+	 *
+	 * @param args	the port, and optionally a file of incidents to load
+	 */
+	public static void main(String[] args) {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+		IncidentManager manager = IncidentManager.getInstance();
+		if (args.length > 1) {
+			manager.loadManagedIncidentsFromFile(args[1]);
+		}
+		new IncidentHttpServer(manager, port).start();
+	}
+
+
+	/**
+	 * Starts accepting requests.
+	 */
+	public void start() {
+		server.start();
+	}
+
+
+	/**
+	 * Stops accepting requests and waits up to the given number of seconds for the requests
+	 * being handled to finish.
+	 *
+	 * @param delay	the number of seconds to wait
+	 */
+	public void stop(int delay) {
+		server.stop(delay);
+		executor.shutdown();
+	}
+
+
+	/**
+	 * Retrieves the port the server listens on
+	 *
+	 * @return the port
+	 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+
+	/**
+	 * Handles the requests under /incidents.
+	 */
+	private class IncidentsHandler implements HttpHandler {
+
+		/**
+		 * Dispatches a request on its method and on the path after /incidents. The context
+		 * also receives paths that only start with /incidents, such as /incidentsX, which are
+		 * answered with 404 Not Found.
+		 *
+		 * @param exchange	the request and its response
+		 * @throws IOException if the response cannot be written
+		 */
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+			try {
+				String fullPath = exchange.getRequestURI().getPath();
+				String[] path = null;
+				if (fullPath.equals(INCIDENTS_PATH) || fullPath.equals(INCIDENTS_PATH + "/")) {
+					path = new String[0];
+				} else if (fullPath.startsWith(INCIDENTS_PATH + "/")) {
+					path = fullPath.substring(INCIDENTS_PATH.length() + 1).split("/", -1);
+				}
+				String method = exchange.getRequestMethod();
+				if (path == null || path.length > 2 || (path.length == 2 && !"commands".equals(path[1]))) {
+					sendError(exchange, NOT_FOUND, "No resource " + fullPath);
+				} else if (path.length == 0 && "GET".equals(method)) {
+					listIncidents(exchange);
+				} else if (path.length == 0 && "POST".equals(method)) {
+					createIncident(exchange);
+				} else if (path.length == 1 && "GET".equals(method)) {
+					getIncident(exchange, parseInt(path[0]));
+				} else if (path.length == 2 && "commands".equals(path[1]) && "POST".equals(method)) {
+					executeCommand(exchange, parseInt(path[0]));
+				} else {
+					sendError(exchange, METHOD_NOT_ALLOWED, "Unsupported request");
+				}
+			} catch (IllegalArgumentException e) {
+				sendError(exchange, BAD_REQUEST, e.getMessage());
+			} finally {
+				exchange.close();
+			}
+		}
+	}
+
+
+	/**
+	 * Handles the requests to /commands.
+	 */
+	private class CommandsHandler implements HttpHandler {
+
+		/**
+		 * Applies a command to several incidents at once. Paths other than /commands that
+		 * reach the context, such as /commandsX, are answered with 404 Not Found.
+		 *
+		 * @param exchange	the request and its response
+		 * @throws IOException if the response cannot be written
+		 */
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+			try {
+				String fullPath = exchange.getRequestURI().getPath();
+				if (!fullPath.equals(COMMANDS_PATH)) {
+					sendError(exchange, NOT_FOUND, "No resource " + fullPath);
+					return;
+				}
+				if (!"POST".equals(exchange.getRequestMethod())) {
+					sendError(exchange, METHOD_NOT_ALLOWED, "Unsupported request");
+					return;
+				}
+				Map<String, String> form = readForm(exchange);
+				String[] idStrings = required(form, "ids").split(",");
+				int[] ids = new int[idStrings.length];
+				for (int i = 0; i < ids.length; i++) {
+					ids[i] = parseInt(idStrings[i].trim());
+				}
+				Command command = parseCommand(form);
+
+				int updated = manager.executeCommand(ids, command);
+				sendJson(exchange, OK, "{\"updated\":" + updated + "}");
+			} catch (UnsupportedOperationException e) {
+				sendError(exchange, CONFLICT, "Command is not valid for every incident");
+			} catch (IllegalArgumentException e) {
+				sendError(exchange, BAD_REQUEST, e.getMessage());
+			} finally {
+				exchange.close();
+			}
+		}
+	}
+
+
+	/**
+	 * Writes the incidents selected by the query parameters as a JSON array of objects with
+	 * the id, category, state, priority, and name of each incident.
+	 *
+	 * @param exchange	the request and its response
+	 * @throws IOException if the response cannot be written
+	 * @throws IllegalArgumentException if a parameter is invalid or search is combined with
+	 * 									a filter or paging parameter
+	 */
+	private void listIncidents(HttpExchange exchange) throws IOException {
+		Map<String, String> params = parseParameters(exchange.getRequestURI().getRawQuery());
+		IncidentQuery query = null;
+		if (params.containsKey("category")) {
+			query = and(query, IncidentQuery.category(Category.valueOf(params.get("category"))));
+		}
+		if (params.containsKey("priority")) {
+			query = and(query, IncidentQuery.priority(Priority.valueOf(params.get("priority"))));
+		}
+		if (params.containsKey("state")) {
+			query = and(query, IncidentQuery.state(params.get("state")));
+		}
+		if (params.containsKey("owner")) {
+			query = and(query, IncidentQuery.owner(params.get("owner")));
+		}
+		if (params.containsKey("caller")) {
+			query = and(query, IncidentQuery.caller(params.get("caller")));
+		}
+
+		String[][] searchRows = null;
+		if (params.containsKey("search")) {
+			if (query != null || params.containsKey("afterId") || params.containsKey("limit")) {
+				throw new IllegalArgumentException("search cannot be combined with filters or paging");
+			}
+			searchRows = manager.getManagedIncidentsAsArrayBySearch(params.get("search"));
+		}
+		int afterId = params.containsKey("afterId") ? parseInt(params.get("afterId")) : -1;
+		int limit = Integer.MAX_VALUE;
+		if (params.containsKey("limit")) {
+			limit = parseInt(params.get("limit"));
+		} else if (params.containsKey("afterId")) {
+			limit = DEFAULT_PAGE_SIZE;
+		}
+		if (limit < 0) {
+			throw new IllegalArgumentException("Invalid limit " + limit);
+		}
+
+		exchange.getResponseHeaders().set("Content-Type", JSON_CONTENT_TYPE);
+		exchange.sendResponseHeaders(OK, 0);
+		Writer out = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8));
+		out.write('[');
+		if (searchRows != null) {
+			writeRows(out, searchRows, 0);
+		} else {
+			int written = 0;
+			while (written < limit) {
+				int size = Math.min(limit - written, LIST_CHUNK_SIZE);
+				String[][] rows = query == null ? manager.getManagedIncidentsAsArrayAfterId(afterId, size)
+						: manager.getManagedIncidentsAsArrayAfterId(afterId, size, query);
+				writeRows(out, rows, written);
+				out.flush();
+				written += rows.length;
+				if (rows.length < size) {
+					break;
+				}
+				afterId = Integer.parseInt(rows[rows.length - 1][IncidentManager.ID_INDEX]);
+			}
+		}
+		out.write(']');
+		out.flush();
+	}
+
+
+	/**
+	 * Writes rows of incidents as JSON objects with the id, category, state, priority, and
+	 * name of each incident, separated by commas.
+	 *
+	 * @param out		the writer
+	 * @param rows		the rows, in the format of IncidentManager.getManagedIncidentsAsArray()
+	 * @param written	the number of rows already written to the listing
+	 * @throws IOException if the rows cannot be written
+	 */
+	private static void writeRows(Writer out, String[][] rows, int written) throws IOException {
+		for (int i = 0; i < rows.length; i++) {
+			if (written + i > 0) {
+				out.write(',');
+			}
+			out.write("{\"id\":");
+			out.write(rows[i][IncidentManager.ID_INDEX]);
+			out.write(",\"category\":");
+			writeString(out, rows[i][IncidentManager.CATEGORY_INDEX]);
+			out.write(",\"state\":");
+			writeString(out, rows[i][IncidentManager.STATE_NAME_INDEX]);
+			out.write(",\"priority\":");
+			writeString(out, rows[i][IncidentManager.PRIORITY_INDEX]);
+			out.write(",\"name\":");
+			writeString(out, rows[i][IncidentManager.NAME_INDEX]);
+			out.write('}');
+		}
+	}
+
+
+	/**
+	 * Writes one incident with all of its fields and work notes.
+	 *
+	 * @param exchange	the request and its response
+	 * @param id		the id of the incident
+	 * @throws IOException if the response cannot be written
+	 */
+	private void getIncident(HttpExchange exchange, int id) throws IOException {
+		ManagedIncident incident = manager.getManagedIncidentById(id);
+		String json = incident == null ? null : toJson(incident);
+		if (json == null) {
+			sendError(exchange, NOT_FOUND, "No incident " + id);
+		} else {
+			sendJson(exchange, OK, json);
+		}
+	}
+
+
+	/**
+	 * Creates an incident from the form parameters and writes its id.
+	 *
+	 * @param exchange	the request and its response
+	 * @throws IOException if the response cannot be written
+	 */
+	private void createIncident(HttpExchange exchange) throws IOException {
+		Map<String, String> form = readForm(exchange);
+		Category category = Category.valueOf(required(form, "category"));
+		Priority priority = Priority.valueOf(required(form, "priority"));
+
+		int id = manager.addManagedIncidentToList(required(form, "caller"), category, priority,
+				required(form, "name"), required(form, "note"));
+		sendJson(exchange, CREATED, "{\"id\":" + id + "}");
+	}
+
+
+	/**
+	 * Applies the command in the form parameters to an incident and writes the updated incident.
+	 *
+	 * @param exchange	the request and its response
+	 * @param id		the id of the incident
+	 * @throws IOException if the response cannot be written
+	 */
+	private void executeCommand(HttpExchange exchange, int id) throws IOException {
+		Command command = parseCommand(readForm(exchange));
+
+		UpdateResult result = manager.tryExecuteCommand(id, command);
+		String json = null;
+		if (result == UpdateResult.APPLIED) {
+			json = toJson(manager.getManagedIncidentById(id));
+		}
+
+		switch (result) {
+		case APPLIED:
+			sendJson(exchange, OK, json);
+			break;
+		case NO_SUCH_INCIDENT:
+			sendError(exchange, NOT_FOUND, "No incident " + id);
+			break;
+		default:
+			sendError(exchange, CONFLICT, command.getCommand() + " is not valid for incident " + id);
+		}
+	}
+
+
+	/**
+	 * Builds a Command from form parameters.
+	 *
+	 * @param form	the form parameters
+	 * @return the command
+	 * @throws IllegalArgumentException if a parameter is missing or invalid for the command
+	 */
+	private static Command parseCommand(Map<String, String> form) {
+		CommandValue value = CommandValue.valueOf(required(form, "command"));
+		OnHoldReason onHoldReason = form.containsKey("onHoldReason") ? OnHoldReason.valueOf(form.get("onHoldReason")) : null;
+		ResolutionCode resolutionCode = form.containsKey("resolutionCode")
+				? ResolutionCode.valueOf(form.get("resolutionCode")) : null;
+		CancellationCode cancellationCode = form.containsKey("cancellationCode")
+				? CancellationCode.valueOf(form.get("cancellationCode")) : null;
+		return new Command(value, form.get("owner"), onHoldReason, resolutionCode, cancellationCode, form.get("note"));
+	}
+
+
+	/**
+	 * Encodes an incident as a JSON object with all of its fields and its work notes.
+	 *
+	 * @param incident	the incident
+	 * @return the JSON object
+	 */
+	private static String toJson(ManagedIncident incident) {
+		StringBuilder json = new StringBuilder();
+		json.append("{\"id\":").append(incident.getIncidentId());
+		appendField(json, "caller", incident.getCaller());
+		appendField(json, "category", incident.getCategoryString());
+		appendField(json, "priority", incident.getPriorityString());
+		appendField(json, "state", incident.getState().getStateName());
+		appendField(json, "name", incident.getName());
+		appendField(json, "owner", incident.getOwner());
+		appendField(json, "onHoldReason", incident.getOnHoldReasonString());
+		appendField(json, "changeRequest", incident.getChangeRequest());
+		appendField(json, "resolutionCode", incident.getResolutionCodeString());
+		appendField(json, "cancellationCode", incident.getCancellationCodeString());
+		json.append(",\"notes\":[");
+		List<String> notes = incident.getNotes();
+		for (int i = 0; i < notes.size(); i++) {
+			if (i > 0) {
+				json.append(',');
+			}
+			json.append(quote(notes.get(i)));
+		}
+		return json.append("]}").toString();
+	}
+
+
+	/**
+	 * Appends a String field to a JSON object being built, as null if the value is null or empty.
+	 *
+	 * @param json	the JSON object being built
+	 * @param name	the name of the field
+	 * @param value	the value of the field
+	 */
+	private static void appendField(StringBuilder json, String name, String value) {
+		json.append(",\"").append(name).append("\":");
+		json.append(value == null || value.isEmpty() ? "null" : quote(value));
+	}
+
+
+	/**
+	 * Writes a String as a quoted JSON string.
+	 *
+	 * @param out	the writer
+	 * @param value	the String
+	 * @throws IOException if the String cannot be written
+	 */
+	private static void writeString(Writer out, String value) throws IOException {
+		out.write(quote(value));
+	}
+
+
+	/**
+	 * Quotes a String as a JSON string, escaping quotes, backslashes, and control characters.
+	 *
+	 * @param value	the String
+	 * @return the quoted String
+	 */
+	static String quote(String value) {
+		StringBuilder quoted = new StringBuilder(value.length() + 2);
+		quoted.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+			case '"':
+				quoted.append("\\\"");
+				break;
+			case '\\':
+				quoted.append("\\\\");
+				break;
+			case '\n':
+				quoted.append("\\n");
+				break;
+			case '\r':
+				quoted.append("\\r");
+				break;
+			case '\t':
+				quoted.append("\\t");
+				break;
+			default:
+				if (c < ' ') {
+					quoted.append(String.format("\\u%04x", (int) c));
+				} else {
+					quoted.append(c);
+				}
+			}
+		}
+		return quoted.append('"').toString();
+	}
+
+
+	/**
+	 * Combines a query with another condition using AND.
+	 *
+	 * @param query		the query so far, or null
+	 * @param condition	the condition to add
+	 * @return the combined query
+	 */
+	private static IncidentQuery and(IncidentQuery query, IncidentQuery condition) {
+		return query == null ? condition : query.and(condition);
+	}
+
+
+	/**
+	 * Reads the form parameters from the body of a request.
+	 *
+	 * @param exchange	the request
+	 * @return the form parameters by name
+	 * @throws IOException if the body cannot be read
+	 */
+	private static Map<String, String> readForm(HttpExchange exchange) throws IOException {
+		InputStream in = exchange.getRequestBody();
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		byte[] buffer = new byte[4096];
+		int n;
+		while ((n = in.read(buffer)) > 0) {
+			body.write(buffer, 0, n);
+		}
+		return parseParameters(new String(body.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+
+	/**
+	 * Parses URL encoded parameters, such as a query string or a form body.
+	 *
+	 * @param encoded	the encoded parameters, or null
+	 * @return the parameters by name
+	 */
+	static Map<String, String> parseParameters(String encoded) {
+		Map<String, String> params = new HashMap<String, String>();
+		if (encoded == null || encoded.isEmpty()) {
+			return params;
+		}
+		try {
+			for (String pair : encoded.split("&")) {
+				int equals = pair.indexOf('=');
+				if (equals > 0) {
+					params.put(URLDecoder.decode(pair.substring(0, equals), "UTF-8"),
+							URLDecoder.decode(pair.substring(equals + 1), "UTF-8"));
+				}
+			}
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalArgumentException();
+		}
+		return params;
+	}
+
+
+	/**
+	 * Retrieves a parameter that must be given.
+	 *
+	 * @param params	the parameters
+	 * @param name		the name of the parameter
+	 * @return the value of the parameter
+	 * @throws IllegalArgumentException if the parameter is missing
+	 */
+	private static String required(Map<String, String> params, String name) {
+		String value = params.get(name);
+		if (value == null) {
+			throw new IllegalArgumentException("Missing " + name);
+		}
+		return value;
+	}
+
+
+	/**
+	 * Parses a number from a request.
+	 *
+	 * @param value	the number as a String
+	 * @return the number
+	 * @throws IllegalArgumentException if the value is not a number
+	 */
+	private static int parseInt(String value) {
+		try {
+			return Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid number " + value);
+		}
+	}
+
+
+	/**
+	 * Sends a JSON response.
+	 *
+	 * @param exchange	the request and its response
+	 * @param status	the HTTP status
+	 * @param json		the JSON document
+	 * @throws IOException if the response cannot be written
+	 */
+	private static void sendJson(HttpExchange exchange, int status, String json) throws IOException {
+		byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", JSON_CONTENT_TYPE);
+		exchange.sendResponseHeaders(status, bytes.length);
+		OutputStream out = exchange.getResponseBody();
+		out.write(bytes);
+		out.flush();
+	}
+
+
+	/**
+	 * Sends a JSON error response with a message.
+	 *
+	 * @param exchange	the request and its response
+	 * @param status	the HTTP status
+	 * @param message	the error message, or null
+	 * @throws IOException if the response cannot be written
+	 */
+	private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+		sendJson(exchange, status, "{\"error\":" + (message == null ? "null" : quote(message)) + "}");
+	}
+}
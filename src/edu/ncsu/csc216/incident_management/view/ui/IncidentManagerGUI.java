@@ -40,6 +40,8 @@ import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident;
 import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Category;
 import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Priority;
 import edu.ncsu.csc216.incident_management.model.manager.IncidentManager;
+import edu.ncsu.csc216.incident_management.model.metrics.IncidentEvent.EventType;
+import edu.ncsu.csc216.incident_management.model.metrics.IncidentEventRecorder;
 
 /**
  * Container for the IncidentManager that has the menu options for new incident 
@@ -284,6 +286,10 @@ public class IncidentManagerGUI extends JFrame implements ActionListener {
 		private JButton btnFilterByCategory;
 		/** Button that will show all incidents that are currently tracked */
 		private JButton btnShowAllIncident;
+		/** Field for the keywords to search for */
+		private JTextField txtSearch;
+		/** Button for searching the incident names and notes */
+		private JButton btnSearch;
 		/** JTable for displaying the list of incidents */
 		private JTable table;
 		/** TableModel for Incidents */
@@ -312,15 +318,21 @@ public class IncidentManagerGUI extends JFrame implements ActionListener {
 			btnFilterByCategory.addActionListener(this);
 			btnShowAllIncident = new JButton("Show All Incidents");
 			btnShowAllIncident.addActionListener(this);
+			txtSearch = new JTextField();
+			btnSearch = new JButton("Search");
+			btnSearch.addActionListener(this);
 			
 			JPanel pnlActions = new JPanel();
-			pnlActions.setLayout(new GridLayout(2, 3));
+			pnlActions.setLayout(new GridLayout(3, 3));
 			pnlActions.add(btnAddNewIncident);
 			pnlActions.add(btnDeleteIncident);
 			pnlActions.add(btnEditIncident);
 			pnlActions.add(comboCategory);
 			pnlActions.add(btnFilterByCategory);
 			pnlActions.add(btnShowAllIncident);
+			pnlActions.add(new JLabel("Search notes"));
+			pnlActions.add(txtSearch);
+			pnlActions.add(btnSearch);
 						
 			//Set up table
 			incidentTableModel = new IncidentTableModel();
@@ -410,6 +422,8 @@ public class IncidentManagerGUI extends JFrame implements ActionListener {
 				updateTable(category);
 			} else if (e.getSource() == btnShowAllIncident) {
 				updateTable(null);
+			} else if (e.getSource() == btnSearch) {
+				incidentTableModel.updateIncidentDataBySearch(txtSearch.getText());
 			}
 			IncidentManagerGUI.this.repaint();
 			IncidentManagerGUI.this.validate();
@@ -496,8 +510,10 @@ public class IncidentManagerGUI extends JFrame implements ActionListener {
 			 * Updates the given model with  ManagedIncident information from the  IncidentManager.
 			 */
 			private void updateIncidentData() {
+				long start = IncidentEventRecorder.getInstance().begin(EventType.TABLE_REFRESH);
 				IncidentManager m = IncidentManager.getInstance();
 				data = m.getManagedIncidentsAsArray();
+				IncidentEventRecorder.getInstance().commit(EventType.TABLE_REFRESH, start, data.length, null);
 			}
 			
 			/**
@@ -506,13 +522,31 @@ public class IncidentManagerGUI extends JFrame implements ActionListener {
 			 * @param category category type to search for.
 			 */
 			private void updateIncidentDataByCategory(Category category) {
+				long start = IncidentEventRecorder.getInstance().begin(EventType.TABLE_REFRESH);
 				try {
 					IncidentManager m = IncidentManager.getInstance();
 					data = m.getManagedIncidentsAsArrayByCategory(category);
+					IncidentEventRecorder.getInstance().commit(EventType.TABLE_REFRESH, start, data.length, category.name());
 				} catch (IllegalArgumentException e) {
 					JOptionPane.showMessageDialog(IncidentManagerGUI.this, "Invalid category");
 				}
 			}
+			
+			/**
+			 * Updates the given model with the  ManagedIncidents matching the 
+			 * given search from the  IncidentManager.
+			 * @param query keywords and phrases to search for.
+			 */
+			private void updateIncidentDataBySearch(String query) {
+				long start = IncidentEventRecorder.getInstance().begin(EventType.TABLE_REFRESH);
+				try {
+					IncidentManager m = IncidentManager.getInstance();
+					data = m.getManagedIncidentsAsArrayBySearch(query);
+					IncidentEventRecorder.getInstance().commit(EventType.TABLE_REFRESH, start, data.length, query);
+				} catch (IllegalArgumentException e) {
+					JOptionPane.showMessageDialog(IncidentManagerGUI.this, "Enter keywords to search for");
+				}
+			}
 		}
 	}
 	
@@ -1922,6 +1956,10 @@ public class IncidentManagerGUI extends JFrame implements ActionListener {
 		private JLabel lblNotes;
 		/** Field for notes */
 		private JTextArea txtNotes;
+		/** Incident whose notes are currently shown in txtNotes */
+		private ManagedIncident displayedIncident;
+		/** Number of the displayed incident's notes that are shown in txtNotes */
+		private int displayedNoteCount;
 		
 		/** 
 		 * Construct the panel for the incident information.
@@ -2137,7 +2175,14 @@ public class IncidentManagerGUI extends JFrame implements ActionListener {
 				} else {
 					txtCancellationCode.setText("" + cancellationCodeString);
 				}
-				txtNotes.setText(i.getNotesString());
+				if (i == displayedIncident && i.getNoteCount() >= displayedNoteCount) {
+					//Only append the notes added since the incident was last shown
+					txtNotes.append(i.getNotesString(displayedNoteCount));
+				} else {
+					txtNotes.setText(i.getNotesString());
+				}
+				displayedIncident = i;
+				displayedNoteCount = i.getNoteCount();
 			}
 		}
 	}
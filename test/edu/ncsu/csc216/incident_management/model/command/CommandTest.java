@@ -1,7 +1,9 @@
 package edu.ncsu.csc216.incident_management.model.command;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
 
 import org.junit.Test;
@@ -163,4 +165,71 @@ public class CommandTest {
 	}
 	
 	
-}
\ No newline at end of file
+	
+	/**
+	 * Tests that valueOf() returns shared commands
+	 */
+	@Test
+	public void testValueOf() {
+		Command c = Command.valueOf(CommandValue.CONFIRM, null, null, null, null, "Confirmed by caller");
+		assertEquals(CommandValue.CONFIRM, c.getCommand());
+		assertEquals("Confirmed by caller", c.getWorkNote());
+		assertSame(c, Command.valueOf(CommandValue.CONFIRM, null, null, null, null, "Confirmed by caller"));
+		assertNotSame(c, Command.valueOf(CommandValue.REOPEN, null, null, null, null, "Confirmed by caller"));
+		
+		Command hold = Command.valueOf(CommandValue.HOLD, null, OnHoldReason.AWAITING_VENDOR, null, null, "Vendor");
+		assertSame(hold, Command.valueOf(CommandValue.HOLD, null, OnHoldReason.AWAITING_VENDOR, null, null, "Vendor"));
+		assertNotSame(hold, Command.valueOf(CommandValue.HOLD, null, OnHoldReason.AWAITING_CALLER, null, null, "Vendor"));
+		
+		try {
+			Command.valueOf(CommandValue.RESOLVE, null, null, null, null, "Resolved");
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertNull(e.getMessage());
+		}
+		
+		Command owned = Command.valueOf(CommandValue.INVESTIGATE, "owner", null, null, null, "Mine");
+		assertEquals("owner", owned.getOwnerId());
+		assertNotSame(owned, Command.valueOf(CommandValue.INVESTIGATE, "owner", null, null, null, "Mine"));
+		
+		Command first = Command.valueOf(CommandValue.REOPEN, null, null, null, null, "One-off 0");
+		for (int i = 1; i < 3000; i++) {
+			Command.valueOf(CommandValue.REOPEN, null, null, null, null, "One-off " + i);
+			assertSame(c, Command.valueOf(CommandValue.CONFIRM, null, null, null, null, "Confirmed by caller"));
+		}
+		assertSame(first, Command.valueOf(CommandValue.REOPEN, null, null, null, null, "One-off 0"));
+		assertSame(hold, Command.valueOf(CommandValue.HOLD, null, OnHoldReason.AWAITING_VENDOR, null, null, "Vendor"));
+		Command last = Command.valueOf(CommandValue.REOPEN, null, null, null, null, "One-off 2999");
+		assertEquals("One-off 2999", last.getWorkNote());
+		assertNotSame(last, Command.valueOf(CommandValue.REOPEN, null, null, null, null, "One-off 2999"));
+	}
+	
+	/**
+	 * Tests building commands with Command.Builder
+	 */
+	@Test
+	public void testBuilder() {
+		Command.Builder builder = new Command.Builder(CommandValue.INVESTIGATE).note("Reassigned");
+		try {
+			builder.build();
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertNull(e.getMessage());
+		}
+		
+		Command c = builder.ownerId("owner").build();
+		assertEquals(CommandValue.INVESTIGATE, c.getCommand());
+		assertEquals("owner", c.getOwnerId());
+		assertEquals("Reassigned", c.getWorkNote());
+		assertSame(c, builder.build());
+		
+		Command other = builder.ownerId("other").build();
+		assertNotSame(c, other);
+		assertEquals("other", other.getOwnerId());
+		assertEquals("owner", c.getOwnerId());
+		
+		Command cancel = new Command.Builder(CommandValue.CANCEL).cancellationCode(CancellationCode.UNNECESSARY).note("No").build();
+		assertEquals(CancellationCode.UNNECESSARY, cancel.getCancellationCode());
+		assertNull(cancel.getResolutionCode());
+	}
+}
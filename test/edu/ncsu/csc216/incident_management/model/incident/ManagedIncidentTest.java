@@ -1,8 +1,11 @@
 package edu.ncsu.csc216.incident_management.model.incident;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.util.List;
@@ -14,10 +17,12 @@ import edu.ncsu.csc216.incident.io.IncidentReader;
 import edu.ncsu.csc216.incident.xml.Incident;
 import edu.ncsu.csc216.incident_management.model.command.Command;
 import edu.ncsu.csc216.incident_management.model.command.Command.CancellationCode;
+import edu.ncsu.csc216.incident_management.model.command.Command.CommandValue;
 import edu.ncsu.csc216.incident_management.model.command.Command.OnHoldReason;
 import edu.ncsu.csc216.incident_management.model.command.Command.ResolutionCode;
 import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Category;
 import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Priority;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.UpdateResult;
 
 /**
  * This class tests the ManagedIncident class
@@ -402,4 +407,84 @@ public class ManagedIncidentTest {
 		assertEquals("Software", incident4.getCategoryString());
 		
 	}
+	
+	/**
+	 * Tests getNotesString() in ManagedIncident
+	 */
+	@Test
+	public void testGetNotesString() {
+		ManagedIncident incident = new ManagedIncident("jsmith", Category.NETWORK, Priority.LOW, "Johnny", "lol");
+		String first = incident.getNotesString();
+		assertEquals("lol\n-------\n", first);
+		assertSame(first, incident.getNotesString());
+		
+		incident.update(new Command(Command.CommandValue.INVESTIGATE, "owner", null, null, null, "Looking"));
+		assertEquals("lol\n-------\nLooking\n-------\n", incident.getNotesString());
+		assertEquals("Looking\n-------\n", incident.getNotesString(1));
+		assertEquals("", incident.getNotesString(2));
+		
+		try {
+			incident.getNotesString(3);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertNull(e.getMessage());
+		}
+	}
+	
+	/**
+	 * Tests canApply() and the state index against the transition table
+	 */
+	@Test
+	public void testCanApply() {
+		ManagedIncident incident = new ManagedIncident("caller", Category.NETWORK, Priority.HIGH, "Name", "Note");
+		assertEquals(ManagedIncident.NEW_INDEX, incident.getStateIndex());
+		assertTrue(incident.canApply(CommandValue.INVESTIGATE));
+		assertTrue(incident.canApply(CommandValue.CANCEL));
+		assertFalse(incident.canApply(CommandValue.RESOLVE));
+		assertFalse(incident.canApply(null));
+		
+		try {
+			incident.update(new Command(CommandValue.CONFIRM, null, null, null, null, "Confirm"));
+			fail();
+		} catch (UnsupportedOperationException e) {
+			assertEquals(ManagedIncident.NEW_NAME, incident.getState().getStateName());
+			assertEquals(1, incident.getNoteCount());
+		}
+		
+		incident.update(new Command(CommandValue.INVESTIGATE, "owner", null, null, null, "Mine"));
+		incident.update(new Command(CommandValue.RESOLVE, null, null, ResolutionCode.WORKAROUND, null, "Fixed"));
+		assertEquals(ManagedIncident.RESOLVED_INDEX, incident.getStateIndex());
+		assertTrue(incident.canApply(CommandValue.HOLD));
+		incident.update(new Command(CommandValue.CONFIRM, null, null, null, null, "Confirm"));
+		assertEquals(ManagedIncident.CLOSED_INDEX, incident.getStateIndex());
+		assertEquals(ManagedIncident.CLOSED_NAME, incident.getState().getStateName());
+		assertTrue(incident.canApply(CommandValue.REOPEN));
+		assertFalse(incident.canApply(CommandValue.CANCEL));
+		
+		try {
+			incident.getState().updateState(new Command(CommandValue.CANCEL, null, null, null, CancellationCode.DUPLICATE, "Dup"));
+			fail();
+		} catch (UnsupportedOperationException e) {
+			assertEquals(ManagedIncident.CLOSED_INDEX, incident.getStateIndex());
+		}
+	}
+	
+	/**
+	 * Tests tryUpdate() for valid and invalid commands
+	 */
+	@Test
+	public void testTryUpdate() {
+		ManagedIncident incident = new ManagedIncident("caller", Category.NETWORK, Priority.HIGH, "Name", "Note");
+		assertEquals(UpdateResult.INVALID_TRANSITION, incident.tryUpdate(null));
+		assertEquals(UpdateResult.INVALID_TRANSITION, 
+				incident.tryUpdate(new Command(CommandValue.HOLD, null, OnHoldReason.AWAITING_CALLER, null, null, "Wait")));
+		assertEquals(ManagedIncident.NEW_NAME, incident.getState().getStateName());
+		assertEquals(1, incident.getNoteCount());
+		
+		assertEquals(UpdateResult.APPLIED, 
+				incident.tryUpdate(new Command(CommandValue.CANCEL, null, null, null, CancellationCode.NOT_AN_INCIDENT, "No")));
+		assertEquals(ManagedIncident.CANCELED_NAME, incident.getState().getStateName());
+		assertEquals(CancellationCode.NOT_AN_INCIDENT, incident.getCancellationCode());
+		assertEquals(2, incident.getNoteCount());
+	}
 }
@@ -0,0 +1,82 @@
+package edu.ncsu.csc216.incident_management.model.incident;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import edu.ncsu.csc216.incident_management.model.command.Command;
+import edu.ncsu.csc216.incident_management.model.command.Command.CommandValue;
+import edu.ncsu.csc216.incident_management.model.command.Command.OnHoldReason;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Category;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Priority;
+
+/**
+ * This class tests the NoteLog class
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class NoteLogTest {
+
+	/**
+	 * Test for append() and read() in NoteLog.
+	 */
+	@Test
+	public void testAppendAndRead() {
+		NoteLog log = new NoteLog();
+		long first = log.append("First note");
+		long empty = log.append("");
+		long second = log.append("Second note");
+
+		assertEquals(3, log.getNoteCount());
+		assertEquals("First note".length() + "Second note".length(), log.length());
+		assertEquals("First note", log.read(first));
+		assertEquals("", log.read(empty));
+		assertEquals("Second note", log.read(second));
+
+		StringBuilder sb = new StringBuilder("> ");
+		log.appendTo(second, sb);
+		assertEquals("> Second note", sb.toString());
+
+		try {
+			log.append(null);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertNull(e.getMessage());
+		}
+
+		try {
+			log.read(((long) log.length() << 32) | 1);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertNull(e.getMessage());
+		}
+	}
+
+	/**
+	 * Test for ManagedIncidents sharing a NoteLog.
+	 */
+	@Test
+	public void testSharedLog() {
+		NoteLog log = new NoteLog();
+		ManagedIncident a = new ManagedIncident("caller", Category.NETWORK, Priority.LOW, "A", "Note A", log);
+		ManagedIncident b = new ManagedIncident("caller", Category.NETWORK, Priority.LOW, "B", "Note B", log);
+
+		a.update(new Command(CommandValue.INVESTIGATE, "owner", null, null, null, "Investigate"));
+		for (int i = 0; i < 10; i++) {
+			a.update(new Command(CommandValue.HOLD, null, OnHoldReason.AWAITING_CALLER, null, null, "Hold " + i));
+			a.update(new Command(CommandValue.REOPEN, null, null, null, null, "Reopen " + i));
+		}
+
+		assertEquals(22, a.getNoteCount());
+		assertEquals("Note A", a.getNotes().get(0));
+		assertEquals("Investigate", a.getNotes().get(1));
+		assertEquals("Hold 0", a.getNotes().get(2));
+		assertEquals("Reopen 9", a.getNotes().get(21));
+		assertEquals(1, b.getNoteCount());
+		assertEquals("Note B", b.getNotes().get(0));
+		assertEquals(23, log.getNoteCount());
+	}
+}
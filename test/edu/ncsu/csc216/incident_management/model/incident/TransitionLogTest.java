@@ -0,0 +1,99 @@
+package edu.ncsu.csc216.incident_management.model.incident;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import edu.ncsu.csc216.incident_management.model.command.Command;
+import edu.ncsu.csc216.incident_management.model.command.Command.CommandValue;
+import edu.ncsu.csc216.incident_management.model.command.Command.OnHoldReason;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Category;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Priority;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.UpdateResult;
+
+/**
+ * This class tests the TransitionLog class
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class TransitionLogTest {
+
+	/**
+	 * Test for record(), the getters, and getTimeInState() in TransitionLog.
+	 */
+	@Test
+	public void testRecord() {
+		TransitionLog log = new TransitionLog();
+		assertEquals(0, log.size());
+		assertEquals(0, log.getTimeInState(ManagedIncident.NEW_INDEX, 100));
+
+		int owner = UserIdTable.getInstance().getRef("owner");
+		log.record(ManagedIncident.NEW_INDEX, null, 1000, UserIdTable.NO_USER);
+		log.record(ManagedIncident.IN_PROGRESS_INDEX, CommandValue.INVESTIGATE, 1500, owner);
+		log.record(ManagedIncident.ON_HOLD_INDEX, CommandValue.HOLD, 1700, owner);
+		log.record(ManagedIncident.IN_PROGRESS_INDEX, CommandValue.REOPEN, 2700, owner);
+		log.record(ManagedIncident.RESOLVED_INDEX, CommandValue.RESOLVE, 3000, owner);
+
+		assertEquals(5, log.size());
+		assertNull(log.getCommand(0));
+		assertEquals(CommandValue.HOLD, log.getCommand(2));
+		assertEquals(ManagedIncident.ON_HOLD_INDEX, log.getStateIndex(2));
+		assertEquals(1700, log.getTime(2));
+		assertEquals(owner, log.getOwnerRef(2));
+		assertEquals(UserIdTable.NO_USER, log.getOwnerRef(0));
+
+		assertEquals(500, log.getTimeInState(ManagedIncident.NEW_INDEX, 5000));
+		assertEquals(500, log.getTimeInState(ManagedIncident.IN_PROGRESS_INDEX, 5000));
+		assertEquals(1000, log.getTimeInState(ManagedIncident.ON_HOLD_INDEX, 5000));
+		assertEquals(2000, log.getTimeInState(ManagedIncident.RESOLVED_INDEX, 5000));
+
+		try {
+			log.getTime(5);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertNull(e.getMessage());
+		}
+
+		try {
+			log.record(ManagedIncident.STATE_COUNT, null, 0, UserIdTable.NO_USER);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals(5, log.size());
+		}
+	}
+
+	/**
+	 * Test that ManagedIncident records its transitions.
+	 */
+	@Test
+	public void testManagedIncidentTransitions() {
+		long start = System.currentTimeMillis();
+		ManagedIncident incident = new ManagedIncident("caller", Category.NETWORK, Priority.HIGH, "Name", "Note");
+		incident.update(new Command(CommandValue.INVESTIGATE, "owner", null, null, null, "Mine"));
+		incident.update(new Command(CommandValue.HOLD, null, OnHoldReason.AWAITING_CALLER, null, null, "Wait"));
+		assertEquals(UpdateResult.INVALID_TRANSITION, incident.tryUpdate(new Command(CommandValue.CONFIRM, null, null, null, null, "No")));
+
+		TransitionLog log = incident.getTransitionLog();
+		assertEquals(3, log.size());
+		assertEquals(ManagedIncident.NEW_INDEX, log.getStateIndex(0));
+		assertEquals(CommandValue.INVESTIGATE, log.getCommand(1));
+		assertEquals(UserIdTable.getInstance().getRef("owner"), log.getOwnerRef(1));
+		assertEquals(ManagedIncident.ON_HOLD_INDEX, log.getStateIndex(2));
+		assertTrue(log.getTime(0) >= start && log.getTime(2) >= log.getTime(0));
+
+		TransitionLog replacement = new TransitionLog();
+		incident.setTransitionLog(replacement);
+		assertSame(replacement, incident.getTransitionLog());
+		try {
+			incident.setTransitionLog(null);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertSame(replacement, incident.getTransitionLog());
+		}
+	}
+}
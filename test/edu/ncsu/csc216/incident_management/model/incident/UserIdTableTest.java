@@ -0,0 +1,112 @@
+package edu.ncsu.csc216.incident_management.model.incident;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import edu.ncsu.csc216.incident_management.model.command.Command;
+import edu.ncsu.csc216.incident_management.model.command.Command.CommandValue;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Category;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Priority;
+
+/**
+ * This class tests the UserIdTable class
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class UserIdTableTest {
+
+	/**
+	 * Test for getRef(), lookup(), and getUserId() in UserIdTable.
+	 */
+	@Test
+	public void testUserIdTable() {
+		UserIdTable table = new UserIdTable();
+		assertEquals(0, table.size());
+		assertEquals(UserIdTable.NO_USER, table.getRef(null));
+		assertEquals(UserIdTable.NO_USER, table.lookup("sesmith5"));
+
+		int sesmith5 = table.getRef("sesmith5");
+		int cjgurley = table.getRef("cjgurley");
+		assertEquals(0, sesmith5);
+		assertEquals(1, cjgurley);
+		assertEquals(sesmith5, table.getRef(new String("sesmith5")));
+		assertEquals(cjgurley, table.lookup("cjgurley"));
+		assertEquals(2, table.size());
+
+		assertEquals("sesmith5", table.getUserId(sesmith5));
+		assertNull(table.getUserId(UserIdTable.NO_USER));
+
+		try {
+			table.getUserId(2);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertNull(e.getMessage());
+		}
+
+		for (int i = 0; i < 100; i++) {
+			assertEquals(i + 2, table.getRef("user" + i));
+		}
+		assertEquals("user99", table.getUserId(101));
+	}
+
+	/**
+	 * Test for ManagedIncidents sharing the user ids in the table.
+	 */
+	@Test
+	public void testSharedUserIds() {
+		ManagedIncident a = new ManagedIncident(new String("sesmith5"), Category.NETWORK, Priority.LOW, "A", "Note A");
+		ManagedIncident b = new ManagedIncident(new String("sesmith5"), Category.NETWORK, Priority.LOW, "B", "Note B");
+
+		assertEquals(a.getCallerRef(), b.getCallerRef());
+		assertSame(a.getCaller(), b.getCaller());
+		assertEquals(UserIdTable.NO_USER, a.getOwnerRef());
+		assertNull(a.getOwner());
+
+		a.update(new Command(CommandValue.INVESTIGATE, "cjgurley", null, null, null, "Mine"));
+		b.update(new Command(CommandValue.INVESTIGATE, new String("cjgurley"), null, null, null, "Mine too"));
+		assertEquals(a.getOwnerRef(), b.getOwnerRef());
+		assertEquals(UserIdTable.getInstance().lookup("cjgurley"), a.getOwnerRef());
+		assertEquals("cjgurley", b.getOwner());
+	}
+
+	/**
+	 * Test for adding and reading user ids from several threads at once.
+	 *
+	 * @throws Exception if a thread fails
+	 */
+	@Test
+	public void testConcurrentUserIds() throws Exception {
+		final UserIdTable table = new UserIdTable();
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> futures = new ArrayList<Future<?>>();
+			for (int t = 0; t < 4; t++) {
+				futures.add(pool.submit(() -> {
+					for (int i = 0; i < 1000; i++) {
+						int ref = table.getRef("user" + i);
+						assertEquals("user" + i, table.getUserId(ref));
+						assertEquals(ref, table.lookup("user" + i));
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			pool.shutdown();
+		}
+		assertEquals(1000, table.size());
+		assertSame(UserIdTable.getInstance(), UserIdTable.getInstance());
+	}
+}
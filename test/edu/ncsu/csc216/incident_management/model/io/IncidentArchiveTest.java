@@ -0,0 +1,153 @@
+package edu.ncsu.csc216.incident_management.model.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Test;
+
+import edu.ncsu.csc216.incident.io.IncidentIOException;
+import edu.ncsu.csc216.incident.xml.Incident;
+import edu.ncsu.csc216.incident_management.model.io.IncidentArchive.Format;
+import edu.ncsu.csc216.incident_management.model.manager.IncidentManager;
+
+/**
+ * This class tests the IncidentArchive class
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class IncidentArchiveTest {
+
+	/** File containing incidents for testing */
+	private static final String READING_FILE = "test-files/exp_incident_all.xml";
+
+	/** Compressed file to write incidents to for testing */
+	private static final String GZIP_FILE = "test-files/written_incidents.xml.gz";
+
+	/** File with a Zstandard header for testing */
+	private static final String ZSTD_FILE = "test-files/written_incidents.xml.zst";
+
+	/**
+	 * Test for detectFormat() in IncidentArchive.
+	 */
+	@Test
+	public void testDetectFormat() {
+		assertEquals(Format.GZIP, IncidentArchive.detectFormat(new byte[] {0x1f, (byte) 0x8b, 8, 0}, 4));
+		assertEquals(Format.ZSTD, IncidentArchive.detectFormat(new byte[] {0x28, (byte) 0xb5, 0x2f, (byte) 0xfd}, 4));
+		assertEquals(Format.XML, IncidentArchive.detectFormat(new byte[] {'<', '?', 'x', 'm'}, 4));
+		assertEquals(Format.XML, IncidentArchive.detectFormat(new byte[] {0x1f, 0, 0, 0}, 1));
+		assertEquals(Format.JSON, IncidentArchive.detectFormat(new byte[] {'{', '"', 'i', 'n'}, 4));
+		assertEquals(Format.JSON, IncidentArchive.detectFormat(new byte[] {'\n', ' ', '[', '{'}, 4));
+
+		try {
+			assertEquals(Format.XML, IncidentArchive.detectFormat(READING_FILE));
+		} catch (IncidentIOException e) {
+			fail();
+		}
+	}
+
+	/**
+	 * Test for writeIncidents() and readIncidents() in IncidentArchive with a gzip file.
+	 */
+	@Test
+	public void testCompressedRoundTrip() {
+		try {
+			List<Incident> incidents = IncidentArchive.readIncidents(READING_FILE);
+			assertEquals(6, incidents.size());
+
+			IncidentArchive.writeIncidents(GZIP_FILE, incidents);
+			assertEquals(Format.GZIP, IncidentArchive.detectFormat(GZIP_FILE));
+			assertTrue(new File(GZIP_FILE).length() < new File(READING_FILE).length());
+
+			List<Incident> read = IncidentArchive.readIncidents(GZIP_FILE);
+			assertEquals(6, read.size());
+			for (int i = 0; i < read.size(); i++) {
+				assertEquals(incidents.get(i).getId(), read.get(i).getId());
+				assertEquals(incidents.get(i).getName(), read.get(i).getName());
+				assertEquals(incidents.get(i).getWorkNotes().getNotes(), read.get(i).getWorkNotes().getNotes());
+			}
+		} catch (IncidentIOException e) {
+			fail();
+		} finally {
+			new File(GZIP_FILE).delete();
+		}
+	}
+
+	/**
+	 * Test for loading a compressed file through IncidentManager.
+	 */
+	@Test
+	public void testIncidentManagerCompressedFile() {
+		try {
+			IncidentManager.getInstance().createNewManagedIncidentList();
+			IncidentManager.getInstance().loadManagedIncidentsFromFile(READING_FILE);
+			IncidentManager.getInstance().saveManagedIncidentsToFile(GZIP_FILE);
+
+			IncidentManager.getInstance().createNewManagedIncidentList();
+			IncidentManager.getInstance().loadManagedIncidentsFromFile(GZIP_FILE);
+			assertEquals(6, IncidentManager.getInstance().getManagedIncidentsAsArray().length);
+			assertEquals("Canceled", IncidentManager.getInstance().getManagedIncidentsAsArray()[5][2]);
+		} finally {
+			new File(GZIP_FILE).delete();
+		}
+	}
+
+	/**
+	 * Test for readIncidents() in IncidentArchive with an unsupported format.
+	 */
+	@Test
+	public void testUnsupportedFormat() {
+		FileOutputStream out = null;
+		try {
+			out = new FileOutputStream(ZSTD_FILE);
+			out.write(new byte[] {0x28, (byte) 0xb5, 0x2f, (byte) 0xfd, 0, 0});
+			out.close();
+
+			IncidentArchive.readIncidents(ZSTD_FILE);
+			fail();
+		} catch (IncidentIOException e) {
+			assertEquals("Zstandard compressed incident files are not supported", e.getMessage());
+		} catch (IOException e) {
+			fail();
+		} finally {
+			new File(ZSTD_FILE).delete();
+		}
+	}
+
+	/**
+	 * Test for readIncidents() in IncidentArchive with compressed copies of the invalid
+	 * incident files, which must be rejected as the plain files are.
+	 */
+	@Test
+	public void testCompressedInvalidFiles() {
+		for (int i = 2; i <= 24; i++) {
+			String fileName = "test-files/incident" + i + ".xml";
+			try {
+				OutputStream out = new GZIPOutputStream(new FileOutputStream(GZIP_FILE));
+				try {
+					out.write(Files.readAllBytes(Paths.get(fileName)));
+				} finally {
+					out.close();
+				}
+				IncidentArchive.readIncidents(GZIP_FILE);
+				fail(fileName);
+			} catch (IncidentIOException e) {
+				//Expected
+			} catch (IOException e) {
+				fail();
+			} finally {
+				new File(GZIP_FILE).delete();
+			}
+		}
+	}
+}
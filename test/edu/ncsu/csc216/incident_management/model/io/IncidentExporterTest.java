@@ -0,0 +1,160 @@
+package edu.ncsu.csc216.incident_management.model.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import edu.ncsu.csc216.incident.io.IncidentIOException;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Category;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Priority;
+import edu.ncsu.csc216.incident_management.model.manager.IncidentManager;
+
+/**
+ * This class tests the IncidentExporter class
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class IncidentExporterTest {
+
+	/** File containing incidents for testing */
+	private static final String READING_FILE = "test-files/exp_incident_all.xml";
+
+	/** CSV file to export incidents to for testing */
+	private static final String CSV_FILE = "test-files/exported_incidents.csv";
+
+	/** Columnar file to export incidents to for testing */
+	private static final String COLUMN_FILE = "test-files/exported_incidents.col";
+
+	/**
+	 * Test for exporting the managed incidents as CSV through IncidentManager.
+	 *
+	 * @throws IOException if the exported file cannot be read
+	 */
+	@Test
+	public void testExportCsv() throws IOException {
+		IncidentManager manager = IncidentManager.getInstance();
+		manager.createNewManagedIncidentList();
+		manager.loadManagedIncidentsFromFile(READING_FILE);
+
+		try {
+			manager.exportManagedIncidentsToFile(CSV_FILE);
+			List<String> lines = Files.readAllLines(Paths.get(CSV_FILE), StandardCharsets.UTF_8);
+			assertEquals(7, lines.size());
+			assertEquals("id,category,state,priority,name,caller,owner,on_hold_reason,resolution_code,cancellation_code",
+					lines.get(0));
+			assertEquals("1,Software,New,Urgent,Jenkins installation,sesmith5,,,,", lines.get(1));
+			assertEquals("3,Hardware,On Hold,High,Mount data drive to VM,student1,tgpucket,Awaiting Change,,",
+					lines.get(3));
+			assertEquals("6,Inquiry,Canceled,Low,What's the best pizza place near Centenntial Campus?,student3,,,,"
+					+ "Not an Incident", lines.get(6));
+		} finally {
+			assertTrue(new File(CSV_FILE).delete());
+		}
+	}
+
+	/**
+	 * Test for quoting CSV fields containing commas, quotes, and line breaks.
+	 *
+	 * @throws IOException if the exported file cannot be read
+	 */
+	@Test
+	public void testCsvQuoting() throws IOException {
+		List<ManagedIncident> incidents = new ArrayList<ManagedIncident>();
+		incidents.add(new ManagedIncident("caller", Category.NETWORK, Priority.LOW, "Say \"hi\", then\nleave", "note"));
+		try {
+			IncidentExporter.writeCsv(CSV_FILE, incidents);
+			String csv = new String(Files.readAllBytes(Paths.get(CSV_FILE)), StandardCharsets.UTF_8);
+			assertTrue(csv.endsWith(",Network,New,Low,\"Say \"\"hi\"\", then\nleave\",caller,,,,\r\n"));
+		} catch (IncidentIOException e) {
+			fail(e.getMessage());
+		} finally {
+			assertTrue(new File(CSV_FILE).delete());
+		}
+	}
+
+	/**
+	 * Test for exporting the managed incidents to a columnar file and reading them back.
+	 */
+	@Test
+	public void testExportColumns() {
+		IncidentManager manager = IncidentManager.getInstance();
+		manager.createNewManagedIncidentList();
+		manager.loadManagedIncidentsFromFile(READING_FILE);
+
+		try {
+			manager.exportManagedIncidentsToFile(COLUMN_FILE);
+			List<String[]> rows = IncidentExporter.readColumns(COLUMN_FILE);
+			assertEquals(6, rows.size());
+			String[][] table = manager.getManagedIncidentsAsArray();
+			for (int i = 0; i < rows.size(); i++) {
+				for (int j = 0; j < IncidentManager.COLUMNS; j++) {
+					assertEquals(table[i][j], rows.get(i)[j]);
+				}
+			}
+			assertArrayEquals(new String[] { "3", "Hardware", "On Hold", "High", "Mount data drive to VM", "student1",
+					"tgpucket", "Awaiting Change", null, null }, rows.get(2));
+			assertNull(rows.get(0)[6]);
+			assertEquals("Not an Incident", rows.get(5)[9]);
+		} catch (IncidentIOException e) {
+			fail(e.getMessage());
+		} finally {
+			assertTrue(new File(COLUMN_FILE).delete());
+		}
+
+		try {
+			IncidentExporter.readColumns(READING_FILE);
+			fail();
+		} catch (IncidentIOException e) {
+			assertEquals("Not a columnar incident file", e.getMessage());
+		}
+	}
+
+	/**
+	 * Test that incidents split across many batches are written in order.
+	 */
+	@Test
+	public void testManyBatches() {
+		List<ManagedIncident> incidents = new ArrayList<ManagedIncident>();
+		for (int i = 0; i < 1000; i++) {
+			incidents.add(new ManagedIncident("caller" + (i % 7), Category.values()[i % Category.values().length],
+					Priority.values()[i % Priority.values().length], "Incident " + i, "note"));
+		}
+		try {
+			IncidentExporter.writeColumns(COLUMN_FILE, incidents, 3);
+			List<String[]> rows = IncidentExporter.readColumns(COLUMN_FILE);
+			assertEquals(1000, rows.size());
+			for (int i = 0; i < rows.size(); i++) {
+				assertEquals(Integer.toString(incidents.get(i).getIncidentId()), rows.get(i)[0]);
+				assertEquals("Incident " + i, rows.get(i)[4]);
+				assertEquals("caller" + (i % 7), rows.get(i)[5]);
+				assertEquals(incidents.get(i).getCategoryString(), rows.get(i)[1]);
+			}
+
+			IncidentExporter.writeCsv(CSV_FILE, incidents, 7);
+			List<String> lines = Files.readAllLines(Paths.get(CSV_FILE), StandardCharsets.UTF_8);
+			assertEquals(1001, lines.size());
+			for (int i = 0; i < incidents.size(); i++) {
+				assertTrue(lines.get(i + 1).startsWith(incidents.get(i).getIncidentId() + ","));
+			}
+		} catch (IncidentIOException | IOException e) {
+			fail(e.getMessage());
+		} finally {
+			assertTrue(new File(COLUMN_FILE).delete());
+			new File(CSV_FILE).delete();
+		}
+	}
+}
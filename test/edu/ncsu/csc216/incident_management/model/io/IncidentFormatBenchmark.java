@@ -0,0 +1,58 @@
+package edu.ncsu.csc216.incident_management.model.io;
+
+import java.io.File;
+
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Category;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Priority;
+import edu.ncsu.csc216.incident_management.model.manager.IncidentManager;
+
+/**
+ * Compares the time taken to save and load incidents as XML, gzip compressed XML, and JSON
+ * through IncidentManager, along with the size of each file. This is not a unit test; run it
+ * with the number of incidents and rounds as optional arguments.
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class IncidentFormatBenchmark {
+
+	/** Files compared, one for each format */
+	private static final String[] FILES = {"test-files/benchmark_incidents.xml",
+		"test-files/benchmark_incidents.xml.gz", "test-files/benchmark_incidents.json"};
+
+	/**
+	 * Runs the benchmark.
+	 *
+	 * @param args	the number of incidents, default 20000, and the number of rounds, default 5
+	 */
+	public static void main(String[] args) {
+		int incidents = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+		IncidentManager manager = IncidentManager.getInstance();
+		manager.createNewManagedIncidentList();
+		for (int i = 0; i < incidents; i++) {
+			manager.addManagedIncidentToList("caller" + (i % 100), Category.values()[i % Category.values().length],
+					Priority.values()[i % Priority.values().length], "Incident " + i, "Work note for incident " + i);
+		}
+
+		for (String fileName : FILES) {
+			long save = Long.MAX_VALUE;
+			long load = Long.MAX_VALUE;
+			for (int round = 0; round < rounds; round++) {
+				long start = System.nanoTime();
+				manager.saveManagedIncidentsToFile(fileName);
+				save = Math.min(save, System.nanoTime() - start);
+
+				start = System.nanoTime();
+				manager.createNewManagedIncidentList();
+				manager.loadManagedIncidentsFromFile(fileName);
+				load = Math.min(load, System.nanoTime() - start);
+			}
+			File file = new File(fileName);
+			System.out.printf("%-40s save %6d ms  load %6d ms  %9d bytes%n", fileName, save / 1000000,
+					load / 1000000, file.length());
+			file.delete();
+		}
+	}
+}
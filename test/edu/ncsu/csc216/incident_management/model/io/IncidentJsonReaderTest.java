@@ -0,0 +1,108 @@
+package edu.ncsu.csc216.incident_management.model.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+
+import edu.ncsu.csc216.incident.xml.Incident;
+
+/**
+ * This class tests the IncidentJsonReader class
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class IncidentJsonReaderTest {
+
+	/** Incident with every field set */
+	private static final String FULL_INCIDENT = "{\"id\":3,\"caller\":\"bbutler\",\"category\":\"Hardware\","
+			+ "\"state\":\"On Hold\",\"priority\":\"High\",\"owner\":\"jdoe\",\"name\":\"Printer \\\"jam\\\"\","
+			+ "\"onHoldReason\":\"Awaiting Vendor\",\"changeRequest\":\"CR1\",\"resolutionCode\":null,"
+			+ "\"extra\":{\"nested\":[1,true,null]},\"workNotes\":[\"line\\none\",\"caf\\u00e9\"]}";
+
+	/**
+	 * Test for reading incidents from a wrapped document and from a bare array.
+	 */
+	@Test
+	public void testRead() {
+		IncidentJsonReader reader = reader("{\"version\":1,\"incidents\":[" + FULL_INCIDENT + " , "
+				+ FULL_INCIDENT.replace("\"id\":3", "\"id\":4") + "],\"count\":2}");
+		assertTrue(reader.hasNext());
+		assertTrue(reader.hasNext());
+		Incident incident = reader.next();
+		assertEquals(3, incident.getId());
+		assertEquals("bbutler", incident.getCaller());
+		assertEquals("Hardware", incident.getCategory());
+		assertEquals("On Hold", incident.getState());
+		assertEquals("High", incident.getPriority());
+		assertEquals("jdoe", incident.getOwner());
+		assertEquals("Printer \"jam\"", incident.getName());
+		assertEquals("Awaiting Vendor", incident.getOnHoldReason());
+		assertEquals("CR1", incident.getChangeRequest());
+		assertNull(incident.getResolutionCode());
+		assertNull(incident.getCancellationCode());
+		assertEquals(2, incident.getWorkNotes().getNotes().size());
+		assertEquals("line\none", incident.getWorkNotes().getNotes().get(0));
+		assertEquals("caf\u00e9", incident.getWorkNotes().getNotes().get(1));
+		assertEquals(4, reader.next().getId());
+		assertFalse(reader.hasNext());
+		try {
+			reader.next();
+			fail();
+		} catch (NoSuchElementException e) {
+			assertFalse(reader.hasNext());
+		}
+		reader.close();
+
+		reader = reader("[]");
+		assertFalse(reader.hasNext());
+		reader = reader(" [" + FULL_INCIDENT + "]");
+		assertEquals(3, reader.next().getId());
+		assertFalse(reader.hasNext());
+	}
+
+	/**
+	 * Test for malformed documents and incidents missing required fields or with unknown values.
+	 */
+	@Test
+	public void testInvalid() {
+		String[] invalid = {"", "{\"other\":[]}", "<incidents/>", "[" + FULL_INCIDENT + FULL_INCIDENT + "]",
+				"[" + FULL_INCIDENT.replace("\"caller\":\"bbutler\",", "") + "]",
+				"[" + FULL_INCIDENT.replace("[\"line\\none\",\"caf\\u00e9\"]", "[]") + "]",
+				"[" + FULL_INCIDENT.replace("\"id\":3", "\"id\":\"3\"") + "]",
+				"[" + FULL_INCIDENT.replace("On Hold", "Bogus") + "]",
+				"[" + FULL_INCIDENT.replace("Awaiting Vendor", "Awaiting Parts") + "]",
+				"[" + FULL_INCIDENT.replace("\"resolutionCode\":null", "\"resolutionCode\":\"Workaround\"") + "]",
+				"[" + FULL_INCIDENT.replace("\"owner\":\"jdoe\",", "") + "]",
+				"[{\"id\":1,\"name\":\"unterminated}]"};
+		for (int i = 0; i < invalid.length; i++) {
+			try {
+				IncidentJsonReader reader = reader(invalid[i]);
+				while (reader.hasNext()) {
+					reader.next();
+				}
+				fail("Read " + invalid[i]);
+			} catch (IllegalArgumentException e) {
+				assertTrue(e.getMessage().contains("line") || e.getMessage().contains("No incidents"));
+			}
+		}
+	}
+
+	/**
+	 * Creates a reader for the given document.
+	 *
+	 * @param json	the document
+	 * @return the reader
+	 */
+	private static IncidentJsonReader reader(String json) {
+		return new IncidentJsonReader(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+	}
+}
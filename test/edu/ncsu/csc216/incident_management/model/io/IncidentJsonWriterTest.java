@@ -0,0 +1,136 @@
+package edu.ncsu.csc216.incident_management.model.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.junit.Test;
+
+import edu.ncsu.csc216.incident.io.IncidentIOException;
+import edu.ncsu.csc216.incident.xml.Incident;
+import edu.ncsu.csc216.incident.xml.WorkNotes;
+import edu.ncsu.csc216.incident_management.model.command.Command;
+import edu.ncsu.csc216.incident_management.model.command.Command.CommandValue;
+import edu.ncsu.csc216.incident_management.model.io.IncidentArchive.Format;
+import edu.ncsu.csc216.incident_management.model.manager.IncidentManager;
+
+/**
+ * This class tests the IncidentJsonWriter class
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class IncidentJsonWriterTest {
+
+	/** File containing incidents for testing */
+	private static final String READING_FILE = "test-files/exp_incident_all.xml";
+
+	/** JSON file to write incidents to for testing */
+	private static final String JSON_FILE = "test-files/written_incidents.json";
+
+	/**
+	 * Test for the document written for XML Incidents.
+	 *
+	 * @throws IOException if the document cannot be written
+	 */
+	@Test
+	public void testWriteIncident() throws IOException {
+		Incident incident = new Incident();
+		incident.setId(8);
+		incident.setCaller("sesmith5");
+		incident.setCategory("Network");
+		incident.setState("New");
+		incident.setPriority("Low");
+		incident.setName("Tab\there");
+		incident.setOwner("");
+		incident.setWorkNotes(new WorkNotes());
+		incident.getWorkNotes().getNotes().add("\"Quoted\" \\ \u0001");
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		IncidentJsonWriter writer = new IncidentJsonWriter(out);
+		writer.write(incident);
+		assertEquals(1, writer.getCount());
+		writer.close();
+		assertEquals("{\"incidents\":[\n{\"id\":8,\"caller\":\"sesmith5\",\"category\":\"Network\",\"state\":\"New\","
+				+ "\"priority\":\"Low\",\"name\":\"Tab\\there\",\"workNotes\":[\"\\\"Quoted\\\" \\\\ \\u0001\"]}\n]}\n",
+				new String(out.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Test for saving and loading managed incidents as JSON through IncidentManager.
+	 */
+	@Test
+	public void testIncidentManagerJsonRoundTrip() {
+		IncidentManager manager = IncidentManager.getInstance();
+		manager.createNewManagedIncidentList();
+		manager.loadManagedIncidentsFromFile(READING_FILE);
+		manager.executeCommand(1, new Command(CommandValue.INVESTIGATE, "owner", null, null, null, "Mine \"now\""));
+		String[][] expected = manager.getManagedIncidentsAsArray();
+		String notes = manager.getManagedIncidentById(1).getNotesString();
+
+		try {
+			manager.saveManagedIncidentsToFile(JSON_FILE);
+			assertEquals(Format.JSON, IncidentArchive.detectFormat(JSON_FILE));
+			List<Incident> incidents = IncidentArchive.readIncidents(JSON_FILE);
+			assertEquals(6, incidents.size());
+			assertEquals("owner", incidents.get(0).getOwner());
+
+			manager.createNewManagedIncidentList();
+			manager.loadManagedIncidentsFromFile(JSON_FILE);
+			String[][] actual = manager.getManagedIncidentsAsArray();
+			assertEquals(expected.length, actual.length);
+			for (int i = 0; i < expected.length; i++) {
+				for (int j = 0; j < IncidentManager.COLUMNS; j++) {
+					assertEquals(expected[i][j], actual[i][j]);
+				}
+			}
+			assertEquals(notes, manager.getManagedIncidentById(1).getNotesString());
+			assertEquals("owner", manager.getManagedIncidentById(1).getOwner());
+			assertEquals("Awaiting Change", manager.getManagedIncidentById(3).getOnHoldReasonString());
+
+			IncidentArchive.writeIncidents(JSON_FILE, incidents);
+			assertEquals(6, IncidentArchive.readIncidents(JSON_FILE).size());
+		} catch (IncidentIOException e) {
+			fail(e.getMessage());
+		} finally {
+			assertTrue(new File(JSON_FILE).delete());
+		}
+	}
+
+	/**
+	 * Test for loading a JSON file with an invalid incident through IncidentManager, which
+	 * must not add any of the incidents in the file.
+	 *
+	 * @throws IOException if the file cannot be written
+	 */
+	@Test
+	public void testIncidentManagerJsonInvalid() throws IOException {
+		IncidentManager manager = IncidentManager.getInstance();
+		manager.createNewManagedIncidentList();
+		manager.loadManagedIncidentsFromFile(READING_FILE);
+		String incident = "{\"id\":7,\"caller\":\"sesmith5\",\"category\":\"Network\",\"state\":\"New\","
+				+ "\"priority\":\"Low\",\"name\":\"Router\",\"workNotes\":[\"Down\"]}";
+		String json = "{\"incidents\":[" + incident + ",\n" + incident.replace("\"id\":7", "\"id\":8")
+				.replace("\"New\"", "\"Bogus\"") + "]}";
+		Files.write(Paths.get(JSON_FILE), json.getBytes(StandardCharsets.UTF_8));
+
+		try {
+			manager.loadManagedIncidentsFromFile(JSON_FILE);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals(6, manager.getManagedIncidentsAsArray().length);
+			assertNull(manager.getManagedIncidentById(7));
+		} finally {
+			assertTrue(new File(JSON_FILE).delete());
+		}
+	}
+}
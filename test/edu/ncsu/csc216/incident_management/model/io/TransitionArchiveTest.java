@@ -0,0 +1,86 @@
+package edu.ncsu.csc216.incident_management.model.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import edu.ncsu.csc216.incident.io.IncidentIOException;
+import edu.ncsu.csc216.incident_management.model.command.Command;
+import edu.ncsu.csc216.incident_management.model.command.Command.CommandValue;
+import edu.ncsu.csc216.incident_management.model.command.Command.ResolutionCode;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident;
+import edu.ncsu.csc216.incident_management.model.incident.TransitionLog;
+import edu.ncsu.csc216.incident_management.model.incident.UserIdTable;
+import edu.ncsu.csc216.incident_management.model.manager.IncidentManager;
+
+/**
+ * This class tests the TransitionArchive class
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class TransitionArchiveTest {
+
+	/** File containing incidents for testing */
+	private static final String READING_FILE = "test-files/exp_incident_all.xml";
+
+	/** XML file to write transition logs to for testing */
+	private static final String XML_FILE = "test-files/written_transitions.xml";
+
+	/** Binary file to write transition logs to for testing */
+	private static final String BINARY_FILE = "test-files/written_transitions.bin";
+
+	/**
+	 * Test for writing and reading transition logs in both formats.
+	 */
+	@Test
+	public void testWriteAndReadTransitions() {
+		IncidentManager manager = IncidentManager.getInstance();
+		manager.createNewManagedIncidentList();
+		manager.loadManagedIncidentsFromFile(READING_FILE);
+		manager.executeCommand(1, new Command(CommandValue.INVESTIGATE, "archivist", null, null, null, "Mine"));
+		manager.executeCommand(1, new Command(CommandValue.RESOLVE, null, null, ResolutionCode.WORKAROUND, null, "Done"));
+
+		try {
+			String[] files = {XML_FILE, BINARY_FILE};
+			for (int f = 0; f < files.length; f++) {
+				List<ManagedIncident> incidents = Arrays.asList(manager.getManagedIncidentById(1), manager.getManagedIncidentById(2));
+				TransitionArchive.writeTransitions(files[f], incidents);
+				Map<Integer, TransitionLog> logs = TransitionArchive.readTransitions(files[f]);
+
+				assertEquals(2, logs.size());
+				assertEquals(0, logs.get(2).size());
+				TransitionLog log = logs.get(1);
+				TransitionLog original = manager.getManagedIncidentById(1).getTransitionLog();
+				assertEquals(2, log.size());
+				assertEquals(CommandValue.INVESTIGATE, log.getCommand(0));
+				assertEquals(CommandValue.RESOLVE, log.getCommand(1));
+				assertEquals(ManagedIncident.RESOLVED_INDEX, log.getStateIndex(1));
+				assertEquals(original.getTime(1), log.getTime(1));
+				assertEquals(UserIdTable.getInstance().getRef("archivist"), log.getOwnerRef(1));
+			}
+
+			manager.getManagedIncidentById(1).setTransitionLog(new TransitionLog());
+			manager.loadTransitionsFromFile(BINARY_FILE);
+			assertEquals(2, manager.getManagedIncidentById(1).getTransitionLog().size());
+		} catch (IncidentIOException e) {
+			fail(e.getMessage());
+		} finally {
+			new File(XML_FILE).delete();
+			new File(BINARY_FILE).delete();
+		}
+
+		try {
+			TransitionArchive.readTransitions(READING_FILE + ".missing");
+			fail();
+		} catch (IncidentIOException e) {
+			assertEquals(2, manager.getManagedIncidentById(1).getTransitionLog().size());
+		}
+	}
+}
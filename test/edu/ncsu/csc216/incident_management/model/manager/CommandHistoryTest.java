@@ -0,0 +1,164 @@
+package edu.ncsu.csc216.incident_management.model.manager;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+import edu.ncsu.csc216.incident_management.model.command.Command;
+import edu.ncsu.csc216.incident_management.model.command.Command.CancellationCode;
+import edu.ncsu.csc216.incident_management.model.command.Command.CommandValue;
+import edu.ncsu.csc216.incident_management.model.command.Command.OnHoldReason;
+import edu.ncsu.csc216.incident_management.model.command.Command.ResolutionCode;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Category;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Priority;
+
+/**
+ * This class tests the CommandHistory class and undo and redo in IncidentManager
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class CommandHistoryTest {
+
+	/** File containing incidents for testing */
+	private static final String READING_FILE = "test-files/exp_incident_all.xml";
+
+	/**
+	 * Test for undoing and redoing commands on one incident.
+	 */
+	@Test
+	public void testUndoRedo() {
+		IncidentManager manager = IncidentManager.getInstance();
+		manager.createNewManagedIncidentList();
+		manager.loadManagedIncidentsFromFile(READING_FILE);
+		assertFalse(manager.canUndo());
+		assertFalse(manager.undo());
+		assertFalse(manager.redo());
+
+		ManagedIncident incident = manager.getManagedIncidentById(2);
+		String notes = incident.getNotesString();
+		int transitions = incident.getTransitionLog().size();
+		manager.executeCommand(2, new Command(CommandValue.HOLD, null, OnHoldReason.AWAITING_CHANGE, null, null,
+				"Waiting on zebra"));
+		manager.executeCommand(2, new Command(CommandValue.RESOLVE, null, null, ResolutionCode.PERMANENTLY_SOLVED,
+				null, "CR-1"));
+		assertEquals("CR-1", incident.getChangeRequest());
+		assertEquals(1, manager.getManagedIncidentsAsArrayBySearch("zebra").length);
+
+		assertTrue(manager.undo());
+		assertEquals(ManagedIncident.ON_HOLD_NAME, incident.getState().getStateName());
+		assertEquals(OnHoldReason.AWAITING_CHANGE, incident.getOnHoldReason());
+		assertNull(incident.getResolutionCode());
+		assertNull(incident.getChangeRequest());
+		assertEquals(3, incident.getNoteCount());
+
+		assertTrue(manager.undo());
+		assertEquals(ManagedIncident.IN_PROGRESS_NAME, incident.getState().getStateName());
+		assertNull(incident.getOnHoldReason());
+		assertEquals("cjgurley", incident.getOwner());
+		assertEquals(notes, incident.getNotesString());
+		assertEquals(transitions, incident.getTransitionLog().size());
+		assertEquals(0, manager.getManagedIncidentsAsArrayBySearch("zebra").length);
+		assertFalse(manager.canUndo());
+		assertTrue(manager.canRedo());
+
+		assertTrue(manager.redo());
+		assertEquals(ManagedIncident.ON_HOLD_NAME, incident.getState().getStateName());
+		assertTrue(manager.redo());
+		assertEquals(ManagedIncident.RESOLVED_NAME, incident.getState().getStateName());
+		assertEquals(ResolutionCode.PERMANENTLY_SOLVED, incident.getResolutionCode());
+		assertEquals("CR-1", incident.getChangeRequest());
+		assertFalse(manager.redo());
+
+		assertTrue(manager.undo());
+		manager.executeCommand(2, new Command(CommandValue.REOPEN, null, null, null, null, "Back"));
+		assertFalse(manager.canRedo());
+		assertTrue(manager.canUndo());
+		manager.deleteManagedIncidentById(6);
+		assertFalse(manager.canUndo());
+
+		manager.executeCommand(2, new Command(CommandValue.HOLD, null, OnHoldReason.AWAITING_CALLER, null, null,
+				"Waiting"));
+		assertTrue(manager.undo());
+		incident.update(new Command(CommandValue.CANCEL, null, null, null, CancellationCode.DUPLICATE, "Elsewhere"));
+		try {
+			manager.redo();
+			fail();
+		} catch (IllegalStateException e) {
+			assertTrue(manager.canRedo());
+			assertEquals(ManagedIncident.CANCELED_NAME, incident.getState().getStateName());
+			assertNull(incident.getOnHoldReason());
+		}
+	}
+
+	/**
+	 * Test for undoing a command executed on several incidents at once.
+	 */
+	@Test
+	public void testUndoBulk() {
+		IncidentManager manager = IncidentManager.getInstance();
+		manager.createNewManagedIncidentList();
+		manager.loadManagedIncidentsFromFile(READING_FILE);
+		String[][] before = manager.getManagedIncidentsAsArray();
+		int[] counts = manager.getStateCounts();
+
+		manager.executeCommand(new int[] { 1, 4 }, new Command(CommandValue.CANCEL, null, null, null,
+				CancellationCode.DUPLICATE, "Duplicate"));
+		manager.executeCommand(3, new Command(CommandValue.REOPEN, null, null, null, null, "Reopened"));
+		manager.claimNextNewIncident("dispatcher", "Mine");
+		assertEquals(0, manager.getManagedIncidentsAsArrayByOwner("dispatcher").length);
+
+		assertEquals(ManagedIncident.IN_PROGRESS_NAME, manager.getManagedIncidentById(3).getState().getStateName());
+		assertTrue(manager.undo());
+		assertEquals(OnHoldReason.AWAITING_CHANGE, manager.getManagedIncidentById(3).getOnHoldReason());
+		assertNull(manager.getManagedIncidentById(3).getChangeRequest());
+		assertTrue(manager.undo());
+		assertFalse(manager.undo());
+		assertArrayEquals(before, manager.getManagedIncidentsAsArray());
+		assertArrayEquals(counts, manager.getStateCounts());
+		assertNull(manager.getManagedIncidentById(1).getCancellationCode());
+		assertEquals(ResolutionCode.WORKAROUND, manager.getManagedIncidentById(4).getResolutionCode());
+
+		assertEquals(1, manager.claimNextNewIncident("dispatcher", "Mine").getIncidentId());
+		assertEquals(1, manager.getManagedIncidentsAsArrayByOwner("dispatcher").length);
+		assertTrue(manager.undo());
+		assertEquals(0, manager.getManagedIncidentsAsArrayByOwner("dispatcher").length);
+		assertEquals(1, manager.claimNextNewIncident("dispatcher", "Again").getIncidentId());
+	}
+
+	/**
+	 * Test for the capacity of a CommandHistory.
+	 */
+	@Test
+	public void testCapacity() {
+		try {
+			new CommandHistory(0);
+			fail();
+		} catch (IllegalArgumentException e) {
+			//Expected
+		}
+
+		ManagedIncident incident = new ManagedIncident("caller", Category.NETWORK, Priority.LOW, "Name", "Note");
+		Command c = new Command(CommandValue.INVESTIGATE, "owner", null, null, null, "Note");
+		CommandHistory history = new CommandHistory(2);
+		for (int i = 0; i < 3; i++) {
+			history.record(CommandHistory.capture(c, Collections.singletonList(incident)));
+		}
+		assertEquals(2, history.getUndoCount());
+		assertEquals(c, history.takeUndo().getCommand());
+		assertEquals(1, history.getUndoCount());
+		assertEquals(1, history.getRedoCount());
+		assertEquals(incident.getIncidentId(), history.takeRedo().getId(0));
+		assertNull(history.takeRedo());
+		history.clear();
+		assertNull(history.takeUndo());
+	}
+}
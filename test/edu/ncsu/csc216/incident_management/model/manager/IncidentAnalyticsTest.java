@@ -0,0 +1,92 @@
+package edu.ncsu.csc216.incident_management.model.manager;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import edu.ncsu.csc216.incident_management.model.command.Command;
+import edu.ncsu.csc216.incident_management.model.command.Command.CommandValue;
+import edu.ncsu.csc216.incident_management.model.command.Command.OnHoldReason;
+import edu.ncsu.csc216.incident_management.model.command.Command.ResolutionCode;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Category;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Priority;
+import edu.ncsu.csc216.incident_management.model.incident.TransitionLog;
+import edu.ncsu.csc216.incident_management.model.incident.UserIdTable;
+
+/**
+ * This class tests the IncidentAnalytics class
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class IncidentAnalyticsTest {
+
+	/** File containing incidents for testing */
+	private static final String READING_FILE = "test-files/exp_incident_all.xml";
+
+	/** One hour in milliseconds */
+	private static final long HOUR = 60 * 60 * 1000;
+
+	/**
+	 * Test for the figures computed by IncidentAnalytics.
+	 */
+	@Test
+	public void testCompute() {
+		ManagedIncidentList list = new ManagedIncidentList();
+		for (int i = 0; i < 3000; i++) {
+			list.addIncident("caller", i % 2 == 0 ? Category.NETWORK : Category.DATABASE, Priority.HIGH, "Name", "Note");
+		}
+		int owner = UserIdTable.getInstance().getRef("owner");
+		for (int i = 0; i < 3000; i += 3) {
+			ManagedIncident incident = list.getIncidentById(i);
+			incident.update(new Command(CommandValue.INVESTIGATE, "owner", null, null, null, "Mine"));
+			TransitionLog log = new TransitionLog();
+			log.record(ManagedIncident.NEW_INDEX, null, 0, UserIdTable.NO_USER);
+			log.record(ManagedIncident.IN_PROGRESS_INDEX, CommandValue.INVESTIGATE, HOUR, owner);
+			if (i % 2 == 0) {
+				incident.update(new Command(CommandValue.RESOLVE, null, null, ResolutionCode.WORKAROUND, null, "Done"));
+				log.record(ManagedIncident.RESOLVED_INDEX, CommandValue.RESOLVE, (i % 4 == 0 ? 2 : 4) * HOUR, owner);
+			} else {
+				incident.update(new Command(CommandValue.HOLD, null, OnHoldReason.AWAITING_VENDOR, null, null, "Wait"));
+				log.record(ManagedIncident.ON_HOLD_INDEX, CommandValue.HOLD, i < 1500 ? 2 * HOUR : 30 * HOUR, owner);
+			}
+			incident.setTransitionLog(log);
+		}
+
+		IncidentAnalytics analytics = list.getAnalytics(48 * HOUR);
+		assertEquals(500, analytics.getResolvedCount(Category.NETWORK));
+		assertEquals(0, analytics.getResolvedCount(Category.DATABASE));
+		assertEquals(3 * HOUR, analytics.getMeanTimeToResolve(Category.NETWORK));
+		assertEquals(3 * HOUR, analytics.getMeanTimeToResolve(Priority.HIGH));
+		assertEquals(IncidentAnalytics.NO_DATA, analytics.getMeanTimeToResolve(Category.DATABASE));
+		assertEquals(IncidentAnalytics.NO_DATA, analytics.getMeanTimeToResolve(Priority.LOW));
+
+		assertEquals(2000, analytics.getStateCount(ManagedIncident.NEW_INDEX));
+		assertEquals(500, analytics.getStateCount(ManagedIncident.RESOLVED_INDEX));
+		assertEquals(500, analytics.getStateCount(ManagedIncident.ON_HOLD_INDEX));
+
+		assertEquals(250, analytics.getOnHoldCount(OnHoldReason.AWAITING_VENDOR, 0));
+		assertEquals(250, analytics.getOnHoldCount(OnHoldReason.AWAITING_VENDOR, 1));
+		assertEquals(0, analytics.getOnHoldCount(OnHoldReason.AWAITING_VENDOR, 2));
+		assertEquals(0, analytics.getOnHoldCount(OnHoldReason.AWAITING_CALLER, 1));
+		assertEquals(Long.MAX_VALUE, IncidentAnalytics.getAgingBucketLimit(IncidentAnalytics.AGING_BUCKET_COUNT - 1));
+	}
+
+	/**
+	 * Test for the state counts kept by ManagedIncidentList and IncidentManager.
+	 */
+	@Test
+	public void testStateCounts() {
+		IncidentManager manager = IncidentManager.getInstance();
+		manager.createNewManagedIncidentList();
+		manager.loadManagedIncidentsFromFile(READING_FILE);
+		assertArrayEquals(new int[] {1, 1, 1, 1, 1, 1}, manager.getStateCounts());
+
+		manager.executeCommand(1, new Command(CommandValue.INVESTIGATE, "owner", null, null, null, "Mine"));
+		manager.deleteManagedIncidentById(6);
+		assertArrayEquals(new int[] {0, 2, 1, 1, 1, 0}, manager.getStateCounts());
+		assertEquals(2, manager.getAnalytics().getStateCount(ManagedIncident.IN_PROGRESS_INDEX));
+	}
+}
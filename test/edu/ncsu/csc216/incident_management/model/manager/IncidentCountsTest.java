@@ -0,0 +1,87 @@
+package edu.ncsu.csc216.incident_management.model.manager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import edu.ncsu.csc216.incident_management.model.command.Command;
+import edu.ncsu.csc216.incident_management.model.command.Command.CommandValue;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Category;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Priority;
+
+/**
+ * This class tests the IncidentCounts class
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class IncidentCountsTest {
+
+	/** File containing incidents for testing */
+	private static final String READING_FILE = "test-files/exp_incident_all.xml";
+
+	/**
+	 * Test for the counts kept by ManagedIncidentList as incidents are added, updated, and deleted.
+	 */
+	@Test
+	public void testCounts() {
+		IncidentManager manager = IncidentManager.getInstance();
+		manager.createNewManagedIncidentList();
+		manager.loadManagedIncidentsFromFile(READING_FILE);
+
+		IncidentCounts counts = manager.getCounts();
+		assertEquals(6, counts.getTotal());
+		assertEquals(4, counts.getOpenCount());
+		assertEquals(1, counts.getCount(ManagedIncident.NEW_INDEX, Category.SOFTWARE, Priority.URGENT));
+		assertEquals(1, counts.getCount(ManagedIncident.NEW_INDEX, Priority.URGENT));
+		assertEquals(2, counts.getCategoryCount(Category.HARDWARE));
+		assertEquals(0, counts.getCount(ManagedIncident.IN_PROGRESS_INDEX, Category.SOFTWARE, Priority.URGENT));
+
+		manager.executeCommand(1, new Command(CommandValue.INVESTIGATE, "owner", null, null, null, "Mine"));
+		manager.addManagedIncidentToList("caller", Category.SOFTWARE, Priority.URGENT, "Name", "Note");
+		manager.deleteManagedIncidentById(5);
+
+		IncidentCounts after = manager.getCounts();
+		assertEquals(1, after.getCount(ManagedIncident.IN_PROGRESS_INDEX, Category.SOFTWARE, Priority.URGENT));
+		assertEquals(1, after.getCount(ManagedIncident.NEW_INDEX, Category.SOFTWARE, Priority.URGENT));
+		assertEquals(0, after.getStateCount(ManagedIncident.CLOSED_INDEX));
+		assertEquals(6, after.getTotal());
+		assertEquals(1, counts.getStateCount(ManagedIncident.CLOSED_INDEX));
+	}
+
+	/**
+	 * Test for the counts while several threads add and update incidents.
+	 */
+	@Test
+	public void testConcurrentCounts() {
+		final ManagedIncidentList list = new ManagedIncidentList();
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread(new Runnable() {
+				public void run() {
+					for (int i = 0; i < 500; i++) {
+						int id = list.addIncident("caller", Category.NETWORK, Priority.LOW, "Name", "Note");
+						if (i % 5 == 0) {
+							list.executeCommand(id, new Command(CommandValue.INVESTIGATE, "owner", null, null, null, "Mine"));
+						}
+					}
+				}
+			});
+			threads[t].start();
+		}
+		for (int t = 0; t < threads.length; t++) {
+			try {
+				threads[t].join();
+			} catch (InterruptedException e) {
+				fail();
+			}
+		}
+
+		IncidentCounts counts = list.getCounts();
+		assertEquals(2000, counts.getTotal());
+		assertEquals(400, counts.getCount(ManagedIncident.IN_PROGRESS_INDEX, Category.NETWORK, Priority.LOW));
+		assertEquals(1600, counts.getStateCount(ManagedIncident.NEW_INDEX));
+	}
+}
@@ -0,0 +1,308 @@
+package edu.ncsu.csc216.incident_management.model.manager;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import edu.ncsu.csc216.incident.io.IncidentIOException;
+import edu.ncsu.csc216.incident_management.model.command.Command;
+import edu.ncsu.csc216.incident_management.model.command.Command.CancellationCode;
+import edu.ncsu.csc216.incident_management.model.command.Command.CommandValue;
+import edu.ncsu.csc216.incident_management.model.command.Command.OnHoldReason;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Category;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Priority;
+
+/**
+ * This class tests the IncidentEventLog class
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class IncidentEventLogTest {
+
+	/** File containing incidents for testing */
+	private static final String READING_FILE = "test-files/exp_incident_all.xml";
+
+	/** File to save the event log to for testing */
+	private static final String LOG_FILE = "test-files/incident_events.log";
+
+	/**
+	 * Test for rebuilding the managed incidents after each logged event.
+	 */
+	@Test
+	public void testRebuild() {
+		IncidentManager manager = IncidentManager.getInstance();
+		manager.createNewManagedIncidentList();
+		manager.startEventLog(2);
+		try {
+			List<String[][]> states = new ArrayList<String[][]>();
+			states.add(manager.getManagedIncidentsAsArray());
+			states.add(manager.getManagedIncidentsAsArray());
+			manager.loadManagedIncidentsFromFile(READING_FILE);
+			states.add(manager.getManagedIncidentsAsArray());
+			assertEquals(7, manager.addManagedIncidentToList("caller", Category.NETWORK, Priority.HIGH, "Router", "Down"));
+			states.add(manager.getManagedIncidentsAsArray());
+			manager.executeCommand(7, new Command(CommandValue.INVESTIGATE, "owner", null, null, null, "Looking"));
+			states.add(manager.getManagedIncidentsAsArray());
+			manager.executeCommand(2, new Command(CommandValue.HOLD, null, OnHoldReason.AWAITING_CALLER, null, null, "Wait"));
+			states.add(manager.getManagedIncidentsAsArray());
+			manager.executeCommand(new int[] { 1 }, new Command(CommandValue.CANCEL, null, null, null,
+					CancellationCode.DUPLICATE, "Same as 7"));
+			states.add(manager.getManagedIncidentsAsArray());
+			manager.deleteManagedIncidentById(6);
+			states.add(manager.getManagedIncidentsAsArray());
+
+			IncidentEventLog log = manager.getEventLog();
+			assertEquals(7, log.getEventCount());
+			assertEquals(5, log.getSnapshotCount());
+			for (int i = 0; i < states.size(); i++) {
+				assertTableEquals(states.get(i), log.rebuildThrough(i));
+			}
+			assertTableEquals(states.get(7), log.rebuildAt(log.getEventTime(7)));
+			assertEquals(0, manager.getManagedIncidentsAsArrayAt(0).length);
+			assertArrayEquals(states.get(7), manager.getManagedIncidentsAsArrayAt(System.currentTimeMillis()));
+			assertEquals("owner", log.rebuildThrough(4).getIncidentById(7).getOwner());
+			assertNull(log.rebuildThrough(3).getIncidentById(7).getOwner());
+
+			assertEquals(8, manager.addManagedIncidentToList("caller", Category.DATABASE, Priority.LOW, "Backup", "Slow"));
+			assertEquals(8, log.getEventCount());
+		} finally {
+			manager.stopEventLog();
+		}
+		manager.createNewManagedIncidentList();
+		assertNull(manager.getEventLog());
+	}
+
+	/**
+	 * Test for dropping the oldest snapshots and the events before them.
+	 */
+	@Test
+	public void testRetention() {
+		ManagedIncidentList list = new ManagedIncidentList();
+		IncidentEventLog log = new IncidentEventLog(2, 3);
+		list.setEventLog(log);
+		List<String[][]> states = new ArrayList<String[][]>();
+		states.add(new String[0][]);
+		states.add(new String[0][]);
+		for (int i = 1; i <= 9; i++) {
+			list.addIncident("caller" + i, Category.NETWORK, Priority.LOW, "Incident " + i, "Note");
+			states.add(table(list));
+		}
+
+		assertEquals(3, log.getMaxSnapshots());
+		assertEquals(10, log.getEventCount());
+		assertEquals(3, log.getSnapshotCount());
+		assertEquals(5, log.getOldestSequence());
+		for (int i = log.getOldestSequence(); i <= 10; i++) {
+			assertTableEquals(states.get(i), log.rebuildThrough(i));
+		}
+		assertTableEquals(states.get(10), log.rebuild());
+		assertTableEquals(states.get(10), log.rebuildAt(log.getEventTime(10)));
+		try {
+			log.rebuildThrough(4);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals(5, log.getOldestSequence());
+		}
+		try {
+			log.getEventTime(5);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals(10, log.getEventCount());
+		}
+		try {
+			log.rebuildAt(0);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals(3, log.getSnapshotCount());
+		}
+
+		try {
+			log.save(LOG_FILE);
+			IncidentEventLog loaded = IncidentEventLog.load(LOG_FILE);
+			assertEquals(3, loaded.getMaxSnapshots());
+			assertEquals(10, loaded.getEventCount());
+			assertEquals(5, loaded.getOldestSequence());
+			assertTableEquals(states.get(8), loaded.rebuildThrough(8));
+		} catch (IncidentIOException e) {
+			fail(e.getMessage());
+		} finally {
+			assertTrue(new File(LOG_FILE).delete());
+		}
+
+		try {
+			new IncidentEventLog(2, 0);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals(IncidentEventLog.DEFAULT_MAX_SNAPSHOTS, new IncidentEventLog(2).getMaxSnapshots());
+		}
+	}
+
+	/**
+	 * Test for logging undone commands as events rather than snapshots.
+	 */
+	@Test
+	public void testUndo() {
+		IncidentManager manager = IncidentManager.getInstance();
+		manager.createNewManagedIncidentList();
+		manager.startEventLog(IncidentEventLog.DEFAULT_SNAPSHOT_INTERVAL);
+		try {
+			manager.loadManagedIncidentsFromFile(READING_FILE);
+			String[][] loaded = manager.getManagedIncidentsAsArray();
+			manager.addManagedIncidentToList("caller", Category.NETWORK, Priority.HIGH, "Router", "Down");
+			String[][] added = manager.getManagedIncidentsAsArray();
+			manager.executeCommand(7, new Command(CommandValue.INVESTIGATE, "owner", null, null, null, "Looking"));
+			manager.executeCommand(2, new Command(CommandValue.HOLD, null, OnHoldReason.AWAITING_CALLER, null, null, "Wait"));
+			manager.executeCommand(new int[] { 1, 4 }, new Command(CommandValue.CANCEL, null, null, null,
+					CancellationCode.DUPLICATE, "Same as 7"));
+			IncidentEventLog log = manager.getEventLog();
+			int snapshots = log.getSnapshotCount();
+
+			assertTrue(manager.undo());
+			assertTrue(manager.undo());
+			assertTrue(manager.undo());
+			assertArrayEquals(added, manager.getManagedIncidentsAsArray());
+			assertEquals(10, log.getEventCount());
+			assertEquals(snapshots, log.getSnapshotCount());
+			assertTableEquals(added, log.rebuild());
+			assertNull(log.rebuild().getIncidentById(7).getOwner());
+			assertEquals(ManagedIncident.NEW_NAME, log.rebuild().getIncidentById(7).getState().getStateName());
+
+			assertTrue(manager.redo());
+			String[][] expected = manager.getManagedIncidentsAsArray();
+			String notes = manager.getManagedIncidentById(7).getNotesString();
+			manager.saveEventLogToFile(LOG_FILE);
+			manager.createNewManagedIncidentList();
+			manager.recoverFromEventLogFile(LOG_FILE);
+			assertArrayEquals(expected, manager.getManagedIncidentsAsArray());
+			assertEquals(notes, manager.getManagedIncidentById(7).getNotesString());
+			assertEquals("owner", manager.getManagedIncidentById(7).getOwner());
+			assertTableEquals(loaded, manager.getEventLog().rebuildThrough(2));
+		} finally {
+			manager.stopEventLog();
+			assertTrue(new File(LOG_FILE).delete());
+		}
+	}
+
+	/**
+	 * Test for saving an event log and recovering the managed incidents from it.
+	 */
+	@Test
+	public void testRecover() {
+		IncidentManager manager = IncidentManager.getInstance();
+		manager.createNewManagedIncidentList();
+		manager.startEventLog(IncidentEventLog.DEFAULT_SNAPSHOT_INTERVAL);
+		try {
+			manager.loadManagedIncidentsFromFile(READING_FILE);
+			manager.addManagedIncidentToList("caller", Category.NETWORK, Priority.HIGH, "Router", "Down");
+			manager.executeCommand(7, new Command(CommandValue.INVESTIGATE, "owner", null, null, null, "Looking"));
+			manager.deleteManagedIncidentById(3);
+			String[][] expected = manager.getManagedIncidentsAsArray();
+			String notes = manager.getManagedIncidentById(7).getNotesString();
+			manager.saveEventLogToFile(LOG_FILE);
+
+			manager.createNewManagedIncidentList();
+			manager.recoverFromEventLogFile(LOG_FILE);
+			assertArrayEquals(expected, manager.getManagedIncidentsAsArray());
+			assertEquals(notes, manager.getManagedIncidentById(7).getNotesString());
+			assertEquals("owner", manager.getManagedIncidentById(7).getOwner());
+			assertEquals(8, manager.addManagedIncidentToList("caller", Category.DATABASE, Priority.LOW, "Backup", "Slow"));
+			assertEquals(7, manager.getEventLog().getEventCount());
+		} finally {
+			manager.stopEventLog();
+			assertTrue(new File(LOG_FILE).delete());
+		}
+
+		try {
+			manager.recoverFromEventLogFile(READING_FILE);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertNull(manager.getEventLog());
+		}
+		try {
+			IncidentEventLog.load(READING_FILE);
+			fail();
+		} catch (IncidentIOException e) {
+			assertEquals("Not an incident event log", e.getMessage());
+		}
+	}
+
+	/**
+	 * Test for invalid arguments.
+	 */
+	@Test
+	public void testInvalid() {
+		try {
+			new IncidentEventLog(0);
+			fail();
+		} catch (IllegalArgumentException e) {
+			//Expected
+		}
+
+		IncidentEventLog log = new IncidentEventLog();
+		assertEquals(IncidentEventLog.DEFAULT_SNAPSHOT_INTERVAL, log.getSnapshotInterval());
+		try {
+			log.rebuildThrough(1);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals(0, log.getEventCount());
+		}
+		try {
+			log.getEventTime(1);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals(1, log.getSnapshotCount());
+		}
+
+		IncidentManager manager = IncidentManager.getInstance();
+		manager.createNewManagedIncidentList();
+		try {
+			manager.getManagedIncidentsAsArrayAt(0);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertNull(manager.getEventLog());
+		}
+	}
+
+	/**
+	 * Builds a table of the incidents in a list in the format of IncidentManager.
+	 * @param list list of incidents
+	 * @return table of the id, state name, and name of each incident
+	 */
+	private static String[][] table(ManagedIncidentList list) {
+		List<ManagedIncident> incidents = list.getManagedIncidents();
+		String[][] table = new String[incidents.size()][IncidentManager.COLUMNS];
+		for (int i = 0; i < table.length; i++) {
+			ManagedIncident incident = incidents.get(i);
+			table[i][IncidentManager.ID_INDEX] = Integer.toString(incident.getIncidentId());
+			table[i][IncidentManager.STATE_NAME_INDEX] = incident.getState().getStateName();
+			table[i][IncidentManager.NAME_INDEX] = incident.getName();
+		}
+		return table;
+	}
+
+	/**
+	 * Checks that a rebuilt list has the incidents of a table from IncidentManager.
+	 * @param expected table of the incidents expected
+	 * @param list rebuilt list
+	 */
+	private static void assertTableEquals(String[][] expected, ManagedIncidentList list) {
+		List<ManagedIncident> incidents = list.getManagedIncidents();
+		assertEquals(expected.length, incidents.size());
+		for (int i = 0; i < expected.length; i++) {
+			ManagedIncident incident = incidents.get(i);
+			assertEquals(expected[i][IncidentManager.ID_INDEX], Integer.toString(incident.getIncidentId()));
+			assertEquals(expected[i][IncidentManager.STATE_NAME_INDEX], incident.getState().getStateName());
+			assertEquals(expected[i][IncidentManager.NAME_INDEX], incident.getName());
+		}
+	}
+}
@@ -1,8 +1,11 @@
 package edu.ncsu.csc216.incident_management.model.manager;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 
@@ -13,6 +16,7 @@ import edu.ncsu.csc216.incident_management.model.command.Command.CommandValue;
 import edu.ncsu.csc216.incident_management.model.command.Command.OnHoldReason;
 import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Category;
 import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Priority;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.UpdateResult;
 
 /**
  * This class tests the IncidentManager class
@@ -226,4 +230,170 @@ public class IncidentManagerTest {
 		IncidentManager.getInstance().addManagedIncidentToList(CALLER, CATEGORY, PRIORITY, NAME, WORK_NOTE);
 		assertEquals(IncidentManager.getInstance().getManagedIncidentsAsArray().length, 2);
 	}
+	
+	/**
+	 * Test for getManagedIncidentsAsArrayByOwner() and getManagedIncidentsAsArrayByCaller() 
+	 * in IncidentManager.
+	 */
+	@Test
+	public void testGetManagedIncidentsAsArrayByOwnerAndCaller() {
+		IncidentManager.getInstance().createNewManagedIncidentList();
+		IncidentManager.getInstance().loadManagedIncidentsFromFile(READING_FILE);
+		
+		String[][] owned = IncidentManager.getInstance().getManagedIncidentsAsArrayByOwner("cjgurley");
+		assertEquals(1, owned.length);
+		assertEquals("2", owned[0][IncidentManager.ID_INDEX]);
+		
+		String[][] called = IncidentManager.getInstance().getManagedIncidentsAsArrayByCaller("sesmith5");
+		assertEquals(2, called.length);
+		assertEquals("1", called[0][IncidentManager.ID_INDEX]);
+		assertEquals("Jenkins VM Hard Drive", called[1][IncidentManager.NAME_INDEX]);
+		
+		IncidentManager.getInstance().executeCommand(1, new Command(CommandValue.INVESTIGATE, "cjgurley", null, null, null, "Taking it"));
+		assertEquals(2, IncidentManager.getInstance().getManagedIncidentsAsArrayByOwner("cjgurley").length);
+	}
+	
+	/**
+	 * Test for getManagedIncidentsAsArraySortedByPriority() and 
+	 * getManagedIncidentsAsArraySortedById() in IncidentManager.
+	 */
+	@Test
+	public void testGetManagedIncidentsAsArraySorted() {
+		IncidentManager.getInstance().createNewManagedIncidentList();
+		IncidentManager.getInstance().addManagedIncidentToList(CALLER, CATEGORY, Priority.LOW, NAME, WORK_NOTE);
+		IncidentManager.getInstance().addManagedIncidentToList(CALLER, CATEGORY, Priority.URGENT, NAME, WORK_NOTE);
+		
+		String[][] byPriority = IncidentManager.getInstance().getManagedIncidentsAsArraySortedByPriority();
+		assertEquals("1", byPriority[0][IncidentManager.ID_INDEX]);
+		assertEquals("Urgent", byPriority[0][IncidentManager.PRIORITY_INDEX]);
+		assertEquals("0", byPriority[1][IncidentManager.ID_INDEX]);
+		
+		String[][] byId = IncidentManager.getInstance().getManagedIncidentsAsArraySortedById();
+		assertEquals("0", byId[0][IncidentManager.ID_INDEX]);
+		assertEquals("1", byId[1][IncidentManager.ID_INDEX]);
+	}
+	
+	/**
+	 * Test for the paged getManagedIncidentsAsArray() methods in IncidentManager.
+	 */
+	@Test
+	public void testGetManagedIncidentsAsArrayPaged() {
+		IncidentManager.getInstance().createNewManagedIncidentList();
+		IncidentManager.getInstance().loadManagedIncidentsFromFile(READING_FILE);
+		
+		String[][] page = IncidentManager.getInstance().getManagedIncidentsAsArray(2, 3);
+		assertEquals(3, page.length);
+		assertEquals("3", page[0][IncidentManager.ID_INDEX]);
+		assertEquals("5", page[2][IncidentManager.ID_INDEX]);
+		assertEquals(1, IncidentManager.getInstance().getManagedIncidentsAsArray(5, 3).length);
+		assertEquals(0, IncidentManager.getInstance().getManagedIncidentsAsArray(10, 3).length);
+		
+		page = IncidentManager.getInstance().getManagedIncidentsAsArrayByCategory(Category.HARDWARE, 1, 5);
+		assertEquals(1, page.length);
+		assertEquals("3", page[0][IncidentManager.ID_INDEX]);
+		
+		page = IncidentManager.getInstance().getManagedIncidentsAsArrayAfterId(-1, 4);
+		assertEquals(4, page.length);
+		page = IncidentManager.getInstance().getManagedIncidentsAsArrayAfterId(Integer.parseInt(page[3][IncidentManager.ID_INDEX]), 4);
+		assertEquals(2, page.length);
+		assertEquals("5", page[0][IncidentManager.ID_INDEX]);
+		
+		page = IncidentManager.getInstance().getManagedIncidentsAsArrayAfterId(1, 1, IncidentQuery.category(Category.SOFTWARE));
+		assertEquals(1, page.length);
+		assertEquals("4", page[0][IncidentManager.ID_INDEX]);
+		
+		try {
+			IncidentManager.getInstance().getManagedIncidentsAsArray(-1, 3);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertNull(e.getMessage());
+		}
+	}
+	
+	/**
+	 * Test for canApply() and tryExecuteCommand() in IncidentManager.
+	 */
+	@Test
+	public void testTryExecuteCommand() {
+		IncidentManager.getInstance().createNewManagedIncidentList();
+		IncidentManager.getInstance().loadManagedIncidentsFromFile(READING_FILE);
+		Command investigate = new Command(CommandValue.INVESTIGATE, "owner", null, null, null, "Mine");
+		
+		assertTrue(IncidentManager.getInstance().canApply(1, CommandValue.INVESTIGATE));
+		assertFalse(IncidentManager.getInstance().canApply(2, CommandValue.INVESTIGATE));
+		assertFalse(IncidentManager.getInstance().canApply(40, CommandValue.INVESTIGATE));
+		
+		assertEquals(UpdateResult.NO_SUCH_INCIDENT, IncidentManager.getInstance().tryExecuteCommand(40, investigate));
+		assertEquals(UpdateResult.INVALID_TRANSITION, IncidentManager.getInstance().tryExecuteCommand(6, investigate));
+		assertEquals(UpdateResult.INVALID_TRANSITION, IncidentManager.getInstance().tryExecuteCommand(1, null));
+		assertEquals(UpdateResult.APPLIED, IncidentManager.getInstance().tryExecuteCommand(1, investigate));
+		assertEquals("owner", IncidentManager.getInstance().getManagedIncidentById(1).getOwner());
+		assertEquals(1, IncidentManager.getInstance().getManagedIncidentsAsArrayByOwner("owner").length);
+	}
+	
+	/**
+	 * Test for building IncidentManagers that are independent of each other.
+	 */
+	@Test
+	public void testBuilder() {
+		IncidentManager first = new IncidentManager.Builder().build();
+		IncidentManager second = new IncidentManager.Builder().eventLog(10).build();
+		try {
+			assertNotEquals(first.getName(), second.getName());
+			assertNotNull(first.getMetrics().getObjectName());
+			assertNotNull(second.getEventLog());
+			assertNull(first.getEventLog());
+			
+			first.loadManagedIncidentsFromFile(READING_FILE);
+			assertEquals(0, second.addManagedIncidentToList("caller", Category.NETWORK, Priority.LOW, "Down", "Note"));
+			assertEquals(7, first.addManagedIncidentToList("caller", Category.NETWORK, Priority.LOW, "Down", "Note"));
+			assertEquals(1, second.addManagedIncidentToList("caller", Category.NETWORK, Priority.LOW, "Slow", "Note"));
+			assertEquals(7, first.getManagedIncidentsAsArray().length);
+			assertEquals(2, second.getManagedIncidentsAsArray().length);
+			
+			first.executeCommand(1, new Command(CommandValue.INVESTIGATE, "owner", null, null, null, "Mine"));
+			assertEquals(1, first.getManagedIncidentsAsArrayByOwner("owner").length);
+			assertEquals(0, second.getManagedIncidentsAsArrayByOwner("owner").length);
+			assertEquals(3, second.getEventLog().getEventCount());
+		} finally {
+			first.close();
+			second.close();
+		}
+		assertNull(first.getMetrics().getObjectName());
+		
+		IncidentManager named = new IncidentManager.Builder().name("Named").registerMetrics(false).build();
+		assertEquals("Named", named.getName());
+		assertNull(named.getMetrics().getObjectName());
+		assertEquals(IncidentManager.DEFAULT_NAME, IncidentManager.getInstance().getName());
+		
+		IncidentManager registered = new IncidentManager.Builder().name("Named").build();
+		try {
+			assertNotNull(registered.getMetrics().getObjectName());
+			try {
+				new IncidentManager.Builder().name("Named").build();
+				fail();
+			} catch (IllegalArgumentException e) {
+				assertEquals("Metrics could not be registered as Named", e.getMessage());
+			}
+			assertNull(new IncidentManager.Builder().name("Named").registerMetrics(false).build()
+					.getMetrics().getObjectName());
+		} finally {
+			registered.close();
+		}
+		IncidentManager again = new IncidentManager.Builder().name("Named").build();
+		assertNotNull(again.getMetrics().getObjectName());
+		again.close();
+		try {
+			new IncidentManager.Builder().name(IncidentManager.DEFAULT_NAME).build();
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals(IncidentManager.DEFAULT_NAME, IncidentManager.getInstance().getName());
+		}
+		try {
+			new IncidentManager.Builder().eventLog(0);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertNull(e.getMessage());
+		}
+	}
 }
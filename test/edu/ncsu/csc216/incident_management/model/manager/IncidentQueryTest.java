@@ -0,0 +1,163 @@
+package edu.ncsu.csc216.incident_management.model.manager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import edu.ncsu.csc216.incident_management.model.command.Command;
+import edu.ncsu.csc216.incident_management.model.command.Command.CommandValue;
+import edu.ncsu.csc216.incident_management.model.command.Command.OnHoldReason;
+import edu.ncsu.csc216.incident_management.model.command.Command.ResolutionCode;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Category;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Priority;
+import edu.ncsu.csc216.incident_management.model.incident.UserIdTable;
+
+/**
+ * This class tests the IncidentQuery class
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class IncidentQueryTest {
+
+	/** File containing incidents for testing */
+	private static final String READING_FILE = "test-files/exp_incident_all.xml";
+
+	/**
+	 * Test for owner and caller queries on user ids that no incident has.
+	 */
+	@Test
+	public void testUnknownUser() {
+		int size = UserIdTable.getInstance().size();
+		IncidentQuery query = IncidentQuery.owner("nobody-" + System.nanoTime());
+		assertEquals(size, UserIdTable.getInstance().size());
+
+		ManagedIncidentList list = new ManagedIncidentList();
+		int id = list.addIncident("caller", Category.NETWORK, Priority.HIGH, "Name", "Note");
+		assertFalse(query.matches(list.getIncidentById(id)));
+		assertEquals(0, list.getIncidents(query).size());
+		assertEquals(0, list.getIncidents(IncidentQuery.caller("nobody-" + System.nanoTime())).size());
+
+		IncidentQuery later = IncidentQuery.owner("later-owner");
+		list.executeCommand(id, new Command(CommandValue.INVESTIGATE, "later-owner", null, null, null, "Mine"));
+		assertEquals(1, list.getIncidents(later).size());
+		assertTrue(later.matches(list.getIncidentById(id)));
+	}
+
+	/**
+	 * Test for the factory methods and matches() in IncidentQuery.
+	 */
+	@Test
+	public void testMatches() {
+		ManagedIncident incident = new ManagedIncident("caller", Category.NETWORK, Priority.HIGH, "Name", "Note");
+		incident.update(new Command(CommandValue.INVESTIGATE, "owner", null, null, null, "Mine"));
+		incident.update(new Command(CommandValue.HOLD, null, OnHoldReason.AWAITING_VENDOR, null, null, "Wait"));
+
+		assertTrue(IncidentQuery.category(Category.NETWORK).matches(incident));
+		assertFalse(IncidentQuery.category(Category.DATABASE).matches(incident));
+		assertTrue(IncidentQuery.priority(Priority.HIGH).matches(incident));
+		assertTrue(IncidentQuery.state(ManagedIncident.ON_HOLD_NAME).matches(incident));
+		assertTrue(IncidentQuery.owner("owner").matches(incident));
+		assertFalse(IncidentQuery.owner("caller").matches(incident));
+		assertTrue(IncidentQuery.caller("caller").matches(incident));
+		assertTrue(IncidentQuery.onHoldReason(OnHoldReason.AWAITING_VENDOR).matches(incident));
+		assertFalse(IncidentQuery.resolutionCode(ResolutionCode.WORKAROUND).matches(incident));
+
+		assertTrue(IncidentQuery.category(Category.NETWORK).and(IncidentQuery.owner("owner")).matches(incident));
+		assertFalse(IncidentQuery.category(Category.DATABASE).and(IncidentQuery.owner("owner")).matches(incident));
+		assertTrue(IncidentQuery.category(Category.DATABASE).or(IncidentQuery.owner("owner")).matches(incident));
+
+		try {
+			IncidentQuery.state("Sleeping");
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertNull(e.getMessage());
+		}
+
+		try {
+			IncidentQuery.owner(null);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertNull(e.getMessage());
+		}
+
+		try {
+			IncidentQuery.category(Category.NETWORK).and(null);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertNull(e.getMessage());
+		}
+	}
+
+	/**
+	 * Test for getIncidents() in ManagedIncidentList and getManagedIncidentsAsArray()
+	 * in IncidentManager with a query.
+	 */
+	@Test
+	public void testRunQuery() {
+		IncidentManager manager = IncidentManager.getInstance();
+		manager.createNewManagedIncidentList();
+		manager.loadManagedIncidentsFromFile(READING_FILE);
+
+		String[][] rows = manager.getManagedIncidentsAsArray(IncidentQuery.caller("sesmith5")
+				.and(IncidentQuery.state(ManagedIncident.IN_PROGRESS_NAME)));
+		assertEquals(1, rows.length);
+		assertEquals("2", rows[0][IncidentManager.ID_INDEX]);
+
+		rows = manager.getManagedIncidentsAsArray(IncidentQuery.owner("wheckma").or(IncidentQuery.owner("itecs")));
+		assertEquals(2, rows.length);
+		assertEquals("4", rows[0][IncidentManager.ID_INDEX]);
+		assertEquals("5", rows[1][IncidentManager.ID_INDEX]);
+
+		rows = manager.getManagedIncidentsAsArray(IncidentQuery.priority(Priority.MEDIUM)
+				.and(IncidentQuery.resolutionCode(ResolutionCode.CALLER_CLOSED).or(IncidentQuery.category(Category.SOFTWARE))));
+		assertEquals(2, rows.length);
+
+		manager.deleteManagedIncidentById(4);
+		rows = manager.getManagedIncidentsAsArray(IncidentQuery.owner("wheckma").or(IncidentQuery.owner("itecs")));
+		assertEquals(1, rows.length);
+		assertEquals("5", rows[0][IncidentManager.ID_INDEX]);
+
+		try {
+			manager.getManagedIncidentsAsArray(null);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertNull(e.getMessage());
+		}
+	}
+
+	/**
+	 * Test for running queries against a list large enough to be scanned in parallel.
+	 */
+	@Test
+	public void testLargeList() {
+		ManagedIncidentList list = new ManagedIncidentList();
+		Category[] categories = Category.values();
+		for (int i = 0; i < 10000; i++) {
+			int id = list.addIncident("caller" + (i % 10), categories[i % categories.length], Priority.LOW, "Name", "Note");
+			if (i % 100 == 0) {
+				list.executeCommand(id, new Command(CommandValue.INVESTIGATE, "owner", null, null, null, "Mine"));
+			}
+		}
+
+		List<ManagedIncident> software = list.getIncidents(IncidentQuery.category(Category.SOFTWARE));
+		assertEquals(2000, software.size());
+		assertEquals(1, software.get(0).getIncidentId());
+		assertEquals(9996, software.get(1999).getIncidentId());
+
+		List<ManagedIncident> owned = list.getIncidents(IncidentQuery.category(Category.INQUIRY)
+				.and(IncidentQuery.owner("owner")));
+		assertEquals(100, owned.size());
+		assertEquals(ManagedIncident.IN_PROGRESS_NAME, owned.get(99).getState().getStateName());
+
+		assertEquals(1000, list.getIncidents(IncidentQuery.caller("caller3")).size());
+		assertEquals(1100, list.getIncidents(IncidentQuery.caller("caller3").or(IncidentQuery.owner("owner"))).size());
+	}
+}
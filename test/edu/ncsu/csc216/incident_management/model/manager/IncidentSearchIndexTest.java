@@ -0,0 +1,87 @@
+package edu.ncsu.csc216.incident_management.model.manager;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.util.HashMap;
+
+import org.junit.Test;
+
+import edu.ncsu.csc216.incident_management.model.command.Command;
+import edu.ncsu.csc216.incident_management.model.command.Command.CommandValue;
+
+/**
+ * This class tests the IncidentSearchIndex class
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class IncidentSearchIndexTest {
+
+	/** File containing incidents for testing */
+	private static final String READING_FILE = "test-files/exp_incident_all.xml";
+
+	/**
+	 * Test for addText(), removeText(), and search() in IncidentSearchIndex.
+	 */
+	@Test
+	public void testSearch() {
+		final HashMap<Integer, String> texts = new HashMap<Integer, String>();
+		texts.put(3, "Jenkins VM is down. Restart the Jenkins VM.");
+		texts.put(1, "Install Jenkins");
+		texts.put(2, "VM disk full");
+
+		IncidentSearchIndex index = new IncidentSearchIndex();
+		index.addText(3, texts.get(3));
+		index.addText(1, texts.get(1));
+		index.addText(2, texts.get(2));
+
+		assertArrayEquals(new int[] {3, 1}, index.search("jenkins", id -> texts.get(id)));
+		assertArrayEquals(new int[] {3, 2}, index.search("VM", id -> texts.get(id)));
+		assertArrayEquals(new int[] {3}, index.search("Jenkins vm", id -> texts.get(id)));
+		assertArrayEquals(new int[] {3}, index.search("\"jenkins vm\"", id -> texts.get(id)));
+		assertArrayEquals(new int[0], index.search("\"vm jenkins\"", id -> texts.get(id)));
+		assertArrayEquals(new int[0], index.search("printer", id -> texts.get(id)));
+
+		index.removeText(3, texts.get(3));
+		assertArrayEquals(new int[] {1}, index.search("jenkins", id -> texts.get(id)));
+		assertEquals(5, index.getTermCount());
+
+		try {
+			index.search("   ", id -> texts.get(id));
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertNull(e.getMessage());
+		}
+	}
+
+	/**
+	 * Test for getManagedIncidentsAsArrayBySearch() in IncidentManager.
+	 */
+	@Test
+	public void testIncidentManagerSearch() {
+		IncidentManager manager = IncidentManager.getInstance();
+		manager.createNewManagedIncidentList();
+		manager.loadManagedIncidentsFromFile(READING_FILE);
+
+		String[][] rows = manager.getManagedIncidentsAsArrayBySearch("Jenkins");
+		assertEquals(3, rows.length);
+		assertEquals("1", rows[0][IncidentManager.ID_INDEX]);
+		assertEquals("2", rows[1][IncidentManager.ID_INDEX]);
+		assertEquals("3", rows[2][IncidentManager.ID_INDEX]);
+
+		rows = manager.getManagedIncidentsAsArrayBySearch("\"hard drive capacity\" VM");
+		assertEquals(2, rows.length);
+
+		assertEquals(0, manager.getManagedIncidentsAsArrayBySearch("escalated").length);
+		manager.executeCommand(1, new Command(CommandValue.INVESTIGATE, "owner", null, null, null, "Escalated to vendor"));
+		rows = manager.getManagedIncidentsAsArrayBySearch("escalated");
+		assertEquals(1, rows.length);
+		assertEquals("1", rows[0][IncidentManager.ID_INDEX]);
+
+		manager.deleteManagedIncidentById(1);
+		assertEquals(0, manager.getManagedIncidentsAsArrayBySearch("escalated").length);
+	}
+}
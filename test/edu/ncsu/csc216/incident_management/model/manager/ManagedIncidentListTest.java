@@ -1,10 +1,13 @@
 package edu.ncsu.csc216.incident_management.model.manager;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.Test;
 
@@ -12,6 +15,7 @@ import edu.ncsu.csc216.incident.io.IncidentIOException;
 import edu.ncsu.csc216.incident.io.IncidentReader;
 import edu.ncsu.csc216.incident.xml.Incident;
 import edu.ncsu.csc216.incident_management.model.command.Command;
+import edu.ncsu.csc216.incident_management.model.command.Command.CancellationCode;
 import edu.ncsu.csc216.incident_management.model.command.Command.CommandValue;
 import edu.ncsu.csc216.incident_management.model.command.Command.OnHoldReason;
 import edu.ncsu.csc216.incident_management.model.command.Command.ResolutionCode;
@@ -180,6 +184,17 @@ public class ManagedIncidentListTest {
 			catch (Exception e) {
 				fail();
 			}
+			assertEquals(ManagedIncident.ON_HOLD_NAME, list.getIncidentById(2).getState().getStateName());
+			
+			try {
+				list.executeCommand(99, new Command(CommandValue.INVESTIGATE, "owner", null, null, null, "Mine"));
+				fail();
+			} catch (IllegalArgumentException e) {
+				assertEquals(ManagedIncident.NEW_NAME, list.getIncidentById(1).getState().getStateName());
+				assertTrue(list.undo());
+				assertEquals(ManagedIncident.IN_PROGRESS_NAME, list.getIncidentById(2).getState().getStateName());
+				assertFalse(list.undo());
+			}
 		}
 		catch (IncidentIOException e) {
 			fail();
@@ -270,4 +285,254 @@ public class ManagedIncidentListTest {
 			assertEquals("IncidentIOException - error processing incident list", e.getMessage());
 		}
 	}
+	
+	/**
+	 * Test for getIncidentsByOwner() and getIncidentsByCaller() in ManagedIncidentList.
+	 */
+	@Test
+	public void testGetIncidentsByOwnerAndCaller() {
+		ManagedIncidentList list = new ManagedIncidentList();
+		int first = list.addIncident(CALLER, CATEGORY, PRIORITY, NAME, WORK_NOTE);
+		int second = list.addIncident(CALLER, CATEGORY, PRIORITY, NAME, WORK_NOTE);
+		list.addIncident("otherCaller", CATEGORY, PRIORITY, NAME, WORK_NOTE);
+		
+		try {
+			list.getIncidentsByOwner(null);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertNull(e.getMessage());
+		}
+		
+		assertEquals(2, list.getIncidentsByCaller(CALLER).size());
+		assertEquals(1, list.getIncidentsByCaller("otherCaller").size());
+		assertEquals(0, list.getIncidentsByCaller("nobody").size());
+		assertEquals(0, list.getIncidentsByOwner("owner1").size());
+		
+		list.executeCommand(first, new Command(CommandValue.INVESTIGATE, "owner1", null, null, null, "Mine"));
+		list.executeCommand(second, new Command(CommandValue.INVESTIGATE, "owner2", null, null, null, "Mine"));
+		assertEquals(1, list.getIncidentsByOwner("owner1").size());
+		assertEquals(first, list.getIncidentsByOwner("owner1").get(0).getIncidentId());
+		assertEquals(second, list.getIncidentsByOwner("owner2").get(0).getIncidentId());
+		
+		list.deleteIncidentById(first);
+		assertEquals(0, list.getIncidentsByOwner("owner1").size());
+		assertEquals(1, list.getIncidentsByCaller(CALLER).size());
+	}
+	
+	/**
+	 * Test for getIncidentsSortedById() and getIncidentsSortedByPriority() in ManagedIncidentList.
+	 */
+	@Test
+	public void testSortedViews() {
+		ManagedIncidentList list = new ManagedIncidentList();
+		list.addIncident(CALLER, CATEGORY, Priority.LOW, NAME, WORK_NOTE);
+		list.addIncident(CALLER, CATEGORY, Priority.URGENT, NAME, WORK_NOTE);
+		list.addIncident(CALLER, CATEGORY, Priority.MEDIUM, NAME, WORK_NOTE);
+		list.addIncident(CALLER, CATEGORY, Priority.URGENT, NAME, WORK_NOTE);
+		
+		List<ManagedIncident> byPriority = list.getIncidentsSortedByPriority();
+		assertEquals(4, byPriority.size());
+		assertEquals(1, byPriority.get(0).getIncidentId());
+		assertEquals(3, byPriority.get(1).getIncidentId());
+		assertEquals(2, byPriority.get(2).getIncidentId());
+		assertEquals(0, byPriority.get(3).getIncidentId());
+		
+		list.deleteIncidentById(1);
+		byPriority = list.getIncidentsSortedByPriority();
+		assertEquals(3, byPriority.size());
+		assertEquals(3, byPriority.get(0).getIncidentId());
+		
+		List<ManagedIncident> byId = list.getIncidentsSortedById();
+		assertEquals(0, byId.get(0).getIncidentId());
+		assertEquals(2, byId.get(1).getIncidentId());
+		assertEquals(3, byId.get(2).getIncidentId());
+	}
+	
+	/**
+	 * Test for claimNextNewIncident() in ManagedIncidentList.
+	 */
+	@Test
+	public void testClaimNextNewIncident() {
+		ManagedIncidentList list = new ManagedIncidentList();
+		list.addIncident(CALLER, CATEGORY, Priority.LOW, NAME, WORK_NOTE);
+		list.addIncident(CALLER, CATEGORY, Priority.URGENT, NAME, WORK_NOTE);
+		list.addIncident(CALLER, CATEGORY, Priority.HIGH, NAME, WORK_NOTE);
+		list.addIncident(CALLER, CATEGORY, Priority.URGENT, NAME, WORK_NOTE);
+		list.executeCommand(3, new Command(CommandValue.CANCEL, null, null, null, CancellationCode.DUPLICATE, "Dup"));
+		list.deleteIncidentById(2);
+		assertEquals(2, list.getNewIncidentCount());
+		
+		try {
+			list.claimNextNewIncident("", WORK_NOTE);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertNull(e.getMessage());
+		}
+		
+		ManagedIncident claimed = list.claimNextNewIncident("dispatcher", "Taking it");
+		assertEquals(1, claimed.getIncidentId());
+		assertEquals(ManagedIncident.IN_PROGRESS_NAME, claimed.getState().getStateName());
+		assertEquals("dispatcher", claimed.getOwner());
+		assertEquals(1, list.getIncidentsByOwner("dispatcher").size());
+		
+		assertEquals(0, list.claimNextNewIncident("dispatcher", "Taking it").getIncidentId());
+		assertNull(list.claimNextNewIncident("dispatcher", "Taking it"));
+	}
+	
+	/**
+	 * Test for claimNextNewIncident() in ManagedIncidentList with several dispatchers.
+	 */
+	@Test
+	public void testClaimNextNewIncidentConcurrently() {
+		final ManagedIncidentList list = new ManagedIncidentList();
+		for (int i = 0; i < 2000; i++) {
+			list.addIncident(CALLER, CATEGORY, Priority.values()[i % 4], NAME, WORK_NOTE);
+		}
+		
+		final int[] claims = new int[8];
+		Thread[] dispatchers = new Thread[claims.length];
+		for (int i = 0; i < dispatchers.length; i++) {
+			final int dispatcher = i;
+			dispatchers[i] = new Thread() {
+				public void run() {
+					while (list.claimNextNewIncident("dispatcher" + dispatcher, "Claimed") != null) {
+						claims[dispatcher]++;
+					}
+				}
+			};
+			dispatchers[i].start();
+		}
+		
+		int total = 0;
+		for (int i = 0; i < dispatchers.length; i++) {
+			try {
+				dispatchers[i].join();
+			} catch (InterruptedException e) {
+				fail();
+			}
+			assertEquals(claims[i], list.getIncidentsByOwner("dispatcher" + i).size());
+			total += claims[i];
+		}
+		assertEquals(2000, total);
+		for (ManagedIncident incident : list.getManagedIncidents()) {
+			assertEquals(2, incident.getNoteCount());
+		}
+	}
+	
+	/**
+	 * Test for the pages of the incidents matched by a query in ManagedIncidentList.
+	 */
+	@Test
+	public void testGetIncidentsPaged() {
+		ManagedIncidentList list = new ManagedIncidentList();
+		Category[] categories = Category.values();
+		for (int i = 0; i < 100; i++) {
+			list.addIncident(CALLER, categories[i % categories.length], Priority.LOW, NAME, WORK_NOTE);
+		}
+		
+		IncidentQuery query = IncidentQuery.category(categories[2]);
+		List<ManagedIncident> all = list.getIncidents(query);
+		assertEquals(20, all.size());
+		assertEquals(all.subList(0, 7), list.getIncidents(query, 0, 7));
+		assertEquals(all.subList(7, 14), list.getIncidents(query, 7, 7));
+		assertEquals(all.subList(14, 20), list.getIncidents(query, 14, 7));
+		assertEquals(0, list.getIncidents(query, 20, 7).size());
+		assertEquals(0, list.getIncidents(query, 3, 0).size());
+		try {
+			list.getIncidents(query, -1, 7);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertNull(e.getMessage());
+		}
+	}
+	
+	/**
+	 * Test for querying ManagedIncidentList while dispatchers claim incidents.
+	 */
+	@Test
+	public void testQueriesDuringClaims() {
+		final ManagedIncidentList list = new ManagedIncidentList();
+		for (int i = 0; i < 2000; i++) {
+			list.addIncident(CALLER, CATEGORY, Priority.values()[i % 4], NAME, WORK_NOTE);
+		}
+		
+		final Throwable[] failure = new Throwable[1];
+		final AtomicBoolean done = new AtomicBoolean();
+		Thread reader = new Thread() {
+			public void run() {
+				try {
+					while (!done.get()) {
+						list.getManagedIncidents().size();
+						list.getIncidentsSortedById().size();
+						list.getIncidentsByOwner("dispatcher0").size();
+						list.getIncidents(IncidentQuery.owner("dispatcher1").or(IncidentQuery.priority(Priority.LOW)));
+						list.getIncidentsAfterId(100, 50, IncidentQuery.owner("dispatcher0"));
+						list.searchIncidents("Claimed");
+					}
+				} catch (RuntimeException e) {
+					failure[0] = e;
+				}
+			}
+		};
+		reader.start();
+		Thread[] dispatchers = new Thread[4];
+		for (int i = 0; i < dispatchers.length; i++) {
+			final int dispatcher = i;
+			dispatchers[i] = new Thread() {
+				public void run() {
+					while (list.claimNextNewIncident("dispatcher" + dispatcher, "Claimed") != null) {
+						//Keep claiming
+					}
+				}
+			};
+			dispatchers[i].start();
+		}
+		
+		try {
+			for (int i = 0; i < dispatchers.length; i++) {
+				dispatchers[i].join();
+			}
+			done.set(true);
+			reader.join();
+		} catch (InterruptedException e) {
+			fail();
+		}
+		assertNull(failure[0]);
+		assertEquals(0, list.getNewIncidentCount());
+		assertEquals(2000, list.searchIncidents("Claimed").size());
+	}
+	
+	/**
+	 * Test for executing a command on several incidents in ManagedIncidentList.
+	 */
+	@Test
+	public void testExecuteCommandOnIds() {
+		ManagedIncidentList list = new ManagedIncidentList();
+		list.addIncident(CALLER, CATEGORY, PRIORITY, NAME, WORK_NOTE);
+		list.addIncident(CALLER, CATEGORY, PRIORITY, NAME, WORK_NOTE);
+		list.addIncident(CALLER, CATEGORY, PRIORITY, NAME, WORK_NOTE);
+		list.executeCommand(2, new Command(CommandValue.CANCEL, null, null, null, CancellationCode.DUPLICATE, "Dup"));
+		
+		Command investigate = new Command(CommandValue.INVESTIGATE, "owner", null, null, null, "Mine");
+		try {
+			list.executeCommand(new int[] {0, 1, 2}, investigate);
+			fail();
+		} catch (UnsupportedOperationException e) {
+			assertEquals(ManagedIncident.NEW_NAME, list.getIncidentById(0).getState().getStateName());
+		}
+		
+		try {
+			list.executeCommand(new int[] {0, 7}, investigate);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals(ManagedIncident.NEW_NAME, list.getIncidentById(0).getState().getStateName());
+		}
+		
+		list.executeCommand(new int[] {1, 0, 1}, investigate);
+		assertEquals(ManagedIncident.IN_PROGRESS_NAME, list.getIncidentById(0).getState().getStateName());
+		assertEquals(ManagedIncident.IN_PROGRESS_NAME, list.getIncidentById(1).getState().getStateName());
+		assertEquals(2, list.getIncidentById(1).getNoteCount());
+		assertEquals(2, list.getIncidentsByOwner("owner").size());
+		assertEquals(0, list.getNewIncidentCount());
+	}
 }
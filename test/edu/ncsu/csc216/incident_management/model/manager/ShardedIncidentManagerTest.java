@@ -0,0 +1,231 @@
+package edu.ncsu.csc216.incident_management.model.manager;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import edu.ncsu.csc216.incident_management.model.command.Command;
+import edu.ncsu.csc216.incident_management.model.command.Command.CancellationCode;
+import edu.ncsu.csc216.incident_management.model.command.Command.CommandValue;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Category;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Priority;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.UpdateResult;
+
+/**
+ * This class tests the ShardedIncidentManager class
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class ShardedIncidentManagerTest {
+
+	/** File containing incidents for testing */
+	private static final String READING_FILE = "test-files/exp_incident_all.xml";
+
+	/** File to save incidents to for testing */
+	private static final String WRITING_FILE = "test-files/sharded_incidents.xml";
+
+	/**
+	 * Test for loading, querying, and saving incidents across shards.
+	 */
+	@Test
+	public void testLoadAndQuery() {
+		IncidentManager single = IncidentManager.getInstance();
+		single.createNewManagedIncidentList();
+		single.loadManagedIncidentsFromFile(READING_FILE);
+		int counter = ManagedIncident.getCounter();
+
+		ShardedIncidentManager manager = new ShardedIncidentManager();
+		manager.loadManagedIncidentsFromFile(READING_FILE);
+		assertArrayEquals(single.getManagedIncidentsAsArraySortedById(), manager.getManagedIncidentsAsArray());
+		assertArrayEquals(single.getManagedIncidentsAsArrayByCategory(Category.HARDWARE),
+				manager.getManagedIncidentsAsArrayByCategory(Category.HARDWARE));
+		assertArrayEquals(single.getManagedIncidentsAsArrayByOwner("tgpucket"),
+				manager.getManagedIncidentsAsArrayByOwner("tgpucket"));
+		assertArrayEquals(single.getStateCounts(), manager.getStateCounts());
+		assertEquals(2, manager.getCounts().getCategoryCount(Category.HARDWARE));
+		IncidentQuery query = IncidentQuery.priority(Priority.MEDIUM);
+		assertArrayEquals(single.getManagedIncidentsAsArray(query), manager.getManagedIncidentsAsArray(query));
+
+		assertEquals(7, manager.addManagedIncidentToList("caller", Category.DATABASE, Priority.LOW, "Slow", "Note"));
+		assertEquals(counter, ManagedIncident.getCounter());
+		assertEquals(7, single.addManagedIncidentToList("caller", Category.DATABASE, Priority.LOW, "Slow", "Note"));
+		assertEquals(8, manager.addManagedIncidentToList("caller", Category.NETWORK, Priority.LOW, "Down", "Note"));
+		assertEquals("Down", manager.getManagedIncidentById(8).getName());
+		assertNull(manager.getManagedIncidentById(9));
+
+		try {
+			manager.saveManagedIncidentsToFile(WRITING_FILE);
+			ShardedIncidentManager copy = new ShardedIncidentManager();
+			copy.loadManagedIncidentsFromFile(WRITING_FILE);
+			assertArrayEquals(manager.getManagedIncidentsAsArray(), copy.getManagedIncidentsAsArray());
+		} finally {
+			assertTrue(new File(WRITING_FILE).delete());
+		}
+
+		manager.deleteManagedIncidentById(8);
+		assertNull(manager.getManagedIncidentById(8));
+		assertEquals(7, manager.getManagedIncidentsAsArray().length);
+	}
+
+	/**
+	 * Test for loading a file into the shards either completely or not at all.
+	 *
+	 * @throws IOException if a test file cannot be written
+	 */
+	@Test
+	public void testLoadAllOrNothing() throws IOException {
+		ShardedIncidentManager manager = new ShardedIncidentManager();
+		manager.loadManagedIncidentsFromFile(READING_FILE);
+		String[][] loaded = manager.getManagedIncidentsAsArray();
+
+		try {
+			manager.loadManagedIncidentsFromFile(READING_FILE);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertArrayEquals(loaded, manager.getManagedIncidentsAsArray());
+		}
+
+		try {
+			writeIncidents(incident(10, "Network", "New"), incident(11, "Software", "Newish"));
+			try {
+				manager.loadManagedIncidentsFromFile(WRITING_FILE);
+				fail();
+			} catch (IllegalArgumentException e) {
+				assertNull(manager.getManagedIncidentById(10));
+				assertArrayEquals(loaded, manager.getManagedIncidentsAsArray());
+			}
+
+			writeIncidents(incident(10, "Network", "New"), incident(10, "Inquiry", "New"));
+			try {
+				manager.loadManagedIncidentsFromFile(WRITING_FILE);
+				fail();
+			} catch (IllegalArgumentException e) {
+				assertArrayEquals(loaded, manager.getManagedIncidentsAsArray());
+			}
+
+			writeIncidents(incident(10, "Network", "New"), incident(11, "Software", "New"));
+			manager.loadManagedIncidentsFromFile(WRITING_FILE);
+			assertEquals(loaded.length + 2, manager.getManagedIncidentsAsArray().length);
+			assertEquals("Network", manager.getManagedIncidentById(10).getCategoryString());
+			assertEquals("Software", manager.getManagedIncidentById(11).getCategoryString());
+			assertEquals(12, manager.addManagedIncidentToList("caller", Category.DATABASE, Priority.LOW, "Slow", "Note"));
+		} finally {
+			assertTrue(new File(WRITING_FILE).delete());
+		}
+	}
+
+	/**
+	 * Writes an incident file holding the given incidents to WRITING_FILE.
+	 * @param incidents XML of the incidents
+	 * @throws IOException if the file cannot be written
+	 */
+	private static void writeIncidents(String... incidents) throws IOException {
+		StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n<Incidents>\n");
+		for (int i = 0; i < incidents.length; i++) {
+			xml.append(incidents[i]);
+		}
+		xml.append("</Incidents>\n");
+		Files.write(new File(WRITING_FILE).toPath(), xml.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Builds the XML of an incident with no codes.
+	 * @param id id of the incident
+	 * @param category category name of the incident
+	 * @param state state name of the incident
+	 * @return the XML of the incident
+	 */
+	private static String incident(int id, String category, String state) {
+		return "<Incident><id>" + id + "</id><caller>caller</caller><category>" + category
+				+ "</category><state>" + state + "</state><priority>Low</priority><name>Incident " + id
+				+ "</name><work_notes><note>Note</note></work_notes></Incident>\n";
+	}
+
+	/**
+	 * Test for executing commands on incidents in one or more shards.
+	 */
+	@Test
+	public void testExecuteCommand() {
+		ShardedIncidentManager manager = new ShardedIncidentManager();
+		manager.loadManagedIncidentsFromFile(READING_FILE);
+		Command cancel = new Command(CommandValue.CANCEL, null, null, null, CancellationCode.DUPLICATE, "Duplicate");
+
+		try {
+			manager.executeCommand(new int[] { 1, 2, 5 }, cancel);
+			fail();
+		} catch (UnsupportedOperationException e) {
+			assertEquals(ManagedIncident.NEW_NAME, manager.getManagedIncidentById(1).getState().getStateName());
+			assertEquals(ManagedIncident.IN_PROGRESS_NAME, manager.getManagedIncidentById(2).getState().getStateName());
+		}
+		try {
+			manager.executeCommand(new int[] { 1, 99 }, cancel);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals(ManagedIncident.NEW_NAME, manager.getManagedIncidentById(1).getState().getStateName());
+		}
+
+		assertEquals(3, manager.executeCommand(new int[] { 1, 2, 3 }, cancel));
+		assertEquals(4, manager.getStateCounts()[ManagedIncident.CANCELED_INDEX]);
+		assertEquals(UpdateResult.INVALID_TRANSITION, manager.tryExecuteCommand(1, cancel));
+		assertEquals(UpdateResult.NO_SUCH_INCIDENT, manager.tryExecuteCommand(99, cancel));
+		assertEquals(UpdateResult.APPLIED, manager.tryExecuteCommand(4, cancel));
+		manager.executeCommand(5, new Command(CommandValue.REOPEN, null, null, null, null, "Reopen"));
+		assertEquals(ManagedIncident.IN_PROGRESS_NAME, manager.getManagedIncidentById(5).getState().getStateName());
+	}
+
+	/**
+	 * Test for adding incidents and executing commands from several threads at once.
+	 *
+	 * @throws Exception if a thread fails
+	 */
+	@Test
+	public void testConcurrentShards() throws Exception {
+		final ShardedIncidentManager manager = new ShardedIncidentManager();
+		manager.startEventLogs(50);
+		final ConcurrentHashMap<Integer, Boolean> ids = new ConcurrentHashMap<Integer, Boolean>();
+		ExecutorService pool = Executors.newFixedThreadPool(Category.values().length);
+		try {
+			List<Future<?>> futures = new ArrayList<Future<?>>();
+			for (final Category category : Category.values()) {
+				futures.add(pool.submit(() -> {
+					for (int i = 0; i < 200; i++) {
+						int id = manager.addManagedIncidentToList("caller", category, Priority.HIGH, "Incident", "Note");
+						ids.put(id, Boolean.TRUE);
+						manager.executeCommand(id, new Command(CommandValue.INVESTIGATE, "owner", null, null, null, "Mine"));
+						manager.getManagedIncidentsAsArrayByOwner("owner");
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			pool.shutdown();
+		}
+
+		int total = 200 * Category.values().length;
+		assertEquals(total, ids.size());
+		assertEquals(total, manager.getManagedIncidentsAsArray().length);
+		assertEquals(total, manager.getStateCounts()[ManagedIncident.IN_PROGRESS_INDEX]);
+		assertNotNull(manager.getEventLog(Category.NETWORK));
+		assertEquals(401, manager.getEventLog(Category.NETWORK).getEventCount());
+	}
+}
@@ -0,0 +1,131 @@
+package edu.ncsu.csc216.incident_management.model.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.List;
+import java.util.Scanner;
+
+import org.junit.After;
+import org.junit.Test;
+
+import edu.ncsu.csc216.incident_management.model.command.Command;
+import edu.ncsu.csc216.incident_management.model.command.Command.CommandValue;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Category;
+import edu.ncsu.csc216.incident_management.model.manager.IncidentManager;
+import edu.ncsu.csc216.incident_management.model.metrics.IncidentEvent.EventType;
+
+/**
+ * This class tests the IncidentEventRecorder class
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class IncidentEventRecorderTest {
+
+	/** File containing incidents for testing */
+	private static final String READING_FILE = "test-files/exp_incident_all.xml";
+
+	/** File the events are dumped to */
+	private static final String DUMP_FILE = "test-files/dumped_events.txt";
+
+	/**
+	 * Stops the recorder and removes the dump file after each test.
+	 */
+	@After
+	public void tearDown() {
+		IncidentEventRecorder recorder = IncidentEventRecorder.getInstance();
+		recorder.stop();
+		for (EventType type : EventType.values()) {
+			recorder.setEnabled(type, true);
+		}
+		new File(DUMP_FILE).delete();
+	}
+
+	/**
+	 * Test for the events recorded by IncidentManager, ManagedIncidentList, and ManagedIncident.
+	 */
+	@Test
+	public void testRecord() {
+		IncidentEventRecorder recorder = IncidentEventRecorder.getInstance();
+		IncidentManager manager = IncidentManager.getInstance();
+		manager.createNewManagedIncidentList();
+		assertFalse(recorder.isRecording());
+		assertEquals(IncidentEventRecorder.NOT_RECORDED, recorder.begin(EventType.LOAD));
+
+		recorder.start(100);
+		recorder.setEnabled(EventType.LOOKUP, false);
+		assertTrue(recorder.isRecording());
+		assertFalse(recorder.isEnabled(EventType.LOOKUP));
+		manager.loadManagedIncidentsFromFile(READING_FILE);
+		manager.getManagedIncidentById(1);
+		manager.executeCommand(1, new Command(CommandValue.INVESTIGATE, "owner", null, null, null, "Mine"));
+		manager.getManagedIncidentsAsArrayByCategory(Category.HARDWARE);
+		recorder.stop();
+		manager.getManagedIncidentsAsArrayByCategory(Category.HARDWARE);
+
+		List<IncidentEvent> events = recorder.getEvents();
+		assertEquals(3, events.size());
+		assertEquals(EventType.LOAD, events.get(0).getType());
+		assertEquals(6, events.get(0).getIncidentCount());
+		assertEquals(READING_FILE, events.get(0).getDetail());
+		assertTrue(events.get(0).getDurationNanos() > 0);
+		assertEquals(Thread.currentThread().getName(), events.get(0).getThreadName());
+		assertEquals(EventType.TRANSITION, events.get(1).getType());
+		assertEquals("INVESTIGATE", events.get(1).getDetail());
+		assertEquals(EventType.FILTER, events.get(2).getType());
+		assertEquals(2, events.get(2).getIncidentCount());
+		assertEquals("HARDWARE", events.get(2).getDetail());
+	}
+
+	/**
+	 * Test for the ring buffer keeping only the newest events, and for dumping them.
+	 */
+	@Test
+	public void testRingBufferAndDump() {
+		IncidentEventRecorder recorder = IncidentEventRecorder.getInstance();
+		try {
+			recorder.start(0);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertFalse(recorder.isRecording());
+		}
+
+		recorder.start(4);
+		for (int i = 0; i < 10; i++) {
+			recorder.commit(EventType.LOOKUP, recorder.begin(EventType.LOOKUP), i, null);
+		}
+		List<IncidentEvent> events = recorder.getEvents();
+		assertEquals(4, events.size());
+		assertEquals(6, events.get(0).getIncidentCount());
+		assertEquals(9, events.get(3).getIncidentCount());
+
+		recorder.dump(DUMP_FILE);
+		int lines = 0;
+		try {
+			Scanner in = new Scanner(new File(DUMP_FILE));
+			while (in.hasNextLine()) {
+				String line = in.nextLine();
+				if (lines > 0) {
+					assertTrue(line.contains("LOOKUP"));
+				}
+				lines++;
+			}
+			in.close();
+		} catch (FileNotFoundException e) {
+			fail();
+		}
+		assertEquals(5, lines);
+
+		try {
+			recorder.dump("test-files/no_such_directory/events.txt");
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals(4, recorder.getEvents().size());
+		}
+	}
+}
@@ -0,0 +1,107 @@
+package edu.ncsu.csc216.incident_management.model.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import org.junit.Test;
+
+import edu.ncsu.csc216.incident_management.model.command.Command;
+import edu.ncsu.csc216.incident_management.model.command.Command.CommandValue;
+import edu.ncsu.csc216.incident_management.model.manager.IncidentManager;
+
+/**
+ * This class tests the IncidentManagerMetrics class
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class IncidentManagerMetricsTest {
+
+	/** File containing incidents for testing */
+	private static final String READING_FILE = "test-files/exp_incident_all.xml";
+
+	/**
+	 * Test for the metrics recorded by IncidentManager.
+	 */
+	@Test
+	public void testIncidentManagerMetrics() {
+		IncidentManager manager = IncidentManager.getInstance();
+		IncidentManagerMetrics metrics = manager.getMetrics();
+		manager.createNewManagedIncidentList();
+		metrics.reset();
+
+		manager.loadManagedIncidentsFromFile(READING_FILE);
+		assertEquals(1, metrics.getLoadLatency().getCount());
+		assertTrue(metrics.getBytesLoaded() > 0);
+
+		manager.executeCommand(1, new Command(CommandValue.INVESTIGATE, "owner", null, null, null, "Mine"));
+		try {
+			manager.executeCommand(5, new Command(CommandValue.INVESTIGATE, "owner", null, null, null, "Mine"));
+			fail();
+		} catch (UnsupportedOperationException e) {
+			assertEquals(1, metrics.getRejectedTransitions());
+		}
+		try {
+			manager.executeCommand(100, new Command(CommandValue.INVESTIGATE, "owner", null, null, null, "Mine"));
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals(1, metrics.getTransitionCount(CommandValue.INVESTIGATE));
+		}
+		manager.tryExecuteCommand(100, new Command(CommandValue.INVESTIGATE, "owner", null, null, null, "Mine"));
+		assertEquals(1, metrics.getTransitionCount(CommandValue.INVESTIGATE));
+		assertEquals(Long.valueOf(1), metrics.getTransitionCounts().get("INVESTIGATE"));
+		assertEquals(Long.valueOf(0), metrics.getTransitionCounts().get("RESOLVE"));
+		assertEquals(2, metrics.getRejectedTransitions());
+		assertEquals(3, metrics.getExecuteCommandLatency().getCount());
+
+		manager.getManagedIncidentsAsArray();
+		manager.getManagedIncidentsAsArraySortedById();
+		assertEquals(2, metrics.getProjectionLatency().getCount());
+		assertTrue(metrics.getProjectionLatency().getMaxNanos() >= metrics.getProjectionLatency().getP50Nanos());
+
+		metrics.reset();
+		assertEquals(0, metrics.getRejectedTransitions());
+		assertEquals(0, metrics.getLoadLatency().getCount());
+		assertEquals(0, metrics.getTransitionCount(CommandValue.INVESTIGATE));
+	}
+
+	/**
+	 * Test for reading the metrics through the platform MBean server.
+	 */
+	@Test
+	public void testRegister() {
+		IncidentManagerMetrics metrics = new IncidentManagerMetrics();
+		assertTrue(metrics.register("IncidentManagerMetricsTest"));
+		ObjectName name = metrics.getObjectName();
+		assertNotNull(name);
+		assertTrue(metrics.register("IncidentManagerMetricsTest"));
+
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		assertTrue(server.isRegistered(name));
+		metrics.recordTransition(CommandValue.HOLD, System.nanoTime());
+		metrics.recordSave(System.nanoTime(), 42);
+		try {
+			assertEquals(Long.valueOf(42), server.getAttribute(name, "BytesSaved"));
+			CompositeData latency = (CompositeData) server.getAttribute(name, "ExecuteCommandLatency");
+			assertEquals(Long.valueOf(1), latency.get("count"));
+		} catch (JMException e) {
+			fail();
+		}
+
+		IncidentManagerMetrics duplicate = new IncidentManagerMetrics();
+		assertTrue(!duplicate.register("IncidentManagerMetricsTest"));
+
+		metrics.unregister();
+		assertTrue(!server.isRegistered(name));
+		assertEquals(null, metrics.getObjectName());
+	}
+}
@@ -0,0 +1,72 @@
+package edu.ncsu.csc216.incident_management.model.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+/**
+ * This class tests the LatencyHistogram class
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class LatencyHistogramTest {
+
+	/**
+	 * Test for the bucket boundaries of the histogram.
+	 */
+	@Test
+	public void testBuckets() {
+		for (long value = 0; value < 100000; value += 7) {
+			int bucket = LatencyHistogram.bucketOf(value);
+			assertTrue(LatencyHistogram.lowestValue(bucket) <= value);
+			assertTrue(LatencyHistogram.lowestValue(bucket + 1) > value);
+		}
+		assertEquals(31, LatencyHistogram.bucketOf(31));
+		assertEquals(32, LatencyHistogram.bucketOf(32));
+		assertEquals(32, LatencyHistogram.bucketOf(33));
+		assertEquals(33, LatencyHistogram.bucketOf(34));
+		int last = LatencyHistogram.bucketOf(Long.MAX_VALUE);
+		assertTrue(LatencyHistogram.lowestValue(last) <= Long.MAX_VALUE);
+	}
+
+	/**
+	 * Test for the count, mean, maximum, and percentiles of recorded latencies.
+	 */
+	@Test
+	public void testRecord() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getMean());
+		assertEquals(0, histogram.getPercentile(0.99));
+
+		for (int i = 1; i <= 1000; i++) {
+			histogram.record(i * 1000L);
+		}
+		histogram.record(-5);
+		assertEquals(1001, histogram.getCount());
+		assertEquals(1000000, histogram.getMax());
+		assertEquals(500500000 / 1001, histogram.getMean());
+
+		long median = histogram.getPercentile(0.5);
+		assertTrue(Math.abs(median - 500000) < 500000 / 16);
+		long p99 = histogram.getPercentile(0.99);
+		assertTrue(Math.abs(p99 - 990000) < 990000 / 16);
+		assertEquals(1000000, histogram.getPercentile(1));
+		assertEquals(0, histogram.getPercentile(0));
+
+		try {
+			histogram.getPercentile(1.5);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals(1001, histogram.getCount());
+		}
+
+		histogram.reset();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getMax());
+		assertEquals(0, histogram.getPercentile(0.5));
+	}
+}
@@ -0,0 +1,240 @@
+package edu.ncsu.csc216.incident_management.view.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Category;
+import edu.ncsu.csc216.incident_management.model.incident.ManagedIncident.Priority;
+import edu.ncsu.csc216.incident_management.model.manager.IncidentManager;
+
+/**
+ * This class tests the IncidentHttpServer class
+ *
+ * @author Bilal Mohamad
+ * @author Keaton Thurston
+ */
+public class IncidentHttpServerTest {
+
+	/** File containing incidents for testing */
+	private static final String READING_FILE = "test-files/exp_incident_all.xml";
+
+	/** Server under test */
+	private IncidentHttpServer server;
+
+	/**
+	 * Loads the test incidents and starts a server on a free port.
+	 */
+	@Before
+	public void setUp() {
+		IncidentManager manager = IncidentManager.getInstance();
+		manager.createNewManagedIncidentList();
+		manager.loadManagedIncidentsFromFile(READING_FILE);
+		server = new IncidentHttpServer(manager, 0);
+		server.start();
+	}
+
+	/**
+	 * Stops the server.
+	 */
+	@After
+	public void tearDown() {
+		server.stop(0);
+	}
+
+	/**
+	 * Test for listing and filtering incidents.
+	 *
+	 * @throws IOException if the server cannot be reached
+	 */
+	@Test
+	public void testListIncidents() throws IOException {
+		Response all = request("GET", "/incidents", null);
+		assertEquals(200, all.status);
+		assertTrue(all.body.startsWith("[{\"id\":1,\"category\":\"Software\",\"state\":\"New\",\"priority\":\"Urgent\""));
+		assertEquals(6, count(all.body, "\"id\""));
+
+		Response hardware = request("GET", "/incidents?category=HARDWARE", null);
+		assertEquals(2, count(hardware.body, "\"id\""));
+		assertTrue(hardware.body.contains("\"id\":2"));
+
+		Response state = request("GET", "/incidents?state=On+Hold", null);
+		assertEquals(1, count(state.body, "\"id\""));
+
+		Response page = request("GET", "/incidents?afterId=2&limit=2", null);
+		assertTrue(page.body.startsWith("[{\"id\":3,"));
+		assertEquals(2, count(page.body, "\"id\""));
+
+		assertEquals(400, request("GET", "/incidents?category=PRINTER", null).status);
+		assertEquals(400, request("GET", "/incidents?limit=ten", null).status);
+		assertEquals(400, request("GET", "/incidents?limit=-1", null).status);
+		assertEquals(400, request("GET", "/incidents?search=Jenkins&category=HARDWARE", null).status);
+		assertEquals(400, request("GET", "/incidents?search=Jenkins&limit=1", null).status);
+		assertEquals(2, count(request("GET", "/incidents?search=Jenkins+VM", null).body, "\"id\""));
+		assertEquals(6, count(request("GET", "/incidents/", null).body, "\"id\""));
+		assertEquals(404, request("GET", "/incidentsX", null).status);
+		assertEquals(404, request("GET", "/incidents/1/notes", null).status);
+		assertEquals(404, request("GET", "/incidents/1/commands/2", null).status);
+		assertEquals(404, request("POST", "/commandsX", "ids=1&command=CONFIRM&note=Done").status);
+	}
+
+	/**
+	 * Test for listing more incidents than are read from the manager at a time.
+	 *
+	 * @throws IOException if the server cannot be reached
+	 */
+	@Test
+	public void testListManyIncidents() throws IOException {
+		IncidentManager manager = IncidentManager.getInstance();
+		for (int i = 0; i < 600; i++) {
+			manager.addManagedIncidentToList("caller" + i, Category.NETWORK, Priority.LOW, "Incident " + i, "Note");
+		}
+
+		Response all = request("GET", "/incidents", null);
+		assertEquals(200, all.status);
+		assertEquals(606, count(all.body, "\"id\""));
+		assertTrue(all.body.endsWith("{\"id\":606,\"category\":\"Network\",\"state\":\"New\",\"priority\":\"Low\",\"name\":\"Incident 599\"}]"));
+		assertTrue(all.body.contains("\"name\":\"Incident 249\"},{\"id\":257,"));
+
+		Response network = request("GET", "/incidents?category=NETWORK&afterId=300&limit=500", null);
+		assertTrue(network.body.startsWith("[{\"id\":301,"));
+		assertEquals(306, count(network.body, "\"id\""));
+	}
+
+	/**
+	 * Test for getting, creating, and updating incidents.
+	 *
+	 * @throws IOException if the server cannot be reached
+	 */
+	@Test
+	public void testIncidentLifecycle() throws IOException {
+		Response missing = request("GET", "/incidents/99", null);
+		assertEquals(404, missing.status);
+		assertTrue(missing.body.contains("error"));
+
+		Response created = request("POST", "/incidents",
+				"caller=sesmith5&category=NETWORK&priority=HIGH&name=Router+%22down%22&note=No+network");
+		assertEquals(201, created.status);
+		assertEquals("{\"id\":7}", created.body);
+		assertEquals(400, request("POST", "/incidents", "caller=sesmith5&category=NETWORK").status);
+
+		Response incident = request("GET", "/incidents/7", null);
+		assertEquals(200, incident.status);
+		assertTrue(incident.body.contains("\"name\":\"Router \\\"down\\\"\""));
+		assertTrue(incident.body.contains("\"owner\":null"));
+		assertTrue(incident.body.contains("\"notes\":[\"No network\"]"));
+
+		Response investigated = request("POST", "/incidents/7/commands", "command=INVESTIGATE&owner=jdoe&note=Mine");
+		assertEquals(200, investigated.status);
+		assertTrue(investigated.body.contains("\"state\":\"In Progress\""));
+		assertTrue(investigated.body.contains("\"owner\":\"jdoe\""));
+
+		assertEquals(409, request("POST", "/incidents/7/commands", "command=CONFIRM&note=Done").status);
+		assertEquals(404, request("POST", "/incidents/99/commands", "command=CONFIRM&note=Done").status);
+		assertEquals(400, request("POST", "/incidents/7/commands", "command=HOLD&note=Wait").status);
+		assertEquals(405, request("GET", "/incidents/7/commands", null).status);
+	}
+
+	/**
+	 * Test for applying a command to several incidents.
+	 *
+	 * @throws IOException if the server cannot be reached
+	 */
+	@Test
+	public void testBulkCommand() throws IOException {
+		assertEquals(409, request("POST", "/commands", "ids=2,3&command=HOLD&onHoldReason=AWAITING_VENDOR&note=Wait").status);
+		assertEquals("In Progress", IncidentManager.getInstance().getManagedIncidentById(2).getState().getStateName());
+
+		Response held = request("POST", "/commands", "ids=2,2&command=HOLD&onHoldReason=AWAITING_VENDOR&note=Wait");
+		assertEquals(200, held.status);
+		assertEquals("{\"updated\":1}", held.body);
+		assertEquals("On Hold", IncidentManager.getInstance().getManagedIncidentById(2).getState().getStateName());
+		assertEquals(400, request("POST", "/commands", "ids=2,99&command=RESOLVE&resolutionCode=WORKAROUND&note=Done").status);
+	}
+
+	/**
+	 * Test for parsing URL encoded parameters.
+	 */
+	@Test
+	public void testParseParameters() {
+		Map<String, String> params = IncidentHttpServer.parseParameters("a=1&b=two+words&c=%26&d");
+		assertEquals("1", params.get("a"));
+		assertEquals("two words", params.get("b"));
+		assertEquals("&", params.get("c"));
+		assertEquals(3, params.size());
+		assertEquals(0, IncidentHttpServer.parseParameters(null).size());
+		assertEquals("\"a\\\"b\\n\"", IncidentHttpServer.quote("a\"b\n"));
+	}
+
+	/**
+	 * Sends a request to the server.
+	 *
+	 * @param method	the HTTP method
+	 * @param path		the path and query string
+	 * @param form		the URL encoded form body, or null
+	 * @return the status and body of the response
+	 * @throws IOException if the server cannot be reached
+	 */
+	private Response request(String method, String path, String form) throws IOException {
+		URL url = new URL("http://localhost:" + server.getPort() + path);
+		HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+		connection.setRequestMethod(method);
+		if (form != null) {
+			connection.setDoOutput(true);
+			connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+			OutputStream out = connection.getOutputStream();
+			out.write(form.getBytes(StandardCharsets.UTF_8));
+			out.close();
+		}
+
+		Response response = new Response();
+		response.status = connection.getResponseCode();
+		InputStream in = response.status < 400 ? connection.getInputStream() : connection.getErrorStream();
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		byte[] buffer = new byte[4096];
+		int n;
+		while ((n = in.read(buffer)) > 0) {
+			body.write(buffer, 0, n);
+		}
+		in.close();
+		response.body = new String(body.toByteArray(), StandardCharsets.UTF_8);
+		return response;
+	}
+
+	/**
+	 * Counts the occurrences of a String in another.
+	 *
+	 * @param text	the text to search
+	 * @param part	the String to count
+	 * @return the number of occurrences
+	 */
+	private static int count(String text, String part) {
+		int count = 0;
+		for (int i = text.indexOf(part); i >= 0; i = text.indexOf(part, i + 1)) {
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * The status and body of a response.
+	 */
+	private static class Response {
+		/** HTTP status */
+		private int status;
+		/** Body of the response */
+		private String body;
+	}
+}